@@ -0,0 +1,135 @@
+package benchmark;
+
+import cache.OffHeapAccountStore;
+import model.Account;
+import model.AccountBookReport;
+import model.Money;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A large account book held two ways: OffHeapAccountStore (32 bytes per account in direct memory)
+ * against the usual HashMap of Account objects. "lookup" reads LOOKUPS balances at random IDs, "report"
+ * totals counts and balances by type over the whole book, "projectInterest" works out one period's
+ * interest for every account. Setup prints what each representation occupies; the heap figure is the
+ * used-heap growth while the map is built, so it is approximate.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx3g", "-XX:MaxDirectMemorySize=1g"})
+@State(Scope.Benchmark)
+public class AccountBookBenchmark {
+    private static final int LOOKUPS = 1024;
+
+    @Param({"2000000"})
+    private int accounts;
+
+    private OffHeapAccountStore store;
+    private Map<Integer, Account> map;
+    private int[] lookupIds;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        LocalDate openDate = LocalDate.of(2024, 1, 15);
+        int openDay = (int) openDate.toEpochDay();
+        store = new OffHeapAccountStore();
+        long heapBefore = usedHeap();
+        map = new HashMap<>();
+        for (int id = 1; id <= accounts; id++) {
+            int type = id % Account.AccountType.values().length;
+            long balance = 100_000L + random.nextInt(100_000_000);
+            int rate = id % 3 == 0 ? 0 : 100 + random.nextInt(600);
+            store.put(id, 1 + id / 4, type, openDay, OffHeapAccountStore.NO_DAY, balance, rate);
+
+            Account account = new Account();
+            account.setId(id);
+            account.setCustomerId(1 + id / 4);
+            account.setAccountType(Account.AccountType.values()[type]);
+            account.setOpenDate(openDate);
+            account.setBalanceMinor(balance);
+            account.setInterestRate(Money.toMajor(rate));
+            map.put(id, account);
+        }
+        long heapBytes = usedHeap() - heapBefore;
+        System.out.printf("%nHashMap<Integer, Account>: ~%d MB on heap (~%d bytes/account); off-heap store: %d MB (%d bytes/account)%n",
+                heapBytes >> 20, heapBytes / accounts, store.getOffHeapBytes() >> 20, store.getOffHeapBytes() / accounts);
+
+        lookupIds = new int[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            lookupIds[i] = 1 + random.nextInt(accounts);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        store.clear();
+        map = null;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public long lookupOffHeap() {
+        long total = 0;
+        for (int id : lookupIds) {
+            total += store.getBalanceMinor(id);
+        }
+        return total;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public long lookupHashMap() {
+        long total = 0;
+        for (int id : lookupIds) {
+            total += map.get(id).getBalanceMinor();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public AccountBookReport reportOffHeap() {
+        return store.report();
+    }
+
+    @Benchmark
+    public long[] reportHashMap() {
+        int types = Account.AccountType.values().length;
+        long[] totals = new long[types * 2];
+        for (Account account : map.values()) {
+            int type = account.getAccountType().ordinal();
+            totals[type]++;
+            totals[types + type] += account.getBalanceMinor();
+        }
+        return totals;
+    }
+
+    @Benchmark
+    public long[] projectInterestOffHeap() {
+        return store.projectInterest();
+    }
+
+    @Benchmark
+    public long projectInterestHashMap() {
+        long total = 0;
+        for (Account account : map.values()) {
+            if (account.getInterestRate() <= 0) continue;
+            long due = Money.applyRate(account.getBalanceMinor(), account.getInterestRate(), 1);
+            if (due > 0) total += due;
+        }
+        return total;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,75 @@
+package benchmark;
+
+import dao.AccountDAO;
+import dao.TransactionDAO;
+import org.openjdk.jmh.annotations.*;
+import service.AccountService;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end deposit and withdraw through AccountService against the embedded database:
+ * pooled connection, balance update, ledger insert and commit, with and without idempotency keys.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AccountServiceBenchmark {
+    private static final int ACCOUNTS = 100;
+
+    private AccountService accountService;
+    private int firstAccountId;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+        long requests;
+        final String thread = Long.toString(Thread.currentThread().getId());
+    }
+
+    @Setup
+    public void setUp() throws SQLException {
+        EmbeddedDatabase.start();
+        int customerId = EmbeddedDatabase.insertCustomer("Account Benchmark");
+        // Large opening balance so withdrawals never run dry during a run
+        firstAccountId = EmbeddedDatabase.insertAccounts(customerId, ACCOUNTS, 100_000_000, 0);
+        accountService = new AccountService(new AccountDAO(), new TransactionDAO());
+    }
+
+    @TearDown
+    public void tearDown() {
+        EmbeddedDatabase.stop();
+    }
+
+    @Benchmark
+    public boolean deposit(Cursor cursor) {
+        return accountService.deposit(nextAccount(cursor), 10.0);
+    }
+
+    @Benchmark
+    public boolean withdraw(Cursor cursor) {
+        return accountService.withdraw(nextAccount(cursor), 10.0);
+    }
+
+    // Every call carries a new idempotency key: the cost of claiming and recording the key
+    @Benchmark
+    public boolean depositIdempotent(Cursor cursor) {
+        return accountService.deposit(nextAccount(cursor), 10.0, "Benchmark deposit", cursor.thread + "-" + cursor.requests++);
+    }
+
+    // A retry of an already posted request, answered from the recent-keys cache
+    @Benchmark
+    public boolean depositReplay() {
+        return accountService.deposit(firstAccountId, 10.0, "Benchmark deposit", "replayed-request");
+    }
+
+    // Spread operations over several rows so threads do not all queue on one row lock
+    private int nextAccount(Cursor cursor) {
+        cursor.next = (cursor.next + 1) % ACCOUNTS;
+        return firstAccountId + cursor.next;
+    }
+}
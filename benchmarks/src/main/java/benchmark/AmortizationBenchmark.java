@@ -0,0 +1,139 @@
+package benchmark;
+
+import dao.LoanDAO;
+import dao.LoanScheduleDAO;
+import model.Loan;
+import model.LoanTerms;
+import org.openjdk.jmh.annotations.*;
+import service.AmortizationEngine;
+import service.LoanScheduleJob;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Amortization schedules for a whole loan book held in memory: EMIs one Loan object at a time with
+ * Loan.calculateMonthlyEMI against AmortizationEngine.emis over a LoanTerms batch, and full schedules
+ * per loan (AmortizationEngine.schedule, new arrays every loan) against the bulk generator reusing one
+ * set of scratch arrays per chunk. The book is split into chunks scheduled in parallel; the sink only
+ * folds the rows into a checksum, so this measures generation alone. Persist runs LoanScheduleJob
+ * against the embedded database for a smaller book.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class AmortizationBenchmark {
+
+    @Param({"1000000"})
+    private int loans;
+
+    @Param({"240"})
+    private int tenureMonths;
+
+    private static final int CHUNK = 4096;
+
+    private LoanTerms terms;
+    private Loan[] loanObjects;
+    private long[] emis;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        long openDay = LocalDate.of(2024, 1, 15).toEpochDay();
+        terms = new LoanTerms(loans);
+        loanObjects = new Loan[loans];
+        for (int i = 0; i < loans; i++) {
+            long principal = 10_000_000L + random.nextInt(490_000_000);
+            double rate = 6 + random.nextInt(800) / 100.0;
+            terms.add(i + 1, principal, Math.round(rate * 100), tenureMonths, openDay);
+
+            Loan loan = new Loan();
+            loan.setId(i + 1);
+            loan.setAmountSanctionedMinor(principal);
+            loan.setBalanceMinor(principal);
+            loan.setInterestRate(rate);
+            loan.setTenureMonths(tenureMonths);
+            loan.setOpenDate(LocalDate.ofEpochDay(openDay));
+            loanObjects[i] = loan;
+        }
+        emis = new long[loans];
+    }
+
+    @Benchmark
+    public double emisPerLoanObject() {
+        double total = 0;
+        for (Loan loan : loanObjects) {
+            total += loan.calculateMonthlyEMI(loan.getTenureMonths());
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long emisBulk() {
+        AmortizationEngine.emis(terms, emis);
+        return emis[loans - 1];
+    }
+
+    @Benchmark
+    public long schedulesPerLoanObject() {
+        return IntStream.range(0, loans).parallel()
+                .mapToLong(i -> AmortizationEngine.schedule(loanObjects[i]).getTotalInterestMinor())
+                .sum();
+    }
+
+    @Benchmark
+    public long schedulesBulk() {
+        int chunks = (loans + CHUNK - 1) / CHUNK;
+        return IntStream.range(0, chunks).parallel().mapToLong(c -> {
+            AmortizationEngine engine = new AmortizationEngine();
+            long[] checksum = new long[1];
+            try {
+                engine.generate(terms, c * CHUNK, Math.min(loans, (c + 1) * CHUNK),
+                        (loanId, openDay, n, principal, interest, balance) -> {
+                            for (int i = 0; i < n; i++) checksum[0] += interest[i] ^ balance[i];
+                        });
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+            return checksum[0];
+        }).sum();
+    }
+
+    /**
+     * A smaller book in the embedded database: LoanScheduleJob deletes and rewrites every schedule.
+     */
+    @State(Scope.Benchmark)
+    public static class Persisted {
+        @Param({"1000"})
+        private int persistedLoans;
+
+        private LoanScheduleJob job;
+
+        @Setup
+        public void setUp() throws SQLException {
+            EmbeddedDatabase.start();
+            int customerId = EmbeddedDatabase.insertCustomer("Amortization Benchmark");
+            for (int i = 0; i < persistedLoans; i++) {
+                EmbeddedDatabase.insertLoan(customerId, 500_000 + i, 8.5);
+            }
+            EmbeddedDatabase.execute("UPDATE loans SET tenure_months = 240");
+            job = new LoanScheduleJob(new LoanDAO(), new LoanScheduleDAO());
+        }
+
+        @TearDown
+        public void tearDown() {
+            EmbeddedDatabase.stop();
+        }
+    }
+
+    @Benchmark
+    public long persistSchedules(Persisted db) throws SQLException {
+        return db.job.run().getInstallments();
+    }
+}
@@ -0,0 +1,124 @@
+package benchmark;
+
+import db.DBConnection;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.sql.Date;
+import java.sql.Timestamp;
+
+/**
+ * In-memory H2 database (MySQL mode) with the application schema. Points DBConnection at it through
+ * the bank.db.* system properties, so it must be started before the first DAO call in the JVM.
+ * H2's reuse of results for repeated identical queries is switched off, as MySQL has no such cache.
+ */
+public final class EmbeddedDatabase {
+    private static boolean started;
+
+    private EmbeddedDatabase() {
+    }
+
+    public static synchronized void start() throws SQLException {
+        if (started) return;
+        System.setProperty("bank.db.url", "jdbc:h2:mem:bank;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;OPTIMIZE_REUSE_RESULTS=FALSE");
+        System.setProperty("bank.db.user", "sa");
+        System.setProperty("bank.db.password", "");
+        System.setProperty("bank.db.driver", "org.h2.Driver");
+
+        try (Connection conn = DBConnection.getConnection();
+             Statement stmt = conn.createStatement()) {
+            for (String ddl : readSchema().split(";")) {
+                if (!ddl.isBlank()) stmt.execute(ddl);
+            }
+        }
+        started = true;
+    }
+
+    public static void stop() {
+        DBConnection.shutdown();
+    }
+
+    /** @return id of the new customer */
+    public static int insertCustomer(String name) throws SQLException {
+        String sql = "INSERT INTO customers (full_name, address, contact_no, email, pan_number, created_at) VALUES (?, ?, ?, ?, ?, ?)";
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            stmt.setString(1, name);
+            stmt.setString(2, "1 Benchmark Street");
+            stmt.setString(3, "9999999999");
+            stmt.setString(4, "bench@example.com");
+            stmt.setString(5, "ABCDE1234F");
+            stmt.setTimestamp(6, Timestamp.valueOf(LocalDateTime.now()));
+            stmt.executeUpdate();
+            return generatedId(stmt);
+        }
+    }
+
+    /** Inserts {@code count} SAVINGS accounts for the customer; returns the first new id. */
+    public static int insertAccounts(int customerId, int count, double balance, double interestRate) throws SQLException {
+        String sql = "INSERT INTO accounts (customer_id, account_type, open_date, balance, interest_rate) VALUES (?, 'SAVINGS', ?, ?, ?)";
+        int firstId = 0;
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < count; i++) {
+                stmt.setInt(1, customerId);
+                stmt.setDate(2, Date.valueOf(LocalDate.now()));
+                stmt.setDouble(3, balance);
+                stmt.setDouble(4, interestRate);
+                stmt.executeUpdate();
+                int id = generatedId(stmt);
+                if (firstId == 0) firstId = id;
+            }
+        }
+        return firstId;
+    }
+
+    /** @return id of the new loan */
+    public static int insertLoan(int customerId, double amount, double interestRate) throws SQLException {
+        String sql = "INSERT INTO loans (customer_id, loan_type, amount_sanctioned, balance, interest_rate, open_date) VALUES (?, 'HOME_LOAN', ?, ?, ?, ?)";
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            stmt.setInt(1, customerId);
+            stmt.setDouble(2, amount);
+            stmt.setDouble(3, amount);
+            stmt.setDouble(4, interestRate);
+            stmt.setDate(5, Date.valueOf(LocalDate.now()));
+            stmt.executeUpdate();
+            return generatedId(stmt);
+        }
+    }
+
+    public static void execute(String sql) throws SQLException {
+        try (Connection conn = DBConnection.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+
+    private static int generatedId(Statement stmt) throws SQLException {
+        try (var rs = stmt.getGeneratedKeys()) {
+            if (rs.next()) return rs.getInt(1);
+        }
+        throw new SQLException("No generated key returned.");
+    }
+
+    private static String readSchema() {
+        try (InputStream in = EmbeddedDatabase.class.getResourceAsStream("/schema.sql")) {
+            if (in == null) throw new IllegalStateException("schema.sql not found on the classpath");
+            StringBuilder sql = new StringBuilder();
+            for (String line : new String(in.readAllBytes(), StandardCharsets.UTF_8).split("\n")) {
+                if (!line.trim().startsWith("--")) sql.append(line).append('\n');
+            }
+            return sql.toString();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read schema.sql", e);
+        }
+    }
+}
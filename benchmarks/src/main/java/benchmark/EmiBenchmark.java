@@ -0,0 +1,36 @@
+package benchmark;
+
+import model.Loan;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pure CPU cost of Loan.calculateMonthlyEMI across typical tenures.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class EmiBenchmark {
+
+    @Param({"12", "60", "240"})
+    private int tenureMonths;
+
+    private Loan loan;
+
+    @Setup
+    public void setUp() {
+        loan = new Loan();
+        loan.setAmountSanctioned(2_500_000);
+        loan.setBalance(2_500_000);
+        loan.setInterestRate(8.5);
+    }
+
+    @Benchmark
+    public double calculateMonthlyEMI() {
+        return loan.calculateMonthlyEMI(tenureMonths);
+    }
+}
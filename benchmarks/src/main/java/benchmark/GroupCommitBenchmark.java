@@ -0,0 +1,75 @@
+package benchmark;
+
+import dao.AccountDAO;
+import dao.TransactionDAO;
+import org.openjdk.jmh.annotations.*;
+import service.AccountService;
+import service.PostingJournal;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Deposits from many concurrent tellers, each posting committed on its own against the same postings
+ * group-committed by PostingJournal. Every teller works its own set of accounts, so the difference is
+ * the commits, not lock contention. The embedded database commits in memory, so this measures the
+ * overhead of handing postings to the single writer. The gain comes against a database that flushes its
+ * log on every commit (MySQL with innodb_flush_log_at_trx_commit=1): run test.AccountStressTest there
+ * with and without -Dbank.posting.groupCommit=true.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(32)
+@State(Scope.Benchmark)
+public class GroupCommitBenchmark {
+    private static final int ACCOUNTS_PER_TELLER = 8;
+    private static final int MAX_TELLERS = 256;
+
+    @Param({"false", "true"})
+    private boolean groupCommit;
+
+    private AccountService accountService;
+    private PostingJournal journal;
+    private int firstAccountId;
+    private final AtomicInteger tellers = new AtomicInteger();
+
+    @State(Scope.Thread)
+    public static class Teller {
+        int base = -1;
+        int next;
+    }
+
+    @Setup
+    public void setUp() throws SQLException {
+        EmbeddedDatabase.start();
+        int customerId = EmbeddedDatabase.insertCustomer("Group Commit Benchmark");
+        firstAccountId = EmbeddedDatabase.insertAccounts(customerId, ACCOUNTS_PER_TELLER * MAX_TELLERS, 1_000, 0);
+        accountService = new AccountService(new AccountDAO(), new TransactionDAO());
+        if (groupCommit) {
+            journal = new PostingJournal();
+            accountService.setPostingJournal(journal);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (journal != null) {
+            System.out.printf("%nAverage batch: %.1f postings%n", journal.getAverageBatchSize());
+            journal.close();
+        }
+        EmbeddedDatabase.stop();
+    }
+
+    @Benchmark
+    public boolean deposit(Teller teller) {
+        if (teller.base < 0) {
+            teller.base = firstAccountId + (tellers.getAndIncrement() % MAX_TELLERS) * ACCOUNTS_PER_TELLER;
+        }
+        teller.next = (teller.next + 1) % ACCOUNTS_PER_TELLER;
+        return accountService.deposit(teller.base + teller.next, 10.0);
+    }
+}
@@ -0,0 +1,45 @@
+package benchmark;
+
+import dao.AccountDAO;
+import dao.TransactionDAO;
+import org.openjdk.jmh.annotations.*;
+import service.AccountService;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One full AccountService.applyInterestToAll run over a fixed set of accounts.
+ * The rate is the smallest the schema stores (0.01%) so balances stay in range however many runs JMH makes.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InterestBenchmark {
+
+    @Param({"1000"})
+    private int accounts;
+
+    private AccountService accountService;
+
+    @Setup
+    public void setUp() throws SQLException {
+        EmbeddedDatabase.start();
+        int customerId = EmbeddedDatabase.insertCustomer("Interest Benchmark");
+        EmbeddedDatabase.insertAccounts(customerId, accounts, 10_000, 0.01);
+        accountService = new AccountService(new AccountDAO(), new TransactionDAO());
+    }
+
+    @TearDown
+    public void tearDown() {
+        EmbeddedDatabase.stop();
+    }
+
+    @Benchmark
+    public int applyInterestToAll() {
+        return accountService.applyInterestToAll();
+    }
+}
@@ -0,0 +1,93 @@
+package benchmark;
+
+import journal.JournalReader;
+import journal.JournalRecord;
+import journal.MutationJournal;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * The mutation journal on local disk. "replay" reads a 4M-record journal (256 MB in four segments) from
+ * the start through JournalReader, checking every CRC, as a recovery or a consumer catching up would;
+ * records/sec x 64 bytes is the replay rate (the segments stay in the page cache between iterations).
+ * "append" records one deposit, the cost a posting pays for being journalled.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JournalBenchmark {
+    private static final int RECORDS = 4 << 20;
+
+    private Path replayDirectory;
+    private Path appendDirectory;
+    private MutationJournal appendJournal;
+    private int appended;
+    private long sum;
+
+    private final JournalReader.RecordHandler handler = this::accumulate;
+
+    @Setup
+    public void setUp() throws IOException {
+        replayDirectory = Files.createTempDirectory("journal-bench-replay");
+        try (MutationJournal journal = new MutationJournal(replayDirectory)) {
+            Random random = new Random(42);
+            for (int i = 0; i < RECORDS; i++) {
+                int account = 1 + random.nextInt(1_000_000);
+                long amount = 1 + random.nextInt(10_000);
+                if (i % 3 == 2) journal.transfer(account, 1 + random.nextInt(1_000_000), amount);
+                else journal.deposit(account, amount);
+            }
+        }
+        appendDirectory = Files.createTempDirectory("journal-bench-append");
+        appendJournal = new MutationJournal(appendDirectory);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        appendJournal.close();
+        delete(replayDirectory);
+        delete(appendDirectory);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public long replay() throws IOException, SQLException {
+        sum = 0;
+        try (JournalReader reader = new JournalReader(replayDirectory)) {
+            if (reader.replay(handler) != RECORDS) throw new IllegalStateException("Journal replay stopped early.");
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public void append() throws IOException {
+        appendJournal.deposit(1 + (appended & 0xFFFFF), 100);
+        // Keep the disk use bounded: drop full segments now and then
+        if (++appended % MutationJournal.DEFAULT_SEGMENT_RECORDS == 0) {
+            appendJournal.deleteSegmentsBefore(appendJournal.getNextSequence());
+        }
+    }
+
+    private void accumulate(JournalRecord record) {
+        sum += record.getAmountMinor() + record.getId();
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+}
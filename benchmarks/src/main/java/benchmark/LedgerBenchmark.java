@@ -0,0 +1,110 @@
+package benchmark;
+
+import dao.LedgerDAO;
+import ledger.LedgerEngine;
+import model.LedgerBatch;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Commands through the in-memory ledger: ring, business thread and journal file, with the database
+ * stubbed out (a LedgerDAO that loads a synthetic book and drops the batches), so this is the ceiling
+ * the persister then has to keep up with. "pipelined" issues a window of mixed deposits, withdrawals
+ * and transfers before waiting for the last one; "blocking" waits for each deposit, the cost of a
+ * single teller round trip.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LedgerBenchmark {
+    private static final int WINDOW = 1024;
+    private static final int COMMANDS = 1 << 16;
+
+    @Param({"1000000"})
+    private int accounts;
+
+    private LedgerEngine ledger;
+    private Path journal;
+    private int[] from;
+    private int[] to;
+    private long[] amounts;
+    private byte[] kinds;
+    private int next;
+
+    @Setup
+    public void setUp() throws SQLException, IOException {
+        journal = Files.createTempFile("ledger-bench", ".journal");
+        LedgerDAO stub = new LedgerDAO() {
+            @Override
+            public int getMaxAccountId() {
+                return accounts;
+            }
+
+            @Override
+            public int loadAccounts(AccountSink sink) {
+                for (int id = 1; id <= accounts; id++) sink.accept(id, 1_000_000_00L, 350);
+                return accounts;
+            }
+
+            @Override
+            public long readCheckpoint() {
+                return 0;
+            }
+
+            @Override
+            public void persist(LedgerBatch batch) {
+            }
+        };
+        ledger = new LedgerEngine(stub, journal);
+        ledger.start();
+
+        // Pre-drawn commands, so the benchmark thread does no random number generation
+        Random random = new Random(42);
+        from = new int[COMMANDS];
+        to = new int[COMMANDS];
+        amounts = new long[COMMANDS];
+        kinds = new byte[COMMANDS];
+        for (int i = 0; i < COMMANDS; i++) {
+            from[i] = 1 + random.nextInt(accounts);
+            to[i] = 1 + random.nextInt(accounts);
+            amounts[i] = 1 + random.nextInt(10_000);
+            kinds[i] = (byte) random.nextInt(3);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        ledger.close();
+        Files.deleteIfExists(journal);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(WINDOW)
+    public int pipelined() {
+        long last = 0;
+        for (int n = 0; n < WINDOW; n++) {
+            int i = next++ & (COMMANDS - 1);
+            last = switch (kinds[i]) {
+                case 0 -> ledger.submitDeposit(from[i], amounts[i]);
+                case 1 -> ledger.submitWithdrawal(from[i], amounts[i]);
+                default -> ledger.submitTransfer(from[i], to[i], amounts[i]);
+            };
+        }
+        return ledger.awaitResult(last);
+    }
+
+    @Benchmark
+    public boolean blocking() {
+        int i = next++ & (COMMANDS - 1);
+        return ledger.deposit(from[i], amounts[i]);
+    }
+}
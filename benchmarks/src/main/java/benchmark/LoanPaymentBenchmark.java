@@ -0,0 +1,47 @@
+package benchmark;
+
+import dao.LoanDAO;
+import dao.LoanPaymentDAO;
+import model.LoanPayment;
+import org.openjdk.jmh.annotations.*;
+import service.LoanPaymentService;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end LoanPaymentService.recordPayment against the embedded database.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoanPaymentBenchmark {
+
+    private LoanPaymentService loanPaymentService;
+    private int loanId;
+
+    @Setup
+    public void setUp() throws SQLException {
+        EmbeddedDatabase.start();
+        int customerId = EmbeddedDatabase.insertCustomer("Loan Benchmark");
+        // Sanctioned amount large enough that the loan is never paid off during a run
+        loanId = EmbeddedDatabase.insertLoan(customerId, 1_000_000_000, 0);
+        loanPaymentService = new LoanPaymentService(new LoanPaymentDAO(), new LoanDAO());
+    }
+
+    @TearDown
+    public void tearDown() {
+        EmbeddedDatabase.stop();
+    }
+
+    @Benchmark
+    public boolean recordPayment() {
+        LoanPayment payment = new LoanPayment();
+        payment.setLoanId(loanId);
+        payment.setDisbursementAmount(1.0);
+        return loanPaymentService.recordPayment(payment);
+    }
+}
@@ -0,0 +1,74 @@
+package benchmark;
+
+import model.Money;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Interest over 1M accounts held in memory: the old double arithmetic (balance * rate / 100, unrounded),
+ * the same rounded to the paisa as a ledger posting needs, and exact minor units through Money.applyRate (rounded to the paisa, no allocation), with rates
+ * held as hundredths of a percent the way DECIMAL(5,2) stores them.
+ * The gc.alloc.rate.norm column shows both versions allocate nothing per op.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class MoneyArithmeticBenchmark {
+
+    @Param({"1000000"})
+    private int accounts;
+
+    private double[] balances;
+    private long[] balancesMinor;
+    private double[] rates;
+    private long[] rateHundredths;
+    private double[] newBalances;
+    private long[] newBalancesMinor;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        balances = new double[accounts];
+        balancesMinor = new long[accounts];
+        rates = new double[accounts];
+        rateHundredths = new long[accounts];
+        newBalances = new double[accounts];
+        newBalancesMinor = new long[accounts];
+        for (int i = 0; i < accounts; i++) {
+            balancesMinor[i] = random.nextLong(100, 10_000_000_00L);
+            balances[i] = Money.toMajor(balancesMinor[i]);
+            rateHundredths[i] = random.nextInt(0, 1200); // 0.00% - 11.99%
+            rates[i] = rateHundredths[i] / 100.0;
+        }
+    }
+
+    @Benchmark
+    public double[] interestDouble() {
+        for (int i = 0; i < accounts; i++) {
+            newBalances[i] = balances[i] + balances[i] * rates[i] / 100.0;
+        }
+        return newBalances;
+    }
+
+    // What the double version needs to post to a ledger: interest rounded to the paisa
+    @Benchmark
+    public double[] interestDoubleRounded() {
+        for (int i = 0; i < accounts; i++) {
+            newBalances[i] = balances[i] + Math.round(balances[i] * rates[i]) / 100.0;
+        }
+        return newBalances;
+    }
+
+    @Benchmark
+    public long[] interestMinorUnits() {
+        for (int i = 0; i < accounts; i++) {
+            newBalancesMinor[i] = balancesMinor[i] + Money.applyRate(balancesMinor[i], rateHundredths[i], 1);
+        }
+        return newBalancesMinor;
+    }
+}
@@ -0,0 +1,98 @@
+package benchmark;
+
+import dao.AccountDAO;
+import dao.CachingAccountDAO;
+import dao.CustomerDAO;
+import model.Account;
+import model.Customer;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading N accounts (and their customers) one query per ID against the chunked IN (...) multi-gets.
+ * The cached variant starts every call with half of the accounts in the cache (filled outside the
+ * measurement), so only the other half goes to the database, in one batch.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MultiGetBenchmark {
+    private static final int ACCOUNTS = 2_000;
+
+    @Param({"10", "100", "1000"})
+    public int count;
+
+    private final AccountDAO accountDAO = new AccountDAO();
+    private final CustomerDAO customerDAO = new CustomerDAO();
+    private List<Integer> accountIds;
+    private List<Integer> customerIds;
+
+    @Setup
+    public void setUp() throws SQLException {
+        EmbeddedDatabase.start();
+        customerIds = new ArrayList<>();
+        accountIds = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int customerId = EmbeddedDatabase.insertCustomer("Multi-get " + i);
+            customerIds.add(customerId);
+            accountIds.add(EmbeddedDatabase.insertAccounts(customerId, 1, 1000, 4));
+        }
+        // Background rows so the IN lists are not scanning a near-empty table
+        int other = EmbeddedDatabase.insertCustomer("Multi-get background");
+        EmbeddedDatabase.insertAccounts(other, ACCOUNTS, 1000, 4);
+    }
+
+    @TearDown
+    public void tearDown() {
+        EmbeddedDatabase.stop();
+    }
+
+    @Benchmark
+    public Map<Integer, Account> accountsOneByOne() {
+        Map<Integer, Account> accounts = new HashMap<>();
+        for (int id : accountIds) accounts.put(id, accountDAO.getAccountById(id));
+        return accounts;
+    }
+
+    @Benchmark
+    public Map<Integer, Account> accountsByIds() {
+        return accountDAO.getAccountsByIds(accountIds);
+    }
+
+    @Benchmark
+    public Map<Integer, Customer> customersOneByOne() {
+        Map<Integer, Customer> customers = new HashMap<>();
+        for (int id : customerIds) customers.put(id, customerDAO.getCustomerById(id));
+        return customers;
+    }
+
+    @Benchmark
+    public Map<Integer, Customer> customersByIds() {
+        return customerDAO.getCustomersByIds(customerIds);
+    }
+
+    @State(Scope.Thread)
+    public static class HalfWarmCache {
+        final CachingAccountDAO dao = new CachingAccountDAO(ACCOUNTS * 2, 60_000);
+
+        @Setup(Level.Invocation)
+        public void warm(MultiGetBenchmark benchmark) {
+            dao.evictAll();
+            for (int i = 0; i < benchmark.accountIds.size(); i += 2) dao.getAccountById(benchmark.accountIds.get(i));
+        }
+    }
+
+    @Benchmark
+    public Map<Integer, Account> cachedAccountsHalfWarm(HalfWarmCache cache) {
+        return cache.dao.getAccountsByIds(accountIds);
+    }
+}
@@ -0,0 +1,90 @@
+package benchmark;
+
+import dao.AccountDAO;
+import dao.CustomerDAO;
+import dao.LoanDAO;
+import dao.TransactionDAO;
+import model.Account;
+import model.Customer;
+import model.CustomerPortfolio;
+import model.Loan;
+import model.Transaction;
+import org.openjdk.jmh.annotations.*;
+import service.CachingCustomerPortfolioService;
+import service.CustomerPortfolioService;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * One customer's position the way the panels had to assemble it (customer, every account and every
+ * loan filtered in memory, then every transaction of each of their accounts) against
+ * CustomerPortfolioService's four indexed queries and the cached variant's repeat view.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PortfolioBenchmark {
+    private static final int CUSTOMERS = 1_000;
+    private static final int ACCOUNTS_PER_CUSTOMER = 3;
+    private static final int TRANSACTIONS_PER_ACCOUNT = 20;
+    private static final int RECENT = CustomerPortfolioService.DEFAULT_RECENT_TRANSACTIONS;
+
+    private final CustomerDAO customerDAO = new CustomerDAO();
+    private final AccountDAO accountDAO = new AccountDAO();
+    private final LoanDAO loanDAO = new LoanDAO();
+    private final TransactionDAO transactionDAO = new TransactionDAO();
+    private final CustomerPortfolioService portfolioService =
+            new CustomerPortfolioService(customerDAO, accountDAO, loanDAO, transactionDAO);
+    private final CachingCustomerPortfolioService cachingPortfolioService =
+            new CachingCustomerPortfolioService(customerDAO, accountDAO, loanDAO, transactionDAO);
+    private int customerId;
+
+    @Setup
+    public void setUp() throws SQLException {
+        EmbeddedDatabase.start();
+        for (int i = 0; i < CUSTOMERS; i++) {
+            customerId = EmbeddedDatabase.insertCustomer("Portfolio " + i);
+            EmbeddedDatabase.insertAccounts(customerId, ACCOUNTS_PER_CUSTOMER, 1000, 4);
+            EmbeddedDatabase.insertLoan(customerId, 50_000, 9);
+        }
+        EmbeddedDatabase.execute("INSERT INTO transactions (account_id, transaction_type, amount, date, narration) " +
+                "SELECT a.id, 'DEPOSIT', 10.00, CURRENT_TIMESTAMP, 'Benchmark transaction' " +
+                "FROM accounts a, SYSTEM_RANGE(1, " + TRANSACTIONS_PER_ACCOUNT + ")");
+    }
+
+    @TearDown
+    public void tearDown() {
+        EmbeddedDatabase.stop();
+    }
+
+    @Benchmark
+    public Object filteredInMemory() {
+        Customer customer = customerDAO.getCustomerById(customerId);
+        List<Account> accounts = accountDAO.getAllAccounts().stream()
+                .filter(a -> a.getCustomerId() == customerId).collect(Collectors.toList());
+        List<Loan> loans = loanDAO.getAllLoans().stream()
+                .filter(l -> l.getCustomerId() == customerId && l.getCloseDate() == null).collect(Collectors.toList());
+        List<Transaction> transactions = new ArrayList<>();
+        for (Account account : accounts) transactions.addAll(transactionDAO.getTransactionsByAccountId(account.getId()));
+        transactions.sort(Comparator.comparingInt(Transaction::getId).reversed());
+        return new Object[]{customer, accounts, loans, transactions.subList(0, Math.min(RECENT, transactions.size()))};
+    }
+
+    @Benchmark
+    public CustomerPortfolio portfolio() {
+        return portfolioService.getPortfolio(customerId);
+    }
+
+    @Benchmark
+    public CustomerPortfolio cachedPortfolio() {
+        return cachingPortfolioService.getPortfolio(customerId);
+    }
+}
@@ -0,0 +1,77 @@
+package benchmark;
+
+import dao.AccountDAO;
+import dao.CustomerDAO;
+import model.Account;
+import model.AccountSummary;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full-row reads against the projection queries that replace them: the account list behind
+ * AccountPanel, the balance lookup behind BankService.getBalance and the customer check in the
+ * account and loan forms. Compare gc.alloc.rate.norm as well as throughput.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProjectionBenchmark {
+    private static final int ACCOUNTS = 10_000;
+
+    private final AccountDAO accountDAO = new AccountDAO();
+    private final CustomerDAO customerDAO = new CustomerDAO();
+    private int customerId;
+    private int accountId;
+
+    @Setup
+    public void setUp() throws SQLException {
+        EmbeddedDatabase.start();
+        customerId = EmbeddedDatabase.insertCustomer("Projection Benchmark");
+        accountId = EmbeddedDatabase.insertAccounts(customerId, ACCOUNTS, 1000, 4);
+    }
+
+    @TearDown
+    public void tearDown() {
+        EmbeddedDatabase.stop();
+    }
+
+    @Benchmark
+    public List<Account> listFullAccounts() {
+        return accountDAO.getAllAccounts();
+    }
+
+    @Benchmark
+    public List<AccountSummary> listAccountSummaries() {
+        return accountDAO.getAccountSummaries();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long balanceFromFullRow() {
+        return accountDAO.getAccountById(accountId).getBalanceMinor();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long balanceOnly() {
+        return accountDAO.getBalance(accountId);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public boolean customerCheckFullRow() {
+        return customerDAO.getCustomerById(customerId) != null;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public boolean customerExists() {
+        return customerDAO.customerExists(customerId);
+    }
+}
@@ -0,0 +1,69 @@
+package benchmark;
+
+import dao.AccountDAO;
+import dao.TransactionDAO;
+import db.DBConnection;
+import model.Account;
+import org.openjdk.jmh.annotations.*;
+import service.AccountService;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DAO point reads and service deposits with the pool's per-connection statement cache off (0) and on.
+ * JMH runs every parameter value in its own JVM, so the cache size can be set through the system
+ * property before DBConnection is first touched.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StatementCacheBenchmark {
+    private static final int ACCOUNTS = 100;
+
+    @Param({"0", "64"})
+    public int statementCacheSize;
+
+    private AccountDAO accountDAO;
+    private AccountService accountService;
+    private int firstAccountId;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Setup
+    public void setUp() throws SQLException {
+        System.setProperty("bank.db.statementCacheSize", Integer.toString(statementCacheSize));
+        EmbeddedDatabase.start();
+        int customerId = EmbeddedDatabase.insertCustomer("Statement Cache Benchmark");
+        firstAccountId = EmbeddedDatabase.insertAccounts(customerId, ACCOUNTS, 100_000_000, 0);
+        accountDAO = new AccountDAO();
+        accountService = new AccountService(accountDAO, new TransactionDAO());
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.out.println("Pool: " + DBConnection.getPoolStats());
+        EmbeddedDatabase.stop();
+    }
+
+    @Benchmark
+    public Account getAccountById(Cursor cursor) {
+        return accountDAO.getAccountById(nextAccount(cursor));
+    }
+
+    @Benchmark
+    public boolean deposit(Cursor cursor) {
+        return accountService.deposit(nextAccount(cursor), 10.0);
+    }
+
+    private int nextAccount(Cursor cursor) {
+        cursor.next = (cursor.next + 1) % ACCOUNTS;
+        return firstAccountId + cursor.next;
+    }
+}
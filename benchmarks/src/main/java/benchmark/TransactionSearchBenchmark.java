@@ -0,0 +1,82 @@
+package benchmark;
+
+import dao.TransactionDAO;
+import model.Transaction;
+import model.TransactionSearch;
+import org.openjdk.jmh.annotations.*;
+import service.TransactionService;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * The first page of a filtered, sorted transaction search (one account, a ten-day range, one type,
+ * largest amounts first) run in the database against loading the account's transactions and
+ * filtering, sorting and paging them in memory, as TransactionPanel used to.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TransactionSearchBenchmark {
+    private static final int ACCOUNTS = 20;
+    private static final int TRANSACTIONS_PER_ACCOUNT = 5_000;
+    private static final int PAGE_SIZE = 200;
+    private static final LocalDate FIRST_DAY = LocalDate.of(2024, 1, 1);
+
+    private final TransactionDAO transactionDAO = new TransactionDAO();
+    private final TransactionService transactionService = new TransactionService(transactionDAO);
+    private final TransactionSearch search = new TransactionSearch();
+
+    @Setup
+    public void setUp() throws SQLException {
+        EmbeddedDatabase.start();
+        int customerId = EmbeddedDatabase.insertCustomer("Search Benchmark");
+        int firstAccount = EmbeddedDatabase.insertAccounts(customerId, ACCOUNTS, 1000, 4);
+        // One transaction per account per hour, types and amounts cycling
+        EmbeddedDatabase.execute("INSERT INTO transactions (account_id, transaction_type, amount, date, narration) " +
+                "SELECT a.id, CASE MOD(\"X\", 4) WHEN 0 THEN 'DEPOSIT' WHEN 1 THEN 'WITHDRAWAL' " +
+                "WHEN 2 THEN 'TRANSFER_IN' ELSE 'TRANSFER_OUT' END, MOD(\"X\" * 37, 10000) / 100.0, " +
+                "DATEADD('HOUR', \"X\", TIMESTAMP '2024-01-01 00:00:00'), CONCAT('Txn ', \"X\") " +
+                "FROM accounts a, SYSTEM_RANGE(1, " + TRANSACTIONS_PER_ACCOUNT + ")");
+
+        search.setAccountId(firstAccount + ACCOUNTS / 2);
+        search.setFromDate(FIRST_DAY.plusDays(30));
+        search.setToDate(FIRST_DAY.plusDays(39));
+        search.setType(Transaction.TransactionType.DEPOSIT);
+        search.setSortField(TransactionSearch.SortField.AMOUNT);
+        search.setDescending(true);
+    }
+
+    @TearDown
+    public void tearDown() {
+        EmbeddedDatabase.stop();
+    }
+
+    @Benchmark
+    public List<Transaction> filteredInMemory() {
+        return transactionService.getTransactionsByAccountId(search.getAccountId()).stream()
+                .filter(t -> !t.getDate().toLocalDate().isBefore(search.getFromDate())
+                        && !t.getDate().toLocalDate().isAfter(search.getToDate())
+                        && t.getTransactionType() == search.getType())
+                .sorted(Comparator.comparingLong(Transaction::getAmountMinor).thenComparingInt(Transaction::getId).reversed())
+                .limit(PAGE_SIZE)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Transaction> searchFirstPage() {
+        return transactionService.searchTransactions(search, 0, PAGE_SIZE, null);
+    }
+
+    @Benchmark
+    public int countMatches() {
+        return transactionService.countTransactions(search, null);
+    }
+}
@@ -0,0 +1,252 @@
+package dao;
+
+import benchmark.EmbeddedDatabase;
+import db.DBConnection;
+import model.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compiled, index-based row mappers of each DAO against the name-based mapping they replaced
+ * (kept below as the *ByName baselines).
+ *
+ * The map* benchmarks read the same, already fetched row over and over, so they exclude query
+ * execution. The scan* benchmarks run a full-table query and map every row. The compiled scans
+ * resolve the column positions from the metadata on every scan, so they also pay the one-off
+ * cost that the DAOs pay only once per query.
+ * Lives in package dao because the mappers are package-private.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class MapperBenchmark {
+    private static final int SCAN_ROWS = 10_000;
+    private static final String TRANSACTION_SCAN = "SELECT * FROM transactions";
+    private static final String ACCOUNT_SCAN = "SELECT * FROM accounts";
+
+    private Connection conn;
+    private ResultSet accountRow;
+    private ResultSet customerRow;
+    private ResultSet transactionRow;
+    private ResultSet loanRow;
+    private ResultSet loanPaymentRow;
+
+    private RowMapper<Account> accountMapper;
+    private RowMapper<Customer> customerMapper;
+    private RowMapper<Transaction> transactionMapper;
+    private RowMapper<Loan> loanMapper;
+    private RowMapper<LoanPayment> loanPaymentMapper;
+
+    @Setup
+    public void setUp() throws SQLException {
+        EmbeddedDatabase.start();
+        int customerId = EmbeddedDatabase.insertCustomer("Mapper Benchmark");
+        int accountId = EmbeddedDatabase.insertAccounts(customerId, SCAN_ROWS, 1000, 4);
+        int loanId = EmbeddedDatabase.insertLoan(customerId, 500_000, 9);
+        EmbeddedDatabase.execute("INSERT INTO transactions (account_id, transaction_type, amount, date, narration) " +
+                "SELECT " + accountId + ", CASE WHEN MOD(\"X\", 2) = 0 THEN 'DEPOSIT' ELSE 'WITHDRAWAL' END, 250.00, " +
+                "CURRENT_TIMESTAMP, 'Benchmark transaction' FROM SYSTEM_RANGE(1, " + SCAN_ROWS + ")");
+        EmbeddedDatabase.execute("INSERT INTO loan_payments (loan_id, disbursement_amount, receipt_no, payment_date, remaining_balance) " +
+                "VALUES (" + loanId + ", 1000.00, 'RCPT-1', CURRENT_TIMESTAMP, 499000.00)");
+
+        conn = DBConnection.getConnection();
+        accountRow = row("SELECT * FROM accounts WHERE id = " + accountId);
+        customerRow = row("SELECT * FROM customers WHERE id = " + customerId);
+        transactionRow = row("SELECT * FROM transactions WHERE account_id = " + accountId);
+        loanRow = row("SELECT * FROM loans WHERE id = " + loanId);
+        loanPaymentRow = row("SELECT * FROM loan_payments WHERE loan_id = " + loanId);
+
+        accountMapper = AccountDAO.compileAccountMapper(new ColumnIndex(accountRow.getMetaData()));
+        customerMapper = CustomerDAO.compileCustomerMapper(new ColumnIndex(customerRow.getMetaData()));
+        transactionMapper = TransactionDAO.compileTransactionMapper(new ColumnIndex(transactionRow.getMetaData()));
+        loanMapper = LoanDAO.compileLoanMapper(new ColumnIndex(loanRow.getMetaData()));
+        loanPaymentMapper = LoanPaymentDAO.compileLoanPaymentMapper(new ColumnIndex(loanPaymentRow.getMetaData()));
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        conn.close();
+        EmbeddedDatabase.stop();
+    }
+
+    // --- Single row ---
+
+    @Benchmark
+    public Account mapAccount() throws SQLException {
+        return accountMapper.map(accountRow);
+    }
+
+    @Benchmark
+    public Account mapAccountByName() throws SQLException {
+        return accountByName(accountRow);
+    }
+
+    @Benchmark
+    public Customer mapCustomer() throws SQLException {
+        return customerMapper.map(customerRow);
+    }
+
+    @Benchmark
+    public Customer mapCustomerByName() throws SQLException {
+        return customerByName(customerRow);
+    }
+
+    @Benchmark
+    public Transaction mapTransaction() throws SQLException {
+        return transactionMapper.map(transactionRow);
+    }
+
+    @Benchmark
+    public Transaction mapTransactionByName() throws SQLException {
+        return transactionByName(transactionRow);
+    }
+
+    @Benchmark
+    public Loan mapLoan() throws SQLException {
+        return loanMapper.map(loanRow);
+    }
+
+    @Benchmark
+    public Loan mapLoanByName() throws SQLException {
+        return loanByName(loanRow);
+    }
+
+    @Benchmark
+    public LoanPayment mapLoanPayment() throws SQLException {
+        return loanPaymentMapper.map(loanPaymentRow);
+    }
+
+    @Benchmark
+    public LoanPayment mapLoanPaymentByName() throws SQLException {
+        return loanPaymentByName(loanPaymentRow);
+    }
+
+    // --- Full-table scans ---
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Transaction> scanTransactions() throws SQLException {
+        List<Transaction> rows = new ArrayList<>(SCAN_ROWS);
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(TRANSACTION_SCAN)) {
+            RowMapper<Transaction> mapper = TransactionDAO.compileTransactionMapper(new ColumnIndex(rs.getMetaData()));
+            while (rs.next()) rows.add(mapper.map(rs));
+        }
+        return rows;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Transaction> scanTransactionsByName() throws SQLException {
+        List<Transaction> rows = new ArrayList<>(SCAN_ROWS);
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(TRANSACTION_SCAN)) {
+            while (rs.next()) rows.add(transactionByName(rs));
+        }
+        return rows;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Account> scanAccounts() throws SQLException {
+        List<Account> rows = new ArrayList<>(SCAN_ROWS);
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(ACCOUNT_SCAN)) {
+            RowMapper<Account> mapper = AccountDAO.compileAccountMapper(new ColumnIndex(rs.getMetaData()));
+            while (rs.next()) rows.add(mapper.map(rs));
+        }
+        return rows;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Account> scanAccountsByName() throws SQLException {
+        List<Account> rows = new ArrayList<>(SCAN_ROWS);
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(ACCOUNT_SCAN)) {
+            while (rs.next()) rows.add(accountByName(rs));
+        }
+        return rows;
+    }
+
+    // Each row needs its own open ResultSet, so every query gets its own statement
+    private ResultSet row(String sql) throws SQLException {
+        ResultSet rs = conn.createStatement().executeQuery(sql);
+        if (!rs.next()) throw new IllegalStateException("No row for: " + sql);
+        return rs;
+    }
+
+    // --- Baselines: the name-based mappers the DAOs used before ---
+
+    private static Account accountByName(ResultSet rs) throws SQLException {
+        Account account = new Account();
+        account.setId(rs.getInt("id"));
+        account.setCustomerId(rs.getInt("customer_id"));
+        account.setAccountType(Account.AccountType.valueOf(rs.getString("account_type")));
+        account.setOpenDate(rs.getDate("open_date").toLocalDate());
+        Date closeDate = rs.getDate("close_date");
+        if (closeDate != null) account.setCloseDate(closeDate.toLocalDate());
+        account.setBalanceMinor(Money.read(rs, "balance"));
+        account.setInterestRate(rs.getDouble("interest_rate"));
+        return account;
+    }
+
+    private static Customer customerByName(ResultSet rs) throws SQLException {
+        Customer customer = new Customer();
+        customer.setId(rs.getInt("id"));
+        customer.setFullName(rs.getString("full_name"));
+        customer.setAddress(rs.getString("address"));
+        customer.setContactNo(rs.getString("contact_no"));
+        customer.setEmail(rs.getString("email"));
+        customer.setPanNumber(rs.getString("pan_number"));
+        customer.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+        return customer;
+    }
+
+    private static Transaction transactionByName(ResultSet rs) throws SQLException {
+        Transaction transaction = new Transaction();
+        transaction.setId(rs.getInt("id"));
+        transaction.setAccountId(rs.getInt("account_id"));
+        transaction.setTransactionType(Transaction.TransactionType.valueOf(rs.getString("transaction_type")));
+        transaction.setAmountMinor(Money.read(rs, "amount"));
+        Timestamp timestamp = rs.getTimestamp("date");
+        if (timestamp != null) transaction.setDate(timestamp.toLocalDateTime());
+        transaction.setNarration(rs.getString("narration"));
+        return transaction;
+    }
+
+    private static Loan loanByName(ResultSet rs) throws SQLException {
+        Loan loan = new Loan();
+        loan.setId(rs.getInt("id"));
+        loan.setCustomerId(rs.getInt("customer_id"));
+        loan.setLoanType(Loan.LoanType.valueOf(rs.getString("loan_type")));
+        loan.setAmountSanctionedMinor(Money.read(rs, "amount_sanctioned"));
+        loan.setBalanceMinor(Money.read(rs, "balance"));
+        loan.setInterestRate(rs.getDouble("interest_rate"));
+        Date openDate = rs.getDate("open_date");
+        if (openDate != null) loan.setOpenDate(openDate.toLocalDate());
+        Date closeDate = rs.getDate("close_date");
+        if (closeDate != null) loan.setCloseDate(closeDate.toLocalDate());
+        return loan;
+    }
+
+    private static LoanPayment loanPaymentByName(ResultSet rs) throws SQLException {
+        LoanPayment payment = new LoanPayment();
+        payment.setId(rs.getInt("id"));
+        payment.setLoanId(rs.getInt("loan_id"));
+        payment.setDisbursementAmountMinor(Money.read(rs, "disbursement_amount"));
+        payment.setReceiptNo(rs.getString("receipt_no"));
+        Timestamp timestamp = rs.getTimestamp("payment_date");
+        if (timestamp != null) payment.setPaymentDate(timestamp.toLocalDateTime());
+        payment.setRemainingBalanceMinor(Money.read(rs, "remaining_balance"));
+        return payment;
+    }
+}
@@ -0,0 +1,102 @@
+-- Same tables as the setup script in README.md; H2 runs them in MySQL compatibility mode.
+CREATE TABLE IF NOT EXISTS customers (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    full_name VARCHAR(100) NOT NULL,
+    address VARCHAR(255),
+    contact_no VARCHAR(20),
+    email VARCHAR(100),
+    pan_number VARCHAR(20),
+    created_at DATETIME DEFAULT CURRENT_TIMESTAMP
+);
+CREATE TABLE IF NOT EXISTS accounts (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    customer_id INT NOT NULL,
+    account_type ENUM('SAVINGS', 'CURRENT', 'FIXED_DEPOSIT', 'RECURRING_DEPOSIT') NOT NULL,
+    open_date DATE NOT NULL,
+    close_date DATE,
+    balance DECIMAL(15,2) DEFAULT 0.0,
+    interest_rate DECIMAL(5,2) DEFAULT 0.0,
+    FOREIGN KEY (customer_id) REFERENCES customers(id) ON DELETE CASCADE
+);
+CREATE TABLE IF NOT EXISTS transactions (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    account_id INT NOT NULL,
+    transaction_type ENUM('DEPOSIT', 'WITHDRAWAL', 'TRANSFER_OUT', 'TRANSFER_IN') NOT NULL,
+    amount DECIMAL(15,2) NOT NULL,
+    date DATETIME DEFAULT CURRENT_TIMESTAMP,
+    narration VARCHAR(255),
+    FOREIGN KEY (account_id) REFERENCES accounts(id) ON DELETE CASCADE,
+    INDEX idx_transactions_account_date (account_id, date),
+    INDEX idx_transactions_date (date),
+    INDEX idx_transactions_narration (narration)
+);
+CREATE TABLE IF NOT EXISTS loans (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    customer_id INT NOT NULL,
+    loan_type ENUM('PERSONAL_LOAN','HOME_LOAN','VEHICLE_LOAN','GOLD_LOAN') NOT NULL,
+    amount_sanctioned DECIMAL(15,2) NOT NULL,
+    balance DECIMAL(15,2) NOT NULL,
+    interest_rate DECIMAL(5,2) DEFAULT 0.0,
+    tenure_months INT NOT NULL DEFAULT 0,
+    open_date DATE NOT NULL,
+    close_date DATE,
+    FOREIGN KEY (customer_id) REFERENCES customers(id) ON DELETE CASCADE
+);
+CREATE TABLE IF NOT EXISTS loan_payments (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    loan_id INT NOT NULL,
+    disbursement_amount DECIMAL(15,2) NOT NULL,
+    receipt_no VARCHAR(50) UNIQUE,
+    payment_date DATETIME DEFAULT CURRENT_TIMESTAMP,
+    remaining_balance DECIMAL(15,2) NOT NULL,
+    FOREIGN KEY (loan_id) REFERENCES loans(id) ON DELETE CASCADE
+);
+CREATE TABLE IF NOT EXISTS loan_schedules (
+    loan_id INT NOT NULL,
+    installment_no SMALLINT NOT NULL,
+    due_date DATE NOT NULL,
+    principal DECIMAL(15,2) NOT NULL,
+    interest DECIMAL(15,2) NOT NULL,
+    balance DECIMAL(15,2) NOT NULL,
+    PRIMARY KEY (loan_id, installment_no),
+    FOREIGN KEY (loan_id) REFERENCES loans(id) ON DELETE CASCADE
+);
+CREATE TABLE IF NOT EXISTS interest_runs (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    started_at DATETIME DEFAULT CURRENT_TIMESTAMP,
+    finished_at DATETIME,
+    last_account_id INT NOT NULL DEFAULT 0,
+    accounts_posted INT NOT NULL DEFAULT 0,
+    status ENUM('RUNNING','COMPLETED') NOT NULL DEFAULT 'RUNNING'
+);
+CREATE TABLE IF NOT EXISTS loan_interest_runs (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    started_at DATETIME DEFAULT CURRENT_TIMESTAMP,
+    finished_at DATETIME,
+    status ENUM('RUNNING','COMPLETED') NOT NULL DEFAULT 'RUNNING'
+);
+CREATE TABLE IF NOT EXISTS loan_interest_partitions (
+    run_id INT NOT NULL,
+    partition_no INT NOT NULL,
+    start_id INT NOT NULL,
+    end_id INT NOT NULL,
+    status ENUM('PENDING','DONE','FAILED') NOT NULL DEFAULT 'PENDING',
+    attempts INT NOT NULL DEFAULT 0,
+    loans_processed INT NOT NULL DEFAULT 0,
+    interest_accrued DECIMAL(15,2) NOT NULL DEFAULT 0.0,
+    PRIMARY KEY (run_id, partition_no),
+    FOREIGN KEY (run_id) REFERENCES loan_interest_runs(id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    idem_key VARCHAR(64) PRIMARY KEY,
+    operation VARCHAR(32) NOT NULL,
+    request_hash CHAR(64),
+    succeeded BOOLEAN NOT NULL DEFAULT FALSE,
+    created_at DATETIME DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS ledger_checkpoint (
+    id TINYINT PRIMARY KEY,
+    last_sequence BIGINT NOT NULL
+);
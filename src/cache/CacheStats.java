@@ -0,0 +1,34 @@
+package cache;
+
+/**
+ * Snapshot of a cache's counters, taken by {@link LruCache#getStats()}.
+ */
+public class CacheStats {
+    private final int size;
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+
+    public CacheStats(int size, long hits, long misses, long evictions) {
+        this.size = size;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+    }
+
+    public int getSize() { return size; }
+    public long getHits() { return hits; }
+    public long getMisses() { return misses; }
+    public long getEvictions() { return evictions; }
+
+    public double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0.0 : hits / (double) lookups;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("size=%d, hits=%d, misses=%d, evictions=%d, hitRate=%.1f%%",
+                size, hits, misses, evictions, getHitRate() * 100);
+    }
+}
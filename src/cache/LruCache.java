@@ -0,0 +1,124 @@
+package cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Small thread-safe in-process cache bounded by entry count (least recently used goes first)
+ * and by time-to-live. Counts hits, misses and evictions (size or TTL; explicit invalidation is not counted).
+ *
+ * A read-through caller takes a stamp(key) before loading and stores with putIfCurrent: if the key was
+ * invalidated (or the cache cleared) in between, the value may predate that write and is not stored.
+ * Stamps are kept per stripe of keys, so an invalidation can also skip a put for an unrelated key.
+ */
+public class LruCache<K, V> {
+    private static final int GENERATION_STRIPES = 256;
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LinkedHashMap<K, Entry<V>> entries;
+    private final long[] generations = new long[GENERATION_STRIPES]; // bumped by invalidate, per stripe
+    private long clears;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public LruCache(int maxSize, long ttlMillis) {
+        if (maxSize <= 0) throw new IllegalArgumentException("Cache size must be positive.");
+        this.maxSize = maxSize;
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > LruCache.this.maxSize) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * @return the cached value, or null on a miss (absent or expired)
+     */
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        if (System.nanoTime() - entry.storedAt > ttlNanos) {
+            entries.remove(key);
+            evictions++;
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.value;
+    }
+
+    public synchronized void put(K key, V value) {
+        entries.put(key, new Entry<>(value, System.nanoTime()));
+    }
+
+    /**
+     * Stores the value only if the key has not been invalidated since the stamp was taken.
+     * @return false if it was not stored
+     */
+    public synchronized boolean putIfCurrent(K key, V value, long stamp) {
+        if (stamp(key) != stamp) return false;
+        put(key, value);
+        return true;
+    }
+
+    // Take before loading a value that will be stored with putIfCurrent
+    public synchronized long stamp(K key) {
+        return generations[stripe(key)] + clears;
+    }
+
+    public synchronized void invalidate(K key) {
+        entries.remove(key);
+        generations[stripe(key)]++;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        clears++;
+    }
+
+    /**
+     * Drop expired entries now instead of waiting for them to be looked up.
+     */
+    public synchronized void purgeExpired() {
+        long now = System.nanoTime();
+        Iterator<Entry<V>> it = entries.values().iterator();
+        while (it.hasNext()) {
+            if (now - it.next().storedAt > ttlNanos) {
+                it.remove();
+                evictions++;
+            }
+        }
+    }
+
+    public synchronized CacheStats getStats() {
+        return new CacheStats(entries.size(), hits, misses, evictions);
+    }
+
+    private static int stripe(Object key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return (h ^ h >>> 16) & (GENERATION_STRIPES - 1);
+    }
+
+    private static class Entry<V> {
+        final V value;
+        final long storedAt;
+
+        Entry(V value, long storedAt) {
+            this.value = value;
+            this.storedAt = storedAt;
+        }
+    }
+}
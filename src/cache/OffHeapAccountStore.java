@@ -0,0 +1,315 @@
+package cache;
+
+import model.Account;
+import model.AccountBookReport;
+import model.Money;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * The account book as packed primitive records outside the Java heap: one RECORD_SIZE slot per account
+ * ID in direct buffers of PAGE_RECORDS slots, allocated as IDs reach them. Account IDs are dense
+ * (AUTO_INCREMENT), so the ID is the index and there is no map. 50M accounts take 1.6 GB of direct
+ * memory (raise -XX:MaxDirectMemorySize to match) and nothing the garbage collector has to trace.
+ *
+ * Record layout (little-endian):
+ * <pre>
+ *  0 long balance (minor units)   16 int open day (epoch day)    24 int 1 | type ordinal << 8 (0 = no account)
+ *  8 int  customer ID             20 int close day (or NO_DAY)   28 unused
+ * 12 int  rate (hundredths of a percent)
+ * </pre>
+ * Balances are read and changed atomically, so lookups and postings need no locking. A record's other
+ * fields are written by put, which should not race with another put for the same account (the services
+ * call it under the account's lock).
+ */
+public final class OffHeapAccountStore {
+    public static final int RECORD_SIZE = 32;
+    public static final int PAGE_RECORDS = 1 << 20; // 32 MB pages
+    public static final int NO_DAY = Integer.MIN_VALUE;
+    public static final long NO_BALANCE = Long.MIN_VALUE;
+
+    private static final int PAGE_SHIFT = 20;
+    private static final int PAGE_MASK = PAGE_RECORDS - 1;
+    private static final int BALANCE = 0;
+    private static final int CUSTOMER = 8;
+    private static final int RATE = 12;
+    private static final int OPEN_DAY = 16;
+    private static final int CLOSE_DAY = 20;
+    private static final int META = 24;
+    private static final int PRESENT = 1;
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle INTS = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final Account.AccountType[] TYPES = Account.AccountType.values();
+
+    private volatile ByteBuffer[] pages = new ByteBuffer[0];
+    private volatile int maxId;
+    private int size; // guarded by this
+
+    /**
+     * Receives an account from {@link #forEach}; all primitive, nothing is allocated per account.
+     */
+    public interface AccountVisitor {
+        void visit(int id, int customerId, int typeOrdinal, long balanceMinor, int rateHundredths, int openDay, int closeDay);
+    }
+
+    /**
+     * Receives each account credited by {@link #applyInterest}.
+     */
+    public interface InterestSink {
+        void credited(int id, long interestMinor, int rateHundredths);
+    }
+
+    // =========================
+    // Writing
+    // =========================
+
+    public void put(int id, int customerId, int typeOrdinal, int openDay, int closeDay, long balanceMinor, int rateHundredths) {
+        if (id <= 0) throw new IllegalArgumentException("Account ID must be positive.");
+        ByteBuffer page = pageForWrite(id);
+        int offset = offset(id);
+        boolean added = (int) INTS.getAcquire(page, offset + META) == 0;
+        page.putInt(offset + CUSTOMER, customerId);
+        page.putInt(offset + RATE, rateHundredths);
+        page.putInt(offset + OPEN_DAY, openDay);
+        page.putInt(offset + CLOSE_DAY, closeDay);
+        LONGS.setVolatile(page, offset + BALANCE, balanceMinor);
+        INTS.setRelease(page, offset + META, PRESENT | typeOrdinal << 8);
+        if (added) {
+            synchronized (this) {
+                size++;
+            }
+        }
+    }
+
+    public void put(Account account) {
+        put(account.getId(), account.getCustomerId(), account.getAccountType().ordinal(), toDay(account.getOpenDate()),
+                toDay(account.getCloseDate()), account.getBalanceMinor(), (int) Money.rateHundredths(account.getInterestRate()));
+    }
+
+    /**
+     * Replaces everything but the balance (for when the balance is owned elsewhere, e.g. the ledger).
+     * @return false if the account is not in the store
+     */
+    public boolean putDetails(Account account) {
+        long balance = getBalanceMinor(account.getId());
+        if (balance == NO_BALANCE) return false;
+        put(account.getId(), account.getCustomerId(), account.getAccountType().ordinal(), toDay(account.getOpenDate()),
+                toDay(account.getCloseDate()), balance, (int) Money.rateHundredths(account.getInterestRate()));
+        return true;
+    }
+
+    public boolean remove(int id) {
+        ByteBuffer page = page(id);
+        if (page == null) return false;
+        int offset = offset(id);
+        if ((int) INTS.getAndSet(page, offset + META, 0) == 0) return false;
+        synchronized (this) {
+            size--;
+        }
+        return true;
+    }
+
+    /**
+     * Adds delta to the balance, atomically.
+     * @return the new balance, or NO_BALANCE if the account is not in the store
+     */
+    public long addToBalance(int id, long deltaMinor) {
+        ByteBuffer page = page(id);
+        if (page == null) return NO_BALANCE;
+        int offset = offset(id);
+        if ((int) INTS.getAcquire(page, offset + META) == 0) return NO_BALANCE;
+        return (long) LONGS.getAndAdd(page, offset + BALANCE, deltaMinor) + deltaMinor;
+    }
+
+    // =========================
+    // Reading
+    // =========================
+
+    public boolean contains(int id) {
+        ByteBuffer page = page(id);
+        return page != null && (int) INTS.getAcquire(page, offset(id) + META) != 0;
+    }
+
+    /**
+     * The balance in minor units, or NO_BALANCE if the account is not in the store.
+     */
+    public long getBalanceMinor(int id) {
+        ByteBuffer page = page(id);
+        if (page == null) return NO_BALANCE;
+        int offset = offset(id);
+        if ((int) INTS.getAcquire(page, offset + META) == 0) return NO_BALANCE;
+        return (long) LONGS.getVolatile(page, offset + BALANCE);
+    }
+
+    /**
+     * The account as a model object (allocates; for single lookups), or null if it is not in the store.
+     */
+    public Account getAccount(int id) {
+        ByteBuffer page = page(id);
+        if (page == null) return null;
+        int offset = offset(id);
+        int meta = (int) INTS.getAcquire(page, offset + META);
+        if (meta == 0) return null;
+        Account account = new Account();
+        account.setId(id);
+        account.setCustomerId(page.getInt(offset + CUSTOMER));
+        account.setAccountType(TYPES[meta >>> 8]);
+        account.setOpenDate(toDate(page.getInt(offset + OPEN_DAY)));
+        account.setCloseDate(toDate(page.getInt(offset + CLOSE_DAY)));
+        account.setBalanceMinor((long) LONGS.getVolatile(page, offset + BALANCE));
+        account.setInterestRate(Money.toMajor(page.getInt(offset + RATE)));
+        return account;
+    }
+
+    /**
+     * Visits every account in ID order.
+     */
+    public void forEach(AccountVisitor visitor) {
+        ByteBuffer[] pages = this.pages;
+        int last = maxId;
+        for (int p = 0; p < pages.length; p++) {
+            ByteBuffer page = pages[p];
+            if (page == null) continue;
+            int first = p == 0 ? 1 : 0;
+            int end = Math.min(PAGE_RECORDS, last - (p << PAGE_SHIFT) + 1);
+            for (int i = first; i < end; i++) {
+                int offset = i * RECORD_SIZE;
+                int meta = (int) INTS.getAcquire(page, offset + META);
+                if (meta == 0) continue;
+                visitor.visit((p << PAGE_SHIFT) | i, page.getInt(offset + CUSTOMER), meta >>> 8,
+                        (long) LONGS.getVolatile(page, offset + BALANCE), page.getInt(offset + RATE),
+                        page.getInt(offset + OPEN_DAY), page.getInt(offset + CLOSE_DAY));
+            }
+        }
+    }
+
+    /**
+     * Credits one period of simple interest (balance * rate / 100, rounded like Money.applyRate) to every
+     * account with fromId < id <= toId, a positive rate and a positive amount due - the same accounts and
+     * amounts as AccountDAO.applyInterestToRange. With a null sink nothing else happens.
+     * @return {accounts credited, total interest in minor units}
+     */
+    public long[] applyInterest(int fromId, int toId, InterestSink sink) {
+        return interest(fromId, toId, true, sink);
+    }
+
+    /**
+     * What applyInterest over every account would credit, without changing anything:
+     * {accounts, total interest in minor units}.
+     */
+    public long[] projectInterest() {
+        return interest(0, Integer.MAX_VALUE, false, null);
+    }
+
+    /**
+     * Account counts and balances in one pass over the store.
+     */
+    public AccountBookReport report() {
+        int types = TYPES.length;
+        long[] counts = new long[types * 2];     // all, open
+        long[] balances = new long[types * 2];
+        forEach((id, customerId, type, balance, rate, openDay, closeDay) -> {
+            counts[type]++;
+            balances[type] += balance;
+            if (closeDay == NO_DAY) {
+                counts[types + type]++;
+                balances[types + type] += balance;
+            }
+        });
+        return new AccountBookReport(Arrays.copyOf(counts, types), Arrays.copyOfRange(counts, types, types * 2),
+                Arrays.copyOf(balances, types), Arrays.copyOfRange(balances, types, types * 2));
+    }
+
+    public synchronized int size() { return size; }
+    public int getMaxId() { return maxId; }
+
+    // Direct memory held by the store
+    public long getOffHeapBytes() {
+        long bytes = 0;
+        for (ByteBuffer page : pages) {
+            if (page != null) bytes += page.capacity();
+        }
+        return bytes;
+    }
+
+    /**
+     * Drops every account. The direct buffers are released once nothing references them.
+     */
+    public synchronized void clear() {
+        pages = new ByteBuffer[0];
+        maxId = 0;
+        size = 0;
+    }
+
+    // =========================
+    // Pages
+    // =========================
+
+    private long[] interest(int fromId, int toId, boolean apply, InterestSink sink) {
+        long accounts = 0;
+        long total = 0;
+        int last = Math.min(maxId, toId); // read before pages, which pageForWrite publishes first
+        ByteBuffer[] pages = this.pages;
+        for (int id = Math.max(1, fromId + 1); id <= last; id++) {
+            ByteBuffer page = pages[id >>> PAGE_SHIFT];
+            if (page == null) {
+                id |= PAGE_MASK; // skip the missing page
+                continue;
+            }
+            int offset = offset(id);
+            int rate = page.getInt(offset + RATE);
+            if (rate <= 0 || (int) INTS.getAcquire(page, offset + META) == 0) continue;
+            long due = Money.applyRate((long) LONGS.getVolatile(page, offset + BALANCE), rate, 1);
+            if (due <= 0) continue;
+            if (apply) {
+                LONGS.getAndAdd(page, offset + BALANCE, due);
+                if (sink != null) sink.credited(id, due, rate);
+            }
+            accounts++;
+            total += due;
+        }
+        return new long[]{accounts, total};
+    }
+
+    private ByteBuffer page(int id) {
+        ByteBuffer[] pages = this.pages;
+        int p = id >>> PAGE_SHIFT;
+        return id > 0 && p < pages.length ? pages[p] : null;
+    }
+
+    private synchronized ByteBuffer pageForWrite(int id) {
+        int p = id >>> PAGE_SHIFT;
+        ByteBuffer[] current = pages;
+        if (p >= current.length) {
+            current = Arrays.copyOf(current, Math.max(p + 1, current.length * 2));
+        }
+        ByteBuffer page = current[p];
+        if (page == null) {
+            // Aligned, so balances can be updated atomically in place
+            page = ByteBuffer.allocateDirect(PAGE_RECORDS * RECORD_SIZE + Long.BYTES).alignedSlice(Long.BYTES)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            current[p] = page;
+        }
+        pages = current;
+        if (id > maxId) maxId = id;
+        return page;
+    }
+
+    private static int offset(int id) {
+        return (id & PAGE_MASK) * RECORD_SIZE;
+    }
+
+    private static int toDay(LocalDate date) {
+        return date == null ? NO_DAY : (int) date.toEpochDay();
+    }
+
+    private static LocalDate toDate(int epochDay) {
+        return epochDay == NO_DAY ? null : LocalDate.ofEpochDay(epochDay);
+    }
+}
@@ -1,20 +1,45 @@
 package dao;
 
 import model.Account;
+import model.AccountSummary;
+import model.Money;
 import db.DBConnection;
 
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 public class AccountDAO {
+    // Explicit column list: only what the mapper reads crosses the wire, and schema additions do not
+    private static final String COLUMNS = "id, customer_id, account_type, open_date, close_date, balance, interest_rate";
+    private static final MapperCache<Account> MAPPERS = new MapperCache<>(AccountDAO::compileAccountMapper);
+    private static final MapperCache<AccountSummary> SUMMARY_MAPPERS = new MapperCache<>(AccountDAO::compileSummaryMapper);
+    private static final EnumLookup<Account.AccountType> ACCOUNT_TYPES = new EnumLookup<>(Account.AccountType.class);
+    public static final int NO_DAY = Integer.MIN_VALUE;
+
+    /**
+     * Receives one account row from {@link #streamAccounts}.
+     */
+    public interface AccountRowSink {
+        void accept(int id, int customerId, int typeOrdinal, int openDay, int closeDay, long balanceMinor, long rateHundredths);
+    }
+
+    /**
+     * Receives one account's credit from {@link #streamInterestDue}.
+     */
+    public interface InterestDueSink {
+        void accept(int accountId, long dueMinor, long rateHundredths);
+    }
 
     // CREATE ACCOUNT
     public boolean addAccount(Account account) {
         String sql = "INSERT INTO accounts (customer_id, account_type, open_date, close_date, balance, interest_rate) VALUES (?, ?, ?, ?, ?, ?)";
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 
             stmt.setInt(1, account.getCustomerId());
             stmt.setString(2, account.getAccountType().name());
@@ -24,10 +49,17 @@ public class AccountDAO {
             } else {
                 stmt.setNull(4, Types.DATE);
             }
-            stmt.setDouble(5, account.getBalance());
+            Money.bind(stmt, 5, account.getBalanceMinor());
             stmt.setDouble(6, account.getInterestRate());
 
-            return stmt.executeUpdate() > 0;
+            if (stmt.executeUpdate() > 0) {
+                ResultSet rs = stmt.getGeneratedKeys();
+                if (rs.next()) {
+                    account.setId(rs.getInt(1));
+                }
+                return true;
+            }
+            return false;
 
         } catch (SQLException e) {
             e.printStackTrace();
@@ -37,23 +69,14 @@ public class AccountDAO {
 
     // READ ACCOUNT BY ID
     public Account getAccountById(int id) {
-        String sql = "SELECT * FROM accounts WHERE id = ?";
+        String sql = "SELECT " + COLUMNS + " FROM accounts WHERE id = ?";
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, id);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
-                Account account = new Account();
-                account.setId(rs.getInt("id"));
-                account.setCustomerId(rs.getInt("customer_id"));
-                account.setAccountType(Account.AccountType.valueOf(rs.getString("account_type")));
-                account.setOpenDate(rs.getDate("open_date").toLocalDate());
-                Date closeDate = rs.getDate("close_date");
-                if (closeDate != null) account.setCloseDate(closeDate.toLocalDate());
-                account.setBalance(rs.getDouble("balance"));
-                account.setInterestRate(rs.getDouble("interest_rate"));
-                return account;
+                return MAPPERS.forQuery(sql, rs).map(rs);
             }
 
         } catch (SQLException e) {
@@ -65,22 +88,90 @@ public class AccountDAO {
     // READ ALL ACCOUNTS
     public List<Account> getAllAccounts() {
         List<Account> accounts = new ArrayList<>();
-        String sql = "SELECT * FROM accounts";
+        String sql = "SELECT " + COLUMNS + " FROM accounts";
         try (Connection conn = DBConnection.getConnection();
              Statement stmt = conn.createStatement()) {
 
             ResultSet rs = stmt.executeQuery(sql);
+            RowMapper<Account> mapper = MAPPERS.forQuery(sql, rs);
+            while (rs.next()) {
+                accounts.add(mapper.map(rs));
+            }
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return accounts;
+    }
+
+    // STREAM EVERY ACCOUNT as primitives into the sink, in ID order (streamed row by row, so a large book
+    // is never held in memory or as Account objects); dates are epoch days, NO_DAY for no close date
+    public int streamAccounts(AccountRowSink sink) throws SQLException {
+        try (Connection conn = DBConnection.getConnection()) {
+            return streamAccounts(conn, 0, Integer.MAX_VALUE, sink);
+        }
+    }
+
+    // The same for fromId < id <= toId on the caller's connection (e.g. rows it has locked); the sink
+    // must not use that connection, which is busy until the last row is read
+    public int streamAccounts(Connection conn, int fromId, int toId, AccountRowSink sink) throws SQLException {
+        int streamed = 0;
+        String sql = "SELECT " + COLUMNS + " FROM accounts WHERE id > ? AND id <= ? ORDER BY id";
+        try (PreparedStatement stmt = TransactionDAO.openStreamingStatement(conn, sql)) {
+            stmt.setInt(1, fromId);
+            stmt.setInt(2, toId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    LocalDate closeDate = rs.getObject(5, LocalDate.class);
+                    sink.accept(rs.getInt(1), rs.getInt(2), ACCOUNT_TYPES.decode(rs.getString(3)).ordinal(),
+                            (int) rs.getObject(4, LocalDate.class).toEpochDay(),
+                            closeDate == null ? NO_DAY : (int) closeDate.toEpochDay(),
+                            Money.read(rs, 6), Money.rateHundredths(rs.getDouble(7)));
+                    streamed++;
+                }
+            }
+        }
+        return streamed;
+    }
+
+    // READ MANY ACCOUNTS BY ID in chunked IN (...) queries; IDs that do not exist are missing from the map
+    public Map<Integer, Account> getAccountsByIds(Collection<Integer> ids) {
+        try {
+            return IdBatchQuery.fetch("SELECT " + COLUMNS + " FROM accounts WHERE id", ids, MAPPERS, Account::getId);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return Collections.emptyMap();
+        }
+    }
+
+    // READ ONLY THE BALANCE (minor units), or null if the account does not exist
+    public Long getBalance(int id) {
+        String sql = "SELECT balance FROM accounts WHERE id = ?";
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, id);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? Money.read(rs, 1) : null;
+            }
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    // READ ALL ACCOUNTS AS LIST VIEWS (id, customer, type, balance) - for tables that do not need the full row
+    public List<AccountSummary> getAccountSummaries() {
+        List<AccountSummary> accounts = new ArrayList<>();
+        String sql = "SELECT id, customer_id, account_type, balance FROM accounts";
+        try (Connection conn = DBConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            RowMapper<AccountSummary> mapper = SUMMARY_MAPPERS.forQuery(sql, rs);
             while (rs.next()) {
-                Account account = new Account();
-                account.setId(rs.getInt("id"));
-                account.setCustomerId(rs.getInt("customer_id"));
-                account.setAccountType(Account.AccountType.valueOf(rs.getString("account_type")));
-                account.setOpenDate(rs.getDate("open_date").toLocalDate());
-                Date closeDate = rs.getDate("close_date");
-                if (closeDate != null) account.setCloseDate(closeDate.toLocalDate());
-                account.setBalance(rs.getDouble("balance"));
-                account.setInterestRate(rs.getDouble("interest_rate"));
-                accounts.add(account);
+                accounts.add(mapper.map(rs));
             }
 
         } catch (SQLException e) {
@@ -89,6 +180,22 @@ public class AccountDAO {
         return accounts;
     }
 
+    // READ ONE CUSTOMER'S ACCOUNTS AS LIST VIEWS on the caller's connection (uses the customer_id foreign-key index)
+    public List<AccountSummary> getAccountSummariesByCustomerId(Connection conn, int customerId) throws SQLException {
+        String sql = "SELECT id, customer_id, account_type, balance FROM accounts WHERE customer_id = ? ORDER BY id";
+        List<AccountSummary> accounts = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, customerId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                RowMapper<AccountSummary> mapper = SUMMARY_MAPPERS.forQuery(sql, rs);
+                while (rs.next()) {
+                    accounts.add(mapper.map(rs));
+                }
+            }
+        }
+        return accounts;
+    }
+
     // UPDATE ACCOUNT
     public boolean updateAccount(Account account) {
         String sql = "UPDATE accounts SET customer_id=?, account_type=?, open_date=?, close_date=?, balance=?, interest_rate=? WHERE id=?";
@@ -103,7 +210,7 @@ public class AccountDAO {
             } else {
                 stmt.setNull(4, Types.DATE);
             }
-            stmt.setDouble(5, account.getBalance());
+            Money.bind(stmt, 5, account.getBalanceMinor());
             stmt.setDouble(6, account.getInterestRate());
             stmt.setInt(7, account.getId());
 
@@ -115,6 +222,149 @@ public class AccountDAO {
         }
     }
 
+    // UPDATE ACCOUNT DETAILS - everything but the balance, for when the balance is owned elsewhere (the in-memory ledger)
+    public boolean updateAccountDetails(Account account) {
+        String sql = "UPDATE accounts SET customer_id=?, account_type=?, open_date=?, close_date=?, interest_rate=? WHERE id=?";
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, account.getCustomerId());
+            stmt.setString(2, account.getAccountType().name());
+            stmt.setDate(3, Date.valueOf(account.getOpenDate()));
+            if (account.getCloseDate() != null) {
+                stmt.setDate(4, Date.valueOf(account.getCloseDate()));
+            } else {
+                stmt.setNull(4, Types.DATE);
+            }
+            stmt.setDouble(5, account.getInterestRate());
+            stmt.setInt(6, account.getId());
+
+            return stmt.executeUpdate() > 0;
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    // CREDIT BALANCE (runs on the caller's connection so it can share a DB transaction)
+    public boolean creditBalance(Connection conn, int id, long amountMinor) throws SQLException {
+        String sql = "UPDATE accounts SET balance = balance + ? WHERE id = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            Money.bind(stmt, 1, amountMinor);
+            stmt.setInt(2, id);
+            return stmt.executeUpdate() > 0;
+        }
+    }
+
+    // DEBIT BALANCE - only succeeds if the account holds enough funds, checked and applied in one statement
+    public boolean debitBalance(Connection conn, int id, long amountMinor) throws SQLException {
+        String sql = "UPDATE accounts SET balance = balance - ? WHERE id = ? AND balance >= ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            Money.bind(stmt, 1, amountMinor);
+            stmt.setInt(2, id);
+            Money.bind(stmt, 3, amountMinor);
+            return stmt.executeUpdate() > 0;
+        }
+    }
+
+    // LOCK ONE ACCOUNT ROW FOR THE REST OF THE CALLER'S TRANSACTION and return its balance in minor units (null if it does not exist)
+    public Long lockBalanceForUpdate(Connection conn, int id) throws SQLException {
+        String sql = "SELECT balance FROM accounts WHERE id = ? FOR UPDATE";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, id);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? Money.read(rs, 1) : null;
+            }
+        }
+    }
+
+    // LOCK THE NEXT CHUNK OF ACCOUNTS (id > afterId) and return the highest id in it, or 0 if none are left
+    public int lockNextChunk(Connection conn, int afterId, int chunkSize) throws SQLException {
+        String sql = "SELECT id FROM accounts WHERE id > ? ORDER BY id LIMIT ? FOR UPDATE";
+        int lastId = 0;
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, afterId);
+            stmt.setInt(2, chunkSize);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) lastId = rs.getInt(1);
+            }
+        }
+        return lastId;
+    }
+
+    // APPLY INTEREST TO AN ID RANGE (fromId exclusive, toId inclusive) in one statement.
+    // Rounds the same way as TransactionDAO.addInterestTransactions so ledger and balance agree to the cent.
+    public int applyInterestToRange(Connection conn, int fromId, int toId) throws SQLException {
+        String sql = "UPDATE accounts SET balance = balance + ROUND(balance * interest_rate / 100, 2) " +
+                "WHERE id > ? AND id <= ? AND interest_rate > 0 AND ROUND(balance * interest_rate / 100, 2) > 0";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, fromId);
+            stmt.setInt(2, toId);
+            return stmt.executeUpdate();
+        }
+    }
+
+    // THE INTEREST applyInterestToRange WOULD CREDIT to each account in the range, by the same expression
+    // (call it with the rows locked, and it is exactly what the UPDATE then credits)
+    public void streamInterestDue(Connection conn, int fromId, int toId, InterestDueSink sink) throws SQLException {
+        String sql = "SELECT id, ROUND(balance * interest_rate / 100, 2), interest_rate FROM accounts " +
+                "WHERE id > ? AND id <= ? AND interest_rate > 0 AND ROUND(balance * interest_rate / 100, 2) > 0";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, fromId);
+            stmt.setInt(2, toId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    sink.accept(rs.getInt(1), Money.read(rs, 2), Money.rateHundredths(rs.getDouble(3)));
+                }
+            }
+        }
+    }
+
+    // RESTORE AN ACCOUNT ROW AS RECORDED ELSEWHERE (the mutation journal) on the caller's connection:
+    // update it, or insert it under its recorded ID if it does not exist. Without includeBalance an
+    // existing row keeps its balance.
+    public void restoreAccount(Connection conn, Account account, boolean includeBalance) throws SQLException {
+        String update = includeBalance
+                ? "UPDATE accounts SET customer_id=?, account_type=?, open_date=?, close_date=?, interest_rate=?, balance=? WHERE id=?"
+                : "UPDATE accounts SET customer_id=?, account_type=?, open_date=?, close_date=?, interest_rate=? WHERE id=?";
+        try (PreparedStatement stmt = conn.prepareStatement(update)) {
+            int next = bindDetails(stmt, account);
+            if (includeBalance) Money.bind(stmt, next++, account.getBalanceMinor());
+            stmt.setInt(next, account.getId());
+            if (stmt.executeUpdate() > 0) return;
+        }
+        String insert = "INSERT INTO accounts (customer_id, account_type, open_date, close_date, interest_rate, balance, id) VALUES (?, ?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(insert)) {
+            int next = bindDetails(stmt, account);
+            Money.bind(stmt, next++, account.getBalanceMinor());
+            stmt.setInt(next, account.getId());
+            stmt.executeUpdate();
+        }
+    }
+
+    // Binds customer, type, dates and rate as parameters 1-5; returns the next parameter index
+    private static int bindDetails(PreparedStatement stmt, Account account) throws SQLException {
+        stmt.setInt(1, account.getCustomerId());
+        stmt.setString(2, account.getAccountType().name());
+        stmt.setDate(3, Date.valueOf(account.getOpenDate()));
+        if (account.getCloseDate() != null) {
+            stmt.setDate(4, Date.valueOf(account.getCloseDate()));
+        } else {
+            stmt.setNull(4, Types.DATE);
+        }
+        stmt.setDouble(5, account.getInterestRate());
+        return 6;
+    }
+
+    // CACHE HOOKS - no-ops here; CachingAccountDAO drops its entries. Services call these after
+    // committing balance changes they made on their own connection.
+    public void evict(int id) {
+    }
+
+    public void evictAll() {
+    }
+
     // DELETE ACCOUNT
     public boolean deleteAccount(int id) {
         String sql = "DELETE FROM accounts WHERE id=?";
@@ -129,4 +379,44 @@ public class AccountDAO {
             return false;
         }
     }
+
+    // DELETE ACCOUNT on the caller's connection
+    public boolean deleteAccount(Connection conn, int id) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM accounts WHERE id=?")) {
+            stmt.setInt(1, id);
+            return stmt.executeUpdate() > 0;
+        }
+    }
+
+    // HELPER: COMPILE A ROW MAPPER for one result shape - column positions are looked up here, once,
+    // and the mapper only reads by index (package-private so the benchmarks can time it)
+    static RowMapper<Account> compileAccountMapper(ColumnIndex columns) throws SQLException {
+        int id = columns.require("id");
+        int customerId = columns.require("customer_id");
+        int accountType = columns.require("account_type");
+        int openDate = columns.require("open_date");
+        int closeDate = columns.require("close_date");
+        int balance = columns.require("balance");
+        int interestRate = columns.require("interest_rate");
+        return rs -> {
+            Account account = new Account();
+            account.setId(rs.getInt(id));
+            account.setCustomerId(rs.getInt(customerId));
+            account.setAccountType(ACCOUNT_TYPES.decode(rs.getString(accountType)));
+            account.setOpenDate(rs.getObject(openDate, LocalDate.class));
+            account.setCloseDate(rs.getObject(closeDate, LocalDate.class));
+            account.setBalanceMinor(Money.read(rs, balance));
+            account.setInterestRate(rs.getDouble(interestRate));
+            return account;
+        };
+    }
+
+    static RowMapper<AccountSummary> compileSummaryMapper(ColumnIndex columns) throws SQLException {
+        int id = columns.require("id");
+        int customerId = columns.require("customer_id");
+        int accountType = columns.require("account_type");
+        int balance = columns.require("balance");
+        return rs -> new AccountSummary(rs.getInt(id), rs.getInt(customerId),
+                ACCOUNT_TYPES.decode(rs.getString(accountType)), Money.read(rs, balance));
+    }
 }
@@ -0,0 +1,179 @@
+package dao;
+
+import cache.CacheStats;
+import cache.LruCache;
+import model.Account;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * AccountDAO with a read-through cache for single-account lookups.
+ *
+ * Writes made through this DAO invalidate the entry. Balance changes made on a caller's connection
+ * (creditBalance, debitBalance, applyInterestToRange) are invalidated immediately and again through
+ * evict()/evictAll() once the service has committed. A read stamps the key before going to the database
+ * and only caches the row if nothing invalidated the key meanwhile, so a read racing the commit cannot
+ * leave a stale entry behind. Callers always get their own copy, so mutating a returned Account never
+ * touches the cache.
+ *
+ * Invalidation only reaches readers of the same instance: share one per process (shared()).
+ */
+public class CachingAccountDAO extends AccountDAO {
+    private static final int DEFAULT_MAX_SIZE = 10_000;
+    private static final long DEFAULT_TTL_MILLIS = 60_000;
+
+    private static CachingAccountDAO shared;
+
+    private final LruCache<Integer, Account> cache;
+
+    public CachingAccountDAO() {
+        this(DEFAULT_MAX_SIZE, DEFAULT_TTL_MILLIS);
+    }
+
+    public CachingAccountDAO(int maxSize, long ttlMillis) {
+        this.cache = new LruCache<>(maxSize, ttlMillis);
+    }
+
+    // The process-wide instance, so an eviction after one service's commit reaches every reader
+    public static synchronized CachingAccountDAO shared() {
+        if (shared == null) shared = new CachingAccountDAO();
+        return shared;
+    }
+
+    public CacheStats getCacheStats() {
+        return cache.getStats();
+    }
+
+    @Override
+    public Account getAccountById(int id) {
+        Account cached = cache.get(id);
+        if (cached != null) return copy(cached);
+
+        long stamp = cache.stamp(id);
+        Account account = super.getAccountById(id);
+        if (account != null) cache.putIfCurrent(id, copy(account), stamp);
+        return account;
+    }
+
+    // Cache hits are copied out; all misses are fetched together in chunked IN (...) queries and cached
+    @Override
+    public Map<Integer, Account> getAccountsByIds(Collection<Integer> ids) {
+        Map<Integer, Account> accounts = new HashMap<>(ids.size() * 2);
+        List<Integer> misses = new ArrayList<>();
+        for (Integer id : ids) {
+            if (accounts.containsKey(id)) continue;
+            Account cached = cache.get(id);
+            if (cached != null) {
+                accounts.put(id, copy(cached));
+            } else {
+                misses.add(id);
+            }
+        }
+        if (!misses.isEmpty()) {
+            Map<Integer, Long> stamps = new HashMap<>(misses.size() * 2);
+            for (Integer id : misses) stamps.put(id, cache.stamp(id));
+            for (Account account : super.getAccountsByIds(misses).values()) {
+                cache.putIfCurrent(account.getId(), copy(account), stamps.get(account.getId()));
+                accounts.put(account.getId(), account);
+            }
+        }
+        return accounts;
+    }
+
+    // Served from a cached account when there is one; otherwise the balance-only query, without
+    // filling the cache with a row nobody asked for
+    @Override
+    public Long getBalance(int id) {
+        Account cached = cache.get(id);
+        if (cached != null) return cached.getBalanceMinor();
+        return super.getBalance(id);
+    }
+
+    @Override
+    public boolean addAccount(Account account) {
+        boolean added = super.addAccount(account);
+        if (added && account.getId() > 0) cache.invalidate(account.getId());
+        return added;
+    }
+
+    @Override
+    public boolean updateAccount(Account account) {
+        cache.invalidate(account.getId());
+        boolean updated = super.updateAccount(account);
+        cache.invalidate(account.getId());
+        return updated;
+    }
+
+    @Override
+    public boolean updateAccountDetails(Account account) {
+        cache.invalidate(account.getId());
+        boolean updated = super.updateAccountDetails(account);
+        cache.invalidate(account.getId());
+        return updated;
+    }
+
+    @Override
+    public boolean deleteAccount(int id) {
+        boolean deleted = super.deleteAccount(id);
+        cache.invalidate(id);
+        return deleted;
+    }
+
+    @Override
+    public boolean deleteAccount(Connection conn, int id) throws SQLException {
+        cache.invalidate(id);
+        return super.deleteAccount(conn, id);
+    }
+
+    @Override
+    public void restoreAccount(Connection conn, Account account, boolean includeBalance) throws SQLException {
+        cache.invalidate(account.getId());
+        super.restoreAccount(conn, account, includeBalance);
+    }
+
+    @Override
+    public boolean creditBalance(Connection conn, int id, long amountMinor) throws SQLException {
+        cache.invalidate(id);
+        return super.creditBalance(conn, id, amountMinor);
+    }
+
+    @Override
+    public boolean debitBalance(Connection conn, int id, long amountMinor) throws SQLException {
+        cache.invalidate(id);
+        return super.debitBalance(conn, id, amountMinor);
+    }
+
+    @Override
+    public int applyInterestToRange(Connection conn, int fromId, int toId) throws SQLException {
+        cache.clear();
+        return super.applyInterestToRange(conn, fromId, toId);
+    }
+
+    @Override
+    public void evict(int id) {
+        cache.invalidate(id);
+    }
+
+    @Override
+    public void evictAll() {
+        cache.clear();
+    }
+
+    private static Account copy(Account source) {
+        Account account = new Account();
+        account.setId(source.getId());
+        account.setCustomerId(source.getCustomerId());
+        account.setAccountType(source.getAccountType());
+        account.setOpenDate(source.getOpenDate());
+        account.setCloseDate(source.getCloseDate());
+        account.setBalanceMinor(source.getBalanceMinor());
+        account.setInterestRate(source.getInterestRate());
+        return account;
+    }
+}
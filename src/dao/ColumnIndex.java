@@ -0,0 +1,40 @@
+package dao;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Column label to 1-based position lookup for one result shape, read once from ResultSetMetaData.
+ */
+final class ColumnIndex {
+    private final Map<String, Integer> positions;
+
+    ColumnIndex(ResultSetMetaData metaData) throws SQLException {
+        int count = metaData.getColumnCount();
+        positions = new HashMap<>(count * 2);
+        for (int i = 1; i <= count; i++) {
+            // First occurrence wins, as with ResultSet.findColumn
+            positions.putIfAbsent(metaData.getColumnLabel(i).toLowerCase(Locale.ROOT), i);
+        }
+    }
+
+    /**
+     * Position of a column the mapper cannot do without.
+     */
+    int require(String label) throws SQLException {
+        int position = find(label);
+        if (position == 0) throw new SQLException("Column '" + label + "' is not in the result.");
+        return position;
+    }
+
+    /**
+     * Position of an optional column, or 0 if the query did not select it.
+     */
+    int find(String label) {
+        Integer position = positions.get(label.toLowerCase(Locale.ROOT));
+        return position != null ? position : 0;
+    }
+}
@@ -5,9 +5,14 @@ import db.DBConnection;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 public class CustomerDAO {
+    private static final String COLUMNS = "id, full_name, address, contact_no, email, pan_number, created_at";
+    private static final MapperCache<Customer> MAPPERS = new MapperCache<>(CustomerDAO::compileCustomerMapper);
 
     // CREATE CUSTOMER
     public boolean addCustomer(Customer customer) {
@@ -32,22 +37,14 @@ public class CustomerDAO {
 
     // READ CUSTOMER BY ID
     public Customer getCustomerById(int id) {
-        String sql = "SELECT * FROM customers WHERE id = ?";
+        String sql = "SELECT " + COLUMNS + " FROM customers WHERE id = ?";
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, id);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
-                Customer customer = new Customer();
-                customer.setId(rs.getInt("id"));
-                customer.setFullName(rs.getString("full_name"));
-                customer.setAddress(rs.getString("address"));
-                customer.setContactNo(rs.getString("contact_no"));
-                customer.setEmail(rs.getString("email"));
-                customer.setPanNumber(rs.getString("pan_number"));
-                customer.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
-                return customer;
+                return MAPPERS.forQuery(sql, rs).map(rs);
             }
 
         } catch (SQLException e) {
@@ -56,24 +53,55 @@ public class CustomerDAO {
         return null;
     }
 
+    // READ CUSTOMER BY ID on the caller's connection (null if missing)
+    public Customer getCustomerById(Connection conn, int id) throws SQLException {
+        String sql = "SELECT " + COLUMNS + " FROM customers WHERE id = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, id);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? MAPPERS.forQuery(sql, rs).map(rs) : null;
+            }
+        }
+    }
+
+    // READ MANY CUSTOMERS BY ID in chunked IN (...) queries; IDs that do not exist are missing from the map
+    public Map<Integer, Customer> getCustomersByIds(Collection<Integer> ids) {
+        try {
+            return IdBatchQuery.fetch("SELECT " + COLUMNS + " FROM customers WHERE id", ids, MAPPERS, Customer::getId);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return Collections.emptyMap();
+        }
+    }
+
+    // CHECK A CUSTOMER EXISTS without reading the row
+    public boolean customerExists(int id) {
+        String sql = "SELECT EXISTS (SELECT 1 FROM customers WHERE id = ?)";
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, id);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
     // READ ALL CUSTOMERS
     public List<Customer> getAllCustomers() {
         List<Customer> customers = new ArrayList<>();
-        String sql = "SELECT * FROM customers";
+        String sql = "SELECT " + COLUMNS + " FROM customers";
         try (Connection conn = DBConnection.getConnection();
              Statement stmt = conn.createStatement()) {
 
             ResultSet rs = stmt.executeQuery(sql);
+            RowMapper<Customer> mapper = MAPPERS.forQuery(sql, rs);
             while (rs.next()) {
-                Customer customer = new Customer();
-                customer.setId(rs.getInt("id"));
-                customer.setFullName(rs.getString("full_name"));
-                customer.setAddress(rs.getString("address"));
-                customer.setContactNo(rs.getString("contact_no"));
-                customer.setEmail(rs.getString("email"));
-                customer.setPanNumber(rs.getString("pan_number"));
-                customer.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
-                customers.add(customer);
+                customers.add(mapper.map(rs));
             }
 
         } catch (SQLException e) {
@@ -117,4 +145,28 @@ public class CustomerDAO {
             return false;
         }
     }
+
+    // HELPER: COMPILE A ROW MAPPER for one result shape - column positions are looked up once
+    // (package-private so the benchmarks can time it)
+    static RowMapper<Customer> compileCustomerMapper(ColumnIndex columns) throws SQLException {
+        int id = columns.require("id");
+        int fullName = columns.require("full_name");
+        int address = columns.require("address");
+        int contactNo = columns.require("contact_no");
+        int email = columns.require("email");
+        int panNumber = columns.require("pan_number");
+        int createdAt = columns.require("created_at");
+        return rs -> {
+            Customer customer = new Customer();
+            customer.setId(rs.getInt(id));
+            customer.setFullName(rs.getString(fullName));
+            customer.setAddress(rs.getString(address));
+            customer.setContactNo(rs.getString(contactNo));
+            customer.setEmail(rs.getString(email));
+            customer.setPanNumber(rs.getString(panNumber));
+            Timestamp timestamp = rs.getTimestamp(createdAt);
+            customer.setCreatedAt(timestamp != null ? timestamp.toLocalDateTime() : null);
+            return customer;
+        };
+    }
 }
@@ -0,0 +1,31 @@
+package dao;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Precomputed name to constant table for decoding ENUM columns, built once per enum type.
+ * Behaves like Enum.valueOf (unknown names throw IllegalArgumentException) without the per-call
+ * class lookup.
+ */
+final class EnumLookup<E extends Enum<E>> {
+    private final Class<E> type;
+    private final Map<String, E> byName;
+
+    EnumLookup(Class<E> type) {
+        this.type = type;
+        E[] constants = type.getEnumConstants();
+        byName = new HashMap<>(constants.length * 2);
+        for (E constant : constants) {
+            byName.put(constant.name(), constant);
+        }
+    }
+
+    E decode(String name) {
+        E constant = byName.get(name);
+        if (constant == null) {
+            throw new IllegalArgumentException("No " + type.getSimpleName() + " named '" + name + "'");
+        }
+        return constant;
+    }
+}
@@ -0,0 +1,73 @@
+package dao;
+
+import db.DBConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * Fetches rows for many IDs with {@code WHERE id IN (...)} queries on one pooled connection.
+ *
+ * IDs are de-duplicated and sent in chunks of at most {@link #MAX_CHUNK}. Each chunk's placeholder
+ * count is rounded up to a power of two (padding repeats the last ID), so only a handful of distinct
+ * SQL strings exist and the pool's statement cache and the mapper cache keep hitting.
+ */
+final class IdBatchQuery {
+    static final int MAX_CHUNK = 256;
+
+    private IdBatchQuery() {
+    }
+
+    /**
+     * @param selectFrom everything before the IN list, e.g. {@code "SELECT ... FROM accounts WHERE id"}
+     * @return rows keyed by ID; IDs with no row are absent
+     */
+    static <T> Map<Integer, T> fetch(String selectFrom, Collection<Integer> ids, MapperCache<T> mappers,
+                                     ToIntFunction<T> idOf) throws SQLException {
+        List<Integer> unique = new ArrayList<>(new LinkedHashSet<>(ids));
+        Map<Integer, T> rows = new HashMap<>(unique.size() * 2);
+        if (unique.isEmpty()) return rows;
+
+        try (Connection conn = DBConnection.getConnection()) {
+            if (conn == null) throw new SQLException("No database connection available.");
+
+            for (int from = 0; from < unique.size(); from += MAX_CHUNK) {
+                List<Integer> chunk = unique.subList(from, Math.min(from + MAX_CHUNK, unique.size()));
+                int slots = chunk.size() == 1 ? 1 : Integer.highestOneBit(chunk.size() - 1) << 1;
+                String sql = selectFrom + " IN (" + placeholders(slots) + ")";
+
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    for (int i = 0; i < slots; i++) {
+                        stmt.setInt(i + 1, chunk.get(Math.min(i, chunk.size() - 1)));
+                    }
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        RowMapper<T> mapper = mappers.forQuery(sql, rs);
+                        while (rs.next()) {
+                            T row = mapper.map(rs);
+                            rows.put(idOf.applyAsInt(row), row);
+                        }
+                    }
+                }
+            }
+        }
+        return rows;
+    }
+
+    private static String placeholders(int count) {
+        StringBuilder sb = new StringBuilder(count * 3);
+        for (int i = 0; i < count; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append('?');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,48 @@
+package dao;
+
+import java.sql.*;
+
+/**
+ * Rows of the idempotency_keys table. All methods take the caller's connection so the key is
+ * committed (or rolled back) together with the operation it guards.
+ */
+public class IdempotencyKeyDAO {
+
+    // 1. CLAIM A KEY - fails with SQLIntegrityConstraintViolationException if it was already used.
+    // A concurrent claim of the same key blocks here until the first transaction commits or rolls back.
+    public void insertKey(Connection conn, String key, String operation, String requestHash) throws SQLException {
+        String sql = "INSERT INTO idempotency_keys (idem_key, operation, request_hash, succeeded, created_at) VALUES (?, ?, ?, FALSE, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, key);
+            stmt.setString(2, operation);
+            stmt.setString(3, requestHash);
+            stmt.setTimestamp(4, new Timestamp(System.currentTimeMillis()));
+            stmt.executeUpdate();
+        }
+    }
+
+    // 2. STORE THE OUTCOME OF THE GUARDED OPERATION
+    public void setResult(Connection conn, String key, boolean succeeded) throws SQLException {
+        String sql = "UPDATE idempotency_keys SET succeeded = ? WHERE idem_key = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setBoolean(1, succeeded);
+            stmt.setString(2, key);
+            stmt.executeUpdate();
+        }
+    }
+
+    // 3. ORIGINAL OUTCOME FOR A KEY (null if the key is unknown or was used for another operation or request;
+    // keys stored before request hashes were kept match any request)
+    public Boolean findResult(Connection conn, String key, String operation, String requestHash) throws SQLException {
+        String sql = "SELECT succeeded FROM idempotency_keys WHERE idem_key = ? AND operation = ? " +
+                "AND (request_hash = ? OR request_hash IS NULL)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, key);
+            stmt.setString(2, operation);
+            stmt.setString(3, requestHash);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getBoolean(1) : null;
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package dao;
+
+import java.sql.*;
+
+/**
+ * Checkpoint rows for interest posting runs. All methods take the caller's connection so the
+ * checkpoint is committed in the same DB transaction as the chunk it describes.
+ */
+public class InterestRunDAO {
+
+    // 1. FIND A RUN THAT STARTED BUT NEVER COMPLETED (returns {runId, lastAccountId, accountsPosted} or null)
+    public int[] findUnfinishedRun(Connection conn) throws SQLException {
+        String sql = "SELECT id, last_account_id, accounts_posted FROM interest_runs " +
+                "WHERE status = 'RUNNING' ORDER BY id LIMIT 1";
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            if (rs.next()) {
+                return new int[]{rs.getInt("id"), rs.getInt("last_account_id"), rs.getInt("accounts_posted")};
+            }
+        }
+        return null;
+    }
+
+    // 2. START A NEW RUN
+    public int startRun(Connection conn) throws SQLException {
+        String sql = "INSERT INTO interest_runs (started_at, last_account_id, accounts_posted, status) VALUES (?, 0, 0, 'RUNNING')";
+        try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            stmt.setTimestamp(1, new Timestamp(System.currentTimeMillis()));
+            stmt.executeUpdate();
+            ResultSet rs = stmt.getGeneratedKeys();
+            if (rs.next()) return rs.getInt(1);
+        }
+        throw new SQLException("Could not create interest run checkpoint.");
+    }
+
+    // 2b. LOCK A RUN'S ROW FOR THE REST OF THE TRANSACTION and read its checkpoint
+    // (-1 if the run is missing or no longer RUNNING)
+    public int lockCheckpoint(Connection conn, int runId) throws SQLException {
+        String sql = "SELECT last_account_id, status FROM interest_runs WHERE id = ? FOR UPDATE";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, runId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next() && "RUNNING".equals(rs.getString(2))) return rs.getInt(1);
+            }
+        }
+        return -1;
+    }
+
+    // 3. MOVE THE CHECKPOINT PAST A POSTED CHUNK
+    public void advance(Connection conn, int runId, int lastAccountId, int postedInChunk) throws SQLException {
+        String sql = "UPDATE interest_runs SET last_account_id = ?, accounts_posted = accounts_posted + ? WHERE id = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, lastAccountId);
+            stmt.setInt(2, postedInChunk);
+            stmt.setInt(3, runId);
+            stmt.executeUpdate();
+        }
+    }
+
+    // 4. MARK A RUN AS COMPLETED
+    public void completeRun(Connection conn, int runId) throws SQLException {
+        String sql = "UPDATE interest_runs SET status = 'COMPLETED', finished_at = ? WHERE id = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setTimestamp(1, new Timestamp(System.currentTimeMillis()));
+            stmt.setInt(2, runId);
+            stmt.executeUpdate();
+        }
+    }
+}
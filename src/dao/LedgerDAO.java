@@ -0,0 +1,154 @@
+package dao;
+
+import db.DBConnection;
+import db.TransactionRunner;
+import model.LedgerBatch;
+import model.Money;
+
+import java.sql.*;
+
+/**
+ * Storage side of the in-memory ledger (see ledger.LedgerEngine): loads the account book at startup and
+ * writes the ledger's postings back as transactions rows and balance changes, together with the
+ * sequence of the last posting written (ledger_checkpoint), so a restart knows which journal records
+ * the database has not seen yet. service.JournalReplayer writes postings the same way, under its own
+ * checkpoint row.
+ */
+public class LedgerDAO {
+    // ledger_checkpoint rows
+    public static final int LEDGER_CHECKPOINT = 1;
+    public static final int REPLAY_CHECKPOINT = 2;
+
+    private static final String INSERT_TRANSACTION_SQL = "INSERT INTO transactions (account_id, transaction_type, amount, date, narration) " +
+            "VALUES (?, ?, ?, ?, ?)";
+
+    /**
+     * Receives one account row from {@link #loadAccounts}.
+     */
+    public interface AccountSink {
+        void accept(int accountId, long balanceMinor, long rateHundredths);
+    }
+
+    // 1. HIGHEST ACCOUNT ID (0 if there are none), to size the ledger's arrays
+    public int getMaxAccountId() throws SQLException {
+        try (Connection conn = DBConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(id), 0) FROM accounts")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    // 2. STREAM EVERY OPEN ACCOUNT'S BALANCE AND RATE into the sink
+    public int loadAccounts(AccountSink sink) throws SQLException {
+        int loaded = 0;
+        String sql = "SELECT id, balance, interest_rate FROM accounts WHERE close_date IS NULL";
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = TransactionDAO.openStreamingStatement(conn, sql)) {
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    sink.accept(rs.getInt(1), Money.read(rs, 2), Money.rateHundredths(rs.getDouble(3)));
+                    loaded++;
+                }
+            }
+        }
+        return loaded;
+    }
+
+    // 3. SEQUENCE OF THE LAST POSTING THE DATABASE HAS (0 before the first batch)
+    public long readCheckpoint() throws SQLException {
+        return readCheckpoint(LEDGER_CHECKPOINT);
+    }
+
+    public long readCheckpoint(int checkpointId) throws SQLException {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT last_sequence FROM ledger_checkpoint WHERE id = ?")) {
+            stmt.setInt(1, checkpointId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+
+    /**
+     * 4. WRITE A BATCH in one DB transaction: a transactions row per leg, one balance update per account
+     * (the net change of the batch) and the new checkpoint. Nothing is written if any part fails.
+     */
+    public void persist(LedgerBatch batch) throws SQLException {
+        TransactionRunner.inTransaction(conn -> {
+            persistPostings(conn, batch);
+            writeCheckpoint(conn, LEDGER_CHECKPOINT, batch.getLastSequence());
+            return null;
+        });
+    }
+
+    // 4b. WRITE A BATCH'S ROWS AND BALANCE CHANGES on the caller's connection (no checkpoint)
+    public void persistPostings(Connection conn, LedgerBatch batch) throws SQLException {
+        if (batch.size() == 0) return;
+        insertTransactions(conn, batch);
+        updateBalances(conn, batch);
+    }
+
+    // 4c. MOVE A CHECKPOINT on the caller's connection (the row is created on first use)
+    public void writeCheckpoint(Connection conn, int checkpointId, long sequence) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("UPDATE ledger_checkpoint SET last_sequence = ? WHERE id = ?")) {
+            stmt.setLong(1, sequence);
+            stmt.setInt(2, checkpointId);
+            if (stmt.executeUpdate() > 0) return;
+        }
+        try (PreparedStatement stmt = conn.prepareStatement("INSERT INTO ledger_checkpoint (id, last_sequence) VALUES (?, ?)")) {
+            stmt.setInt(1, checkpointId);
+            stmt.setLong(2, sequence);
+            stmt.executeUpdate();
+        }
+    }
+
+    private void insertTransactions(Connection conn, LedgerBatch batch) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_TRANSACTION_SQL)) {
+            for (int i = 0; i < batch.size(); i++) {
+                int accountId = batch.getAccountId(i);
+                long amount = batch.getAmountMinor(i);
+                Timestamp date = new Timestamp(batch.getTimeMillis(i));
+                String narration = batch.getNarration(i); // the caller's, or null for the standard one
+                switch (batch.getType(i)) {
+                    case LedgerBatch.DEPOSIT -> addRow(stmt, accountId, "DEPOSIT", amount, date,
+                            narration != null ? narration : "Cash Deposit");
+                    case LedgerBatch.WITHDRAWAL -> addRow(stmt, accountId, "WITHDRAWAL", amount, date,
+                            narration != null ? narration : "Cash Withdrawal");
+                    case LedgerBatch.INTEREST -> addRow(stmt, accountId, "DEPOSIT", amount, date,
+                            narration != null ? narration : "Interest applied (" + Money.toMajor(batch.getRateHundredths(i)) + "%)");
+                    case LedgerBatch.TRANSFER -> {
+                        int target = batch.getOtherAccountId(i);
+                        String base = narration != null ? narration : "Fund Transfer";
+                        addRow(stmt, accountId, "TRANSFER_OUT", amount, date, base + " - to A/C " + target);
+                        addRow(stmt, target, "TRANSFER_IN", amount, date, base + " - from A/C " + accountId);
+                    }
+                    default -> throw new SQLException("Unknown posting type " + batch.getType(i));
+                }
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    private void addRow(PreparedStatement stmt, int accountId, String type, long amountMinor,
+                        Timestamp date, String narration) throws SQLException {
+        stmt.setInt(1, accountId);
+        stmt.setString(2, type);
+        Money.bind(stmt, 3, amountMinor);
+        stmt.setTimestamp(4, date);
+        stmt.setString(5, narration);
+        stmt.addBatch();
+    }
+
+    private void updateBalances(Connection conn, LedgerBatch batch) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("UPDATE accounts SET balance = balance + ? WHERE id = ?")) {
+            for (int i = 0; i < batch.getDeltaCount(); i++) {
+                long delta = batch.getDeltaMinor(i);
+                if (delta == 0) continue;
+                Money.bind(stmt, 1, delta);
+                stmt.setInt(2, batch.getDeltaAccountId(i));
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+}
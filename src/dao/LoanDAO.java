@@ -2,30 +2,47 @@ package dao;
 
 import model.Loan;
 import model.Loan.LoanType;
+import model.LoanSummary;
+import model.Money;
 import db.DBConnection;
 
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 public class LoanDAO {
+    private static final String COLUMNS = "id, customer_id, loan_type, amount_sanctioned, balance, interest_rate, tenure_months, open_date, close_date";
+    private static final MapperCache<Loan> MAPPERS = new MapperCache<>(LoanDAO::compileLoanMapper);
+    private static final MapperCache<LoanSummary> SUMMARY_MAPPERS = new MapperCache<>(LoanDAO::compileSummaryMapper);
+    private static final EnumLookup<LoanType> LOAN_TYPES = new EnumLookup<>(LoanType.class);
+
+    /**
+     * Receives one loan's monthly interest from {@link #lockMonthlyInterestDue(Connection, int, int, InterestDueSink)}.
+     */
+    public interface InterestDueSink {
+        void accept(int loanId, long interestMinor, long balanceAfterMinor, long rateHundredths);
+    }
 
     // 1. INSERT NEW LOAN
     public boolean addLoan(Loan loan) {
-        String sql = "INSERT INTO loans (customer_id, loan_type, amount_sanctioned, balance, interest_rate, open_date, close_date) " +
-                "VALUES (?, ?, ?, ?, ?, ?, ?)";
+        String sql = "INSERT INTO loans (customer_id, loan_type, amount_sanctioned, balance, interest_rate, open_date, close_date, tenure_months) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
 
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 
             stmt.setInt(1, loan.getCustomerId());
             stmt.setString(2, loan.getLoanType().name());
-            stmt.setDouble(3, loan.getAmountSanctioned());
-            stmt.setDouble(4, loan.getBalance());
+            Money.bind(stmt, 3, loan.getAmountSanctionedMinor());
+            Money.bind(stmt, 4, loan.getBalanceMinor());
             stmt.setDouble(5, loan.getInterestRate());
             stmt.setDate(6, Date.valueOf(loan.getOpenDate()));
             stmt.setDate(7, loan.getCloseDate() != null ? Date.valueOf(loan.getCloseDate()) : null);
+            stmt.setInt(8, loan.getTenureMonths());
 
             int rows = stmt.executeUpdate();
             if (rows > 0) {
@@ -44,7 +61,7 @@ public class LoanDAO {
     // 2. GET LOAN BY ID
 
     public Loan getLoanById(int id) {
-        String sql = "SELECT * FROM loans WHERE id = ?";
+        String sql = "SELECT " + COLUMNS + " FROM loans WHERE id = ?";
         Loan loan = null;
 
         try (Connection conn = DBConnection.getConnection();
@@ -54,7 +71,7 @@ public class LoanDAO {
             ResultSet rs = stmt.executeQuery();
 
             if (rs.next()) {
-                loan = mapResultSetToLoan(rs);
+                loan = MAPPERS.forQuery(sql, rs).map(rs);
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -63,17 +80,47 @@ public class LoanDAO {
     }
 
 
+    // 2b. GET MANY LOANS BY ID in chunked IN (...) queries; IDs that do not exist are missing from the map
+    public Map<Integer, Loan> getLoansByIds(Collection<Integer> ids) {
+        try {
+            return IdBatchQuery.fetch("SELECT " + COLUMNS + " FROM loans WHERE id", ids, MAPPERS, Loan::getId);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return Collections.emptyMap();
+        }
+    }
+
     // 3. GET ALL LOANS
     public List<Loan> getAllLoans() {
-        String sql = "SELECT * FROM loans";
+        String sql = "SELECT " + COLUMNS + " FROM loans";
         List<Loan> loans = new ArrayList<>();
 
         try (Connection conn = DBConnection.getConnection();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
 
+            RowMapper<Loan> mapper = MAPPERS.forQuery(sql, rs);
+            while (rs.next()) {
+                loans.add(mapper.map(rs));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return loans;
+    }
+
+    // 3b. GET ALL LOANS AS LIST VIEWS (id, customer, type, balance) - for tables that do not need the full row
+    public List<LoanSummary> getLoanSummaries() {
+        String sql = "SELECT id, customer_id, loan_type, balance FROM loans";
+        List<LoanSummary> loans = new ArrayList<>();
+
+        try (Connection conn = DBConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            RowMapper<LoanSummary> mapper = SUMMARY_MAPPERS.forQuery(sql, rs);
             while (rs.next()) {
-                loans.add(mapResultSetToLoan(rs));
+                loans.add(mapper.map(rs));
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -81,22 +128,39 @@ public class LoanDAO {
         return loans;
     }
 
+    // 3c. GET ONE CUSTOMER'S OPEN LOANS AS LIST VIEWS on the caller's connection (uses the customer_id foreign-key index)
+    public List<LoanSummary> getOpenLoanSummariesByCustomerId(Connection conn, int customerId) throws SQLException {
+        String sql = "SELECT id, customer_id, loan_type, balance FROM loans WHERE customer_id = ? AND close_date IS NULL ORDER BY id";
+        List<LoanSummary> loans = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, customerId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                RowMapper<LoanSummary> mapper = SUMMARY_MAPPERS.forQuery(sql, rs);
+                while (rs.next()) {
+                    loans.add(mapper.map(rs));
+                }
+            }
+        }
+        return loans;
+    }
+
     // 4. UPDATE LOAN
     public boolean updateLoan(Loan loan) {
         String sql = "UPDATE loans SET customer_id = ?, loan_type = ?, amount_sanctioned = ?, " +
-                "balance = ?, interest_rate = ?, open_date = ?, close_date = ? WHERE id = ?";
+                "balance = ?, interest_rate = ?, open_date = ?, close_date = ?, tenure_months = ? WHERE id = ?";
 
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, loan.getCustomerId());
             stmt.setString(2, loan.getLoanType().name());
-            stmt.setDouble(3, loan.getAmountSanctioned());
-            stmt.setDouble(4, loan.getBalance());
+            Money.bind(stmt, 3, loan.getAmountSanctionedMinor());
+            Money.bind(stmt, 4, loan.getBalanceMinor());
             stmt.setDouble(5, loan.getInterestRate());
             stmt.setDate(6, Date.valueOf(loan.getOpenDate()));
             stmt.setDate(7, loan.getCloseDate() != null ? Date.valueOf(loan.getCloseDate()) : null);
-            stmt.setInt(8, loan.getId());
+            stmt.setInt(8, loan.getTenureMonths());
+            stmt.setInt(9, loan.getId());
 
             return stmt.executeUpdate() > 0;
 
@@ -106,6 +170,39 @@ public class LoanDAO {
         return false;
     }
 
+    // 4b. LOCK ONE LOAN ROW FOR THE REST OF THE CALLER'S TRANSACTION and return its balance in minor units (null if missing)
+    public Long lockBalanceForUpdate(Connection conn, int id) throws SQLException {
+        String sql = "SELECT balance FROM loans WHERE id = ? FOR UPDATE";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, id);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? Money.read(rs, 1) : null;
+            }
+        }
+    }
+
+    // 4c. SET THE BALANCE (and close date, when the loan is paid off) on the caller's connection
+    public boolean updateBalance(Connection conn, int id, long balanceMinor, LocalDate closeDate) throws SQLException {
+        String sql = "UPDATE loans SET balance = ?, close_date = COALESCE(?, close_date) WHERE id = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            Money.bind(stmt, 1, balanceMinor);
+            stmt.setDate(2, closeDate != null ? Date.valueOf(closeDate) : null);
+            stmt.setInt(3, id);
+            return stmt.executeUpdate() > 0;
+        }
+    }
+
+    // 4d. ADD TO THE BALANCE (negative to take off; sets the close date if one is given) on the caller's connection
+    public boolean addToBalance(Connection conn, int id, long deltaMinor, LocalDate closeDate) throws SQLException {
+        String sql = "UPDATE loans SET balance = balance + ?, close_date = COALESCE(?, close_date) WHERE id = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            Money.bind(stmt, 1, deltaMinor);
+            stmt.setDate(2, closeDate != null ? Date.valueOf(closeDate) : null);
+            stmt.setInt(3, id);
+            return stmt.executeUpdate() > 0;
+        }
+    }
+
     // 5. DELETE LOAN
     public boolean deleteLoan(int id) {
         String sql = "DELETE FROM loans WHERE id = ?";
@@ -121,26 +218,130 @@ public class LoanDAO {
         return false;
     }
 
-    // HELPER: MAP RESULTSET TO MODEL
-    private Loan mapResultSetToLoan(ResultSet rs) throws SQLException {
-        Loan loan = new Loan();
-        loan.setId(rs.getInt("id"));
-        loan.setCustomerId(rs.getInt("customer_id"));
-        loan.setLoanType(LoanType.valueOf(rs.getString("loan_type")));
-        loan.setAmountSanctioned(rs.getDouble("amount_sanctioned"));
-        loan.setBalance(rs.getDouble("balance"));
-        loan.setInterestRate(rs.getDouble("interest_rate"));
+    // 5b. DELETE LOAN on the caller's connection
+    public boolean deleteLoan(Connection conn, int id) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM loans WHERE id = ?")) {
+            stmt.setInt(1, id);
+            return stmt.executeUpdate() > 0;
+        }
+    }
 
-        Date openDate = rs.getDate("open_date");
-        if (openDate != null) {
-            loan.setOpenDate(openDate.toLocalDate());
+    // 5c. RESTORE A LOAN ROW AS RECORDED ELSEWHERE (the mutation journal) on the caller's connection:
+    // update it, or insert it under its recorded ID if it does not exist
+    public void restoreLoan(Connection conn, Loan loan) throws SQLException {
+        String update = "UPDATE loans SET customer_id = ?, loan_type = ?, amount_sanctioned = ?, " +
+                "balance = ?, interest_rate = ?, open_date = ?, close_date = ?, tenure_months = ? WHERE id = ?";
+        String insert = "INSERT INTO loans (customer_id, loan_type, amount_sanctioned, balance, interest_rate, open_date, close_date, tenure_months, id) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        for (String sql : new String[]{update, insert}) {
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, loan.getCustomerId());
+                stmt.setString(2, loan.getLoanType().name());
+                Money.bind(stmt, 3, loan.getAmountSanctionedMinor());
+                Money.bind(stmt, 4, loan.getBalanceMinor());
+                stmt.setDouble(5, loan.getInterestRate());
+                stmt.setDate(6, Date.valueOf(loan.getOpenDate()));
+                stmt.setDate(7, loan.getCloseDate() != null ? Date.valueOf(loan.getCloseDate()) : null);
+                stmt.setInt(8, loan.getTenureMonths());
+                stmt.setInt(9, loan.getId());
+                if (stmt.executeUpdate() > 0) return;
+            }
         }
+    }
 
-        Date closeDate = rs.getDate("close_date");
-        if (closeDate != null) {
-            loan.setCloseDate(closeDate.toLocalDate());
+    // 6. ID RANGE OF ACTIVE LOANS ({min, max}, or null when there are none)
+    public int[] getActiveLoanIdRange(Connection conn) throws SQLException {
+        String sql = "SELECT MIN(id), MAX(id) FROM loans WHERE close_date IS NULL";
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            if (rs.next() && rs.getObject(1) != null) {
+                return new int[]{rs.getInt(1), rs.getInt(2)};
+            }
         }
+        return null;
+    }
 
-        return loan;
+    // 7. LOCK ACTIVE LOANS IN AN ID RANGE (inclusive) and total the monthly interest due ({loans, interest in minor units})
+    public long[] lockMonthlyInterestDue(Connection conn, int startId, int endId) throws SQLException {
+        String sql = "SELECT COUNT(*), COALESCE(SUM(ROUND(balance * interest_rate / 1200, 2)), 0) FROM loans " +
+                "WHERE id BETWEEN ? AND ? AND close_date IS NULL AND interest_rate > 0 " +
+                "AND ROUND(balance * interest_rate / 1200, 2) > 0 FOR UPDATE";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, startId);
+            stmt.setInt(2, endId);
+            ResultSet rs = stmt.executeQuery();
+            rs.next();
+            return new long[]{rs.getInt(1), Money.read(rs, 2)};
+        }
+    }
+
+    // 7b. THE SAME, handing each loan's interest to the sink as well
+    public long[] lockMonthlyInterestDue(Connection conn, int startId, int endId, InterestDueSink sink) throws SQLException {
+        String sql = "SELECT id, ROUND(balance * interest_rate / 1200, 2), balance, interest_rate FROM loans " +
+                "WHERE id BETWEEN ? AND ? AND close_date IS NULL AND interest_rate > 0 " +
+                "AND ROUND(balance * interest_rate / 1200, 2) > 0 FOR UPDATE";
+        long loans = 0;
+        long total = 0;
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, startId);
+            stmt.setInt(2, endId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    long interest = Money.read(rs, 2);
+                    sink.accept(rs.getInt(1), interest, Money.read(rs, 3) + interest, Money.rateHundredths(rs.getDouble(4)));
+                    loans++;
+                    total += interest;
+                }
+            }
+        }
+        return new long[]{loans, total};
+    }
+
+    // 8. ADD ONE MONTH OF INTEREST (annual rate / 12) TO ACTIVE LOANS IN AN ID RANGE (inclusive)
+    public int applyMonthlyInterestToRange(Connection conn, int startId, int endId) throws SQLException {
+        String sql = "UPDATE loans SET balance = balance + ROUND(balance * interest_rate / 1200, 2) " +
+                "WHERE id BETWEEN ? AND ? AND close_date IS NULL AND interest_rate > 0 " +
+                "AND ROUND(balance * interest_rate / 1200, 2) > 0";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, startId);
+            stmt.setInt(2, endId);
+            return stmt.executeUpdate();
+        }
+    }
+
+    // HELPER: COMPILE A ROW MAPPER for one result shape - column positions are looked up once
+    // (package-private so the benchmarks can time it)
+    static RowMapper<Loan> compileLoanMapper(ColumnIndex columns) throws SQLException {
+        int id = columns.require("id");
+        int customerId = columns.require("customer_id");
+        int loanType = columns.require("loan_type");
+        int amountSanctioned = columns.require("amount_sanctioned");
+        int balance = columns.require("balance");
+        int interestRate = columns.require("interest_rate");
+        int tenureMonths = columns.require("tenure_months");
+        int openDate = columns.require("open_date");
+        int closeDate = columns.require("close_date");
+        return rs -> {
+            Loan loan = new Loan();
+            loan.setId(rs.getInt(id));
+            loan.setCustomerId(rs.getInt(customerId));
+            loan.setLoanType(LOAN_TYPES.decode(rs.getString(loanType)));
+            loan.setAmountSanctionedMinor(Money.read(rs, amountSanctioned));
+            loan.setBalanceMinor(Money.read(rs, balance));
+            loan.setInterestRate(rs.getDouble(interestRate));
+            loan.setTenureMonths(rs.getInt(tenureMonths));
+            loan.setOpenDate(rs.getObject(openDate, LocalDate.class));
+            loan.setCloseDate(rs.getObject(closeDate, LocalDate.class));
+            return loan;
+        };
+    }
+
+    static RowMapper<LoanSummary> compileSummaryMapper(ColumnIndex columns) throws SQLException {
+        int id = columns.require("id");
+        int customerId = columns.require("customer_id");
+        int loanType = columns.require("loan_type");
+        int balance = columns.require("balance");
+        return rs -> new LoanSummary(rs.getInt(id), rs.getInt(customerId),
+                LOAN_TYPES.decode(rs.getString(loanType)), Money.read(rs, balance));
     }
 }
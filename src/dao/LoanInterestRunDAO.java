@@ -0,0 +1,118 @@
+package dao;
+
+import model.LoanInterestPartition;
+import model.LoanInterestPartition.Status;
+import model.Money;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Run and per-partition progress rows for the monthly loan interest job.
+ */
+public class LoanInterestRunDAO {
+
+    // 1. FIND THE RUN LEFT UNFINISHED BY AN EARLIER ATTEMPT (0 if none)
+    public int findUnfinishedRunId(Connection conn) throws SQLException {
+        String sql = "SELECT id FROM loan_interest_runs WHERE status = 'RUNNING' ORDER BY id LIMIT 1";
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    // 2. START A RUN and register its partitions
+    public int startRun(Connection conn, List<int[]> idRanges) throws SQLException {
+        int runId;
+        String runSql = "INSERT INTO loan_interest_runs (started_at, status) VALUES (?, 'RUNNING')";
+        try (PreparedStatement stmt = conn.prepareStatement(runSql, Statement.RETURN_GENERATED_KEYS)) {
+            stmt.setTimestamp(1, new Timestamp(System.currentTimeMillis()));
+            stmt.executeUpdate();
+            ResultSet rs = stmt.getGeneratedKeys();
+            if (!rs.next()) throw new SQLException("Could not create loan interest run.");
+            runId = rs.getInt(1);
+        }
+
+        String partitionSql = "INSERT INTO loan_interest_partitions (run_id, partition_no, start_id, end_id, status) " +
+                "VALUES (?, ?, ?, ?, 'PENDING')";
+        try (PreparedStatement stmt = conn.prepareStatement(partitionSql)) {
+            for (int i = 0; i < idRanges.size(); i++) {
+                stmt.setInt(1, runId);
+                stmt.setInt(2, i);
+                stmt.setInt(3, idRanges.get(i)[0]);
+                stmt.setInt(4, idRanges.get(i)[1]);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+        return runId;
+    }
+
+    // 3. PARTITIONS OF A RUN THAT STILL NEED WORK
+    public List<LoanInterestPartition> getPendingPartitions(Connection conn, int runId) throws SQLException {
+        String sql = "SELECT run_id, partition_no, start_id, end_id, status, attempts FROM loan_interest_partitions WHERE run_id = ? AND status <> 'DONE' ORDER BY partition_no";
+        List<LoanInterestPartition> partitions = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, runId);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                LoanInterestPartition p = new LoanInterestPartition();
+                p.setRunId(rs.getInt("run_id"));
+                p.setPartitionNo(rs.getInt("partition_no"));
+                p.setStartId(rs.getInt("start_id"));
+                p.setEndId(rs.getInt("end_id"));
+                p.setStatus(Status.valueOf(rs.getString("status")));
+                p.setAttempts(rs.getInt("attempts"));
+                partitions.add(p);
+            }
+        }
+        return partitions;
+    }
+
+    // 4. MARK A PARTITION DONE (called inside the partition's own DB transaction)
+    public void markDone(Connection conn, LoanInterestPartition p, int loansProcessed, long interestAccruedMinor) throws SQLException {
+        String sql = "UPDATE loan_interest_partitions SET status = 'DONE', attempts = attempts + 1, " +
+                "loans_processed = ?, interest_accrued = ? WHERE run_id = ? AND partition_no = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, loansProcessed);
+            Money.bind(stmt, 2, interestAccruedMinor);
+            stmt.setInt(3, p.getRunId());
+            stmt.setInt(4, p.getPartitionNo());
+            stmt.executeUpdate();
+        }
+    }
+
+    // 5. RECORD A FAILED ATTEMPT (after the partition's DB transaction was rolled back)
+    public void markFailed(Connection conn, LoanInterestPartition p) throws SQLException {
+        String sql = "UPDATE loan_interest_partitions SET status = 'FAILED', attempts = attempts + 1 " +
+                "WHERE run_id = ? AND partition_no = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, p.getRunId());
+            stmt.setInt(2, p.getPartitionNo());
+            stmt.executeUpdate();
+        }
+    }
+
+    // 6. TOTALS OVER ALL DONE PARTITIONS OF A RUN ({loans, interest in minor units})
+    public long[] getRunTotals(Connection conn, int runId) throws SQLException {
+        String sql = "SELECT COALESCE(SUM(loans_processed), 0), COALESCE(SUM(interest_accrued), 0) " +
+                "FROM loan_interest_partitions WHERE run_id = ? AND status = 'DONE'";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, runId);
+            ResultSet rs = stmt.executeQuery();
+            rs.next();
+            return new long[]{rs.getLong(1), Money.read(rs, 2)};
+        }
+    }
+
+    // 7. MARK A RUN COMPLETED
+    public void completeRun(Connection conn, int runId) throws SQLException {
+        String sql = "UPDATE loan_interest_runs SET status = 'COMPLETED', finished_at = ? WHERE id = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setTimestamp(1, new Timestamp(System.currentTimeMillis()));
+            stmt.setInt(2, runId);
+            stmt.executeUpdate();
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package dao;
 
 import model.LoanPayment;
+import model.Money;
 import db.DBConnection;
 
 import java.sql.*;
@@ -10,17 +11,28 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class LoanPaymentDAO {
+    private static final String COLUMNS = "id, loan_id, disbursement_amount, receipt_no, payment_date, remaining_balance";
+    private static final MapperCache<LoanPayment> MAPPERS = new MapperCache<>(LoanPaymentDAO::compileLoanPaymentMapper);
 
     // 1. INSERT LOAN PAYMENT
     public boolean addLoanPayment(LoanPayment payment) {
+        try (Connection conn = DBConnection.getConnection()) {
+            return addLoanPayment(conn, payment);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    // 1b. INSERT LOAN PAYMENT on the caller's connection (so it can share a DB transaction)
+    public boolean addLoanPayment(Connection conn, LoanPayment payment) throws SQLException {
         String sql = "INSERT INTO loan_payments (loan_id, disbursement_amount, receipt_no, payment_date, remaining_balance) " +
                 "VALUES (?, ?, ?, ?, ?)";
 
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 
             stmt.setInt(1, payment.getLoanId());
-            stmt.setDouble(2, payment.getDisbursementAmount());
+            Money.bind(stmt, 2, payment.getDisbursementAmountMinor());
             stmt.setString(3, payment.getReceiptNo());
 
             if (payment.getPaymentDate() != null) {
@@ -29,7 +41,7 @@ public class LoanPaymentDAO {
                 stmt.setTimestamp(4, Timestamp.valueOf(LocalDateTime.now()));
             }
 
-            stmt.setDouble(5, payment.getRemainingBalance());
+            Money.bind(stmt, 5, payment.getRemainingBalanceMinor());
 
             int rows = stmt.executeUpdate();
             if (rows > 0) {
@@ -39,15 +51,13 @@ public class LoanPaymentDAO {
                 }
                 return true;
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
         }
         return false;
     }
 
     // 2. GET PAYMENT BY ID
     public LoanPayment getLoanPaymentById(int id) {
-        String sql = "SELECT * FROM loan_payments WHERE id = ?";
+        String sql = "SELECT " + COLUMNS + " FROM loan_payments WHERE id = ?";
         LoanPayment payment = null;
 
         try (Connection conn = DBConnection.getConnection();
@@ -57,7 +67,7 @@ public class LoanPaymentDAO {
             ResultSet rs = stmt.executeQuery();
 
             if (rs.next()) {
-                payment = mapResultSetToLoanPayment(rs);
+                payment = MAPPERS.forQuery(sql, rs).map(rs);
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -67,7 +77,7 @@ public class LoanPaymentDAO {
 
     // 3. GET ALL PAYMENTS FOR A LOAN
     public List<LoanPayment> getPaymentsByLoanId(int loanId) {
-        String sql = "SELECT * FROM loan_payments WHERE loan_id = ?";
+        String sql = "SELECT " + COLUMNS + " FROM loan_payments WHERE loan_id = ?";
         List<LoanPayment> payments = new ArrayList<>();
 
         try (Connection conn = DBConnection.getConnection();
@@ -76,8 +86,9 @@ public class LoanPaymentDAO {
             stmt.setInt(1, loanId);
             ResultSet rs = stmt.executeQuery();
 
+            RowMapper<LoanPayment> mapper = MAPPERS.forQuery(sql, rs);
             while (rs.next()) {
-                payments.add(mapResultSetToLoanPayment(rs));
+                payments.add(mapper.map(rs));
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -87,15 +98,16 @@ public class LoanPaymentDAO {
 
     // 4. GET ALL LOAN PAYMENTS
     public List<LoanPayment> getAllLoanPayments() {
-        String sql = "SELECT * FROM loan_payments";
+        String sql = "SELECT " + COLUMNS + " FROM loan_payments";
         List<LoanPayment> payments = new ArrayList<>();
 
         try (Connection conn = DBConnection.getConnection();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
 
+            RowMapper<LoanPayment> mapper = MAPPERS.forQuery(sql, rs);
             while (rs.next()) {
-                payments.add(mapResultSetToLoanPayment(rs));
+                payments.add(mapper.map(rs));
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -112,10 +124,10 @@ public class LoanPaymentDAO {
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, payment.getLoanId());
-            stmt.setDouble(2, payment.getDisbursementAmount());
+            Money.bind(stmt, 2, payment.getDisbursementAmountMinor());
             stmt.setString(3, payment.getReceiptNo());
             stmt.setTimestamp(4, Timestamp.valueOf(payment.getPaymentDate()));
-            stmt.setDouble(5, payment.getRemainingBalance());
+            Money.bind(stmt, 5, payment.getRemainingBalanceMinor());
             stmt.setInt(6, payment.getId());
 
             return stmt.executeUpdate() > 0;
@@ -142,21 +154,25 @@ public class LoanPaymentDAO {
         return false;
     }
 
-    // Helper: Convert ResultSet to LoanPayment Model
-    private LoanPayment mapResultSetToLoanPayment(ResultSet rs) throws SQLException {
-        LoanPayment payment = new LoanPayment();
-        payment.setId(rs.getInt("id"));
-        payment.setLoanId(rs.getInt("loan_id"));
-        payment.setDisbursementAmount(rs.getDouble("disbursement_amount"));
-        payment.setReceiptNo(rs.getString("receipt_no"));
-
-        Timestamp timestamp = rs.getTimestamp("payment_date");
-        if (timestamp != null) {
-            payment.setPaymentDate(timestamp.toLocalDateTime());
-        }
-
-        payment.setRemainingBalance(rs.getDouble("remaining_balance"));
-
-        return payment;
+    // Helper: Compile a row mapper for one result shape - column positions are looked up once
+    // (package-private so the benchmarks can time it)
+    static RowMapper<LoanPayment> compileLoanPaymentMapper(ColumnIndex columns) throws SQLException {
+        int id = columns.require("id");
+        int loanId = columns.require("loan_id");
+        int disbursementAmount = columns.require("disbursement_amount");
+        int receiptNo = columns.require("receipt_no");
+        int paymentDate = columns.require("payment_date");
+        int remainingBalance = columns.require("remaining_balance");
+        return rs -> {
+            LoanPayment payment = new LoanPayment();
+            payment.setId(rs.getInt(id));
+            payment.setLoanId(rs.getInt(loanId));
+            payment.setDisbursementAmountMinor(Money.read(rs, disbursementAmount));
+            payment.setReceiptNo(rs.getString(receiptNo));
+            Timestamp timestamp = rs.getTimestamp(paymentDate);
+            payment.setPaymentDate(timestamp != null ? timestamp.toLocalDateTime() : null);
+            payment.setRemainingBalanceMinor(Money.read(rs, remainingBalance));
+            return payment;
+        };
     }
 }
@@ -0,0 +1,146 @@
+package dao;
+
+import model.AmortizationSchedule;
+import model.LoanTerms;
+import model.Money;
+import db.DBConnection;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+public class LoanScheduleDAO {
+    private static final String INSERT_SQL = "INSERT INTO loan_schedules (loan_id, installment_no, due_date, principal, interest, balance) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+    private static final int DEFAULT_BATCH_SIZE = 1000;
+
+    // Rows per executeBatch() round trip
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    public int getBatchSize() { return batchSize; }
+
+    public void setBatchSize(int batchSize) {
+        if (batchSize <= 0) throw new IllegalArgumentException("Batch size must be positive.");
+        this.batchSize = batchSize;
+    }
+
+    // 1. READ THE TERMS OF THE OPEN LOANS WITH A TENURE IN AN ID RANGE (inclusive) into the batch
+    public int readTerms(Connection conn, int startId, int endId, LoanTerms terms) throws SQLException {
+        String sql = "SELECT id, amount_sanctioned, interest_rate, tenure_months, open_date FROM loans " +
+                "WHERE id BETWEEN ? AND ? AND close_date IS NULL AND tenure_months > 0";
+        int read = 0;
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, startId);
+            stmt.setInt(2, endId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    terms.add(rs.getInt(1), Money.read(rs, 2), Money.rateHundredths(rs.getDouble(3)),
+                            rs.getInt(4), rs.getObject(5, LocalDate.class).toEpochDay());
+                    read++;
+                }
+            }
+        }
+        return read;
+    }
+
+    // 2. DELETE THE SCHEDULES OF THE OPEN LOANS IN AN ID RANGE (inclusive); closed loans keep theirs
+    public int deleteSchedules(Connection conn, int startId, int endId) throws SQLException {
+        String sql = "DELETE FROM loan_schedules WHERE loan_id BETWEEN ? AND ? " +
+                "AND loan_id IN (SELECT id FROM loans WHERE id BETWEEN ? AND ? AND close_date IS NULL)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, startId);
+            stmt.setInt(2, endId);
+            stmt.setInt(3, startId);
+            stmt.setInt(4, endId);
+            return stmt.executeUpdate();
+        }
+    }
+
+    // 3. BULK INSERT on the caller's connection: rows go out batchSize at a time (multi-row INSERTs with
+    // rewriteBatchedStatements); call flush() before committing
+    public ScheduleWriter openWriter(Connection conn) throws SQLException {
+        return new ScheduleWriter(conn.prepareStatement(INSERT_SQL), batchSize);
+    }
+
+    // 4. READ A LOAN'S STORED SCHEDULE, or null if none is stored
+    public AmortizationSchedule getSchedule(int loanId) {
+        String sql = "SELECT s.principal, s.interest, s.balance, l.open_date FROM loan_schedules s " +
+                "JOIN loans l ON l.id = s.loan_id WHERE s.loan_id = ? ORDER BY s.installment_no";
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, loanId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                long[] principal = new long[240];
+                long[] interest = new long[240];
+                long[] balance = new long[240];
+                LocalDate openDate = null;
+                int n = 0;
+                while (rs.next()) {
+                    if (n == principal.length) {
+                        principal = Arrays.copyOf(principal, n * 2);
+                        interest = Arrays.copyOf(interest, n * 2);
+                        balance = Arrays.copyOf(balance, n * 2);
+                    }
+                    principal[n] = Money.read(rs, 1);
+                    interest[n] = Money.read(rs, 2);
+                    balance[n] = Money.read(rs, 3);
+                    if (openDate == null) openDate = rs.getObject(4, LocalDate.class);
+                    n++;
+                }
+                if (n == 0) return null;
+                return new AmortizationSchedule(loanId, openDate, principal[0] + interest[0],
+                        Arrays.copyOf(principal, n), Arrays.copyOf(interest, n), Arrays.copyOf(balance, n));
+            }
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * Batched inserter for schedule rows, bound to one connection and transaction. Not thread-safe.
+     */
+    public static class ScheduleWriter implements AutoCloseable {
+        private final PreparedStatement stmt;
+        private final int batchSize;
+        private int pending;
+        private long written;
+
+        private ScheduleWriter(PreparedStatement stmt, int batchSize) {
+            this.stmt = stmt;
+            this.batchSize = batchSize;
+        }
+
+        // Installment i of the loan falls due i + 1 months after the open date
+        public void write(int loanId, long openEpochDay, int installments,
+                          long[] principal, long[] interest, long[] balance) throws SQLException {
+            LocalDate openDate = LocalDate.ofEpochDay(openEpochDay);
+            for (int i = 0; i < installments; i++) {
+                stmt.setInt(1, loanId);
+                stmt.setInt(2, i + 1);
+                stmt.setDate(3, Date.valueOf(openDate.plusMonths(i + 1)));
+                Money.bind(stmt, 4, principal[i]);
+                Money.bind(stmt, 5, interest[i]);
+                Money.bind(stmt, 6, balance[i]);
+                stmt.addBatch();
+                if (++pending == batchSize) flush();
+            }
+        }
+
+        public void flush() throws SQLException {
+            if (pending == 0) return;
+            stmt.executeBatch();
+            written += pending;
+            pending = 0;
+        }
+
+        public long getRowsWritten() { return written; }
+
+        @Override
+        public void close() throws SQLException {
+            stmt.close();
+        }
+    }
+}
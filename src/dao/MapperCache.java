@@ -0,0 +1,43 @@
+package dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiled row mappers for one model type, one per query shape.
+ *
+ * The first time a query runs, its ResultSetMetaData is turned into a {@link ColumnIndex} and handed
+ * to the compiler, which resolves the positions it needs and returns a mapper that reads by index.
+ * Later runs of the same SQL reuse that mapper, so no row ever pays for a column-name lookup.
+ */
+final class MapperCache<T> {
+    // Guards against unbounded growth if a caller ever builds SQL text dynamically
+    private static final int MAX_SHAPES = 256;
+
+    interface Compiler<T> {
+        RowMapper<T> compile(ColumnIndex columns) throws SQLException;
+    }
+
+    private final Compiler<T> compiler;
+    private final ConcurrentHashMap<String, RowMapper<T>> mappers = new ConcurrentHashMap<>();
+
+    MapperCache(Compiler<T> compiler) {
+        this.compiler = compiler;
+    }
+
+    /**
+     * Mapper for the result of this SQL, compiled from the result's metadata on first use.
+     */
+    RowMapper<T> forQuery(String sql, ResultSet rs) throws SQLException {
+        RowMapper<T> mapper = mappers.get(sql);
+        if (mapper == null) {
+            mapper = compiler.compile(new ColumnIndex(rs.getMetaData()));
+            if (mappers.size() < MAX_SHAPES) {
+                RowMapper<T> raced = mappers.putIfAbsent(sql, mapper);
+                if (raced != null) mapper = raced;
+            }
+        }
+        return mapper;
+    }
+}
@@ -0,0 +1,13 @@
+package dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Turns the current row of a ResultSet into a model object. Mappers built by {@link MapperCache}
+ * read columns by position only; the positions were resolved when the mapper was compiled.
+ */
+@FunctionalInterface
+interface RowMapper<T> {
+    T map(ResultSet rs) throws SQLException;
+}
@@ -1,35 +1,55 @@
 package dao;
 
 import model.Transaction;
+import model.Money;
+import model.TransactionSearch;
 import model.Transaction.TransactionType;
 import db.DBConnection;
+import db.QueryCanceller;
 
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class TransactionDAO {
+    private static final String INSERT_SQL = "INSERT INTO transactions (account_id, transaction_type, amount, date, narration) " +
+            "VALUES (?, ?, ?, ?, ?)";
+    private static final int DEFAULT_BATCH_SIZE = 1000;
+    private static final String COLUMNS = "id, account_id, transaction_type, amount, date, narration";
+    private static final MapperCache<Transaction> MAPPERS = new MapperCache<>(TransactionDAO::compileTransactionMapper);
+    private static final EnumLookup<TransactionType> TRANSACTION_TYPES = new EnumLookup<>(TransactionType.class);
 
-    // 1. INSERT TRANSACTION
-    public boolean addTransaction(Transaction transaction) {
-        String sql = "INSERT INTO transactions (account_id, transaction_type, amount, date, narration) " +
-                "VALUES (?, ?, ?, ?, ?)";
+    // Rows per executeBatch() round trip (and per commit in addTransactions)
+    private int batchSize = DEFAULT_BATCH_SIZE;
 
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+    public int getBatchSize() { return batchSize; }
 
-            stmt.setInt(1, transaction.getAccountId());
-            stmt.setString(2, transaction.getTransactionType().name());
-            stmt.setDouble(3, transaction.getAmount());
+    public void setBatchSize(int batchSize) {
+        if (batchSize <= 0) throw new IllegalArgumentException("Batch size must be positive.");
+        this.batchSize = batchSize;
+    }
 
-            if (transaction.getDate() != null) {
-                stmt.setTimestamp(4, Timestamp.valueOf(transaction.getDate()));
-            } else {
-                stmt.setTimestamp(4, Timestamp.valueOf(LocalDateTime.now()));
-            }
+    // 1. INSERT TRANSACTION
+    public boolean addTransaction(Transaction transaction) {
+        try (Connection conn = DBConnection.getConnection()) {
+            return addTransaction(conn, transaction);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
 
-            stmt.setString(5, transaction.getNarration());
+    // 1b. INSERT TRANSACTION on the caller's connection (used inside a DB transaction)
+    public boolean addTransaction(Connection conn, Transaction transaction) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+
+            bindInsert(stmt, transaction);
 
             int rows = stmt.executeUpdate();
             if (rows > 0) {
@@ -39,15 +59,102 @@ public class TransactionDAO {
                 }
                 return true;
             }
+        }
+        return false;
+    }
+
+    /**
+     * Bulk insert. Rows are sent in JDBC batches of {@link #getBatchSize()} and each batch is committed
+     * on its own, so a failure part-way keeps the batches already committed.
+     * @return generated IDs in the same order as the input (also set on each Transaction);
+     *         on failure, only the IDs of the committed rows
+     */
+    public List<Integer> addTransactions(List<Transaction> transactions) {
+        List<Integer> ids = new ArrayList<>(transactions.size());
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                for (int from = 0; from < transactions.size(); from += batchSize) {
+                    List<Transaction> chunk = transactions.subList(from, Math.min(from + batchSize, transactions.size()));
+                    List<Integer> chunkIds = insertBatch(conn, chunk);
+                    conn.commit();
+                    ids.addAll(chunkIds);
+                }
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
         } catch (SQLException e) {
             e.printStackTrace();
         }
-        return false;
+        return ids;
+    }
+
+    // 1c. BULK INSERT on the caller's connection - batched, but commit is left to the caller's DB transaction
+    public List<Integer> addTransactions(Connection conn, List<Transaction> transactions) throws SQLException {
+        List<Integer> ids = new ArrayList<>(transactions.size());
+        for (int from = 0; from < transactions.size(); from += batchSize) {
+            ids.addAll(insertBatch(conn, transactions.subList(from, Math.min(from + batchSize, transactions.size()))));
+        }
+        return ids;
+    }
+
+    // 1d. RECORD INTEREST DEPOSITS for an account ID range (fromId exclusive, toId inclusive) with INSERT ... SELECT.
+    // Must run before AccountDAO.applyInterestToRange, since it reads the pre-interest balance.
+    public int addInterestTransactions(Connection conn, int fromId, int toId, LocalDateTime date) throws SQLException {
+        String sql = "INSERT INTO transactions (account_id, transaction_type, amount, date, narration) " +
+                "SELECT id, 'DEPOSIT', ROUND(balance * interest_rate / 100, 2), ?, " +
+                "CONCAT('Interest applied (', interest_rate, '%)') FROM accounts " +
+                "WHERE id > ? AND id <= ? AND interest_rate > 0 AND ROUND(balance * interest_rate / 100, 2) > 0";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setTimestamp(1, Timestamp.valueOf(date));
+            stmt.setInt(2, fromId);
+            stmt.setInt(3, toId);
+            return stmt.executeUpdate();
+        }
+    }
+
+    private List<Integer> insertBatch(Connection conn, List<Transaction> chunk) throws SQLException {
+        List<Integer> ids = new ArrayList<>(chunk.size());
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            for (Transaction transaction : chunk) {
+                bindInsert(stmt, transaction);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+
+            // Keys come back in insertion order, one per row
+            try (ResultSet rs = stmt.getGeneratedKeys()) {
+                int i = 0;
+                while (rs.next() && i < chunk.size()) {
+                    int id = rs.getInt(1);
+                    chunk.get(i++).setId(id);
+                    ids.add(id);
+                }
+            }
+        }
+        return ids;
+    }
+
+    private void bindInsert(PreparedStatement stmt, Transaction transaction) throws SQLException {
+        stmt.setInt(1, transaction.getAccountId());
+        stmt.setString(2, transaction.getTransactionType().name());
+        Money.bind(stmt, 3, transaction.getAmountMinor());
+
+        if (transaction.getDate() != null) {
+            stmt.setTimestamp(4, Timestamp.valueOf(transaction.getDate()));
+        } else {
+            stmt.setTimestamp(4, Timestamp.valueOf(LocalDateTime.now()));
+        }
+
+        stmt.setString(5, transaction.getNarration());
     }
 
     // 2. GET TRANSACTION BY ID
     public Transaction getTransactionById(int id) {
-        String sql = "SELECT * FROM transactions WHERE id = ?";
+        String sql = "SELECT " + COLUMNS + " FROM transactions WHERE id = ?";
         Transaction transaction = null;
 
         try (Connection conn = DBConnection.getConnection();
@@ -57,7 +164,7 @@ public class TransactionDAO {
             ResultSet rs = stmt.executeQuery();
 
             if (rs.next()) {
-                transaction = mapResultSetToTransaction(rs);
+                transaction = MAPPERS.forQuery(sql, rs).map(rs);
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -65,17 +172,18 @@ public class TransactionDAO {
         return transaction;
     }
 
-    // 3. GET ALL TRANSACTIONS
+    // 3. GET ALL TRANSACTIONS (materialises the whole table - prefer getTransactionsPage or forEachTransaction on large ledgers)
     public List<Transaction> getAllTransactions() {
-        String sql = "SELECT * FROM transactions";
+        String sql = "SELECT " + COLUMNS + " FROM transactions";
         List<Transaction> transactions = new ArrayList<>();
 
         try (Connection conn = DBConnection.getConnection();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
 
+            RowMapper<Transaction> mapper = MAPPERS.forQuery(sql, rs);
             while (rs.next()) {
-                transactions.add(mapResultSetToTransaction(rs));
+                transactions.add(mapper.map(rs));
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -85,7 +193,7 @@ public class TransactionDAO {
 
     // 4. GET ALL TRANSACTIONS FOR AN ACCOUNT
     public List<Transaction> getTransactionsByAccountId(int accountId) {
-        String sql = "SELECT * FROM transactions WHERE account_id = ?";
+        String sql = "SELECT " + COLUMNS + " FROM transactions WHERE account_id = ?";
         List<Transaction> transactions = new ArrayList<>();
 
         try (Connection conn = DBConnection.getConnection();
@@ -94,8 +202,100 @@ public class TransactionDAO {
             stmt.setInt(1, accountId);
             ResultSet rs = stmt.executeQuery();
 
+            RowMapper<Transaction> mapper = MAPPERS.forQuery(sql, rs);
+            while (rs.next()) {
+                transactions.add(mapper.map(rs));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return transactions;
+    }
+
+    // 4b. KEYSET PAGE: the next 'limit' transactions with id > afterId, in id order.
+    // Pass 0 for the first page and the last id of the previous page afterwards.
+    public List<Transaction> getTransactionsPage(int afterId, int limit) {
+        String sql = "SELECT " + COLUMNS + " FROM transactions WHERE id > ? ORDER BY id LIMIT ?";
+        List<Transaction> transactions = new ArrayList<>(limit);
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, afterId);
+            stmt.setInt(2, limit);
+            ResultSet rs = stmt.executeQuery();
+
+            RowMapper<Transaction> mapper = MAPPERS.forQuery(sql, rs);
+            while (rs.next()) {
+                transactions.add(mapper.map(rs));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return transactions;
+    }
+
+    // 4c. KEYSET PAGE FOR ONE ACCOUNT
+    public List<Transaction> getTransactionsPageByAccountId(int accountId, int afterId, int limit) {
+        String sql = "SELECT " + COLUMNS + " FROM transactions WHERE account_id = ? AND id > ? ORDER BY id LIMIT ?";
+        List<Transaction> transactions = new ArrayList<>(limit);
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, accountId);
+            stmt.setInt(2, afterId);
+            stmt.setInt(3, limit);
+            ResultSet rs = stmt.executeQuery();
+
+            RowMapper<Transaction> mapper = MAPPERS.forQuery(sql, rs);
+            while (rs.next()) {
+                transactions.add(mapper.map(rs));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return transactions;
+    }
+
+    // 4f. COUNT TRANSACTIONS (accountId 0 = all accounts)
+    public int countTransactions(int accountId) {
+        String sql = accountId > 0
+                ? "SELECT COUNT(*) FROM transactions WHERE account_id = ?"
+                : "SELECT COUNT(*) FROM transactions";
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            if (accountId > 0) stmt.setInt(1, accountId);
+            ResultSet rs = stmt.executeQuery();
+            if (rs.next()) return rs.getInt(1);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return 0;
+    }
+
+    // 4g. PAGE BY ROW POSITION (accountId 0 = all accounts). Used for random jumps when no keyset
+    // boundary is known yet; OFFSET gets slower the deeper it goes, so prefer the keyset pages.
+    public List<Transaction> getTransactionsAtOffset(int accountId, int offset, int limit) {
+        String sql = accountId > 0
+                ? "SELECT " + COLUMNS + " FROM transactions WHERE account_id = ? ORDER BY id LIMIT ? OFFSET ?"
+                : "SELECT " + COLUMNS + " FROM transactions ORDER BY id LIMIT ? OFFSET ?";
+        List<Transaction> transactions = new ArrayList<>(limit);
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            int i = 1;
+            if (accountId > 0) stmt.setInt(i++, accountId);
+            stmt.setInt(i++, limit);
+            stmt.setInt(i, offset);
+            ResultSet rs = stmt.executeQuery();
+
+            RowMapper<Transaction> mapper = MAPPERS.forQuery(sql, rs);
             while (rs.next()) {
-                transactions.add(mapResultSetToTransaction(rs));
+                transactions.add(mapper.map(rs));
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -103,6 +303,283 @@ public class TransactionDAO {
         return transactions;
     }
 
+    // 4h. LATEST 'limit' TRANSACTIONS ACROSS ONE CUSTOMER'S ACCOUNTS, newest first, on the caller's connection.
+    // Reads the account_id index (which carries the primary key) once per account of the customer.
+    public List<Transaction> getRecentTransactionsByCustomerId(Connection conn, int customerId, int limit) throws SQLException {
+        String sql = "SELECT t.id, t.account_id, t.transaction_type, t.amount, t.date, t.narration " +
+                "FROM transactions t JOIN accounts a ON a.id = t.account_id " +
+                "WHERE a.customer_id = ? ORDER BY t.id DESC LIMIT ?";
+        List<Transaction> transactions = new ArrayList<>(limit);
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, customerId);
+            stmt.setInt(2, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                RowMapper<Transaction> mapper = MAPPERS.forQuery(sql, rs);
+                while (rs.next()) {
+                    transactions.add(mapper.map(rs));
+                }
+            }
+        }
+        return transactions;
+    }
+
+    // 5. SEARCH - every filter of the TransactionSearch, the sort and the page run in one query.
+    // Page by position; OFFSET gets slower the deeper it goes, so use searchTransactionsAfter when
+    // the previous page is at hand. The canceller (may be null) lets another thread abort the query.
+    public List<Transaction> searchTransactions(TransactionSearch search, int offset, int limit,
+                                                QueryCanceller canceller) throws SQLException {
+        List<Object> params = new ArrayList<>();
+        String sql = "SELECT " + COLUMNS + " FROM transactions" + searchWhere(search, params)
+                + searchOrder(search) + " LIMIT ? OFFSET ?";
+        params.add(limit);
+        params.add(offset);
+        return runSearch(sql, params, limit, canceller);
+    }
+
+    // 5b. SEARCH KEYSET PAGE - the 'limit' matches that sort after 'after' (the last row of the
+    // previous page). With the DATE sort, 'after' must have a date.
+    public List<Transaction> searchTransactionsAfter(TransactionSearch search, Transaction after, int limit,
+                                                     QueryCanceller canceller) throws SQLException {
+        List<Object> params = new ArrayList<>();
+        StringBuilder where = new StringBuilder(searchWhere(search, params));
+        where.append(where.length() == 0 ? " WHERE " : " AND ");
+
+        String op = search.isDescending() ? " < " : " > ";
+        TransactionSearch.SortField sort = search.getSortField();
+        if (sort == TransactionSearch.SortField.ID) {
+            where.append("id").append(op).append('?');
+        } else {
+            Object value = sort == TransactionSearch.SortField.DATE
+                    ? Timestamp.valueOf(after.getDate())
+                    : Long.valueOf(after.getAmountMinor());
+            String column = sort.getColumn();
+            where.append('(').append(column).append(op).append("? OR (").append(column)
+                    .append(" = ? AND id").append(op).append("?))");
+            params.add(value);
+            params.add(value);
+        }
+        params.add(after.getId());
+
+        String sql = "SELECT " + COLUMNS + " FROM transactions" + where + searchOrder(search) + " LIMIT ?";
+        params.add(limit);
+        return runSearch(sql, params, limit, canceller);
+    }
+
+    // 5c. COUNT SEARCH MATCHES
+    public int countTransactions(TransactionSearch search, QueryCanceller canceller) throws SQLException {
+        List<Object> params = new ArrayList<>();
+        String sql = "SELECT COUNT(*) FROM transactions" + searchWhere(search, params);
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            bindSearch(stmt, params);
+            if (canceller != null) canceller.register(stmt);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            } finally {
+                if (canceller != null) canceller.unregister(stmt);
+            }
+        }
+    }
+
+    private List<Transaction> runSearch(String sql, List<Object> params, int limit,
+                                        QueryCanceller canceller) throws SQLException {
+        List<Transaction> transactions = new ArrayList<>(limit);
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            bindSearch(stmt, params);
+            if (canceller != null) canceller.register(stmt);
+            try (ResultSet rs = stmt.executeQuery()) {
+                RowMapper<Transaction> mapper = MAPPERS.forQuery(sql, rs);
+                while (rs.next()) {
+                    transactions.add(mapper.map(rs));
+                }
+            } finally {
+                if (canceller != null) canceller.unregister(stmt);
+            }
+        }
+        return transactions;
+    }
+
+    // HELPER: WHERE clause for the set filters (empty if none), collecting the values to bind in order.
+    // Date bounds are half-open timestamp ranges and the narration prefix is an escaped LIKE 'prefix%',
+    // so both can use the (account_id, date), (date) and (narration) indexes.
+    private static String searchWhere(TransactionSearch search, List<Object> params) {
+        List<String> conditions = new ArrayList<>();
+        if (search.getAccountId() > 0) {
+            conditions.add("account_id = ?");
+            params.add(search.getAccountId());
+        }
+        if (search.getFromDate() != null) {
+            conditions.add("date >= ?");
+            params.add(Timestamp.valueOf(search.getFromDate().atStartOfDay()));
+        }
+        if (search.getToDate() != null) {
+            conditions.add("date < ?");
+            params.add(Timestamp.valueOf(search.getToDate().plusDays(1).atStartOfDay()));
+        }
+        if (search.getType() != null) {
+            conditions.add("transaction_type = ?");
+            params.add(search.getType().name());
+        }
+        if (search.getMinAmountMinor() != null) {
+            conditions.add("amount >= ?");
+            params.add(search.getMinAmountMinor());
+        }
+        if (search.getMaxAmountMinor() != null) {
+            conditions.add("amount <= ?");
+            params.add(search.getMaxAmountMinor());
+        }
+        String prefix = search.getNarrationPrefix();
+        if (prefix != null && !prefix.isEmpty()) {
+            conditions.add("narration LIKE ?");
+            params.add(prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%");
+        }
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+
+    // HELPER: ORDER BY the sort column, then id, so rows with equal sort values keep a fixed order
+    private static String searchOrder(TransactionSearch search) {
+        String direction = search.isDescending() ? " DESC" : "";
+        TransactionSearch.SortField sort = search.getSortField();
+        return sort == TransactionSearch.SortField.ID
+                ? " ORDER BY id" + direction
+                : " ORDER BY " + sort.getColumn() + direction + ", id" + direction;
+    }
+
+    // Integers are IDs and limits, Longs are amounts in minor units
+    private static void bindSearch(PreparedStatement stmt, List<Object> params) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            Object value = params.get(i);
+            if (value instanceof Integer) {
+                stmt.setInt(i + 1, (Integer) value);
+            } else if (value instanceof Long) {
+                Money.bind(stmt, i + 1, (Long) value);
+            } else if (value instanceof Timestamp) {
+                stmt.setTimestamp(i + 1, (Timestamp) value);
+            } else {
+                stmt.setString(i + 1, (String) value);
+            }
+        }
+    }
+
+    /**
+     * 4d. STREAM EVERY TRANSACTION to a consumer, in id order, without holding them all in memory.
+     * Uses a MySQL server-side streaming result (fetch size Integer.MIN_VALUE), so the connection is
+     * busy until the scan finishes; the consumer should not call back into the DAO on this thread.
+     * @return number of rows delivered
+     */
+    public long forEachTransaction(Consumer<Transaction> consumer) {
+        String sql = "SELECT " + COLUMNS + " FROM transactions ORDER BY id";
+        long count = 0;
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = openStreamingStatement(conn, sql);
+             ResultSet rs = stmt.executeQuery()) {
+
+            RowMapper<Transaction> mapper = MAPPERS.forQuery(sql, rs);
+            while (rs.next()) {
+                consumer.accept(mapper.map(rs));
+                count++;
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return count;
+    }
+
+    /**
+     * 4e. Same scan as forEachTransaction, as a lazy Stream. The stream holds a pooled connection
+     * until it is closed, so always use it in try-with-resources. A read or close failure is thrown as
+     * an IllegalStateException wrapping the SQLException; a failure closing the result set, statement
+     * or connection still closes the others.
+     */
+    public Stream<Transaction> streamAllTransactions() throws SQLException {
+        String sql = "SELECT " + COLUMNS + " FROM transactions ORDER BY id";
+        Connection conn = DBConnection.getConnection();
+        if (conn == null) throw new SQLException("No database connection available.");
+        PreparedStatement opened = null;
+        ResultSet executed = null;
+        try {
+            final PreparedStatement stmt = opened = openStreamingStatement(conn, sql);
+            final ResultSet rs = executed = stmt.executeQuery();
+            RowMapper<Transaction> mapper = MAPPERS.forQuery(sql, rs);
+
+            Spliterator<Transaction> rows = new Spliterators.AbstractSpliterator<Transaction>(Long.MAX_VALUE,
+                    Spliterator.ORDERED | Spliterator.NONNULL) {
+                @Override
+                public boolean tryAdvance(Consumer<? super Transaction> action) {
+                    try {
+                        if (!rs.next()) return false;
+                        action.accept(mapper.map(rs));
+                        return true;
+                    } catch (SQLException e) {
+                        throw new IllegalStateException("Failed reading transaction stream", e);
+                    }
+                }
+            };
+            return StreamSupport.stream(rows, false).onClose(() -> {
+                try {
+                    closeAll(rs, stmt, conn);
+                } catch (SQLException e) {
+                    throw new IllegalStateException("Failed closing transaction stream", e);
+                }
+            });
+        } catch (SQLException | RuntimeException e) {
+            try {
+                closeAll(executed, opened, conn);
+            } catch (SQLException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+    }
+
+    // Closes the result set, statement and connection in that order (null is skipped), each even if
+    // closing one before it failed; the first failure is thrown with the later ones suppressed
+    private static void closeAll(ResultSet rs, Statement stmt, Connection conn) throws SQLException {
+        SQLException failure = null;
+        if (rs != null) {
+            try {
+                rs.close();
+            } catch (SQLException e) {
+                failure = e;
+            }
+        }
+        if (stmt != null) {
+            try {
+                stmt.close();
+            } catch (SQLException e) {
+                failure = addFailure(failure, e);
+            }
+        }
+        if (conn != null) {
+            try {
+                conn.close();
+            } catch (SQLException e) {
+                failure = addFailure(failure, e);
+            }
+        }
+        if (failure != null) throw failure;
+    }
+
+    private static SQLException addFailure(SQLException first, SQLException next) {
+        if (first == null) return next;
+        first.addSuppressed(next);
+        return first;
+    }
+
+    // Forward-only, read-only statement that MySQL streams row by row instead of buffering the result
+    // (Connector/J streams only with a fetch size of Integer.MIN_VALUE, unless useCursorFetch is on;
+    // other drivers reject that value and take an ordinary fetch size). Nothing else may run on the
+    // connection until the result set is read or closed.
+    static PreparedStatement openStreamingStatement(Connection conn, String sql) throws SQLException {
+        PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        stmt.setFetchSize(DBConnection.isMySql() ? Integer.MIN_VALUE : 10_000);
+        return stmt;
+    }
+
     // 5. UPDATE TRANSACTION
     public boolean updateTransaction(Transaction transaction) {
         String sql = "UPDATE transactions SET account_id = ?, transaction_type = ?, amount = ?, date = ?, narration = ? WHERE id = ?";
@@ -112,7 +589,7 @@ public class TransactionDAO {
 
             stmt.setInt(1, transaction.getAccountId());
             stmt.setString(2, transaction.getTransactionType().name());
-            stmt.setDouble(3, transaction.getAmount());
+            Money.bind(stmt, 3, transaction.getAmountMinor());
             stmt.setTimestamp(4, Timestamp.valueOf(transaction.getDate()));
             stmt.setString(5, transaction.getNarration());
             stmt.setInt(6, transaction.getId());
@@ -141,21 +618,26 @@ public class TransactionDAO {
         return false;
     }
 
-    // Helper: Map ResultSet to Transaction Model
-    private Transaction mapResultSetToTransaction(ResultSet rs) throws SQLException {
-        Transaction transaction = new Transaction();
-        transaction.setId(rs.getInt("id"));
-        transaction.setAccountId(rs.getInt("account_id"));
-        transaction.setTransactionType(TransactionType.valueOf(rs.getString("transaction_type")));
-        transaction.setAmount(rs.getDouble("amount"));
-
-        Timestamp timestamp = rs.getTimestamp("date");
-        if (timestamp != null) {
-            transaction.setDate(timestamp.toLocalDateTime());
-        }
-
-        transaction.setNarration(rs.getString("narration"));
-
-        return transaction;
+    // Helper: Compile a row mapper for one result shape - column positions are looked up once
+    // (package-private so the benchmarks can time it)
+    static RowMapper<Transaction> compileTransactionMapper(ColumnIndex columns) throws SQLException {
+        int id = columns.require("id");
+        int accountId = columns.require("account_id");
+        int transactionType = columns.require("transaction_type");
+        int amount = columns.require("amount");
+        int date = columns.require("date");
+        int narration = columns.require("narration");
+        return rs -> {
+            Transaction transaction = new Transaction();
+            transaction.setId(rs.getInt(id));
+            transaction.setAccountId(rs.getInt(accountId));
+            transaction.setTransactionType(TRANSACTION_TYPES.decode(rs.getString(transactionType)));
+            transaction.setAmountMinor(Money.read(rs, amount));
+            // Read as Timestamp, the same way it is bound, so the session time zone is applied symmetrically
+            Timestamp timestamp = rs.getTimestamp(date);
+            transaction.setDate(timestamp != null ? timestamp.toLocalDateTime() : null);
+            transaction.setNarration(rs.getString(narration));
+            return transaction;
+        };
     }
 }
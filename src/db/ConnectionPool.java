@@ -0,0 +1,562 @@
+package db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Small bounded JDBC connection pool.
+ *
+ * Connections handed out are proxies: calling close() returns the physical connection to the pool
+ * instead of closing it, so the existing try-with-resources blocks in the DAOs work unchanged.
+ * Idle connections are kept LIFO so the warmest connection is reused first.
+ *
+ * Each physical connection also keeps an LRU of its prepared statements (see StatementCache), so a
+ * DAO that prepares the same SQL again on a reused connection gets the already-prepared statement
+ * back; closing the statement returns it to the cache. Only the plain prepareStatement(sql) and
+ * prepareStatement(sql, autoGeneratedKeys) forms are cached.
+ */
+public class ConnectionPool {
+    // A connection returned this recently is assumed alive and not pinged again on borrow
+    private static final long VALIDATION_BYPASS_MILLIS = 500;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+    private static final long HOUSEKEEPING_PERIOD_MILLIS = 5_000;
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int minIdle;
+    private final int maxSize;
+    private final long acquireTimeoutMillis;
+    private final long idleTimeoutMillis;
+    private final long leakThresholdMillis;
+    private final boolean traceBorrowSites;
+    private final int statementCacheSize;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final ArrayDeque<PooledConnection> idle = new ArrayDeque<>();
+    private final Set<PooledConnection> borrowed = new HashSet<>();
+    private final ScheduledExecutorService housekeeper;
+
+    // All guarded by lock
+    private int totalConnections; // idle + borrowed + currently being opened
+    private int waiters;
+    private boolean closed;
+    private long totalBorrows;
+    private long totalCreated;
+    private long totalTimeouts;
+    private long totalWaitNanos;
+    private long maxWaitNanos;
+
+    // Updated on every prepare, so kept off the pool lock
+    private final LongAdder statementHits = new LongAdder();
+    private final LongAdder statementMisses = new LongAdder();
+    private final LongAdder statementEvictions = new LongAdder();
+
+    /**
+     * @param minIdle              connections kept open even when the application is idle
+     * @param maxSize              hard upper bound on open connections
+     * @param acquireTimeoutMillis how long getConnection() waits for a free connection before failing
+     * @param idleTimeoutMillis    idle connections above minIdle are closed after this long
+     * @param leakThresholdMillis  a connection held longer than this is reported as a possible leak (0 disables)
+     * @param traceBorrowSites     record a stack trace on every borrow, so a leak report shows where the
+     *                             connection was taken; costly, meant for debugging leaks
+     * @param statementCacheSize   prepared statements kept open per connection (0 disables the cache)
+     */
+    public ConnectionPool(String url, String user, String password, int minIdle, int maxSize,
+                          long acquireTimeoutMillis, long idleTimeoutMillis, long leakThresholdMillis,
+                          boolean traceBorrowSites, int statementCacheSize) {
+        if (maxSize <= 0 || minIdle < 0 || minIdle > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size: minIdle=" + minIdle + ", maxSize=" + maxSize);
+        }
+        if (statementCacheSize < 0) {
+            throw new IllegalArgumentException("Invalid statement cache size: " + statementCacheSize);
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.minIdle = minIdle;
+        this.maxSize = maxSize;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.leakThresholdMillis = leakThresholdMillis;
+        this.traceBorrowSites = traceBorrowSites;
+        this.statementCacheSize = statementCacheSize;
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        // First run fills the pool up to minIdle in the background so startup is not blocked
+        housekeeper.scheduleWithFixedDelay(this::housekeep, 0, HOUSEKEEPING_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrow a connection, waiting up to the acquisition timeout if the pool is exhausted.
+     */
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(acquireTimeoutMillis);
+
+        while (true) {
+            PooledConnection candidate = null;
+            boolean mustCreate = false;
+
+            lock.lock();
+            try {
+                while (true) {
+                    if (closed) throw new SQLException("Connection pool is closed.");
+                    candidate = idle.pollFirst();
+                    if (candidate != null) break;
+                    if (totalConnections < maxSize) {
+                        totalConnections++; // reserve the slot before opening outside the lock
+                        mustCreate = true;
+                        break;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        totalTimeouts++;
+                        throw new SQLTimeoutException("Timed out after " + acquireTimeoutMillis
+                                + "ms waiting for a database connection (" + borrowed.size() + " in use).");
+                    }
+                    waiters++;
+                    try {
+                        available.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("Interrupted while waiting for a database connection.", e);
+                    } finally {
+                        waiters--;
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            if (mustCreate) {
+                candidate = openPhysical();
+            } else if (!isUsable(candidate)) {
+                discard(candidate);
+                continue;
+            }
+            return checkout(candidate, start);
+        }
+    }
+
+    public PoolStats getStats() {
+        lock.lock();
+        try {
+            return new PoolStats(borrowed.size(), idle.size(), waiters, totalBorrows, totalCreated,
+                    totalTimeouts, totalWaitNanos, maxWaitNanos,
+                    statementHits.sum(), statementMisses.sum(), statementEvictions.sum());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Close all idle connections and reject further borrows. Borrowed connections are closed when returned.
+     */
+    public void shutdown() {
+        List<PooledConnection> toClose;
+        lock.lock();
+        try {
+            closed = true;
+            toClose = new ArrayList<>(idle);
+            totalConnections -= idle.size();
+            idle.clear();
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        housekeeper.shutdownNow();
+        for (PooledConnection pc : toClose) {
+            closeQuietly(pc.physical);
+        }
+    }
+
+    // --- Internals ---
+
+    private PooledConnection openPhysical() throws SQLException {
+        try {
+            PooledConnection pc = new PooledConnection(DriverManager.getConnection(url, user, password),
+                    statementCacheSize > 0 ? new StatementCache(statementCacheSize) : null);
+            lock.lock();
+            try {
+                totalCreated++;
+            } finally {
+                lock.unlock();
+            }
+            return pc;
+        } catch (SQLException | RuntimeException e) {
+            lock.lock();
+            try {
+                totalConnections--;
+                available.signal();
+            } finally {
+                lock.unlock();
+            }
+            throw e;
+        }
+    }
+
+    private boolean isUsable(PooledConnection pc) {
+        if (System.currentTimeMillis() - pc.lastReturnedAt < VALIDATION_BYPASS_MILLIS) return true;
+        try {
+            return pc.physical.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private Connection checkout(PooledConnection pc, long requestedAtNanos) {
+        long waited = System.nanoTime() - requestedAtNanos;
+        Exception site = traceBorrowSites && leakThresholdMillis > 0 ? new Exception("Connection borrowed here") : null;
+        lock.lock();
+        try {
+            // Set before the connection shows up in borrowed, where the leak scan reads them
+            pc.borrowedAt = System.currentTimeMillis();
+            pc.borrowedBy = Thread.currentThread().getName();
+            pc.borrowSite = site;
+            pc.leakReported = false;
+            borrowed.add(pc);
+            totalBorrows++;
+            totalWaitNanos += waited;
+            if (waited > maxWaitNanos) maxWaitNanos = waited;
+        } finally {
+            lock.unlock();
+        }
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConnectionHandler(pc));
+    }
+
+    private void release(PooledConnection pc) {
+        boolean healthy = resetState(pc.physical);
+        boolean keep;
+        lock.lock();
+        try {
+            borrowed.remove(pc);
+            keep = healthy && !closed;
+            if (keep) {
+                pc.lastReturnedAt = System.currentTimeMillis();
+                idle.addFirst(pc);
+            } else {
+                totalConnections--;
+            }
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+        if (!keep) closeQuietly(pc.physical);
+    }
+
+    // Undo anything a caller may have changed so the next borrower gets a clean autocommit session
+    private boolean resetState(Connection physical) {
+        try {
+            if (physical.isClosed()) return false;
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+            physical.clearWarnings();
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void discard(PooledConnection pc) {
+        lock.lock();
+        try {
+            totalConnections--;
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+        closeQuietly(pc.physical);
+    }
+
+    private void housekeep() {
+        try {
+            evictIdle();
+            reportLeaks();
+            fillToMinIdle();
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void evictIdle() {
+        List<PooledConnection> evicted = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        lock.lock();
+        try {
+            // Oldest idle connections sit at the tail of the LIFO deque
+            Iterator<PooledConnection> it = idle.descendingIterator();
+            while (it.hasNext() && idle.size() > minIdle) {
+                PooledConnection pc = it.next();
+                if (now - pc.lastReturnedAt < idleTimeoutMillis) break;
+                it.remove();
+                totalConnections--;
+                evicted.add(pc);
+            }
+        } finally {
+            lock.unlock();
+        }
+        for (PooledConnection pc : evicted) {
+            closeQuietly(pc.physical);
+        }
+    }
+
+    private void reportLeaks() {
+        if (leakThresholdMillis <= 0) return;
+        long now = System.currentTimeMillis();
+        List<PooledConnection> suspects = new ArrayList<>();
+        lock.lock();
+        try {
+            for (PooledConnection pc : borrowed) {
+                if (!pc.leakReported && now - pc.borrowedAt > leakThresholdMillis) {
+                    pc.leakReported = true;
+                    suspects.add(pc);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        for (PooledConnection pc : suspects) {
+            System.err.println("Possible connection leak: connection held for " + (now - pc.borrowedAt)
+                    + "ms, borrowed by thread " + pc.borrowedBy + ".");
+            if (pc.borrowSite != null) pc.borrowSite.printStackTrace();
+        }
+    }
+
+    private void fillToMinIdle() {
+        while (true) {
+            lock.lock();
+            try {
+                if (closed || idle.size() >= minIdle || totalConnections >= maxSize) return;
+                totalConnections++;
+            } finally {
+                lock.unlock();
+            }
+            PooledConnection pc;
+            try {
+                pc = openPhysical();
+            } catch (SQLException e) {
+                System.err.println("Connection pool could not open a connection: " + e.getMessage());
+                return;
+            }
+            pc.lastReturnedAt = System.currentTimeMillis();
+            lock.lock();
+            try {
+                idle.addLast(pc);
+                available.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private static void closeQuietly(Connection conn) {
+        try {
+            conn.close();
+        } catch (SQLException ignored) {
+        }
+    }
+
+    private static class PooledConnection {
+        final Connection physical;
+        final StatementCache statements; // null when statement caching is off
+        volatile long lastReturnedAt;
+        volatile long borrowedAt;
+        volatile String borrowedBy;
+        volatile Exception borrowSite; // only when traceBorrowSites is on
+        volatile boolean leakReported;
+
+        PooledConnection(Connection physical, StatementCache statements) {
+            this.physical = physical;
+            this.statements = statements;
+        }
+    }
+
+    // Forwards everything to the physical connection except close(), which hands it back to the pool,
+    // and the cacheable prepareStatement calls, which are served from the connection's statement cache
+    private class ConnectionHandler implements InvocationHandler {
+        private final PooledConnection pc;
+        private final List<StatementHandler> openStatements = new ArrayList<>();
+        private boolean closed;
+
+        ConnectionHandler(PooledConnection pc) {
+            this.pc = pc;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        // Statements the borrower left open go back to the cache with the connection
+                        for (StatementHandler statement : new ArrayList<>(openStatements)) {
+                            statement.close();
+                        }
+                        release(pc);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || pc.physical.isClosed();
+                case "prepareStatement":
+                    if (!closed && pc.statements != null && isCacheable(args)) {
+                        int autoGeneratedKeys = args.length > 1 ? (Integer) args[1] : Statement.NO_GENERATED_KEYS;
+                        return prepareCached(proxy, (String) args[0], autoGeneratedKeys);
+                    }
+                    return forward(method, args);
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled" + pc.physical;
+                default:
+                    return forward(method, args);
+            }
+        }
+
+        private Object forward(Method method, Object[] args) throws Throwable {
+            if (closed) throw new SQLException("Connection has already been returned to the pool.");
+            try {
+                return method.invoke(pc.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        // prepareStatement(String) and prepareStatement(String, int autoGeneratedKeys)
+        private boolean isCacheable(Object[] args) {
+            return args.length == 1 || (args.length == 2 && args[1] instanceof Integer);
+        }
+
+        private PreparedStatement prepareCached(Object connectionProxy, String sql, int autoGeneratedKeys) throws SQLException {
+            String key = autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS ? "K:" + sql : sql;
+            PreparedStatement physical = pc.statements.take(key);
+            if (physical != null && !physical.isClosed()) {
+                statementHits.increment();
+            } else {
+                statementMisses.increment();
+                physical = pc.physical.prepareStatement(sql, autoGeneratedKeys);
+            }
+            StatementHandler handler = new StatementHandler(this, connectionProxy, key, physical);
+            openStatements.add(handler);
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, handler);
+        }
+
+        // Called when the borrower closes a cached statement
+        void returnStatement(StatementHandler handler) {
+            openStatements.remove(handler);
+            PreparedStatement physical = handler.physical;
+            try {
+                // Leave nothing behind for the next user of this statement, and undo any tuning
+                // (fetch size, row limit, timeout) so it starts from the driver defaults
+                handler.closeResults();
+                physical.setFetchSize(0);
+                physical.setMaxRows(0);
+                physical.setQueryTimeout(0);
+                physical.clearParameters();
+                physical.clearBatch();
+                physical.clearWarnings();
+            } catch (SQLException e) {
+                try {
+                    physical.close();
+                } catch (SQLException ignored) {
+                }
+                return;
+            }
+            statementEvictions.add(pc.statements.put(handler.key, physical));
+        }
+    }
+
+    // Forwards to the cached physical statement; close() returns it to the connection's cache.
+    // Result sets it handed out are closed on return, as closing a real statement would.
+    private static class StatementHandler implements InvocationHandler {
+        private final ConnectionHandler owner;
+        private final Object connectionProxy;
+        private final String key;
+        private final PreparedStatement physical;
+        private final List<ResultSet> results = new ArrayList<>(1);
+        private boolean closed;
+
+        StatementHandler(ConnectionHandler owner, Object connectionProxy, String key, PreparedStatement physical) {
+            this.owner = owner;
+            this.connectionProxy = connectionProxy;
+            this.key = key;
+            this.physical = physical;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    close();
+                    return null;
+                case "isClosed":
+                    return closed || physical.isClosed();
+                case "getConnection":
+                    return connectionProxy;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Cached" + physical;
+                default:
+                    if (closed) throw new SQLException("Statement has already been closed.");
+                    // Re-executing closes the previous results anyway; drop them so the list stays short
+                    if (method.getName().startsWith("execute")) closeResults();
+                    Object result;
+                    try {
+                        result = method.invoke(physical, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    if (result instanceof ResultSet) results.add((ResultSet) result);
+                    return result;
+            }
+        }
+
+        void close() {
+            if (closed) return;
+            closed = true;
+            owner.returnStatement(this);
+        }
+
+        void closeResults() throws SQLException {
+            for (ResultSet rs : results) {
+                rs.close();
+            }
+            results.clear();
+        }
+    }
+}
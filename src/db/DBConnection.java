@@ -5,18 +5,79 @@ import java.sql.DriverManager;
 import java.sql.SQLException;
 
 public class DBConnection {
-    private static final String URL = "jdbc:mysql://localhost:3306/bank2";
-    private static final String USER = "root";
-    private static final String PASSWORD = "";
+    // rewriteBatchedStatements lets JDBC batches go out as multi-row INSERTs.
+    // useServerPrepStmts makes MySQL parse each statement once; the pool keeps the prepared
+    // statements open per connection (POOL_STATEMENT_CACHE_SIZE) so the server-side handle is reused.
+    // Each setting can be overridden with a system property (bank.db.url etc.), e.g. to point
+    // the benchmarks at an embedded database.
+    private static final String URL = System.getProperty("bank.db.url",
+            "jdbc:mysql://localhost:3306/bank2?rewriteBatchedStatements=true&useServerPrepStmts=true");
+    private static final String USER = System.getProperty("bank.db.user", "root");
+    private static final String PASSWORD = System.getProperty("bank.db.password", "");
+    private static final String DRIVER = System.getProperty("bank.db.driver", "com.mysql.cj.jdbc.Driver");
 
-    // Single method to get connection
+    // Pool sizing
+    private static final int POOL_MIN_IDLE = 2;
+    private static final int POOL_MAX_SIZE = 10;
+    private static final long POOL_ACQUIRE_TIMEOUT_MS = 5_000;
+    private static final long POOL_IDLE_TIMEOUT_MS = 5 * 60_000;
+    private static final long POOL_LEAK_THRESHOLD_MS = 30_000;
+    // Stack trace of every borrow, for the leak report; only worth its cost while hunting a leak
+    private static final boolean POOL_TRACE_BORROW_SITES = Boolean.getBoolean("bank.db.traceBorrowSites");
+    // Prepared statements kept per connection; the DAOs use a few dozen distinct SQL strings in total
+    private static final int POOL_STATEMENT_CACHE_SIZE = Integer.getInteger("bank.db.statementCacheSize", 64);
+
+    private static volatile ConnectionPool pool;
+
+    // Single method to get connection (borrowed from the pool; close() returns it)
     public static Connection getConnection() {
         try {
-            Class.forName("com.mysql.cj.jdbc.Driver"); // load driver
-            return DriverManager.getConnection(URL, USER, PASSWORD);
+            return getPool().getConnection();
         } catch (ClassNotFoundException | SQLException e) {
             e.printStackTrace();
             return null; // return null if connection fails
         }
     }
+
+    /**
+     * Opens a dedicated, unpooled connection. Only meant for tools and benchmarks that need
+     * to compare against the pool; application code should use getConnection().
+     */
+    public static Connection getUnpooledConnection() throws SQLException {
+        return DriverManager.getConnection(URL, USER, PASSWORD);
+    }
+
+    // Whether the URL points at MySQL, for the few places that use a Connector/J-specific setting
+    public static boolean isMySql() {
+        return URL.startsWith("jdbc:mysql:");
+    }
+
+    public static PoolStats getPoolStats() {
+        ConnectionPool current = pool;
+        return current != null ? current.getStats() : new PoolStats(0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0);
+    }
+
+    public static synchronized void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+        }
+    }
+
+    private static ConnectionPool getPool() throws ClassNotFoundException {
+        ConnectionPool current = pool;
+        if (current == null) {
+            synchronized (DBConnection.class) {
+                current = pool;
+                if (current == null) {
+                    Class.forName(DRIVER); // load driver once
+                    current = new ConnectionPool(URL, USER, PASSWORD, POOL_MIN_IDLE, POOL_MAX_SIZE,
+                            POOL_ACQUIRE_TIMEOUT_MS, POOL_IDLE_TIMEOUT_MS, POOL_LEAK_THRESHOLD_MS,
+                            POOL_TRACE_BORROW_SITES, POOL_STATEMENT_CACHE_SIZE);
+                    pool = current;
+                }
+            }
+        }
+        return current;
+    }
 }
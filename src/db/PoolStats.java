@@ -0,0 +1,66 @@
+package db;
+
+/**
+ * Immutable snapshot of the connection pool counters, taken by {@link ConnectionPool#getStats()}.
+ */
+public class PoolStats {
+    private final int active;
+    private final int idle;
+    private final int waiters;
+    private final long totalBorrows;
+    private final long totalCreated;
+    private final long totalTimeouts;
+    private final long totalWaitNanos;
+    private final long maxWaitNanos;
+    private final long statementCacheHits;
+    private final long statementCacheMisses;
+    private final long statementCacheEvictions;
+
+    public PoolStats(int active, int idle, int waiters, long totalBorrows, long totalCreated,
+                     long totalTimeouts, long totalWaitNanos, long maxWaitNanos,
+                     long statementCacheHits, long statementCacheMisses, long statementCacheEvictions) {
+        this.active = active;
+        this.idle = idle;
+        this.waiters = waiters;
+        this.totalBorrows = totalBorrows;
+        this.totalCreated = totalCreated;
+        this.totalTimeouts = totalTimeouts;
+        this.totalWaitNanos = totalWaitNanos;
+        this.maxWaitNanos = maxWaitNanos;
+        this.statementCacheHits = statementCacheHits;
+        this.statementCacheMisses = statementCacheMisses;
+        this.statementCacheEvictions = statementCacheEvictions;
+    }
+
+    public int getActive() { return active; }
+    public int getIdle() { return idle; }
+    public int getWaiters() { return waiters; }
+    public long getTotalBorrows() { return totalBorrows; }
+    public long getTotalCreated() { return totalCreated; }
+    public long getTotalTimeouts() { return totalTimeouts; }
+    public long getStatementCacheHits() { return statementCacheHits; }
+    public long getStatementCacheMisses() { return statementCacheMisses; }
+    public long getStatementCacheEvictions() { return statementCacheEvictions; }
+
+    public double getAverageWaitMillis() {
+        return totalBorrows == 0 ? 0.0 : totalWaitNanos / (double) totalBorrows / 1_000_000.0;
+    }
+
+    public double getMaxWaitMillis() {
+        return maxWaitNanos / 1_000_000.0;
+    }
+
+    // Share of cacheable prepareStatement calls served from a connection's statement cache
+    public double getStatementCacheHitRate() {
+        long prepares = statementCacheHits + statementCacheMisses;
+        return prepares == 0 ? 0.0 : statementCacheHits / (double) prepares;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("active=%d, idle=%d, waiters=%d, borrows=%d, created=%d, timeouts=%d, avgWait=%.3fms, maxWait=%.3fms, "
+                        + "stmtCacheHits=%d, stmtCacheMisses=%d, stmtCacheEvictions=%d, stmtCacheHitRate=%.1f%%",
+                active, idle, waiters, totalBorrows, totalCreated, totalTimeouts, getAverageWaitMillis(), getMaxWaitMillis(),
+                statementCacheHits, statementCacheMisses, statementCacheEvictions, getStatementCacheHitRate() * 100);
+    }
+}
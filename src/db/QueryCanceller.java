@@ -0,0 +1,41 @@
+package db;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Lets another thread abort a query that is running on a DAO's statement.
+ *
+ * The DAO registers its statement just before executing and unregisters it before closing, both under
+ * this object's lock, so cancel() can never hit a statement that has gone back to the pool's statement
+ * cache and is running someone else's query. Cancelling before the query starts makes register() fail
+ * straight away. One canceller belongs to one logical request; it cannot be reset.
+ */
+public class QueryCanceller {
+    private Statement running;
+    private boolean cancelled;
+
+    public synchronized void register(Statement stmt) throws SQLException {
+        if (cancelled) throw new SQLException("Query cancelled before it started.");
+        running = stmt;
+    }
+
+    public synchronized void unregister(Statement stmt) {
+        if (running == stmt) running = null;
+    }
+
+    // Asks the database to stop the running query, if any; its executeQuery() then throws
+    public synchronized void cancel() {
+        cancelled = true;
+        if (running == null) return;
+        try {
+            running.cancel();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+}
@@ -0,0 +1,63 @@
+package db;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LRU of prepared statements belonging to one physical connection, keyed by SQL text.
+ *
+ * A statement is taken out of the cache while a borrower uses it and put back when the borrower
+ * closes it, so two open statements never share one physical statement. Not thread-safe: a pooled
+ * connection is only ever used by one borrower at a time.
+ */
+class StatementCache {
+    private final int maxSize;
+    // Access order, so iteration starts at the least recently used statement
+    private final LinkedHashMap<String, PreparedStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+
+    StatementCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Removes and returns the cached statement for this key, or null on a miss.
+     */
+    PreparedStatement take(String key) {
+        return statements.remove(key);
+    }
+
+    /**
+     * Returns a statement to the cache and closes whatever no longer fits.
+     * Returns the number of statements that were closed to make room.
+     */
+    int put(String key, PreparedStatement stmt) {
+        PreparedStatement previous = statements.putIfAbsent(key, stmt);
+        if (previous != null) {
+            // The same SQL was open twice on this connection; one copy is enough
+            closeQuietly(stmt);
+            return 0;
+        }
+        int evicted = 0;
+        Iterator<Map.Entry<String, PreparedStatement>> it = statements.entrySet().iterator();
+        while (statements.size() > maxSize && it.hasNext()) {
+            closeQuietly(it.next().getValue());
+            it.remove();
+            evicted++;
+        }
+        return evicted;
+    }
+
+    int size() {
+        return statements.size();
+    }
+
+    private static void closeQuietly(PreparedStatement stmt) {
+        try {
+            stmt.close();
+        } catch (SQLException ignored) {
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package db;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Runs a unit of work on a single pooled connection inside one database transaction.
+ * The work is committed if it returns normally and rolled back if it throws.
+ */
+public class TransactionRunner {
+
+    public interface Work<T> {
+        T execute(Connection conn) throws SQLException;
+    }
+
+    public static <T> T inTransaction(Work<T> work) throws SQLException {
+        try (Connection conn = DBConnection.getConnection()) {
+            if (conn == null) throw new SQLException("No database connection available.");
+
+            conn.setAutoCommit(false);
+            try {
+                T result = work.execute(conn);
+                conn.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+}
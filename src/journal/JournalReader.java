@@ -0,0 +1,131 @@
+package journal;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.util.zip.CRC32C;
+
+/**
+ * Reads the mutation journal in sequence order, straight out of read-only mapped segments: every record
+ * is checked against its CRC and handed to the handler as a reused JournalRecord view, so reading
+ * allocates nothing per record (only a mapping per segment).
+ *
+ * A reader is a cursor. Replaying reads to the end of what has been written; a downstream consumer
+ * keeps calling poll to follow the journal as it grows, storing getNextSequence() wherever it keeps its
+ * progress and seeking back to it after a restart. Not thread-safe; one reader per consumer.
+ */
+public class JournalReader implements AutoCloseable {
+
+    /**
+     * Receives each record; the record view is only valid during the call.
+     */
+    public interface RecordHandler {
+        void onRecord(JournalRecord record) throws SQLException;
+    }
+
+    private final Path directory;
+    private final CRC32C crc = new CRC32C();
+    private final JournalRecord record = new JournalRecord();
+
+    private MappedByteBuffer segment; // null until the segment holding nextSequence is mapped
+    private long segmentFirst;
+    private int segmentCapacity;
+    private long nextSequence = 1;
+    private long bytesRead;
+
+    public JournalReader(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Moves the cursor to the given sequence (1 = the first record ever written).
+     */
+    public void seek(long sequence) {
+        nextSequence = Math.max(1, sequence);
+        segment = null;
+    }
+
+    /**
+     * Hands up to maxRecords records, starting at the cursor, to the handler and moves past them. Stops
+     * early at the end of the journal: where nothing is written yet, or at a record that fails its CRC
+     * (torn by a crash, or still being written). Throws if the journal has a gap, e.g. a deleted segment.
+     * @return the number of records handled
+     */
+    public int poll(RecordHandler handler, int maxRecords) throws IOException, SQLException {
+        int handled = 0;
+        while (handled < maxRecords) {
+            if (!positioned()) break;
+            int offset = (int) (nextSequence - segmentFirst) * MutationJournal.RECORD_SIZE;
+            if (!MutationJournal.isIntact(segment, offset, nextSequence, crc)) break;
+            record.wrap(segment, offset);
+            handler.onRecord(record);
+            nextSequence++;
+            handled++;
+        }
+        bytesRead += (long) handled * MutationJournal.RECORD_SIZE;
+        return handled;
+    }
+
+    /**
+     * Hands every record from the cursor to the current end of the journal to the handler.
+     * @return the number of records handled
+     */
+    public long replay(RecordHandler handler) throws IOException, SQLException {
+        long total = 0;
+        int handled;
+        while ((handled = poll(handler, 1 << 16)) > 0) {
+            total += handled;
+        }
+        return total;
+    }
+
+    // The sequence the next poll starts at
+    public long getNextSequence() { return nextSequence; }
+    public long getBytesRead() { return bytesRead; }
+
+    @Override
+    public void close() {
+        segment = null;
+    }
+
+    // Maps the segment holding nextSequence if it is not mapped yet; false if it does not exist (yet)
+    private boolean positioned() throws IOException {
+        if (segment != null && nextSequence - segmentFirst < segmentCapacity) return true;
+        if (segment != null) {
+            // Reading on: the next segment starts exactly where this one ended
+            Path next = MutationJournal.segmentPath(directory, nextSequence);
+            if (!Files.exists(next)) return false;
+            map(next, nextSequence);
+            return true;
+        }
+        // After a seek: the last segment starting at or before the cursor
+        long[] segments = MutationJournal.listSegments(directory);
+        long first = 0;
+        for (long candidate : segments) {
+            if (candidate <= nextSequence) first = candidate;
+        }
+        if (first == 0) {
+            if (segments.length > 0) {
+                throw new IOException("Journal starts at sequence " + segments[0] + "; " + nextSequence + " was deleted.");
+            }
+            return false;
+        }
+        map(MutationJournal.segmentPath(directory, first), first);
+        return nextSequence - segmentFirst < segmentCapacity;
+    }
+
+    private void map(Path file, long first) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size() - channel.size() % MutationJournal.RECORD_SIZE;
+            segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            segment.order(ByteOrder.LITTLE_ENDIAN);
+        }
+        segmentFirst = first;
+        segmentCapacity = segment.capacity() / MutationJournal.RECORD_SIZE;
+    }
+}
@@ -0,0 +1,49 @@
+package journal;
+
+import java.nio.ByteBuffer;
+
+/**
+ * One record of the mutation journal, read in place: a view over the mapped segment that the reader
+ * moves from record to record, so reading allocates nothing. Only valid inside the handler call it is
+ * passed to; copy out whatever must outlive it.
+ *
+ * Which fields a record uses depends on its kind (see the kind constants in MutationJournal).
+ */
+public final class JournalRecord {
+    private ByteBuffer buffer;
+    private int offset;
+
+    JournalRecord() {
+    }
+
+    void wrap(ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+    }
+
+    public byte getKind() { return buffer.get(offset + MutationJournal.KIND); }
+    public long getSequence() { return buffer.getLong(offset + MutationJournal.SEQUENCE); }
+    public long getTimeMillis() { return buffer.getLong(offset + MutationJournal.TIME); }
+    // Account or loan ID; first ID (exclusive for accounts, inclusive for loans) of a range
+    public int getId() { return buffer.getInt(offset + MutationJournal.ID); }
+    // Customer ID (opened/updated), target account (transfer) or last ID of a range
+    public int getOtherId() { return buffer.getInt(offset + MutationJournal.OTHER_ID); }
+    // Account/loan type ordinal (opened/updated)
+    public int getTypeOrdinal() { return buffer.get(offset + MutationJournal.TYPE_ORDINAL); }
+    // Posting amount, loan amount sanctioned, or total interest of a range
+    public long getAmountMinor() { return buffer.getLong(offset + MutationJournal.AMOUNT); }
+    // Balance after the mutation, where the kind records one
+    public long getBalanceMinor() { return buffer.getLong(offset + MutationJournal.BALANCE); }
+    public int getRateHundredths() { return buffer.getInt(offset + MutationJournal.RATE); }
+    // Epoch days, or MutationJournal.NO_DAY
+    public int getOpenDay() { return buffer.getInt(offset + MutationJournal.OPEN_DAY); }
+    public int getCloseDay() { return buffer.getInt(offset + MutationJournal.CLOSE_DAY); }
+    // Loan tenure in months (opened/updated), or rows affected (ranges)
+    public int getCount() { return buffer.getInt(offset + MutationJournal.COUNT); }
+
+    @Override
+    public String toString() {
+        return MutationJournal.kindName(getKind()) + " #" + getSequence() + " id=" + getId() + " other=" + getOtherId()
+                + " amount=" + getAmountMinor() + " balance=" + getBalanceMinor();
+    }
+}
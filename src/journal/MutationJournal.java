@@ -0,0 +1,422 @@
+package journal;
+
+import model.Account;
+import model.LedgerBatch;
+import model.Loan;
+import model.Money;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only binary record of every account and loan mutation, kept on local disk next to the
+ * database: for crash recovery, for rebuilding a database (service.JournalReplayer) and for feeding
+ * downstream consumers (JournalReader).
+ *
+ * Records are RECORD_SIZE bytes with a CRC32C each and are written into memory-mapped segment files of
+ * a fixed size, named after the sequence of their first record; a new segment is started when one is
+ * full. A record is in the page cache once its append returns, so it survives a crash of the process;
+ * with sync (or force()) it also survives a power loss. Mutations are recorded right after their DB
+ * transaction commits, so a rolled-back mutation never appears; the order of records for different
+ * writers need not be their commit order, which is why postings, interest and loan payments are
+ * recorded (and replayed) as amounts rather than recomputed or as balances.
+ *
+ * Record layout (little-endian):
+ * <pre>
+ *  0 int  CRC32C of bytes 4-63     24 int  id              48 int  rate (hundredths of a percent)
+ *  4 byte kind                     28 int  other id        52 int  open day (epoch day)
+ *  5 byte format version           32 long amount (minor)  56 int  close day (epoch day)
+ *  6 byte type ordinal             40 long balance (minor) 60 int  count
+ *  8 long sequence (from 1)
+ * 16 long time (epoch millis)
+ * </pre>
+ * Unwritten space in a segment is zero, and kind 0 marks the end of the journal.
+ */
+public class MutationJournal implements AutoCloseable {
+    public static final int RECORD_SIZE = 64;
+    public static final int DEFAULT_SEGMENT_RECORDS = 1 << 20; // 64 MB segments
+    public static final int NO_DAY = Integer.MIN_VALUE;
+
+    // Kinds. Opened/updated records carry the whole row: customer (other id), type, amount sanctioned
+    // (loans), balance, rate, open and close day, tenure (loans, count).
+    public static final byte ACCOUNT_OPENED = 1;
+    public static final byte ACCOUNT_UPDATED = 2;
+    public static final byte ACCOUNT_DETAILS_UPDATED = 3; // the row without its balance (ledger mode)
+    public static final byte ACCOUNT_DELETED = 4;
+    public static final byte DEPOSIT = 5;                 // amount
+    public static final byte WITHDRAWAL = 6;              // amount
+    public static final byte TRANSFER = 7;                // amount to the other id
+    public static final byte INTEREST = 8;                // amount, rate
+    public static final byte INTEREST_RANGE = 9;          // accounts in (id, other id], posted at time (older journals only)
+    public static final byte LOAN_OPENED = 10;
+    public static final byte LOAN_UPDATED = 11;
+    public static final byte LOAN_DELETED = 12;
+    public static final byte LOAN_PAYMENT = 13;           // amount, remaining balance, paid at time
+    public static final byte LOAN_INTEREST = 14;          // amount, balance after, rate
+    public static final byte LOAN_INTEREST_RANGE = 15;    // loans in [id, other id] (older journals only)
+
+    private static final String[] KIND_NAMES = {"NONE", "ACCOUNT_OPENED", "ACCOUNT_UPDATED", "ACCOUNT_DETAILS_UPDATED",
+            "ACCOUNT_DELETED", "DEPOSIT", "WITHDRAWAL", "TRANSFER", "INTEREST", "INTEREST_RANGE", "LOAN_OPENED",
+            "LOAN_UPDATED", "LOAN_DELETED", "LOAN_PAYMENT", "LOAN_INTEREST", "LOAN_INTEREST_RANGE"};
+
+    // Field offsets within a record
+    static final int CRC = 0;
+    static final int KIND = 4;
+    static final int VERSION = 5;
+    static final int TYPE_ORDINAL = 6;
+    static final int SEQUENCE = 8;
+    static final int TIME = 16;
+    static final int ID = 24;
+    static final int OTHER_ID = 28;
+    static final int AMOUNT = 32;
+    static final int BALANCE = 40;
+    static final int RATE = 48;
+    static final int OPEN_DAY = 52;
+    static final int CLOSE_DAY = 56;
+    static final int COUNT = 60;
+    static final byte FORMAT_VERSION = 1;
+
+    private static final String SEGMENT_PREFIX = "mutations-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    private static MutationJournal shared;
+    private static boolean sharedOpened;
+
+    private final Path directory;
+    private final int segmentRecords;
+    private final CRC32C crc = new CRC32C();
+    private boolean sync;
+
+    private MappedByteBuffer segment; // null until the first append after open, or once closed
+    private int segmentCapacity;      // records
+    private int index;                // next record in the segment
+    private long nextSequence = 1;
+    private long failedAppends;
+    private boolean closed;
+
+    public MutationJournal(Path directory) throws IOException {
+        this(directory, DEFAULT_SEGMENT_RECORDS);
+    }
+
+    /**
+     * Opens the journal in the directory (created if missing) and continues after its last intact record.
+     * A torn record at the end (the process died mid-write) is cleared and its sequence reused.
+     */
+    public MutationJournal(Path directory, int segmentRecords) throws IOException {
+        if (segmentRecords <= 0 || (long) segmentRecords * RECORD_SIZE > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Segment records must be positive and the segment under 2 GB.");
+        }
+        this.directory = directory;
+        this.segmentRecords = segmentRecords;
+        Files.createDirectories(directory);
+        long[] segments = listSegments(directory);
+        if (segments.length > 0) {
+            long first = segments[segments.length - 1];
+            segment = map(segmentPath(directory, first), true);
+            segmentCapacity = segment.capacity() / RECORD_SIZE;
+            while (index < segmentCapacity && isIntact(segment, index * RECORD_SIZE, first + index, crc)) {
+                index++;
+            }
+            clearFrom(index);
+            nextSequence = first + index;
+        }
+    }
+
+    /**
+     * The process-wide journal in the directory named by the bank.journal.dir system property, or null if
+     * the property is not set or the journal cannot be opened. With -Dbank.journal.sync=true every record
+     * is forced to disk before its append returns.
+     */
+    public static synchronized MutationJournal shared() {
+        if (!sharedOpened) {
+            sharedOpened = true;
+            String dir = System.getProperty("bank.journal.dir");
+            if (dir != null) {
+                try {
+                    MutationJournal journal = new MutationJournal(Path.of(dir));
+                    journal.setSync(Boolean.getBoolean("bank.journal.sync"));
+                    shared = journal;
+                } catch (IOException e) {
+                    System.err.println("Mutation journal could not be opened in " + dir + "; mutations will not be journalled.");
+                    e.printStackTrace();
+                }
+            }
+        }
+        return shared;
+    }
+
+    public synchronized void setSync(boolean sync) {
+        this.sync = sync;
+    }
+
+    // =========================
+    // Recording mutations
+    // =========================
+
+    // The mutation is already committed when it is recorded, so a failed append is reported and counted
+    // (getFailedAppends) rather than thrown back at the caller.
+
+    public void accountOpened(Account account) {
+        recordAccount(ACCOUNT_OPENED, account);
+    }
+
+    public void accountUpdated(Account account) {
+        recordAccount(ACCOUNT_UPDATED, account);
+    }
+
+    public void accountDetailsUpdated(Account account) {
+        recordAccount(ACCOUNT_DETAILS_UPDATED, account);
+    }
+
+    public void accountDeleted(int accountId) {
+        record(ACCOUNT_DELETED, 0, accountId, 0, 0, 0, 0, NO_DAY, NO_DAY, 0, System.currentTimeMillis());
+    }
+
+    public void deposit(int accountId, long amountMinor) {
+        record(DEPOSIT, 0, accountId, 0, amountMinor, 0, 0, NO_DAY, NO_DAY, 0, System.currentTimeMillis());
+    }
+
+    public void withdrawal(int accountId, long amountMinor) {
+        record(WITHDRAWAL, 0, accountId, 0, amountMinor, 0, 0, NO_DAY, NO_DAY, 0, System.currentTimeMillis());
+    }
+
+    public void transfer(int fromAccountId, int toAccountId, long amountMinor) {
+        record(TRANSFER, 0, fromAccountId, toAccountId, amountMinor, 0, 0, NO_DAY, NO_DAY, 0, System.currentTimeMillis());
+    }
+
+    public void interest(int accountId, long amountMinor, long rateHundredths) {
+        interest(accountId, amountMinor, rateHundredths, System.currentTimeMillis());
+    }
+
+    // One account's credit from a set-based interest run, posted at the run's time
+    public void interest(int accountId, long amountMinor, long rateHundredths, LocalDateTime postedAt) {
+        interest(accountId, amountMinor, rateHundredths, toEpochMillis(postedAt));
+    }
+
+    private void interest(int accountId, long amountMinor, long rateHundredths, long timeMillis) {
+        record(INTEREST, 0, accountId, 0, amountMinor, 0, (int) rateHundredths, NO_DAY, NO_DAY, 0, timeMillis);
+    }
+
+    /**
+     * A posting as the in-memory ledger applied it; type is one of the LedgerBatch posting types.
+     */
+    public void ledgerPosting(byte type, int accountId, int otherAccountId, long amountMinor, long rateHundredths, long timeMillis) {
+        byte kind = switch (type) {
+            case LedgerBatch.DEPOSIT -> DEPOSIT;
+            case LedgerBatch.WITHDRAWAL -> WITHDRAWAL;
+            case LedgerBatch.TRANSFER -> TRANSFER;
+            case LedgerBatch.INTEREST -> INTEREST;
+            default -> throw new IllegalArgumentException("Unknown posting type " + type);
+        };
+        record(kind, 0, accountId, otherAccountId, amountMinor, 0, (int) rateHundredths, NO_DAY, NO_DAY, 0, timeMillis);
+    }
+
+    public void loanOpened(Loan loan) {
+        recordLoan(LOAN_OPENED, loan);
+    }
+
+    public void loanUpdated(Loan loan) {
+        recordLoan(LOAN_UPDATED, loan);
+    }
+
+    public void loanDeleted(int loanId) {
+        record(LOAN_DELETED, 0, loanId, 0, 0, 0, 0, NO_DAY, NO_DAY, 0, System.currentTimeMillis());
+    }
+
+    public void loanPayment(int loanId, long amountMinor, long remainingMinor, LocalDateTime paidAt) {
+        record(LOAN_PAYMENT, 0, loanId, 0, amountMinor, remainingMinor, 0, NO_DAY, NO_DAY, 0, toEpochMillis(paidAt));
+    }
+
+    public void loanInterest(int loanId, long amountMinor, long balanceMinor, long rateHundredths) {
+        record(LOAN_INTEREST, 0, loanId, 0, amountMinor, balanceMinor, (int) rateHundredths, NO_DAY, NO_DAY, 0, System.currentTimeMillis());
+    }
+
+    private void recordAccount(byte kind, Account account) {
+        record(kind, account.getAccountType().ordinal(), account.getId(), account.getCustomerId(), 0,
+                account.getBalanceMinor(), (int) Money.rateHundredths(account.getInterestRate()),
+                toDay(account.getOpenDate()), toDay(account.getCloseDate()), 0, System.currentTimeMillis());
+    }
+
+    private void recordLoan(byte kind, Loan loan) {
+        record(kind, loan.getLoanType().ordinal(), loan.getId(), loan.getCustomerId(), loan.getAmountSanctionedMinor(),
+                loan.getBalanceMinor(), (int) Money.rateHundredths(loan.getInterestRate()),
+                toDay(loan.getOpenDate()), toDay(loan.getCloseDate()), loan.getTenureMonths(), System.currentTimeMillis());
+    }
+
+    private void record(byte kind, int typeOrdinal, int id, int otherId, long amountMinor, long balanceMinor,
+                        int rateHundredths, int openDay, int closeDay, int count, long timeMillis) {
+        try {
+            append(kind, typeOrdinal, id, otherId, amountMinor, balanceMinor, rateHundredths, openDay, closeDay, count, timeMillis);
+        } catch (IOException | RuntimeException e) {
+            synchronized (this) {
+                failedAppends++;
+            }
+            System.err.println("Mutation " + kindName(kind) + " on ID " + id + " could not be journalled: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes one record and returns its sequence.
+     */
+    synchronized long append(byte kind, int typeOrdinal, int id, int otherId, long amountMinor, long balanceMinor,
+                             int rateHundredths, int openDay, int closeDay, int count, long timeMillis) throws IOException {
+        if (closed) throw new IllegalStateException("Mutation journal is closed.");
+        if (segment == null || index == segmentCapacity) roll();
+        long sequence = nextSequence;
+        int offset = index * RECORD_SIZE;
+        MappedByteBuffer out = segment;
+        out.put(offset + VERSION, FORMAT_VERSION);
+        out.put(offset + TYPE_ORDINAL, (byte) typeOrdinal);
+        out.putLong(offset + SEQUENCE, sequence);
+        out.putLong(offset + TIME, timeMillis);
+        out.putInt(offset + ID, id);
+        out.putInt(offset + OTHER_ID, otherId);
+        out.putLong(offset + AMOUNT, amountMinor);
+        out.putLong(offset + BALANCE, balanceMinor);
+        out.putInt(offset + RATE, rateHundredths);
+        out.putInt(offset + OPEN_DAY, openDay);
+        out.putInt(offset + CLOSE_DAY, closeDay);
+        out.putInt(offset + COUNT, count);
+        out.put(offset + KIND, kind);
+        out.putInt(offset + CRC, checksum(crc, out, offset));
+        if (sync) out.force(offset, RECORD_SIZE);
+        index++;
+        nextSequence++;
+        return sequence;
+    }
+
+    /**
+     * Forces everything appended so far to disk.
+     */
+    public synchronized void force() {
+        if (segment != null) segment.force();
+    }
+
+    // The sequence the next record will get; everything before it is in the journal
+    public synchronized long getNextSequence() { return nextSequence; }
+    public synchronized long getFailedAppends() { return failedAppends; }
+    public Path getDirectory() { return directory; }
+
+    /**
+     * Deletes the segments whose records all come before the given sequence, e.g. once a replayed
+     * database or every consumer has passed it. The current segment is always kept.
+     * @return the number of segments deleted
+     */
+    public synchronized int deleteSegmentsBefore(long sequence) throws IOException {
+        long[] segments = listSegments(directory);
+        int deleted = 0;
+        // A segment ends where the next one starts
+        for (int i = 0; i + 1 < segments.length && segments[i + 1] <= sequence; i++) {
+            Files.deleteIfExists(segmentPath(directory, segments[i]));
+            deleted++;
+        }
+        return deleted;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) return;
+        force();
+        segment = null;
+        closed = true;
+    }
+
+    public static String kindName(byte kind) {
+        return kind >= 0 && kind < KIND_NAMES.length ? KIND_NAMES[kind] : "UNKNOWN(" + kind + ")";
+    }
+
+    // =========================
+    // Segments
+    // =========================
+
+    private void roll() throws IOException {
+        if (segment != null) segment.force();
+        segment = map(segmentPath(directory, nextSequence), false);
+        segmentCapacity = segment.capacity() / RECORD_SIZE;
+        index = 0;
+        clearFrom(0); // a file left by a crash between creating and filling it
+    }
+
+    private MappedByteBuffer map(Path file, boolean existing) throws IOException {
+        try (FileChannel channel = existing
+                ? FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = existing ? channel.size() - channel.size() % RECORD_SIZE : (long) segmentRecords * RECORD_SIZE;
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            return buffer;
+        }
+    }
+
+    // Zeroes any record at or after 'from' that is not zero already, so readers stop at 'from'
+    private void clearFrom(int from) {
+        for (int i = from; i < segmentCapacity; i++) {
+            int offset = i * RECORD_SIZE;
+            if (segment.get(offset + KIND) == 0 && segment.getInt(offset + CRC) == 0) continue;
+            for (int b = 0; b < RECORD_SIZE; b += Long.BYTES) {
+                segment.putLong(offset + b, 0);
+            }
+        }
+    }
+
+    static Path segmentPath(Path directory, long firstSequence) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+    }
+
+    // First sequences of the segments in the directory, ascending
+    static long[] listSegments(Path directory) throws IOException {
+        long[] firsts = new long[16];
+        int count = 0;
+        if (!Files.isDirectory(directory)) return new long[0];
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    long first = Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+                    if (count == firsts.length) firsts = Arrays.copyOf(firsts, count * 2);
+                    firsts[count++] = first;
+                } catch (NumberFormatException e) {
+                    // not one of ours
+                }
+            }
+        }
+        long[] sorted = Arrays.copyOf(firsts, count);
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    // Whether the record at offset is written, undamaged and has the expected sequence
+    static boolean isIntact(ByteBuffer buffer, int offset, long expectedSequence, CRC32C crc) {
+        return buffer.get(offset + KIND) != 0
+                && buffer.getInt(offset + CRC) == checksum(crc, buffer, offset)
+                && buffer.getLong(offset + SEQUENCE) == expectedSequence;
+    }
+
+    static int checksum(CRC32C crc, ByteBuffer buffer, int offset) {
+        crc.reset();
+        buffer.limit(offset + RECORD_SIZE).position(offset + KIND);
+        crc.update(buffer);
+        buffer.clear();
+        return (int) crc.getValue();
+    }
+
+    private static int toDay(LocalDate date) {
+        return date == null ? NO_DAY : (int) date.toEpochDay();
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time == null ? System.currentTimeMillis() : time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
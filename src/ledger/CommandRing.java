@@ -0,0 +1,114 @@
+package ledger;
+
+import model.LedgerBatch;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Pre-allocated ring of ledger commands, in the style of the LMAX disruptor. Every slot is a set of
+ * primitive fields in parallel arrays, so issuing a command allocates nothing.
+ *
+ * Sequences count from 0. Any number of producers claim sequences and publish their slot; one business
+ * thread processes published commands in sequence order and writes each result back into the slot; one
+ * persister follows it. A producer may only reuse a slot once the persister has passed it, which is
+ * what bounds the work in flight.
+ */
+final class CommandRing {
+    // Account commands; the postings use the LedgerBatch types (1-4)
+    static final byte OPEN = 0;
+    static final byte CLOSE = 5;
+    static final byte SET_RATE = 6;
+
+    final int size;
+    final int mask;
+    private final int shift;
+
+    // Command fields, written by the producer before publishing
+    final byte[] type;
+    final int[] accountId;
+    final int[] otherAccountId;
+    final long[] amountMinor; // the business thread replaces it with the applied amount (interest)
+    final long[] timeMillis;
+    final String[] narration; // the caller's, or null for the standard one
+    // (sequence << 8) | result code, written by the business thread
+    final long[] outcome;
+
+    // Round (sequence >>> shift) of the command last published in each slot
+    private final int[] published;
+    private static final VarHandle PUBLISHED = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private final AtomicLong claimed = new AtomicLong(-1);
+    final AtomicLong processed = new AtomicLong(-1); // business thread
+    final AtomicLong persisted = new AtomicLong(-1); // persister
+    volatile boolean halted; // set when the ledger stops on a failure; publishing then throws
+
+    CommandRing(int minSize) {
+        size = Integer.highestOneBit(Math.max(2, minSize - 1)) << 1;
+        mask = size - 1;
+        shift = Integer.numberOfTrailingZeros(size);
+        type = new byte[size];
+        accountId = new int[size];
+        otherAccountId = new int[size];
+        amountMinor = new long[size];
+        timeMillis = new long[size];
+        narration = new String[size];
+        outcome = new long[size];
+        published = new int[size];
+        Arrays.fill(published, -1);
+    }
+
+    /**
+     * Claims the next sequence, waiting while the ring is full, and fills its slot.
+     */
+    long publish(byte commandType, int account, int otherAccount, long amount, String text) {
+        long sequence = claimed.incrementAndGet();
+        long wrapPoint = sequence - size;
+        for (int idle = 0; persisted.get() < wrapPoint; idle++) {
+            if (halted) throw new IllegalStateException("Ledger has stopped.");
+            idle(idle);
+        }
+        int slot = (int) sequence & mask;
+        type[slot] = commandType;
+        accountId[slot] = account;
+        otherAccountId[slot] = otherAccount;
+        amountMinor[slot] = amount;
+        timeMillis[slot] = System.currentTimeMillis();
+        narration[slot] = text;
+        PUBLISHED.setRelease(published, slot, (int) (sequence >>> shift));
+        return sequence;
+    }
+
+    boolean isPublished(long sequence) {
+        return (int) PUBLISHED.getAcquire(published, (int) sequence & mask) == (int) (sequence >>> shift);
+    }
+
+    static boolean isPosting(byte type) {
+        return type >= LedgerBatch.DEPOSIT && type <= LedgerBatch.INTEREST;
+    }
+
+    long getClaimed() {
+        return claimed.get();
+    }
+
+    /**
+     * Result code of a processed command, if its slot has not been reused since.
+     */
+    int resultOf(long sequence) {
+        long value = outcome[(int) sequence & mask];
+        if (value >>> 8 != sequence) throw new IllegalStateException("Result of command " + sequence + " was overwritten.");
+        return (int) (value & 0xFF);
+    }
+
+    /**
+     * Spin, then yield, then park briefly: keeps latency low under load without burning a core when idle.
+     */
+    static void idle(int round) {
+        if (round < 100) Thread.onSpinWait();
+        else if (round < 200) Thread.yield();
+        else LockSupport.parkNanos(50_000);
+    }
+}
@@ -0,0 +1,615 @@
+package ledger;
+
+import dao.LedgerDAO;
+import journal.MutationJournal;
+import model.LedgerBatch;
+import model.Money;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.file.Path;
+import java.sql.SQLException;
+
+/**
+ * In-memory ledger: account balances live in primitive arrays indexed by account ID and every balance
+ * change is a command on a pre-allocated ring (CommandRing), applied by one business-logic thread.
+ *
+ * The business thread validates and applies commands in sequence order, appends the accepted ones to
+ * the journal file, and only then publishes their results. A persister thread follows it and writes
+ * the postings to the accounts and transactions tables in batches, with the sequence of the last one
+ * (LedgerDAO.persist); if the database is unavailable it retries, and producers wait once the ring is
+ * full. On start the book is loaded from the database and journal records past its checkpoint are
+ * replayed into memory and written out, so a restart after a crash loses nothing that was reported as
+ * done. Issuing, applying and journalling a command allocates nothing beyond encoding its narration.
+ *
+ * The ledger stops, and every later command throws, if the journal cannot be written (the commands of
+ * that batch fail with JOURNAL_FAILED) or a batch still cannot be persisted after MAX_PERSIST_ATTEMPTS;
+ * what it had accepted is in the journal, and starting it again recovers it. The journal is rotated at
+ * JOURNAL_ROTATE_BYTES and the old file deleted once the persister has written everything in it.
+ *
+ * While the ledger runs, every balance change must go through it: the database lags behind by the
+ * persister's backlog and changes made to it directly are not seen by the ledger.
+ *
+ * The arrays start with room for half as many accounts again as the database holds; opening an account
+ * past the end makes the business thread copy them into larger ones and publish those (Accounts).
+ */
+public class LedgerEngine implements AutoCloseable {
+    public static final int OK = 0;
+    public static final int NOT_FOUND = 1;
+    public static final int INSUFFICIENT_FUNDS = 2;
+    public static final int INVALID = 3;
+    public static final int JOURNAL_FAILED = 4;
+
+    public static final int DEFAULT_RING_SIZE = 1 << 16;
+    public static final int DEFAULT_PERSIST_BATCH = 4096;
+    private static final int MAX_BUSINESS_BATCH = 1024;
+    private static final long MAX_RETRY_DELAY_MILLIS = 5_000;
+    private static final int MAX_PERSIST_ATTEMPTS = 10;
+    private static final long JOURNAL_ROTATE_BYTES = 64L << 20;
+    private static final VarHandle BALANCE = MethodHandles.arrayElementVarHandle(long[].class);
+    // Marks the interest commands of applyInterestToAll (in otherAccountId, which interest does not use)
+    private static final int COUNTED = 1;
+
+    private static LedgerEngine shared;
+
+    private final LedgerDAO ledgerDAO;
+    private final Path journalFile;
+    private final CommandRing ring;
+    private final LedgerBatch batch;
+    private boolean syncJournal;
+    private MutationJournal mutationJournal;
+
+    private volatile Accounts accounts; // replaced, never resized, when an account does not fit
+    private LedgerJournal journal;
+    private long baseSequence; // ledger sequence = baseSequence + ring sequence + 1
+
+    private Thread businessThread;
+    private Thread persisterThread;
+    private volatile boolean started;
+    private volatile boolean closing;
+    private volatile Throwable failure; // why the ledger stopped, null while it runs
+    private volatile long countedInterest; // interest commands with COUNTED that were credited; business thread
+
+    public LedgerEngine(LedgerDAO ledgerDAO, Path journalFile) {
+        this(ledgerDAO, journalFile, DEFAULT_RING_SIZE, DEFAULT_PERSIST_BATCH);
+    }
+
+    public LedgerEngine(LedgerDAO ledgerDAO, Path journalFile, int ringSize, int persistBatch) {
+        if (ringSize <= 0) throw new IllegalArgumentException("Ring size must be positive.");
+        if (persistBatch <= 0) throw new IllegalArgumentException("Persist batch must be positive.");
+        this.ledgerDAO = ledgerDAO;
+        this.journalFile = journalFile;
+        this.ring = new CommandRing(ringSize);
+        this.batch = new LedgerBatch(persistBatch);
+    }
+
+    /**
+     * The process-wide ledger, journalling to the file named by the bank.ledger.journal system property
+     * (default ledger.journal) and started on first use.
+     */
+    public static synchronized LedgerEngine shared() throws SQLException, IOException {
+        if (shared == null) {
+            LedgerEngine engine = new LedgerEngine(new LedgerDAO(), Path.of(System.getProperty("bank.ledger.journal", "ledger.journal")));
+            engine.setSyncJournal(Boolean.getBoolean("bank.ledger.syncJournal"));
+            engine.setMutationJournal(MutationJournal.shared());
+            engine.start();
+            shared = engine;
+        }
+        return shared;
+    }
+
+    /**
+     * With sync, each journal write waits for the disk (survives power loss, not just a process crash).
+     * Must be set before start().
+     */
+    public void setSyncJournal(boolean syncJournal) {
+        if (started) throw new IllegalStateException("Ledger already started.");
+        this.syncJournal = syncJournal;
+    }
+
+    /**
+     * Also records every accepted posting in the mutation journal (null = not recorded), from the
+     * business thread, in the order the postings were applied. Must be set before start().
+     */
+    public void setMutationJournal(MutationJournal mutationJournal) {
+        if (started) throw new IllegalStateException("Ledger already started.");
+        this.mutationJournal = mutationJournal;
+    }
+
+    /**
+     * Loads the book, recovers postings from the journal that the database does not have yet, and
+     * starts the business and persister threads.
+     */
+    public synchronized void start() throws SQLException, IOException {
+        if (started) throw new IllegalStateException("Ledger already started.");
+        accounts = new Accounts(capacityFor(ledgerDAO.getMaxAccountId()), null);
+        int loaded = ledgerDAO.loadAccounts((id, balance, rate) -> {
+            if (id <= 0) return;
+            // An account inserted after getMaxAccountId may be in the result too
+            Accounts a = id < accounts.capacity ? accounts : grow(id);
+            a.exists[id] = true;
+            a.balances[id] = balance;
+            a.ratesHundredths[id] = rate;
+        });
+
+        long checkpoint = ledgerDAO.readCheckpoint();
+        journal = new LedgerJournal(journalFile);
+        int[] recovered = new int[1];
+        batch.clear();
+        long lastJournalled = journal.replay(checkpoint, (sequence, type, accountId, otherAccountId, amount, time, rate, narration) -> {
+            applyRecovered(type, accountId, otherAccountId, amount);
+            batch.add(type, accountId, otherAccountId, amount, time, rate, narration);
+            batch.setLastSequence(sequence);
+            recovered[0]++;
+            if (batch.isFull()) {
+                ledgerDAO.persist(batch);
+                batch.clear();
+            }
+        });
+        if (batch.size() > 0) ledgerDAO.persist(batch);
+        batch.clear();
+        journal.truncate();
+        baseSequence = Math.max(checkpoint, lastJournalled);
+        System.out.println("Ledger: " + loaded + " accounts loaded, " + recovered[0] + " postings recovered from " + journalFile);
+
+        businessThread = new Thread(this::runBusinessLogic, "ledger-business");
+        persisterThread = new Thread(this::runPersister, "ledger-persister");
+        businessThread.setDaemon(true);
+        persisterThread.setDaemon(true);
+        started = true;
+        businessThread.start();
+        persisterThread.start();
+    }
+
+    // =========================
+    // Commands (blocking)
+    // =========================
+
+    public boolean deposit(int accountId, long amountMinor) {
+        return deposit(accountId, amountMinor, null);
+    }
+
+    // A null narration gets the standard one, as in LedgerDAO
+    public boolean deposit(int accountId, long amountMinor, String narration) {
+        return awaitResult(submitDeposit(accountId, amountMinor, narration)) == OK;
+    }
+
+    public boolean withdraw(int accountId, long amountMinor) {
+        return withdraw(accountId, amountMinor, null);
+    }
+
+    public boolean withdraw(int accountId, long amountMinor, String narration) {
+        return awaitResult(submitWithdrawal(accountId, amountMinor, narration)) == OK;
+    }
+
+    public boolean transfer(int fromAccountId, int toAccountId, long amountMinor) {
+        return transfer(fromAccountId, toAccountId, amountMinor, null);
+    }
+
+    public boolean transfer(int fromAccountId, int toAccountId, long amountMinor, String narration) {
+        return awaitResult(submitTransfer(fromAccountId, toAccountId, amountMinor, narration)) == OK;
+    }
+
+    public boolean applyInterest(int accountId) {
+        return awaitResult(submitInterest(accountId)) == OK;
+    }
+
+    /**
+     * Adds an account that has just been inserted into the database. Account commands are not
+     * journalled: the database row is their record.
+     */
+    public boolean openAccount(int accountId, long balanceMinor, long rateHundredths) {
+        if (rateHundredths < 0 || rateHundredths > Integer.MAX_VALUE) return false;
+        return awaitResult(submit(CommandRing.OPEN, accountId, (int) rateHundredths, balanceMinor, null)) == OK;
+    }
+
+    /**
+     * Stops postings to the account and waits until the ones before are in the database, so the row can
+     * then be closed or deleted there.
+     */
+    public boolean closeAccount(int accountId) {
+        long ticket = submit(CommandRing.CLOSE, accountId, 0, 0, null);
+        if (awaitResult(ticket) != OK) return false;
+        for (int idle = 0; ring.persisted.get() < ticket; idle++) {
+            if (failure != null) throw new IllegalStateException("Ledger has stopped.", failure);
+            CommandRing.idle(idle);
+        }
+        return true;
+    }
+
+    public boolean setInterestRate(int accountId, long rateHundredths) {
+        if (rateHundredths < 0 || rateHundredths > Integer.MAX_VALUE) return false;
+        return awaitResult(submit(CommandRing.SET_RATE, accountId, (int) rateHundredths, 0, null)) == OK;
+    }
+
+    /**
+     * Interest on every account with a rate, as one command per account. The business thread counts the
+     * ones it credits, so commands from other producers in between are not counted and no result has to
+     * be read back from a slot that may have been reused.
+     * @return accounts credited
+     */
+    public synchronized int applyInterestToAll() {
+        long before = countedInterest;
+        long last = -1;
+        Accounts a = accounts;
+        for (int id = 1; id < a.capacity; id++) {
+            if (a.exists[id] && a.ratesHundredths[id] > 0) {
+                last = submit(LedgerBatch.INTEREST, id, COUNTED, 0, null);
+            }
+        }
+        if (last >= 0) awaitProcessed(last);
+        return (int) (countedInterest - before);
+    }
+
+    // =========================
+    // Commands (pipelined): submit returns a ticket, awaitResult turns it into a result code
+    // =========================
+
+    public long submitDeposit(int accountId, long amountMinor) {
+        return submitDeposit(accountId, amountMinor, null);
+    }
+
+    public long submitDeposit(int accountId, long amountMinor, String narration) {
+        return submit(LedgerBatch.DEPOSIT, accountId, 0, amountMinor, narration);
+    }
+
+    public long submitWithdrawal(int accountId, long amountMinor) {
+        return submitWithdrawal(accountId, amountMinor, null);
+    }
+
+    public long submitWithdrawal(int accountId, long amountMinor, String narration) {
+        return submit(LedgerBatch.WITHDRAWAL, accountId, 0, amountMinor, narration);
+    }
+
+    public long submitTransfer(int fromAccountId, int toAccountId, long amountMinor) {
+        return submitTransfer(fromAccountId, toAccountId, amountMinor, null);
+    }
+
+    public long submitTransfer(int fromAccountId, int toAccountId, long amountMinor, String narration) {
+        return submit(LedgerBatch.TRANSFER, fromAccountId, toAccountId, amountMinor, narration);
+    }
+
+    public long submitInterest(int accountId) {
+        return submit(LedgerBatch.INTEREST, accountId, 0, 0, null);
+    }
+
+    /**
+     * Waits until the command is applied and journalled; OK, NOT_FOUND, INSUFFICIENT_FUNDS, INVALID or
+     * JOURNAL_FAILED. Throws IllegalStateException if the ledger stopped before applying it.
+     * Read each result soon after submitting: its slot is reused ring-size commands later.
+     */
+    public int awaitResult(long ticket) {
+        awaitProcessed(ticket);
+        return ring.resultOf(ticket);
+    }
+
+    // =========================
+    // Queries
+    // =========================
+
+    public boolean hasAccount(int accountId) {
+        Accounts a = accounts;
+        return accountId > 0 && accountId < a.capacity && a.exists[accountId];
+    }
+
+    /**
+     * Balance as of the last applied command (0 for an unknown account).
+     */
+    public long getBalanceMinor(int accountId) {
+        Accounts a = accounts;
+        if (accountId <= 0 || accountId >= a.capacity) return 0;
+        return (long) BALANCE.getAcquire(a.balances, accountId);
+    }
+
+    // Why the ledger stopped (journal or database failure), or null while it runs
+    public Throwable getFailure() { return failure; }
+
+    // Commands applied / written to the database since start
+    public long getProcessedCount() { return ring.processed.get() + 1; }
+    public long getPersistedCount() { return ring.persisted.get() + 1; }
+
+    /**
+     * Stops taking commands, waits until everything applied is in the database and empties the journal
+     * (kept as it is if the ledger had stopped on a failure, for the next start to recover).
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (!started || closing) return;
+        closing = true;
+        try {
+            businessThread.join();
+            persisterThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (failure == null) journal.truncate();
+        journal.close();
+    }
+
+    private void awaitProcessed(long ticket) {
+        for (int idle = 0; ring.processed.get() < ticket; idle++) {
+            if (idle > 1000 && !businessThread.isAlive() && ring.processed.get() < ticket) {
+                throw new IllegalStateException("Ledger has stopped.", failure);
+            }
+            CommandRing.idle(idle);
+        }
+    }
+
+    private long submit(byte type, int accountId, int otherAccountId, long amountMinor, String narration) {
+        if (failure != null) throw new IllegalStateException("Ledger has stopped.", failure);
+        if (!started || closing) throw new IllegalStateException("Ledger is not running.");
+        return ring.publish(type, accountId, otherAccountId, amountMinor, narration);
+    }
+
+    // Stops taking commands; both threads finish what they can and exit
+    private void stop(Throwable cause) {
+        if (failure == null) failure = cause;
+        ring.halted = true;
+        System.err.println("Ledger stopped: " + cause.getMessage() + ". Restart it to recover the journalled postings.");
+        cause.printStackTrace();
+    }
+
+    // =========================
+    // Business logic thread
+    // =========================
+
+    private void runBusinessLogic() {
+        long next = 0;
+        int idle = 0;
+        long previousLast = -1; // last command in the rotated-out journal file; -1 if there is none
+        while (failure == null) {
+            if (!ring.isPublished(next)) {
+                if (closing && ring.getClaimed() < next) break;
+                CommandRing.idle(idle++);
+                continue;
+            }
+            idle = 0;
+            long last = next;
+            while (last - next < MAX_BUSINESS_BATCH && ring.isPublished(last + 1)) last++;
+
+            try {
+                for (long sequence = next; sequence <= last; sequence++) {
+                    apply(sequence);
+                }
+                journal.flush(syncJournal);
+            } catch (IOException e) {
+                // Not durable, so not done: fail the whole batch (the persister skips failed commands)
+                // and stop, since the balances in memory now include it
+                journal.discardUnflushed();
+                for (long sequence = next; sequence <= last; sequence++) {
+                    ring.outcome[(int) sequence & ring.mask] = sequence << 8 | JOURNAL_FAILED;
+                }
+                stop(e);
+                ring.processed.set(last);
+                break;
+            }
+            recordMutations(next, last);
+            ring.processed.set(last);
+            next = last + 1;
+
+            try {
+                if (previousLast >= 0 && ring.persisted.get() >= previousLast) {
+                    journal.dropPrevious();
+                    previousLast = -1;
+                }
+                if (previousLast < 0 && journal.rotateIfLarger(JOURNAL_ROTATE_BYTES)) previousLast = last;
+            } catch (IOException e) {
+                stop(e);
+            }
+        }
+    }
+
+    // Postings go to the mutation journal only once they are in the ledger's own journal
+    private void recordMutations(long first, long last) {
+        if (mutationJournal == null) return;
+        for (long sequence = first; sequence <= last; sequence++) {
+            int slot = (int) sequence & ring.mask;
+            byte type = ring.type[slot];
+            if ((ring.outcome[slot] & 0xFF) != OK || !CommandRing.isPosting(type)) continue;
+            boolean interest = type == LedgerBatch.INTEREST;
+            mutationJournal.ledgerPosting(type, ring.accountId[slot], interest ? 0 : ring.otherAccountId[slot],
+                    ring.amountMinor[slot], interest ? ring.otherAccountId[slot] : 0, ring.timeMillis[slot]);
+        }
+    }
+
+    private void apply(long sequence) throws IOException {
+        int slot = (int) sequence & ring.mask;
+        byte type = ring.type[slot];
+        int accountId = ring.accountId[slot];
+        int otherAccountId = ring.otherAccountId[slot];
+        long amount = ring.amountMinor[slot];
+        Accounts a = accounts;
+
+        int result;
+        switch (type) {
+            case CommandRing.OPEN -> {
+                if (accountId <= 0 || (accountId < a.capacity && a.exists[accountId]) || amount < 0) {
+                    result = INVALID;
+                } else {
+                    if (accountId >= a.capacity) a = grow(accountId);
+                    a.ratesHundredths[accountId] = otherAccountId;
+                    BALANCE.setRelease(a.balances, accountId, amount);
+                    a.exists[accountId] = true;
+                    result = OK;
+                }
+            }
+            case CommandRing.CLOSE -> {
+                result = a.has(accountId) ? OK : NOT_FOUND;
+                if (result == OK) a.exists[accountId] = false;
+            }
+            case CommandRing.SET_RATE -> {
+                result = a.has(accountId) ? OK : NOT_FOUND;
+                if (result == OK) a.ratesHundredths[accountId] = otherAccountId;
+            }
+            case LedgerBatch.DEPOSIT -> {
+                if (amount <= 0) result = INVALID;
+                else if (!a.has(accountId)) result = NOT_FOUND;
+                else {
+                    BALANCE.setRelease(a.balances, accountId, a.balances[accountId] + amount);
+                    result = OK;
+                }
+            }
+            case LedgerBatch.WITHDRAWAL -> {
+                if (amount <= 0) result = INVALID;
+                else if (!a.has(accountId)) result = NOT_FOUND;
+                else if (a.balances[accountId] < amount) result = INSUFFICIENT_FUNDS;
+                else {
+                    BALANCE.setRelease(a.balances, accountId, a.balances[accountId] - amount);
+                    result = OK;
+                }
+            }
+            case LedgerBatch.TRANSFER -> {
+                if (amount <= 0 || accountId == otherAccountId) result = INVALID;
+                else if (!a.has(accountId) || !a.has(otherAccountId)) result = NOT_FOUND;
+                else if (a.balances[accountId] < amount) result = INSUFFICIENT_FUNDS;
+                else {
+                    BALANCE.setRelease(a.balances, accountId, a.balances[accountId] - amount);
+                    BALANCE.setRelease(a.balances, otherAccountId, a.balances[otherAccountId] + amount);
+                    result = OK;
+                }
+            }
+            case LedgerBatch.INTEREST -> {
+                if (!a.has(accountId)) result = NOT_FOUND;
+                else {
+                    // Simple interest on the balance snapshot, as AccountService.applyInterest
+                    amount = Money.applyRate(a.balances[accountId], a.ratesHundredths[accountId], 1);
+                    if (amount <= 0) result = INVALID;
+                    else {
+                        if (otherAccountId == COUNTED) countedInterest++;
+                        // The persister reads the applied amount and rate from the slot
+                        ring.amountMinor[slot] = amount;
+                        ring.otherAccountId[slot] = (int) a.ratesHundredths[accountId];
+                        BALANCE.setRelease(a.balances, accountId, a.balances[accountId] + amount);
+                        result = OK;
+                    }
+                }
+            }
+            default -> result = INVALID;
+        }
+
+        if (result == OK && CommandRing.isPosting(type)) {
+            journal.append(baseSequence + sequence + 1, type, accountId, otherAccountId, amount,
+                    ring.timeMillis[slot], type == LedgerBatch.INTEREST ? a.ratesHundredths[accountId] : 0, ring.narration[slot]);
+        }
+        ring.outcome[slot] = sequence << 8 | result;
+    }
+
+    // Replays a journal record into the loaded balances (the database row may already be gone)
+    private void applyRecovered(byte type, int accountId, int otherAccountId, long amount) {
+        switch (type) {
+            case LedgerBatch.DEPOSIT, LedgerBatch.INTEREST -> adjust(accountId, amount);
+            case LedgerBatch.WITHDRAWAL -> adjust(accountId, -amount);
+            case LedgerBatch.TRANSFER -> {
+                adjust(accountId, -amount);
+                adjust(otherAccountId, amount);
+            }
+            default -> {
+            }
+        }
+    }
+
+    private void adjust(int accountId, long delta) {
+        Accounts a = accounts;
+        if (a.has(accountId)) a.balances[accountId] += delta;
+    }
+
+    // Room for accounts opened while the ledger runs, on top of the highest ID so far
+    private static int capacityFor(int maxId) {
+        return (int) Math.min(Integer.MAX_VALUE - 8L, maxId + Math.max(1024L, maxId / 2L) + 1);
+    }
+
+    // Business thread (or start): copies the book into arrays that fit accountId and publishes them
+    private Accounts grow(int accountId) {
+        Accounts grown = new Accounts(capacityFor(accountId), accounts);
+        accounts = grown;
+        return grown;
+    }
+
+    /**
+     * The arrays of one capacity. Readers take the current instance once and index into it; a write
+     * made to an older instance after it was replaced would be lost, so only the business thread
+     * (and start, before it runs) writes, always to the current one.
+     */
+    private static final class Accounts {
+        final int capacity;
+        final long[] balances;
+        final long[] ratesHundredths;
+        final boolean[] exists;
+
+        Accounts(int capacity, Accounts previous) {
+            this.capacity = capacity;
+            balances = new long[capacity];
+            ratesHundredths = new long[capacity];
+            exists = new boolean[capacity];
+            if (previous != null) {
+                System.arraycopy(previous.balances, 0, balances, 0, previous.capacity);
+                System.arraycopy(previous.ratesHundredths, 0, ratesHundredths, 0, previous.capacity);
+                System.arraycopy(previous.exists, 0, exists, 0, previous.capacity);
+            }
+        }
+
+        boolean has(int accountId) {
+            return accountId > 0 && accountId < capacity && exists[accountId];
+        }
+    }
+
+    // =========================
+    // Persister thread
+    // =========================
+
+    private void runPersister() {
+        long next = 0;
+        int idle = 0;
+        while (true) {
+            long available = ring.processed.get();
+            if (available < next) {
+                if ((closing || failure != null) && !businessThread.isAlive() && ring.processed.get() < next) break;
+                CommandRing.idle(idle++);
+                continue;
+            }
+            idle = 0;
+            long last = Math.min(available, next + batch.capacity() - 1);
+
+            batch.clear();
+            for (long sequence = next; sequence <= last; sequence++) {
+                int slot = (int) sequence & ring.mask;
+                byte type = ring.type[slot];
+                if ((ring.outcome[slot] & 0xFF) != OK || !CommandRing.isPosting(type)) continue;
+                boolean interest = type == LedgerBatch.INTEREST;
+                batch.add(type, ring.accountId[slot], interest ? 0 : ring.otherAccountId[slot], ring.amountMinor[slot],
+                        ring.timeMillis[slot], interest ? ring.otherAccountId[slot] : 0, ring.narration[slot]);
+            }
+            batch.setLastSequence(baseSequence + last + 1);
+            if (batch.size() > 0 && !persistWithRetry()) break;
+            ring.persisted.set(last);
+            next = last + 1;
+        }
+    }
+
+    // False once the batch has failed MAX_PERSIST_ATTEMPTS times; the ledger is stopped then, and the
+    // batch stays in the journal for the next start
+    private boolean persistWithRetry() {
+        long delay = 100;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                ledgerDAO.persist(batch);
+                return true;
+            } catch (SQLException e) {
+                if (attempt == MAX_PERSIST_ATTEMPTS) {
+                    stop(new SQLException("Ledger batch up to sequence " + batch.getLastSequence() + " not written after "
+                            + attempt + " attempts", e));
+                    return false;
+                }
+                System.err.println("Ledger batch up to sequence " + batch.getLastSequence() + " not written, retrying: " + e.getMessage());
+            }
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                // Keep going: the attempts are bounded anyway
+            }
+            delay = Math.min(delay * 2, MAX_RETRY_DELAY_MILLIS);
+        }
+    }
+}
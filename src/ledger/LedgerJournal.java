@@ -0,0 +1,179 @@
+package ledger;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+
+/**
+ * Append-only file of the postings the ledger has accepted, written by the business thread before it
+ * reports a result, so postings the persister has not written to the database yet survive a restart.
+ * Each record is a fixed-width header followed by the narration's UTF-8 bytes (none for the standard
+ * narration) and goes through one reused direct buffer; a torn record at the end of the file (a crash
+ * mid-write) is ignored on replay.
+ *
+ * Once the file is large, rotate moves it aside to "<file>.prev" and starts a new one; the engine
+ * deletes the old file when the database has everything in it. Replay reads both, oldest first.
+ */
+class LedgerJournal implements AutoCloseable {
+    static final int RECORD_SIZE = 48; // header; the narration follows
+    static final int MAX_NARRATION_BYTES = 1024;
+
+    interface RecordSink {
+        void accept(long sequence, byte type, int accountId, int otherAccountId,
+                    long amountMinor, long timeMillis, long rateHundredths, String narration) throws SQLException;
+    }
+
+    private final Path file;
+    private final Path previousFile;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(RECORD_SIZE * 1024);
+    private FileChannel channel;
+    private long flushedSize; // bytes of the file known to be written
+
+    LedgerJournal(Path file) throws IOException {
+        this.file = file;
+        this.previousFile = file.resolveSibling(file.getFileName() + ".prev");
+        this.channel = open(file);
+    }
+
+    void append(long sequence, byte type, int accountId, int otherAccountId,
+                long amountMinor, long timeMillis, long rateHundredths, String narration) throws IOException {
+        byte[] text = narration == null || narration.isEmpty() ? null : narration.getBytes(StandardCharsets.UTF_8);
+        int textLength = text == null ? 0 : Math.min(text.length, MAX_NARRATION_BYTES);
+        if (buffer.remaining() < RECORD_SIZE + textLength) write();
+        buffer.putLong(sequence)
+                .put(type).put((byte) 0).putShort((short) 0)
+                .putInt(accountId)
+                .putInt(otherAccountId).putInt(textLength)
+                .putLong(amountMinor)
+                .putLong(timeMillis)
+                .putLong(rateHundredths);
+        if (textLength > 0) buffer.put(text, 0, textLength);
+    }
+
+    /**
+     * Writes the buffered records to the file; with sync, also waits until they are on disk.
+     */
+    void flush(boolean sync) throws IOException {
+        write();
+        if (sync) channel.force(false);
+        flushedSize = channel.position();
+    }
+
+    /**
+     * After a failed write: drops the buffered records and cuts the file back to the last flush, so
+     * postings that were reported as failed are not recovered later. Best effort.
+     */
+    void discardUnflushed() {
+        buffer.clear();
+        try {
+            channel.truncate(flushedSize);
+            channel.position(flushedSize);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Replays the records after the given sequence: the rotated-out file first, then the current one.
+     * @return the sequence of the last complete record (afterSequence if there is none)
+     */
+    long replay(long afterSequence, RecordSink sink) throws IOException, SQLException {
+        long last = replay(previousFile, afterSequence, afterSequence, sink);
+        return replay(file, afterSequence, last, sink);
+    }
+
+    /**
+     * Starts a new file if this one has reached maxBytes and the previous one is gone.
+     * @return true if it rotated
+     */
+    boolean rotateIfLarger(long maxBytes) throws IOException {
+        if (channel.position() < maxBytes || Files.exists(previousFile)) return false;
+        flush(false);
+        channel.force(false);
+        channel.close();
+        Files.move(file, previousFile, StandardCopyOption.ATOMIC_MOVE);
+        channel = open(file);
+        flushedSize = 0;
+        return true;
+    }
+
+    // Deletes the rotated-out file, once the database has everything in it
+    void dropPrevious() throws IOException {
+        Files.deleteIfExists(previousFile);
+    }
+
+    /**
+     * Empties the journal once everything in it is in the database.
+     */
+    void truncate() throws IOException {
+        buffer.clear();
+        channel.truncate(0);
+        channel.position(0);
+        channel.force(true);
+        flushedSize = 0;
+        dropPrevious();
+    }
+
+    Path getFile() { return file; }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void write() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static FileChannel open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.READ);
+        // After a torn record the engine replays and then truncates, so appends never follow one
+        channel.position(channel.size());
+        return channel;
+    }
+
+    private static long replay(Path path, long afterSequence, long last, RecordSink sink) throws IOException, SQLException {
+        if (!Files.exists(path)) return last;
+        byte[] header = new byte[RECORD_SIZE];
+        ByteBuffer in = ByteBuffer.wrap(header);
+        try (InputStream stream = Files.newInputStream(path);
+             DataInputStream data = new DataInputStream(new BufferedInputStream(stream, 1 << 16))) {
+            while (true) {
+                String narration = null;
+                try {
+                    data.readFully(header);
+                    int textLength = in.getInt(20);
+                    if (textLength < 0 || textLength > MAX_NARRATION_BYTES) break; // garbage past a torn record
+                    if (textLength > 0) {
+                        byte[] text = new byte[textLength];
+                        data.readFully(text);
+                        narration = new String(text, StandardCharsets.UTF_8);
+                    }
+                } catch (EOFException e) {
+                    break; // torn last record
+                }
+                long sequence = in.getLong(0);
+                if (sequence > afterSequence) {
+                    sink.accept(sequence, in.get(8), in.getInt(12), in.getInt(16), in.getLong(24),
+                            in.getLong(32), in.getLong(40), narration);
+                }
+                last = Math.max(last, sequence);
+            }
+        }
+        return last;
+    }
+}
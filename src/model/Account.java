@@ -15,7 +15,7 @@ public class Account {
     private AccountType accountType;
     private LocalDate openDate;
     private LocalDate closeDate;
-    private double balance;
+    private long balance; // minor units, see Money
     private double interestRate; // stored as percentage, e.g., 3.5 means 3.5%
 
     // Getters & Setters
@@ -34,8 +34,12 @@ public class Account {
     public LocalDate getCloseDate() { return closeDate; }
     public void setCloseDate(LocalDate closeDate) { this.closeDate = closeDate; }
 
-    public double getBalance() { return balance; }
-    public void setBalance(double balance) { this.balance = balance; }
+    public long getBalanceMinor() { return balance; }
+    public void setBalanceMinor(long balance) { this.balance = balance; }
+
+    // Major units (e.g. 123.45), for display and input
+    public double getBalance() { return Money.toMajor(balance); }
+    public void setBalance(double balance) { this.balance = Money.ofMajor(balance); }
 
     public double getInterestRate() { return interestRate; }
     public void setInterestRate(double interestRate) { this.interestRate = interestRate; }
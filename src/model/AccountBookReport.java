@@ -0,0 +1,47 @@
+package model;
+
+/**
+ * Account counts and balances per account type, as totted up by cache.OffHeapAccountStore.report().
+ * Open accounts are the ones without a close date. Amounts are in minor units, see Money.
+ */
+public class AccountBookReport {
+    private final long[] counts;        // indexed by AccountType ordinal
+    private final long[] openCounts;
+    private final long[] balances;
+    private final long[] openBalances;
+
+    public AccountBookReport(long[] counts, long[] openCounts, long[] balances, long[] openBalances) {
+        this.counts = counts;
+        this.openCounts = openCounts;
+        this.balances = balances;
+        this.openBalances = openBalances;
+    }
+
+    public long getCount(Account.AccountType type) { return counts[type.ordinal()]; }
+    public long getOpenCount(Account.AccountType type) { return openCounts[type.ordinal()]; }
+    public long getBalanceMinor(Account.AccountType type) { return balances[type.ordinal()]; }
+    public long getOpenBalanceMinor(Account.AccountType type) { return openBalances[type.ordinal()]; }
+
+    public long getAccounts() { return sum(counts); }
+    public long getOpenAccounts() { return sum(openCounts); }
+    public long getTotalBalanceMinor() { return sum(balances); }
+    public long getOpenBalanceMinor() { return sum(openBalances); }
+
+    public double getTotalBalance() { return Money.toMajor(getTotalBalanceMinor()); }
+
+    private static long sum(long[] values) {
+        long total = 0;
+        for (long value : values) total += value;
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder(String.format("%d accounts (%d open), balance %.2f",
+                getAccounts(), getOpenAccounts(), getTotalBalance()));
+        for (Account.AccountType type : Account.AccountType.values()) {
+            text.append(String.format("; %s: %d, %.2f", type, getCount(type), Money.toMajor(getBalanceMinor(type))));
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,26 @@
+package model;
+
+/**
+ * Read-only list view of an account: just the columns the account table shows.
+ * Load the full Account by id when the details are needed.
+ */
+public class AccountSummary {
+    private final int id;
+    private final int customerId;
+    private final Account.AccountType accountType;
+    private final long balance; // minor units, see Money
+
+    public AccountSummary(int id, int customerId, Account.AccountType accountType, long balanceMinor) {
+        this.id = id;
+        this.customerId = customerId;
+        this.accountType = accountType;
+        this.balance = balanceMinor;
+    }
+
+    public int getId() { return id; }
+    public int getCustomerId() { return customerId; }
+    public Account.AccountType getAccountType() { return accountType; }
+    public long getBalanceMinor() { return balance; }
+
+    public double getBalance() { return Money.toMajor(balance); }
+}
@@ -0,0 +1,55 @@
+package model;
+
+import java.time.LocalDate;
+
+/**
+ * A loan's repayment schedule: for each monthly installment the due date, the principal and interest
+ * parts and the balance left after paying it. Amounts are minor units (see Money). Installment i
+ * (from 0) falls due i + 1 months after the open date. Read-only.
+ */
+public class AmortizationSchedule {
+    private final int loanId;
+    private final LocalDate openDate;
+    private final long emi; // minor units; the last installment may differ by the rounding left over
+    private final long[] principal;
+    private final long[] interest;
+    private final long[] balance;
+
+    public AmortizationSchedule(int loanId, LocalDate openDate, long emiMinor,
+                                long[] principal, long[] interest, long[] balance) {
+        this.loanId = loanId;
+        this.openDate = openDate;
+        this.emi = emiMinor;
+        this.principal = principal;
+        this.interest = interest;
+        this.balance = balance;
+    }
+
+    public int getLoanId() { return loanId; }
+    public LocalDate getOpenDate() { return openDate; }
+    public long getEmiMinor() { return emi; }
+    public double getEmi() { return Money.toMajor(emi); }
+    public int getInstallments() { return principal.length; }
+
+    public LocalDate getDueDate(int installment) { return openDate.plusMonths(installment + 1); }
+    public long getPrincipalMinor(int installment) { return principal[installment]; }
+    public long getInterestMinor(int installment) { return interest[installment]; }
+    public long getPaymentMinor(int installment) { return principal[installment] + interest[installment]; }
+    public long getBalanceMinor(int installment) { return balance[installment]; }
+
+    public long getTotalInterestMinor() {
+        long total = 0;
+        for (long i : interest) total += i;
+        return total;
+    }
+
+    /**
+     * @return the first installment due on or after the date, or -1 if the schedule has ended by then
+     */
+    public int getNextInstallment(LocalDate date) {
+        for (int i = 0; i < principal.length; i++) {
+            if (!getDueDate(i).isBefore(date)) return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,39 @@
+package model;
+
+/**
+ * Outcome of processing a transfer file (see service.BulkTransferJob).
+ */
+public class BulkTransferResult {
+    private final int transfers;
+    private final int succeeded;
+    private final int rejected;
+    private final int malformed;
+    private final double amountMoved;
+    private final long elapsedMillis;
+
+    public BulkTransferResult(int transfers, int succeeded, int rejected, int malformed, double amountMoved, long elapsedMillis) {
+        this.transfers = transfers;
+        this.succeeded = succeeded;
+        this.rejected = rejected;
+        this.malformed = malformed;
+        this.amountMoved = amountMoved;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public int getTransfers() { return transfers; }
+    public int getSucceeded() { return succeeded; }
+    public int getRejected() { return rejected; }
+    public int getMalformed() { return malformed; }
+    public double getAmountMoved() { return amountMoved; }
+    public long getElapsedMillis() { return elapsedMillis; }
+
+    public double getTransfersPerSecond() {
+        return elapsedMillis == 0 ? transfers * 1000.0 : transfers * 1000.0 / elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Bulk transfer: %d transfers (%d ok, %d rejected, %d malformed lines), %.2f moved, %d ms (%.0f transfers/sec)",
+                transfers, succeeded, rejected, malformed, amountMoved, elapsedMillis, getTransfersPerSecond());
+    }
+}
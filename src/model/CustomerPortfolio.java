@@ -0,0 +1,58 @@
+package model;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One customer's position as of {@link #getLoadedAt()}: their accounts with balances, their open loans
+ * with the outstanding balance and their latest transactions (newest first) across all accounts.
+ * Everything in it was read in one database transaction (see service.CustomerPortfolioService), so the
+ * balances and the transactions agree with each other. Read-only; the lists cannot be modified.
+ */
+public class CustomerPortfolio {
+    private final Customer customer;
+    private final List<AccountSummary> accounts;
+    private final List<LoanSummary> openLoans;
+    private final List<Transaction> recentTransactions;
+    private final LocalDateTime loadedAt;
+
+    public CustomerPortfolio(Customer customer, List<AccountSummary> accounts, List<LoanSummary> openLoans,
+                             List<Transaction> recentTransactions, LocalDateTime loadedAt) {
+        this.customer = customer;
+        this.accounts = Collections.unmodifiableList(accounts);
+        this.openLoans = Collections.unmodifiableList(openLoans);
+        this.recentTransactions = Collections.unmodifiableList(recentTransactions);
+        this.loadedAt = loadedAt;
+    }
+
+    public Customer getCustomer() { return customer; }
+    public List<AccountSummary> getAccounts() { return accounts; }
+    public List<LoanSummary> getOpenLoans() { return openLoans; }
+    public List<Transaction> getRecentTransactions() { return recentTransactions; }
+    public LocalDateTime getLoadedAt() { return loadedAt; }
+
+    // Sum of all account balances, minor units
+    public long getTotalBalanceMinor() {
+        long total = 0;
+        for (AccountSummary account : accounts) total += account.getBalanceMinor();
+        return total;
+    }
+
+    // Sum of the outstanding balance of all open loans, minor units
+    public long getTotalOutstandingMinor() {
+        long total = 0;
+        for (LoanSummary loan : openLoans) total += loan.getBalanceMinor();
+        return total;
+    }
+
+    public double getTotalBalance() { return Money.toMajor(getTotalBalanceMinor()); }
+    public double getTotalOutstanding() { return Money.toMajor(getTotalOutstandingMinor()); }
+
+    @Override
+    public String toString() {
+        return String.format("Portfolio of customer %d: %d accounts (%s), %d open loans (%s outstanding), %d recent transactions",
+                customer.getId(), accounts.size(), Money.format(getTotalBalanceMinor()),
+                openLoans.size(), Money.format(getTotalOutstandingMinor()), recentTransactions.size());
+    }
+}
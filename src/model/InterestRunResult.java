@@ -0,0 +1,36 @@
+package model;
+
+/**
+ * Outcome of one interest posting run (see service.InterestPostingEngine).
+ */
+public class InterestRunResult {
+    private final int runId;
+    private final boolean resumed;
+    private final int accountsPosted;
+    private final int chunks;
+    private final long elapsedMillis;
+
+    public InterestRunResult(int runId, boolean resumed, int accountsPosted, int chunks, long elapsedMillis) {
+        this.runId = runId;
+        this.resumed = resumed;
+        this.accountsPosted = accountsPosted;
+        this.chunks = chunks;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public int getRunId() { return runId; }
+    public boolean isResumed() { return resumed; }
+    public int getAccountsPosted() { return accountsPosted; }
+    public int getChunks() { return chunks; }
+    public long getElapsedMillis() { return elapsedMillis; }
+
+    public double getAccountsPerSecond() {
+        return elapsedMillis == 0 ? accountsPosted * 1000.0 : accountsPosted * 1000.0 / elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Interest run %d%s: %d accounts in %d chunks, %d ms (%.0f accounts/sec)",
+                runId, resumed ? " (resumed)" : "", accountsPosted, chunks, elapsedMillis, getAccountsPerSecond());
+    }
+}
@@ -0,0 +1,114 @@
+package model;
+
+/**
+ * A batch of ledger postings on their way to the database, as parallel primitive arrays (one slot per
+ * posting) plus the net balance change per account. Filled and reused by the ledger's persister, so
+ * persisting allocates nothing per posting; see dao.LedgerDAO.persist.
+ */
+public class LedgerBatch {
+    public static final byte DEPOSIT = 1;
+    public static final byte WITHDRAWAL = 2;
+    public static final byte TRANSFER = 3;
+    public static final byte INTEREST = 4;
+
+    private final byte[] types;
+    private final int[] accountIds;
+    private final int[] otherAccountIds; // transfer target; 0 otherwise
+    private final long[] amounts;        // minor units
+    private final long[] timesMillis;
+    private final long[] ratesHundredths; // interest postings only
+    private final String[] narrations;    // null = the standard narration
+    private int size;
+    private long lastSequence;
+
+    // Net change per account: open addressing, account ID 0 marks a free slot
+    private final int[] deltaKeys;
+    private final long[] deltaValues;
+    private final int[] deltaSlots; // slots in use, in first-touched order
+    private int deltaCount;
+
+    public LedgerBatch(int capacity) {
+        types = new byte[capacity];
+        accountIds = new int[capacity];
+        otherAccountIds = new int[capacity];
+        amounts = new long[capacity];
+        timesMillis = new long[capacity];
+        ratesHundredths = new long[capacity];
+        narrations = new String[capacity];
+        // Each posting touches at most two accounts; keep the table at most half full
+        int tableSize = Integer.highestOneBit(Math.max(4, capacity * 4 - 1)) << 1;
+        deltaKeys = new int[tableSize];
+        deltaValues = new long[tableSize];
+        deltaSlots = new int[capacity * 2];
+    }
+
+    public int capacity() { return types.length; }
+    public int size() { return size; }
+    public boolean isFull() { return size == types.length; }
+
+    public void clear() {
+        for (int i = 0; i < deltaCount; i++) {
+            deltaKeys[deltaSlots[i]] = 0;
+        }
+        deltaCount = 0;
+        size = 0;
+    }
+
+    /**
+     * Adds an accepted posting and its balance effect. For a transfer, otherAccountId is the target.
+     */
+    public void add(byte type, int accountId, int otherAccountId, long amountMinor, long timeMillis, long rateHundredths) {
+        add(type, accountId, otherAccountId, amountMinor, timeMillis, rateHundredths, null);
+    }
+
+    public void add(byte type, int accountId, int otherAccountId, long amountMinor, long timeMillis, long rateHundredths,
+                    String narration) {
+        int i = size++;
+        types[i] = type;
+        accountIds[i] = accountId;
+        otherAccountIds[i] = otherAccountId;
+        amounts[i] = amountMinor;
+        timesMillis[i] = timeMillis;
+        ratesHundredths[i] = rateHundredths;
+        narrations[i] = narration;
+        switch (type) {
+            case DEPOSIT, INTEREST -> addDelta(accountId, amountMinor);
+            case WITHDRAWAL -> addDelta(accountId, -amountMinor);
+            case TRANSFER -> {
+                addDelta(accountId, -amountMinor);
+                addDelta(otherAccountId, amountMinor);
+            }
+            default -> throw new IllegalArgumentException("Unknown posting type " + type);
+        }
+    }
+
+    public byte getType(int i) { return types[i]; }
+    public int getAccountId(int i) { return accountIds[i]; }
+    public int getOtherAccountId(int i) { return otherAccountIds[i]; }
+    public long getAmountMinor(int i) { return amounts[i]; }
+    public long getTimeMillis(int i) { return timesMillis[i]; }
+    public long getRateHundredths(int i) { return ratesHundredths[i]; }
+    public String getNarration(int i) { return narrations[i]; }
+
+    // Ledger sequence of the last posting in the batch, stored as the persister's checkpoint
+    public long getLastSequence() { return lastSequence; }
+    public void setLastSequence(long lastSequence) { this.lastSequence = lastSequence; }
+
+    public int getDeltaCount() { return deltaCount; }
+    public int getDeltaAccountId(int i) { return deltaKeys[deltaSlots[i]]; }
+    public long getDeltaMinor(int i) { return deltaValues[deltaSlots[i]]; }
+
+    private void addDelta(int accountId, long delta) {
+        int mask = deltaKeys.length - 1;
+        int slot = (accountId * 0x9E3779B9) >>> 1 & mask;
+        while (deltaKeys[slot] != 0 && deltaKeys[slot] != accountId) {
+            slot = (slot + 1) & mask;
+        }
+        if (deltaKeys[slot] == 0) {
+            deltaKeys[slot] = accountId;
+            deltaValues[slot] = 0;
+            deltaSlots[deltaCount++] = slot;
+        }
+        deltaValues[slot] += delta;
+    }
+}
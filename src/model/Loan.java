@@ -13,9 +13,10 @@ public class Loan {
     private int id;
     private int customerId;
     private LoanType loanType;
-    private double amountSanctioned;
-    private double balance;
+    private long amountSanctioned; // minor units, see Money
+    private long balance; // minor units, see Money
     private double interestRate; // Annual interest rate (percentage)
+    private int tenureMonths; // 0 = not recorded (loans opened before repayment schedules existed)
     private LocalDate openDate;
     private LocalDate closeDate;
 
@@ -29,11 +30,19 @@ public class Loan {
     public LoanType getLoanType() { return loanType; }
     public void setLoanType(LoanType loanType) { this.loanType = loanType; }
 
-    public double getAmountSanctioned() { return amountSanctioned; }
-    public void setAmountSanctioned(double amountSanctioned) { this.amountSanctioned = amountSanctioned; }
+    public long getAmountSanctionedMinor() { return amountSanctioned; }
+    public void setAmountSanctionedMinor(long amountSanctioned) { this.amountSanctioned = amountSanctioned; }
 
-    public double getBalance() { return balance; }
-    public void setBalance(double balance) { this.balance = balance; }
+    // Major units (e.g. 123.45), for display and input
+    public double getAmountSanctioned() { return Money.toMajor(amountSanctioned); }
+    public void setAmountSanctioned(double amountSanctioned) { this.amountSanctioned = Money.ofMajor(amountSanctioned); }
+
+    public long getBalanceMinor() { return balance; }
+    public void setBalanceMinor(long balance) { this.balance = balance; }
+
+    // Major units (e.g. 123.45), for display and input
+    public double getBalance() { return Money.toMajor(balance); }
+    public void setBalance(double balance) { this.balance = Money.ofMajor(balance); }
 
     public LocalDate getOpenDate() { return openDate; }
     public void setOpenDate(LocalDate openDate) { this.openDate = openDate; }
@@ -44,6 +53,9 @@ public class Loan {
     public double getInterestRate() { return interestRate; }
     public void setInterestRate(double interestRate) { this.interestRate = interestRate; }
 
+    public int getTenureMonths() { return tenureMonths; }
+    public void setTenureMonths(int tenureMonths) { this.tenureMonths = tenureMonths; }
+
     /**
      * Calculate the monthly EMI (Equated Monthly Installment) for this loan.
      * Uses the standard EMI formula: EMI = P * r * (1 + r)^n / ((1 + r)^n - 1)
@@ -57,13 +69,14 @@ public class Loan {
         // Guard against invalid tenure
         if (tenureMonths <= 0) return 0.0;
 
+        double principal = getAmountSanctioned();
         // If interest rate is zero, return simple equal principal installments
-        if (interestRate == 0.0) return amountSanctioned / tenureMonths;
+        if (interestRate == 0.0) return principal / tenureMonths;
 
         double monthlyRate = interestRate / 12.0 / 100.0;
         double powerTerm = Math.pow(1 + monthlyRate, tenureMonths);
 
-        return amountSanctioned * monthlyRate * powerTerm / (powerTerm - 1);
+        return principal * monthlyRate * powerTerm / (powerTerm - 1);
     }
 }
 
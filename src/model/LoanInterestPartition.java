@@ -0,0 +1,38 @@
+package model;
+
+/**
+ * One ID range of active loans within a monthly loan interest run.
+ */
+public class LoanInterestPartition {
+    public enum Status {
+        PENDING,
+        DONE,
+        FAILED
+    }
+
+    private int runId;
+    private int partitionNo;
+    private int startId; // inclusive
+    private int endId;   // inclusive
+    private Status status;
+    private int attempts;
+
+    // Getters & Setters
+    public int getRunId() { return runId; }
+    public void setRunId(int runId) { this.runId = runId; }
+
+    public int getPartitionNo() { return partitionNo; }
+    public void setPartitionNo(int partitionNo) { this.partitionNo = partitionNo; }
+
+    public int getStartId() { return startId; }
+    public void setStartId(int startId) { this.startId = startId; }
+
+    public int getEndId() { return endId; }
+    public void setEndId(int endId) { this.endId = endId; }
+
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+}
@@ -0,0 +1,48 @@
+package model;
+
+import java.util.Map;
+
+/**
+ * Outcome of a partitioned monthly loan interest run (see service.LoanInterestBatchJob).
+ */
+public class LoanInterestRunSummary {
+    private final int runId;
+    private final int partitions;
+    private final int failedPartitions;
+    private final int loansProcessed;
+    private final double interestAccrued;
+    private final long elapsedMillis;
+    private final Map<String, Double> loansPerSecondByWorker;
+
+    public LoanInterestRunSummary(int runId, int partitions, int failedPartitions, int loansProcessed,
+                                  double interestAccrued, long elapsedMillis, Map<String, Double> loansPerSecondByWorker) {
+        this.runId = runId;
+        this.partitions = partitions;
+        this.failedPartitions = failedPartitions;
+        this.loansProcessed = loansProcessed;
+        this.interestAccrued = interestAccrued;
+        this.elapsedMillis = elapsedMillis;
+        this.loansPerSecondByWorker = loansPerSecondByWorker;
+    }
+
+    public int getRunId() { return runId; }
+    public int getPartitions() { return partitions; }
+    public int getFailedPartitions() { return failedPartitions; }
+    public int getLoansProcessed() { return loansProcessed; }
+    public double getInterestAccrued() { return interestAccrued; }
+    public long getElapsedMillis() { return elapsedMillis; }
+    public Map<String, Double> getLoansPerSecondByWorker() { return loansPerSecondByWorker; }
+
+    public boolean isComplete() { return failedPartitions == 0; }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(String.format(
+                "Loan interest run %d: %d loans, interest %.2f, %d/%d partitions ok, %d ms",
+                runId, loansProcessed, interestAccrued, partitions - failedPartitions, partitions, elapsedMillis));
+        for (Map.Entry<String, Double> worker : loansPerSecondByWorker.entrySet()) {
+            sb.append(String.format("%n  %s: %.0f loans/sec", worker.getKey(), worker.getValue()));
+        }
+        return sb.toString();
+    }
+}
@@ -5,10 +5,10 @@ import java.time.LocalDateTime;
 public class LoanPayment {
     private int id;
     private int loanId;
-    private double disbursementAmount;
+    private long disbursementAmount; // minor units, see Money
     private String receiptNo;
     private LocalDateTime paymentDate;
-    private double remainingBalance;
+    private long remainingBalance; // minor units, see Money
 
     // Getters & Setters
     public int getId() { return id; }
@@ -17,8 +17,12 @@ public class LoanPayment {
     public int getLoanId() { return loanId; }
     public void setLoanId(int loanId) { this.loanId = loanId; }
 
-    public double getDisbursementAmount() { return disbursementAmount; }
-    public void setDisbursementAmount(double disbursementAmount) { this.disbursementAmount = disbursementAmount; }
+    public long getDisbursementAmountMinor() { return disbursementAmount; }
+    public void setDisbursementAmountMinor(long disbursementAmount) { this.disbursementAmount = disbursementAmount; }
+
+    // Major units (e.g. 123.45), for display and input
+    public double getDisbursementAmount() { return Money.toMajor(disbursementAmount); }
+    public void setDisbursementAmount(double disbursementAmount) { this.disbursementAmount = Money.ofMajor(disbursementAmount); }
 
     public String getReceiptNo() { return receiptNo; }
     public void setReceiptNo(String receiptNo) { this.receiptNo = receiptNo; }
@@ -26,6 +30,10 @@ public class LoanPayment {
     public LocalDateTime getPaymentDate() { return paymentDate; }
     public void setPaymentDate(LocalDateTime paymentDate) { this.paymentDate = paymentDate; }
 
-    public double getRemainingBalance() { return remainingBalance; }
-    public void setRemainingBalance(double remainingBalance) { this.remainingBalance = remainingBalance; }
+    public long getRemainingBalanceMinor() { return remainingBalance; }
+    public void setRemainingBalanceMinor(long remainingBalance) { this.remainingBalance = remainingBalance; }
+
+    // Major units (e.g. 123.45), for display and input
+    public double getRemainingBalance() { return Money.toMajor(remainingBalance); }
+    public void setRemainingBalance(double remainingBalance) { this.remainingBalance = Money.ofMajor(remainingBalance); }
 }
@@ -0,0 +1,26 @@
+package model;
+
+/**
+ * Read-only list view of a loan: just the columns the loan table shows.
+ * Load the full Loan by id when the details are needed.
+ */
+public class LoanSummary {
+    private final int id;
+    private final int customerId;
+    private final Loan.LoanType loanType;
+    private final long balance; // minor units, see Money
+
+    public LoanSummary(int id, int customerId, Loan.LoanType loanType, long balanceMinor) {
+        this.id = id;
+        this.customerId = customerId;
+        this.loanType = loanType;
+        this.balance = balanceMinor;
+    }
+
+    public int getId() { return id; }
+    public int getCustomerId() { return customerId; }
+    public Loan.LoanType getLoanType() { return loanType; }
+    public long getBalanceMinor() { return balance; }
+
+    public double getBalance() { return Money.toMajor(balance); }
+}
@@ -0,0 +1,57 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * The repayment terms of many loans as parallel primitive arrays, the input of the bulk paths of
+ * service.AmortizationEngine. One slot per loan; a batch is filled once and then reused, so scheduling
+ * a whole loan book does not create an object per loan.
+ */
+public class LoanTerms {
+    private int[] loanIds;
+    private long[] principals;      // minor units, see Money
+    private long[] ratesHundredths; // annual rate in hundredths of a percent, see Money.rateHundredths
+    private int[] tenures;          // months
+    private long[] openEpochDays;   // LocalDate.toEpochDay() of the open date
+    private int size;
+
+    public LoanTerms(int capacity) {
+        loanIds = new int[capacity];
+        principals = new long[capacity];
+        ratesHundredths = new long[capacity];
+        tenures = new int[capacity];
+        openEpochDays = new long[capacity];
+    }
+
+    public void add(int loanId, long principalMinor, long rateHundredths, int tenureMonths, long openEpochDay) {
+        if (size == loanIds.length) grow();
+        loanIds[size] = loanId;
+        principals[size] = principalMinor;
+        ratesHundredths[size] = rateHundredths;
+        tenures[size] = tenureMonths;
+        openEpochDays[size] = openEpochDay;
+        size++;
+    }
+
+    // Empties the batch and keeps the arrays for the next fill
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() { return size; }
+
+    public int getLoanId(int i) { return loanIds[i]; }
+    public long getPrincipalMinor(int i) { return principals[i]; }
+    public long getRateHundredths(int i) { return ratesHundredths[i]; }
+    public int getTenureMonths(int i) { return tenures[i]; }
+    public long getOpenEpochDay(int i) { return openEpochDays[i]; }
+
+    private void grow() {
+        int capacity = Math.max(16, loanIds.length * 2);
+        loanIds = Arrays.copyOf(loanIds, capacity);
+        principals = Arrays.copyOf(principals, capacity);
+        ratesHundredths = Arrays.copyOf(ratesHundredths, capacity);
+        tenures = Arrays.copyOf(tenures, capacity);
+        openEpochDays = Arrays.copyOf(openEpochDays, capacity);
+    }
+}
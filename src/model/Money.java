@@ -0,0 +1,116 @@
+package model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Money as a long count of minor units (paise): 123.45 is 12345. Arithmetic on these values is exact
+ * and allocation-free. BigDecimal only appears where values cross JDBC as DECIMAL(15,2)
+ * (bind/read) or in the rare overflow fallback of applyRate.
+ */
+public final class Money {
+    public static final int SCALE = 2;
+    private static final long MINOR_PER_MAJOR = 100;
+
+    private Money() {
+    }
+
+    // Major units (e.g. rupees as typed in the UI) to minor units, rounded to the nearest paisa
+    public static long ofMajor(double amount) {
+        return Math.round(amount * MINOR_PER_MAJOR);
+    }
+
+    // Minor units to major units, for display and the double-based getters
+    public static double toMajor(long minor) {
+        return minor / (double) MINOR_PER_MAJOR;
+    }
+
+    /**
+     * Parses a plain decimal amount such as "1200", "-5.5" or "99.99" exactly.
+     * @throws NumberFormatException if the text is not a number or has more than two decimals
+     */
+    public static long parse(String text) {
+        String s = text.trim();
+        if (s.isEmpty()) throw new NumberFormatException("Empty amount");
+        int i = 0;
+        boolean negative = s.charAt(0) == '-';
+        if (negative || s.charAt(0) == '+') i++;
+
+        long units = 0;
+        int decimals = -1; // -1 until the decimal point is seen
+        boolean digits = false;
+        for (; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '.' && decimals < 0) {
+                decimals = 0;
+            } else if (c >= '0' && c <= '9') {
+                if (decimals >= 0 && ++decimals > SCALE) throw new NumberFormatException("Too many decimals: " + text);
+                units = Math.addExact(Math.multiplyExact(units, 10), c - '0');
+                digits = true;
+            } else {
+                throw new NumberFormatException("Not an amount: " + text);
+            }
+        }
+        if (!digits) throw new NumberFormatException("Not an amount: " + text);
+        for (int d = Math.max(decimals, 0); d < SCALE; d++) units = Math.multiplyExact(units, 10);
+        return negative ? -units : units;
+    }
+
+    public static String format(long minor) {
+        long abs = Math.abs(minor);
+        long fraction = abs % MINOR_PER_MAJOR;
+        return (minor < 0 ? "-" : "") + (abs / MINOR_PER_MAJOR) + (fraction < 10 ? ".0" : ".") + fraction;
+    }
+
+    // Interest rates are DECIMAL(5,2) percentages; as hundredths of a percent they fit the fast path below
+    private static final long MAX_RATE_HUNDREDTHS = 99_999;
+    private static final long FAST_PATH_LIMIT = Long.MAX_VALUE / (MAX_RATE_HUNDREDTHS + 1);
+
+    // A percentage such as 7.25 as hundredths of a percent (725), the unit applyRate works in
+    public static long rateHundredths(double ratePercent) {
+        return Math.round(ratePercent * 100);
+    }
+
+    public static long applyRate(long amountMinor, double ratePercent, int periodsPerYear) {
+        return applyRate(amountMinor, rateHundredths(ratePercent), periodsPerYear);
+    }
+
+    /**
+     * Interest on an amount for one period: amount * rate / 100 / periodsPerYear, rounded to the paisa
+     * half away from zero - the same result as MySQL's ROUND(amount * rate / (100 * periods), 2).
+     */
+    public static long applyRate(long amountMinor, long rateHundredths, int periodsPerYear) {
+        long divisor = 10_000L * periodsPerYear;
+        if (amountMinor >= 0 && amountMinor <= FAST_PATH_LIMIT
+                && rateHundredths >= 0 && rateHundredths <= MAX_RATE_HUNDREDTHS) {
+            return (amountMinor * rateHundredths + divisor / 2) / divisor;
+        }
+        // Negative amounts or values beyond DECIMAL(15,2): rare, so allocation is acceptable here
+        return BigDecimal.valueOf(amountMinor).multiply(BigDecimal.valueOf(rateHundredths))
+                .divide(BigDecimal.valueOf(divisor), 0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    // Binds minor units to a DECIMAL(15,2) parameter
+    public static void bind(PreparedStatement stmt, int index, long minor) throws SQLException {
+        stmt.setBigDecimal(index, BigDecimal.valueOf(minor, SCALE));
+    }
+
+    // Reads a DECIMAL money column as minor units (0 for NULL)
+    public static long read(ResultSet rs, String column) throws SQLException {
+        return toMinor(rs.getBigDecimal(column));
+    }
+
+    public static long read(ResultSet rs, int column) throws SQLException {
+        return toMinor(rs.getBigDecimal(column));
+    }
+
+    private static long toMinor(BigDecimal value) {
+        if (value == null) return 0;
+        // DECIMAL(15,2) values already have scale 2, so setScale is a no-op and the scale-0 result of
+        // movePointRight converts to long without going through BigInteger
+        return value.setScale(SCALE, RoundingMode.HALF_UP).movePointRight(SCALE).longValueExact();
+    }
+}
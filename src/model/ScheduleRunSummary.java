@@ -0,0 +1,34 @@
+package model;
+
+/**
+ * Outcome of regenerating the repayment schedules of the loan book (see service.LoanScheduleJob).
+ */
+public class ScheduleRunSummary {
+    private final int loans;
+    private final long installments;
+    private final int failedChunks;
+    private final long elapsedMillis;
+
+    public ScheduleRunSummary(int loans, long installments, int failedChunks, long elapsedMillis) {
+        this.loans = loans;
+        this.installments = installments;
+        this.failedChunks = failedChunks;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public int getLoans() { return loans; }
+    public long getInstallments() { return installments; }
+    public int getFailedChunks() { return failedChunks; }
+    public long getElapsedMillis() { return elapsedMillis; }
+
+    public double getInstallmentsPerSecond() {
+        return elapsedMillis == 0 ? installments * 1000.0 : installments * 1000.0 / elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Schedules: %d loans, %d installments in %d ms (%.0f installments/sec)%s",
+                loans, installments, elapsedMillis, getInstallmentsPerSecond(),
+                failedChunks > 0 ? ", " + failedChunks + " chunks failed" : "");
+    }
+}
@@ -8,13 +8,20 @@ public class Transaction {
 
     public enum TransactionType {
         DEPOSIT,
-        WITHDRAWAL
+        WITHDRAWAL,
+        TRANSFER_OUT,
+        TRANSFER_IN;
+
+        // true if the amount was added to the account balance
+        public boolean isCredit() {
+            return this == DEPOSIT || this == TRANSFER_IN;
+        }
     }
 
     private int id;
     private int accountId;
     private TransactionType transactionType;
-    private double amount;
+    private long amount; // minor units, see Money
     private LocalDateTime date;
     private String narration;
 
@@ -28,8 +35,12 @@ public class Transaction {
     public TransactionType getTransactionType() { return transactionType; }
     public void setTransactionType(TransactionType transactionType) { this.transactionType = transactionType; }
 
-    public double getAmount() { return amount; }
-    public void setAmount(double amount) { this.amount = amount; }
+    public long getAmountMinor() { return amount; }
+    public void setAmountMinor(long amount) { this.amount = amount; }
+
+    // Major units (e.g. 123.45), for display and input
+    public double getAmount() { return Money.toMajor(amount); }
+    public void setAmount(double amount) { this.amount = Money.ofMajor(amount); }
 
     public LocalDateTime getDate() { return date; }
     public void setDate(LocalDateTime date) { this.date = date; }
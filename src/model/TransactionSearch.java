@@ -0,0 +1,60 @@
+package model;
+
+import java.time.LocalDate;
+
+/**
+ * Criteria for TransactionService.searchTransactions. Every filter is optional (0 / null = not filtered)
+ * and all set filters must match. Results are ordered by the sort field, then by id, so pages are stable.
+ */
+public class TransactionSearch {
+
+    public enum SortField {
+        ID("id"), DATE("date"), AMOUNT("amount");
+
+        private final String column;
+
+        SortField(String column) {
+            this.column = column;
+        }
+
+        // Column name for ORDER BY; only these fixed names ever reach the SQL text
+        public String getColumn() { return column; }
+    }
+
+    private int accountId;             // 0 = all accounts
+    private LocalDate fromDate;        // inclusive
+    private LocalDate toDate;          // inclusive
+    private Transaction.TransactionType type;
+    private Long minAmount;            // minor units, inclusive
+    private Long maxAmount;            // minor units, inclusive
+    private String narrationPrefix;
+    private SortField sortField = SortField.ID;
+    private boolean descending;
+
+    public int getAccountId() { return accountId; }
+    public void setAccountId(int accountId) { this.accountId = accountId; }
+
+    public LocalDate getFromDate() { return fromDate; }
+    public void setFromDate(LocalDate fromDate) { this.fromDate = fromDate; }
+
+    public LocalDate getToDate() { return toDate; }
+    public void setToDate(LocalDate toDate) { this.toDate = toDate; }
+
+    public Transaction.TransactionType getType() { return type; }
+    public void setType(Transaction.TransactionType type) { this.type = type; }
+
+    public Long getMinAmountMinor() { return minAmount; }
+    public void setMinAmountMinor(Long minAmount) { this.minAmount = minAmount; }
+
+    public Long getMaxAmountMinor() { return maxAmount; }
+    public void setMaxAmountMinor(Long maxAmount) { this.maxAmount = maxAmount; }
+
+    public String getNarrationPrefix() { return narrationPrefix; }
+    public void setNarrationPrefix(String narrationPrefix) { this.narrationPrefix = narrationPrefix; }
+
+    public SortField getSortField() { return sortField; }
+    public void setSortField(SortField sortField) { this.sortField = sortField; }
+
+    public boolean isDescending() { return descending; }
+    public void setDescending(boolean descending) { this.descending = descending; }
+}
@@ -1,21 +1,134 @@
 package service;
 
+import cache.OffHeapAccountStore;
 import dao.AccountDAO;
+import dao.IdempotencyKeyDAO;
+import dao.InterestRunDAO;
 import dao.TransactionDAO;
+import db.TransactionRunner;
+import journal.MutationJournal;
+import ledger.LedgerEngine;
 import model.Account;
+import model.AccountBookReport;
+import model.AccountSummary;
+import model.BulkTransferResult;
+import model.InterestRunResult;
+import model.Money;
 import model.Transaction;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public class AccountService {
+    // Process-wide, so every AccountService instance serialises work on the same account
+    private static final StripedLock ACCOUNT_LOCKS = new StripedLock(256);
+    private static OffHeapAccountStore sharedAccountBook; // guarded by AccountService.class
+
     private final AccountDAO accountDAO;
     private final TransactionDAO transactionDAO;
+    private final InterestPostingEngine interestPostingEngine;
+    private final IdempotencyGuard idempotencyGuard;
+    // null = every posting commits on its own; set with -Dbank.posting.groupCommit=true or setPostingJournal
+    private volatile PostingJournal postingJournal;
+    // null = balances live in the database; set with -Dbank.ledger.enabled=true or setLedger
+    private volatile LedgerEngine ledger;
+    // null = mutations are not journalled; set with -Dbank.journal.dir or setMutationJournal
+    private volatile MutationJournal mutationJournal;
+    // null = balances are read from the database; set with -Dbank.accountBook.enabled=true or setAccountBook
+    private volatile OffHeapAccountStore accountBook;
 
     public AccountService(AccountDAO accountDAO, TransactionDAO transactionDAO) {
         this.accountDAO = accountDAO;
         this.transactionDAO = transactionDAO;
+        this.interestPostingEngine = new InterestPostingEngine(accountDAO, transactionDAO, new InterestRunDAO());
+        this.idempotencyGuard = new IdempotencyGuard(new IdempotencyKeyDAO());
+        setMutationJournal(MutationJournal.shared());
+        if (Boolean.getBoolean("bank.posting.groupCommit")) {
+            this.postingJournal = PostingJournal.shared();
+        }
+        if (Boolean.getBoolean("bank.ledger.enabled")) {
+            try {
+                this.ledger = LedgerEngine.shared();
+            } catch (SQLException | IOException e) {
+                System.err.println("In-memory ledger could not be started; using the database directly.");
+                e.printStackTrace();
+            }
+        }
+        if (Boolean.getBoolean("bank.accountBook.enabled") && ledger == null) {
+            try {
+                setAccountBook(sharedAccountBook(accountDAO));
+            } catch (SQLException e) {
+                System.err.println("Account book could not be loaded; reading balances from the database.");
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Routes deposits, withdrawals and transfers through a group-commit journal (null to commit each
+     * posting on its own). Postings with an idempotency key always commit on their own.
+     */
+    public void setPostingJournal(PostingJournal postingJournal) {
+        this.postingJournal = postingJournal;
+    }
+
+    /**
+     * Applies deposits, withdrawals, transfers and interest in a started in-memory ledger, which writes
+     * them to the database in the background (null to post straight to the database). The ledger does not
+     * record idempotency keys, so postings that carry one are refused while it runs.
+     */
+    public void setLedger(LedgerEngine ledger) {
+        this.ledger = ledger;
+    }
+
+    /**
+     * Records every committed account mutation in the journal (null to stop). In ledger mode the ledger
+     * records its own postings; give it the same journal (LedgerEngine.setMutationJournal).
+     */
+    public void setMutationJournal(MutationJournal mutationJournal) {
+        this.mutationJournal = mutationJournal;
+        interestPostingEngine.setMutationJournal(mutationJournal);
+    }
+
+    /**
+     * Keeps the store in step with every committed account change and serves balances from it (null to
+     * read from the database). Load it first (loadAccountBook). Not for use with the in-memory ledger,
+     * which keeps the balances itself and does not update the store.
+     */
+    public void setAccountBook(OffHeapAccountStore accountBook) {
+        this.accountBook = accountBook;
+        interestPostingEngine.setAccountBook(accountBook);
+    }
+
+    /**
+     * Fills the store with every account in the database, streamed without building Account objects.
+     * Load before postings start; one committed while the accounts stream may be missed.
+     * @return the number of accounts loaded
+     */
+    public static int loadAccountBook(AccountDAO accountDAO, OffHeapAccountStore book) throws SQLException {
+        long start = System.currentTimeMillis();
+        int loaded = accountDAO.streamAccounts((id, customerId, type, openDay, closeDay, balance, rate) ->
+                book.put(id, customerId, type, openDay, closeDay, balance, (int) rate));
+        System.out.println("Account book: " + loaded + " accounts loaded in " + (System.currentTimeMillis() - start)
+                + " ms, " + book.getOffHeapBytes() / (1024 * 1024) + " MB off-heap");
+        return loaded;
+    }
+
+    // One book per process, loaded by the first service that asks for it
+    private static synchronized OffHeapAccountStore sharedAccountBook(AccountDAO accountDAO) throws SQLException {
+        if (sharedAccountBook == null) {
+            OffHeapAccountStore book = new OffHeapAccountStore();
+            loadAccountBook(accountDAO, book);
+            sharedAccountBook = book;
+        }
+        return sharedAccountBook;
     }
 
     // =========================
@@ -23,34 +136,154 @@ public class AccountService {
     // =========================
 
     public boolean createAccount(Account account) {
-        if (account.getBalance() < 0) {
+        if (account.getBalanceMinor() < 0) {
             System.err.println("Initial balance cannot be negative.");
             return false;
         }
         if (account.getOpenDate() == null) {
             account.setOpenDate(LocalDate.now());
         }
-        return accountDAO.addAccount(account);
+        if (!accountDAO.addAccount(account)) return false;
+        // An account the ledger cannot take could never be posted to, so it is not kept
+        LedgerEngine ledger = this.ledger;
+        if (ledger != null && !ledger.openAccount(account.getId(), account.getBalanceMinor(), Money.rateHundredths(account.getInterestRate()))) {
+            System.err.println("Account ID " + account.getId() + " could not be added to the in-memory ledger; not created.");
+            accountDAO.deleteAccount(account.getId());
+            return false;
+        }
+        CachingCustomerPortfolioService.customerChanged(account.getCustomerId());
+        MutationJournal journal = mutationJournal;
+        if (journal != null) journal.accountOpened(account);
+        OffHeapAccountStore book = accountBook;
+        if (book != null) book.put(account);
+        return true;
     }
 
     public Account getAccount(int id) {
-        return accountDAO.getAccountById(id);
+        Account account = accountDAO.getAccountById(id);
+        // The ledger is ahead of the database by whatever the persister has not written yet
+        LedgerEngine ledger = this.ledger;
+        if (account != null && ledger != null && ledger.hasAccount(id)) {
+            account.setBalanceMinor(ledger.getBalanceMinor(id));
+        }
+        return account;
+    }
+
+    /**
+     * The balance in minor units, or null if the account does not exist: from the ledger or the account
+     * book when there is one, so the lookup does not touch the database.
+     */
+    public Long getBalanceMinor(int id) {
+        LedgerEngine ledger = this.ledger;
+        if (ledger != null && ledger.hasAccount(id)) return ledger.getBalanceMinor(id);
+        OffHeapAccountStore book = accountBook;
+        if (book != null) {
+            long balance = book.getBalanceMinor(id);
+            if (balance != OffHeapAccountStore.NO_BALANCE) return balance;
+        }
+        return accountDAO.getBalance(id);
+    }
+
+    /**
+     * Account counts and balances by type from the account book, or null if there is none.
+     */
+    public AccountBookReport getAccountBookReport() {
+        OffHeapAccountStore book = accountBook;
+        return book != null ? book.report() : null;
     }
 
     public List<Account> getAllAccounts() {
         return accountDAO.getAllAccounts();
     }
 
+    /**
+     * Accounts for many IDs in a few round trips, keyed by ID (missing IDs are left out).
+     */
+    public Map<Integer, Account> getAccounts(Collection<Integer> ids) {
+        return accountDAO.getAccountsByIds(ids);
+    }
+
+    public List<AccountSummary> getAccountSummaries() {
+        return accountDAO.getAccountSummaries();
+    }
+
     public boolean updateAccount(Account account) {
         if (account.getId() <= 0) {
             System.err.println("Cannot update account: ID is missing.");
             return false;
         }
+        LedgerEngine ledger = this.ledger;
+        if (ledger != null) return updateLedgerAccount(ledger, account);
         // Assuming only fields like account_type or close_date are updated through the standard update.
-        return accountDAO.updateAccount(account);
+        return ACCOUNT_LOCKS.withLock(account.getId(), () -> updateAccountLocked(account));
+    }
+
+    /**
+     * Sets the close date to today. Read and write happen under the account's lock so a
+     * concurrent deposit or withdrawal is not overwritten by the stale balance.
+     */
+    public boolean closeAccount(int id) {
+        LedgerEngine ledger = this.ledger;
+        if (ledger != null) {
+            Account account = accountDAO.getAccountById(id);
+            if (account == null) return false;
+            account.setCloseDate(LocalDate.now());
+            return updateLedgerAccount(ledger, account);
+        }
+        return ACCOUNT_LOCKS.withLock(id, () -> {
+            Account account = accountDAO.getAccountById(id);
+            if (account == null) return false;
+
+            account.setCloseDate(LocalDate.now());
+            return updateAccountLocked(account);
+        });
     }
 
     public boolean deleteAccount(int id) {
+        LedgerEngine ledger = this.ledger;
+        if (ledger != null && ledger.hasAccount(id)) {
+            if (ledger.getBalanceMinor(id) != 0) {
+                System.err.println("Cannot delete account ID " + id + ". Balance must be zero.");
+                return false;
+            }
+            // Once the ledger has written everything for the account, the database check below is exact
+            ledger.closeAccount(id);
+        }
+        return ACCOUNT_LOCKS.withLock(id, () -> deleteAccountLocked(id));
+    }
+
+    // The ledger owns the balance: update the rest of the row, and stop postings once the account is closed
+    private boolean updateLedgerAccount(LedgerEngine ledger, Account account) {
+        int id = account.getId();
+        if (account.getCloseDate() != null && ledger.hasAccount(id)) {
+            ledger.closeAccount(id);
+        } else if (ledger.hasAccount(id)) {
+            ledger.setInterestRate(id, Money.rateHundredths(account.getInterestRate()));
+        }
+        if (!accountDAO.updateAccountDetails(account)) return false;
+        portfolioChanged(account);
+        MutationJournal journal = mutationJournal;
+        if (journal != null) journal.accountDetailsUpdated(account);
+        return true;
+    }
+
+    private boolean updateAccountLocked(Account account) {
+        if (!accountDAO.updateAccount(account)) return false;
+        portfolioChanged(account);
+        MutationJournal journal = mutationJournal;
+        if (journal != null) journal.accountUpdated(account);
+        OffHeapAccountStore book = accountBook;
+        if (book != null) book.put(account);
+        return true;
+    }
+
+    // The account may have moved to another customer, so both portfolios go
+    private static void portfolioChanged(Account account) {
+        CachingCustomerPortfolioService.accountChanged(account.getId());
+        CachingCustomerPortfolioService.customerChanged(account.getCustomerId());
+    }
+
+    private boolean deleteAccountLocked(int id) {
         Account account = accountDAO.getAccountById(id);
 
         if (account == null) {
@@ -59,12 +292,18 @@ public class AccountService {
         }
 
         // Business Logic Check: Cannot delete if balance is not zero.
-        if (account.getBalance() != 0.0) {
+        if (account.getBalanceMinor() != 0) {
             System.err.println("Cannot delete account ID " + id + ". Balance must be zero.");
             return false;
         }
 
-        return accountDAO.deleteAccount(id);
+        if (!accountDAO.deleteAccount(id)) return false;
+        CachingCustomerPortfolioService.accountChanged(id);
+        MutationJournal journal = mutationJournal;
+        if (journal != null) journal.accountDeleted(id);
+        OffHeapAccountStore book = accountBook;
+        if (book != null) book.remove(id);
+        return true;
     }
 
     // =========================
@@ -72,64 +311,201 @@ public class AccountService {
     // =========================
 
     public boolean withdraw(int accountId, double amount) {
-        if (amount <= 0) return false;
+        return withdraw(accountId, amount, "Cash Withdrawal");
+    }
 
-        Account account = accountDAO.getAccountById(accountId);
-        if (account == null) {
-            System.err.println("Account not found for withdrawal.");
+    /**
+     * Debits the account and records the WITHDRAWAL in one DB transaction.
+     * The funds check is part of the UPDATE itself, so concurrent withdrawals cannot overdraw;
+     * the account lock keeps same-account callers from queueing on the row lock in the database.
+     */
+    public boolean withdraw(int accountId, double amount, String narration) {
+        return withdraw(accountId, amount, narration, null);
+    }
+
+    /**
+     * Withdrawal that is posted at most once per idempotency key (null = no de-duplication).
+     * Retrying with the same key returns the first attempt's result without debiting again.
+     * A key is refused while the in-memory ledger runs.
+     */
+    public boolean withdraw(int accountId, double amount, String narration, String idempotencyKey) {
+        long amountMinor = Money.ofMajor(amount);
+        if (amountMinor <= 0) return false;
+        LedgerEngine ledger = this.ledger;
+        if (ledger != null && idempotencyKey != null) {
+            // The ledger keeps no record of keys, and posting around it would leave its balances behind
+            System.err.println("Idempotency keys are not accepted while the in-memory ledger runs.");
             return false;
         }
+        if (ledger != null) return ledger.withdraw(accountId, amountMinor, narration);
+        return ACCOUNT_LOCKS.withLock(accountId, () -> postWithdrawal(accountId, amountMinor, narration, idempotencyKey));
+    }
 
-        // **Critical Business Logic Check: Insufficient Funds**
-        if (account.getBalance() < amount) {
-            System.err.println("Withdrawal failed: Insufficient funds in account ID " + accountId);
+    private boolean postWithdrawal(int accountId, long amountMinor, String narration, String idempotencyKey) {
+        Transaction transaction = newTransaction(accountId, amountMinor, Transaction.TransactionType.WITHDRAWAL, narration);
+        try {
+            boolean posted = post(idempotencyKey, "WITHDRAWAL", accountId + ":" + amountMinor, conn ->
+                    // **Critical Business Logic Check: Insufficient Funds** (balance >= amount in the WHERE clause)
+                    accountDAO.debitBalance(conn, accountId, amountMinor)
+                            && transactionDAO.addTransaction(conn, transaction),
+                    journal -> journal.withdrawal(accountId, amountMinor),
+                    book -> book.addToBalance(accountId, -amountMinor));
+            accountDAO.evict(accountId);
+            CachingCustomerPortfolioService.accountChanged(accountId);
+            if (!posted) {
+                System.err.println("Withdrawal failed: account ID " + accountId + " not found or insufficient funds.");
+            }
+            return posted;
+        } catch (SQLException e) {
+            e.printStackTrace();
             return false;
         }
+    }
 
-        // 1. Update account balance
-        account.setBalance(account.getBalance() - amount);
-        if (accountDAO.updateAccount(account)) {
-            // 2. Record transaction
-            Transaction transaction = new Transaction();
-            transaction.setAccountId(accountId);
-            transaction.setAmount(amount);
-            transaction.setTransactionType(Transaction.TransactionType.WITHDRAWAL);
-            transaction.setDate(LocalDateTime.now());
-            transaction.setNarration("Cash Withdrawal");
+    public boolean deposit(int accountId, double amount) {
+        return deposit(accountId, amount, "Cash Deposit");
+    }
 
-            return transactionDAO.addTransaction(transaction);
-        }
-        return false;
+    /**
+     * Credits the account and records the DEPOSIT in one DB transaction.
+     */
+    public boolean deposit(int accountId, double amount, String narration) {
+        return deposit(accountId, amount, narration, null);
     }
 
-    public boolean deposit(int accountId, double amount) {
-        if (amount <= 0) {
+    /**
+     * Deposit that is posted at most once per idempotency key (null = no de-duplication).
+     * Retrying with the same key returns the first attempt's result without crediting again.
+     * A key is refused while the in-memory ledger runs.
+     */
+    public boolean deposit(int accountId, double amount, String narration, String idempotencyKey) {
+        long amountMinor = Money.ofMajor(amount);
+        if (amountMinor <= 0) {
             System.err.println("Deposit amount must be positive.");
             return false;
         }
+        LedgerEngine ledger = this.ledger;
+        if (ledger != null && idempotencyKey != null) {
+            // The ledger keeps no record of keys, and posting around it would leave its balances behind
+            System.err.println("Idempotency keys are not accepted while the in-memory ledger runs.");
+            return false;
+        }
+        if (ledger != null) return ledger.deposit(accountId, amountMinor, narration);
+        return ACCOUNT_LOCKS.withLock(accountId, () -> postDeposit(accountId, amountMinor, narration, idempotencyKey));
+    }
 
-        Account account = accountDAO.getAccountById(accountId);
-        if (account == null) {
-            System.err.println("Account not found for deposit.");
+    private boolean postDeposit(int accountId, long amountMinor, String narration, String idempotencyKey) {
+        Transaction transaction = newTransaction(accountId, amountMinor, Transaction.TransactionType.DEPOSIT, narration);
+        try {
+            boolean posted = post(idempotencyKey, "DEPOSIT", accountId + ":" + amountMinor, conn ->
+                    accountDAO.creditBalance(conn, accountId, amountMinor)
+                            && transactionDAO.addTransaction(conn, transaction),
+                    journal -> journal.deposit(accountId, amountMinor),
+                    book -> book.addToBalance(accountId, amountMinor));
+            accountDAO.evict(accountId);
+            CachingCustomerPortfolioService.accountChanged(accountId);
+            if (!posted) {
+                System.err.println("Account not found for deposit.");
+            }
+            return posted;
+        } catch (SQLException e) {
+            e.printStackTrace();
             return false;
         }
+    }
 
-        // 1. Update account balance
-        account.setBalance(account.getBalance() + amount);
+    public boolean transfer(int fromAccountId, int toAccountId, double amount) {
+        return transfer(fromAccountId, toAccountId, amount, "Fund Transfer");
+    }
 
-        if (accountDAO.updateAccount(account)) {
-            // 2. Record transaction
-            Transaction transaction = new Transaction();
-            transaction.setAccountId(accountId);
-            transaction.setAmount(amount);
-            transaction.setTransactionType(Transaction.TransactionType.DEPOSIT);
-            transaction.setDate(LocalDateTime.now());
-            transaction.setNarration("Cash Deposit");
+    /**
+     * Moves money between two accounts in one DB transaction and records a TRANSFER_OUT on the source
+     * and a TRANSFER_IN on the target. Both rows are locked with SELECT ... FOR UPDATE in ascending ID
+     * order (and the in-process locks in stripe order), so opposite transfers cannot deadlock.
+     */
+    public boolean transfer(int fromAccountId, int toAccountId, double amount, String narration) {
+        long amountMinor = Money.ofMajor(amount);
+        if (amountMinor <= 0) {
+            System.err.println("Transfer amount must be positive.");
+            return false;
+        }
+        if (fromAccountId == toAccountId) {
+            System.err.println("Cannot transfer to the same account.");
+            return false;
+        }
+        LedgerEngine ledger = this.ledger;
+        if (ledger != null) return ledger.transfer(fromAccountId, toAccountId, amountMinor, narration);
+        return ACCOUNT_LOCKS.withLocks(fromAccountId, toAccountId,
+                () -> postTransfer(fromAccountId, toAccountId, amountMinor, narration));
+    }
 
-            // Atomicity check: both must succeed
-            return transactionDAO.addTransaction(transaction);
+    private boolean postTransfer(int fromAccountId, int toAccountId, long amountMinor, String narration) {
+        Transaction out = newTransaction(fromAccountId, amountMinor, Transaction.TransactionType.TRANSFER_OUT,
+                narration + " - to A/C " + toAccountId);
+        Transaction in = newTransaction(toAccountId, amountMinor, Transaction.TransactionType.TRANSFER_IN,
+                narration + " - from A/C " + fromAccountId);
+        in.setDate(out.getDate());
+        try {
+            boolean posted = post(null, "TRANSFER", fromAccountId + ">" + toAccountId + ":" + amountMinor, conn -> {
+                // 1. Lock both rows, lowest ID first
+                Long first = accountDAO.lockBalanceForUpdate(conn, Math.min(fromAccountId, toAccountId));
+                Long second = accountDAO.lockBalanceForUpdate(conn, Math.max(fromAccountId, toAccountId));
+                if (first == null || second == null) {
+                    System.err.println("Transfer failed: account not found.");
+                    return false;
+                }
+                long available = fromAccountId < toAccountId ? first : second;
+                if (available < amountMinor) {
+                    System.err.println("Transfer failed: insufficient funds in account ID " + fromAccountId);
+                    return false;
+                }
+
+                // 2. Move the money and write both legs
+                if (!accountDAO.debitBalance(conn, fromAccountId, amountMinor)
+                        || !accountDAO.creditBalance(conn, toAccountId, amountMinor)
+                        || !transactionDAO.addTransaction(conn, out)
+                        || !transactionDAO.addTransaction(conn, in)) {
+                    throw new SQLException("Transfer " + fromAccountId + " -> " + toAccountId + " could not be completed.");
+                }
+                return true;
+            }, journal -> journal.transfer(fromAccountId, toAccountId, amountMinor), book -> {
+                book.addToBalance(fromAccountId, -amountMinor);
+                book.addToBalance(toAccountId, amountMinor);
+            });
+            accountDAO.evict(fromAccountId);
+            accountDAO.evict(toAccountId);
+            CachingCustomerPortfolioService.accountChanged(fromAccountId);
+            CachingCustomerPortfolioService.accountChanged(toAccountId);
+            return posted;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
         }
-        return false;
+    }
+
+    // One posting in its own DB transaction, or in the journal's next group commit. The mutation is
+    // journalled and applied to the account book once it has committed, and not again when an
+    // idempotency key replays an earlier result.
+    private boolean post(String idempotencyKey, String operation, String request, TransactionRunner.Work<Boolean> work,
+                         Consumer<MutationJournal> mutation, Consumer<OffHeapAccountStore> bookChange) throws SQLException {
+        boolean[] applied = new boolean[1];
+        TransactionRunner.Work<Boolean> tracked = conn -> applied[0] = work.execute(conn);
+        PostingJournal journal = postingJournal;
+        boolean posted = journal == null || idempotencyKey != null
+                ? idempotencyGuard.execute(idempotencyKey, operation, request, tracked)
+                : journal.post(tracked);
+        MutationJournal mutations = mutationJournal;
+        if (posted && applied[0] && mutations != null) mutation.accept(mutations);
+        OffHeapAccountStore book = accountBook;
+        if (posted && applied[0] && book != null) bookChange.accept(book);
+        return posted;
+    }
+
+    /**
+     * Runs every transfer in a CSV file ({@code from,to,amount[,narration]} per line); see BulkTransferJob.
+     */
+    public BulkTransferResult transferFromFile(Path file) throws IOException {
+        return new BulkTransferJob(this).run(file);
     }
 
     /**
@@ -137,6 +513,12 @@ public class AccountService {
      * Creates a DEPOSIT transaction with narration 'Interest applied'.
      */
     public boolean applyInterest(int accountId) {
+        LedgerEngine ledger = this.ledger;
+        if (ledger != null) return ledger.applyInterest(accountId);
+        return ACCOUNT_LOCKS.withLock(accountId, () -> applyInterestLocked(accountId));
+    }
+
+    private boolean applyInterestLocked(int accountId) {
         Account account = accountDAO.getAccountById(accountId);
         if (account == null) {
             System.err.println("Account not found for applying interest.");
@@ -149,19 +531,25 @@ public class AccountService {
             return false;
         }
 
-        double interest = account.getBalance() * rate / 100.0; // simple interest for the balance snapshot
-        if (interest <= 0.0) {
+        long interest = Money.applyRate(account.getBalanceMinor(), rate, 1); // simple interest for the balance snapshot
+        if (interest <= 0) {
             System.err.println("Calculated interest is zero for account ID " + accountId);
             return false;
         }
 
         // 1. Update account balance
-        account.setBalance(account.getBalance() + interest);
+        account.setBalanceMinor(account.getBalanceMinor() + interest);
         if (accountDAO.updateAccount(account)) {
+            CachingCustomerPortfolioService.accountChanged(accountId);
+            MutationJournal journal = mutationJournal;
+            if (journal != null) journal.interest(accountId, interest, Money.rateHundredths(rate));
+            OffHeapAccountStore book = accountBook;
+            if (book != null) book.addToBalance(accountId, interest);
+
             // 2. Record interest transaction as a deposit
             Transaction transaction = new Transaction();
             transaction.setAccountId(accountId);
-            transaction.setAmount(interest);
+            transaction.setAmountMinor(interest);
             transaction.setTransactionType(Transaction.TransactionType.DEPOSIT);
             transaction.setDate(LocalDateTime.now());
             transaction.setNarration("Interest applied (" + rate + "%)");
@@ -175,16 +563,39 @@ public class AccountService {
      * Apply interest to all accounts. Returns number of accounts successfully credited.
      */
     public int applyInterestToAll() {
-        int successCount = 0;
-        List<Account> accounts = accountDAO.getAllAccounts();
-        for (Account acc : accounts) {
-            try {
-                if (applyInterest(acc.getId())) successCount++;
-            } catch (Exception ex) {
-                // continue to next account
-                ex.printStackTrace();
-            }
+        InterestRunResult result = postInterestToAll();
+        return result != null ? result.getAccountsPosted() : 0;
+    }
+
+    /**
+     * Apply interest to all accounts with the set-based engine and return the run report
+     * (null if the run failed; it will resume from its last checkpoint next time).
+     */
+    public InterestRunResult postInterestToAll() {
+        LedgerEngine ledger = this.ledger;
+        if (ledger != null) {
+            long start = System.currentTimeMillis();
+            int credited = ledger.applyInterestToAll();
+            return new InterestRunResult(0, false, credited, 1, System.currentTimeMillis() - start);
+        }
+        try {
+            return interestPostingEngine.run();
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        } finally {
+            accountDAO.evictAll();
+            CachingCustomerPortfolioService.allChanged();
         }
-        return successCount;
     }
-}
\ No newline at end of file
+
+    private Transaction newTransaction(int accountId, long amountMinor, Transaction.TransactionType type, String narration) {
+        Transaction transaction = new Transaction();
+        transaction.setAccountId(accountId);
+        transaction.setAmountMinor(amountMinor);
+        transaction.setTransactionType(type);
+        transaction.setDate(LocalDateTime.now());
+        transaction.setNarration(narration);
+        return transaction;
+    }
+}
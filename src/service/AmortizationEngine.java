@@ -0,0 +1,129 @@
+package service;
+
+import model.AmortizationSchedule;
+import model.Loan;
+import model.LoanTerms;
+import model.Money;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+
+/**
+ * Builds loan repayment schedules (equal monthly installments) in minor units.
+ *
+ * Each month's interest is Money.applyRate(balance, rate, 12), the same rounding the monthly interest
+ * run uses, the rest of the EMI repays principal, and the last installment clears whatever the EMI
+ * rounding left. The bulk path works on a LoanTerms batch and three scratch arrays that are reused for
+ * every loan, so scheduling a whole loan book allocates nothing per loan or per installment. An engine
+ * instance is not thread-safe; give each worker its own.
+ */
+public class AmortizationEngine {
+
+    /**
+     * Receives one loan's schedule from {@link #generate}. The arrays are the engine's scratch space:
+     * only the first 'installments' slots belong to this loan, and they are overwritten by the next one.
+     */
+    public interface ScheduleSink {
+        void accept(int loanId, long openEpochDay, int installments,
+                    long[] principal, long[] interest, long[] balance) throws SQLException;
+    }
+
+    private long[] principal = new long[0];
+    private long[] interest = new long[0];
+    private long[] balance = new long[0];
+
+    /**
+     * Schedules the loans in slots [from, to) of the batch and hands each one to the sink.
+     * @return installments generated
+     */
+    public long generate(LoanTerms terms, int from, int to, ScheduleSink sink) throws SQLException {
+        long installments = 0;
+        for (int i = from; i < to; i++) {
+            int months = terms.getTenureMonths(i);
+            if (months > principal.length) {
+                principal = new long[months];
+                interest = new long[months];
+                balance = new long[months];
+            }
+            long principalMinor = terms.getPrincipalMinor(i);
+            long rate = terms.getRateHundredths(i);
+            int n = fill(principalMinor, rate, months, emiMinor(principalMinor, rate, months), principal, interest, balance);
+            sink.accept(terms.getLoanId(i), terms.getOpenEpochDay(i), n, principal, interest, balance);
+            installments += n;
+        }
+        return installments;
+    }
+
+    /**
+     * One loan's full schedule from its sanctioned amount, rate, tenure and open date.
+     * @return null if the loan has no tenure or open date
+     */
+    public static AmortizationSchedule schedule(Loan loan) {
+        int months = loan.getTenureMonths();
+        if (months <= 0 || loan.getOpenDate() == null) return null;
+        long principalMinor = loan.getAmountSanctionedMinor();
+        long rate = Money.rateHundredths(loan.getInterestRate());
+        long emi = emiMinor(principalMinor, rate, months);
+
+        long[] p = new long[months];
+        long[] i = new long[months];
+        long[] b = new long[months];
+        int n = fill(principalMinor, rate, months, emi, p, i, b);
+        if (n < months) {
+            p = Arrays.copyOf(p, n);
+            i = Arrays.copyOf(i, n);
+            b = Arrays.copyOf(b, n);
+        }
+        return new AmortizationSchedule(loan.getId(), loan.getOpenDate(), emi, p, i, b);
+    }
+
+    /**
+     * EMI = P * r * (1 + r)^n / ((1 + r)^n - 1) with r the monthly rate, rounded to the paisa.
+     * Same formula as Loan.calculateMonthlyEMI, with (1 + r)^n by repeated squaring instead of Math.pow.
+     */
+    public static long emiMinor(long principalMinor, long rateHundredths, int months) {
+        if (months <= 0 || principalMinor <= 0) return 0;
+        if (rateHundredths == 0) return (principalMinor + months - 1) / months;
+        double monthlyRate = rateHundredths / 120_000.0;
+        double growth = power(1 + monthlyRate, months);
+        return Math.round(principalMinor * monthlyRate * growth / (growth - 1));
+    }
+
+    /**
+     * EMIs of every loan in the batch, written to out[0 .. size). A flat loop over primitive arrays,
+     * so the JIT can unroll it and keep everything in registers.
+     */
+    public static void emis(LoanTerms terms, long[] out) {
+        for (int i = 0, n = terms.size(); i < n; i++) {
+            out[i] = emiMinor(terms.getPrincipalMinor(i), terms.getRateHundredths(i), terms.getTenureMonths(i));
+        }
+    }
+
+    // Writes the installments into the arrays and returns how many there are: 'months', or fewer when
+    // a rounded-up EMI pays the loan off early
+    static int fill(long principalMinor, long rateHundredths, int months, long emi,
+                    long[] principal, long[] interest, long[] balance) {
+        long remaining = principalMinor;
+        for (int i = 0; i < months; i++) {
+            long due = Money.applyRate(remaining, rateHundredths, 12);
+            long repaid = i == months - 1 ? remaining : Math.min(Math.max(emi - due, 0), remaining);
+            remaining -= repaid;
+            principal[i] = repaid;
+            interest[i] = due;
+            balance[i] = remaining;
+            if (remaining == 0) return i + 1;
+        }
+        return months;
+    }
+
+    // base^exponent for a non-negative exponent in O(log exponent) multiplications
+    private static double power(double base, int exponent) {
+        double result = 1.0;
+        while (exponent > 0) {
+            if ((exponent & 1) != 0) result *= base;
+            base *= base;
+            exponent >>= 1;
+        }
+        return result;
+    }
+}
@@ -7,10 +7,13 @@ import java.util.List;
 
 public class BankService {
     private CustomerDAO customerDAO = new CustomerDAO();
-    private AccountDAO accountDAO = new AccountDAO();
+    private AccountDAO accountDAO = CachingAccountDAO.shared();
     private TransactionDAO transactionDAO = new TransactionDAO();
     private LoanDAO loanDAO = new LoanDAO();
     private LoanPaymentDAO loanPaymentDAO = new LoanPaymentDAO();
+    private AccountService accountService = new AccountService(accountDAO, transactionDAO);
+    // Evicted by AccountService on every account change; the loan methods below write directly, so they evict it
+    private CachingCustomerPortfolioService portfolioService = CachingCustomerPortfolioService.shared();
 
     // -----------------------------
     // CUSTOMER SERVICES
@@ -27,62 +30,47 @@ public class BankService {
         return customerDAO.getAllCustomers();
     }
 
+    // Accounts, open loans and latest transactions; repeat views come from the cache until a change evicts
+    // the portfolio or 30 seconds pass
+    public CustomerPortfolio getPortfolio(int customerId) {
+        return portfolioService.getPortfolio(customerId);
+    }
+
     // -----------------------------
     // ACCOUNT SERVICES
     // -----------------------------
     public boolean openAccount(Account account) {
         account.setOpenDate(LocalDate.now());
-        return accountDAO.addAccount(account);
+        return accountService.createAccount(account);
     }
 
     public boolean closeAccount(int accountId) {
-        Account account = accountDAO.getAccountById(accountId);
-        if (account == null) return false;
-
-        account.setCloseDate(LocalDate.now());
-        return accountDAO.updateAccount(account);
+        return accountService.closeAccount(accountId);
     }
 
     public boolean deposit(int accountId, double amount, String narration) {
-        Account account = accountDAO.getAccountById(accountId);
-        if (account == null) return false;
-
-        account.setBalance(account.getBalance() + amount);
-        accountDAO.updateAccount(account);
-
-        Transaction transaction = new Transaction();
-        transaction.setAccountId(accountId);
-        transaction.setTransactionType(Transaction.TransactionType.DEPOSIT);
-        transaction.setAmount(amount);
-        transaction.setNarration(narration);
-        transactionDAO.addTransaction(transaction);
+        return accountService.deposit(accountId, amount, narration);
+    }
 
-        return true;
+    public boolean deposit(int accountId, double amount, String narration, String idempotencyKey) {
+        return accountService.deposit(accountId, amount, narration, idempotencyKey);
     }
 
     public boolean withdraw(int accountId, double amount, String narration) {
-        Account account = accountDAO.getAccountById(accountId);
-        if (account == null || account.getBalance() < amount) {
-            System.out.println("Insufficient balance!");
-            return false;
-        }
-
-        account.setBalance(account.getBalance() - amount);
-        accountDAO.updateAccount(account);
-
-        Transaction transaction = new Transaction();
-        transaction.setAccountId(accountId);
-        transaction.setTransactionType(Transaction.TransactionType.WITHDRAWAL);
-        transaction.setAmount(amount);
-        transaction.setNarration(narration);
-        transactionDAO.addTransaction(transaction);
+        return accountService.withdraw(accountId, amount, narration);
+    }
 
-        return true;
+    public boolean withdraw(int accountId, double amount, String narration, String idempotencyKey) {
+        return accountService.withdraw(accountId, amount, narration, idempotencyKey);
+    }
+
+    public boolean transfer(int fromAccountId, int toAccountId, double amount, String narration) {
+        return accountService.transfer(fromAccountId, toAccountId, amount, narration);
     }
 
     public double getBalance(int accountId) {
-        Account account = accountDAO.getAccountById(accountId);
-        return account != null ? account.getBalance() : 0.0;
+        Long balance = accountService.getBalanceMinor(accountId);
+        return balance != null ? Money.toMajor(balance) : 0.0;
     }
 
     // -----------------------------
@@ -90,24 +78,28 @@ public class BankService {
     // -----------------------------
     public boolean applyLoan(Loan loan) {
         loan.setOpenDate(LocalDate.now());
-        loan.setBalance(loan.getAmountSanctioned());
-        return loanDAO.addLoan(loan);
+        loan.setBalanceMinor(loan.getAmountSanctionedMinor());
+        boolean applied = loanDAO.addLoan(loan);
+        portfolioService.evict(loan.getCustomerId());
+        return applied;
     }
 
     public boolean repayLoan(int loanId, double paymentAmount, String receiptNo) {
         Loan loan = loanDAO.getLoanById(loanId);
-        if (loan == null || paymentAmount > loan.getBalance()) return false;
+        long paymentMinor = Money.ofMajor(paymentAmount);
+        if (loan == null || paymentMinor > loan.getBalanceMinor()) return false;
 
-        double newBalance = loan.getBalance() - paymentAmount;
-        loan.setBalance(newBalance);
+        long newBalance = loan.getBalanceMinor() - paymentMinor;
+        loan.setBalanceMinor(newBalance);
         loanDAO.updateLoan(loan);
 
         LoanPayment payment = new LoanPayment();
         payment.setLoanId(loanId);
-        payment.setDisbursementAmount(paymentAmount);
+        payment.setDisbursementAmountMinor(paymentMinor);
         payment.setReceiptNo(receiptNo);
-        payment.setRemainingBalance(newBalance);
+        payment.setRemainingBalanceMinor(newBalance);
         loanPaymentDAO.addLoanPayment(payment);
+        portfolioService.evict(loan.getCustomerId());
 
         return true;
     }
@@ -0,0 +1,112 @@
+package service;
+
+import model.BulkTransferResult;
+import model.Money;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs every transfer listed in a CSV file through AccountService.transfer, several at a time.
+ *
+ * One transfer per line: {@code fromAccountId,toAccountId,amount[,narration]}. Blank lines, lines
+ * starting with '#' and a non-numeric header line are skipped. The file is streamed, and the work
+ * queue is bounded, so large files do not have to fit in memory. Each transfer commits on its own;
+ * a rejected transfer (unknown account, insufficient funds) does not stop the rest.
+ */
+public class BulkTransferJob {
+    private static final int QUEUE_PER_WORKER = 64;
+    private static final int PROGRESS_EVERY = 10_000;
+
+    private final AccountService accountService;
+    private int workers = 4;
+
+    public BulkTransferJob(AccountService accountService) {
+        this.accountService = accountService;
+    }
+
+    public void setWorkers(int workers) {
+        if (workers <= 0) throw new IllegalArgumentException("Worker count must be positive.");
+        this.workers = workers;
+    }
+
+    public BulkTransferResult run(Path file) throws IOException {
+        long start = System.currentTimeMillis();
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicLong done = new AtomicLong();
+        LongAdder movedMinor = new LongAdder();
+        int transfers = 0;
+        int malformed = 0;
+
+        AtomicInteger threadNo = new AtomicInteger();
+        // Full queue -> the reading thread runs the transfer itself, which throttles reading
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(workers * QUEUE_PER_WORKER),
+                r -> new Thread(r, "bulk-transfer-" + threadNo.incrementAndGet()),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNo = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+
+                String[] fields = line.split(",", 4);
+                int from, to;
+                long amountMinor;
+                try {
+                    if (fields.length < 3) throw new NumberFormatException();
+                    from = Integer.parseInt(fields[0].trim());
+                    to = Integer.parseInt(fields[1].trim());
+                    amountMinor = Money.parse(fields[2]);
+                } catch (NumberFormatException | ArithmeticException e) {
+                    if (lineNo > 1) { // the first line may be a header
+                        System.err.println("Skipping malformed transfer line " + lineNo + ": " + line);
+                        malformed++;
+                    }
+                    continue;
+                }
+                String narration = fields.length > 3 && !fields[3].isBlank() ? fields[3].trim() : "Bulk Transfer";
+
+                transfers++;
+                pool.execute(() -> {
+                    if (accountService.transfer(from, to, Money.toMajor(amountMinor), narration)) {
+                        succeeded.incrementAndGet();
+                        movedMinor.add(amountMinor);
+                    } else {
+                        rejected.incrementAndGet();
+                    }
+                    long n = done.incrementAndGet();
+                    if (n % PROGRESS_EVERY == 0) {
+                        long elapsed = Math.max(1, System.currentTimeMillis() - start);
+                        System.out.printf("  %d transfers done (%.0f/sec)%n", n, n * 1000.0 / elapsed);
+                    }
+                });
+            }
+        } finally {
+            pool.shutdown();
+            try {
+                pool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        BulkTransferResult result = new BulkTransferResult(transfers, succeeded.get(), rejected.get(), malformed,
+                Money.toMajor(movedMinor.sum()), System.currentTimeMillis() - start);
+        System.out.println(result);
+        return result;
+    }
+}
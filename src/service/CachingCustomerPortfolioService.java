@@ -0,0 +1,174 @@
+package service;
+
+import cache.CacheStats;
+import cache.LruCache;
+import dao.AccountDAO;
+import dao.CachingAccountDAO;
+import dao.CustomerDAO;
+import dao.LoanDAO;
+import dao.TransactionDAO;
+import model.AccountSummary;
+import model.CustomerPortfolio;
+import model.LoanSummary;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * CustomerPortfolioService that keeps recently viewed portfolios for repeat views.
+ *
+ * A cached portfolio is a snapshot: it is served until its time-to-live (30 seconds by default) runs out
+ * or until it is evicted. The write paths of AccountService, LoanService, LoanPaymentService and
+ * CustomerService evict the shared instance (shared()) after they commit, by customer, account or loan;
+ * other instances are only evicted by their callers (evict, evictAccount, evictLoan, evictAll). Changes
+ * made outside the services show up once the entry expires. The portfolio is shared between callers and
+ * must not be modified.
+ *
+ * A portfolio that was being read while one of its rows changed is returned but not cached, so an
+ * eviction that overtakes the read cannot leave the older snapshot behind.
+ */
+public class CachingCustomerPortfolioService extends CustomerPortfolioService {
+    private static final int DEFAULT_MAX_SIZE = 1_000;
+    private static final long DEFAULT_TTL_MILLIS = 30_000;
+
+    private static volatile CachingCustomerPortfolioService shared;
+
+    private final LruCache<Integer, CachedPortfolio> cache;
+    private final OwnerIndex accountOwners = new OwnerIndex();
+    private final OwnerIndex loanOwners = new OwnerIndex();
+
+    public CachingCustomerPortfolioService(CustomerDAO customerDAO, AccountDAO accountDAO, LoanDAO loanDAO,
+                                           TransactionDAO transactionDAO) {
+        this(customerDAO, accountDAO, loanDAO, transactionDAO, DEFAULT_MAX_SIZE, DEFAULT_TTL_MILLIS);
+    }
+
+    public CachingCustomerPortfolioService(CustomerDAO customerDAO, AccountDAO accountDAO, LoanDAO loanDAO,
+                                           TransactionDAO transactionDAO, int maxSize, long ttlMillis) {
+        super(customerDAO, accountDAO, loanDAO, transactionDAO);
+        this.cache = new LruCache<>(maxSize, ttlMillis);
+    }
+
+    /**
+     * The process-wide instance, the one the services' write paths evict.
+     */
+    public static synchronized CachingCustomerPortfolioService shared() {
+        if (shared == null) {
+            shared = new CachingCustomerPortfolioService(new CustomerDAO(), CachingAccountDAO.shared(),
+                    new LoanDAO(), new TransactionDAO());
+        }
+        return shared;
+    }
+
+    // Called by the services after a committed change; nothing to do until shared() has been used
+    static void accountChanged(int accountId) {
+        CachingCustomerPortfolioService portfolios = shared;
+        if (portfolios != null) portfolios.evictAccount(accountId);
+    }
+
+    static void loanChanged(int loanId) {
+        CachingCustomerPortfolioService portfolios = shared;
+        if (portfolios != null) portfolios.evictLoan(loanId);
+    }
+
+    static void customerChanged(int customerId) {
+        CachingCustomerPortfolioService portfolios = shared;
+        if (portfolios != null) portfolios.evict(customerId);
+    }
+
+    static void allChanged() {
+        CachingCustomerPortfolioService portfolios = shared;
+        if (portfolios != null) portfolios.evictAll();
+    }
+
+    public CacheStats getCacheStats() {
+        return cache.getStats();
+    }
+
+    // A cached portfolio only answers requests for the same number of recent transactions
+    @Override
+    public CustomerPortfolio getPortfolio(int customerId, int recentTransactions) {
+        CachedPortfolio cached = cache.get(customerId);
+        if (cached != null && cached.recentTransactions == recentTransactions) return cached.portfolio;
+
+        long stamp = cache.stamp(customerId);
+        long[] accountStamps = accountOwners.stamps();
+        long[] loanStamps = loanOwners.stamps();
+        CustomerPortfolio portfolio = super.getPortfolio(customerId, recentTransactions);
+        if (portfolio == null) return null;
+
+        // Owners first, then the check: an eviction after the check finds the owner and drops the entry
+        boolean unchanged = true;
+        for (AccountSummary account : portfolio.getAccounts()) {
+            accountOwners.put(account.getId(), customerId);
+            unchanged &= accountOwners.unchangedSince(account.getId(), accountStamps);
+        }
+        for (LoanSummary loan : portfolio.getOpenLoans()) {
+            loanOwners.put(loan.getId(), customerId);
+            unchanged &= loanOwners.unchangedSince(loan.getId(), loanStamps);
+        }
+        if (unchanged) cache.putIfCurrent(customerId, new CachedPortfolio(portfolio, recentTransactions), stamp);
+        return portfolio;
+    }
+
+    public void evict(int customerId) {
+        cache.invalidate(customerId);
+    }
+
+    // Drops the portfolio holding this account, if one was cached
+    public void evictAccount(int accountId) {
+        Integer customerId = accountOwners.changed(accountId);
+        if (customerId != null) cache.invalidate(customerId);
+    }
+
+    // Drops the portfolio holding this loan, if one was cached
+    public void evictLoan(int loanId) {
+        Integer customerId = loanOwners.changed(loanId);
+        if (customerId != null) cache.invalidate(customerId);
+    }
+
+    public void evictAll() {
+        cache.clear();
+    }
+
+    /**
+     * Owner of every account (or loan) seen in a cached portfolio, plus per-stripe change counters, so a
+     * read can tell whether one of its rows changed while it ran even before the owner was known.
+     */
+    private static class OwnerIndex {
+        private static final int STRIPES = 256;
+
+        private final Map<Integer, Integer> owners = new ConcurrentHashMap<>();
+        private final AtomicLongArray changes = new AtomicLongArray(STRIPES);
+
+        long[] stamps() {
+            long[] stamps = new long[STRIPES];
+            for (int i = 0; i < STRIPES; i++) stamps[i] = changes.get(i);
+            return stamps;
+        }
+
+        void put(int id, int ownerId) {
+            owners.put(id, ownerId);
+        }
+
+        boolean unchangedSince(int id, long[] stamps) {
+            return changes.get(id & (STRIPES - 1)) == stamps[id & (STRIPES - 1)];
+        }
+
+        // Counts the change, then returns the owner (null if unknown)
+        Integer changed(int id) {
+            changes.incrementAndGet(id & (STRIPES - 1));
+            return owners.get(id);
+        }
+    }
+
+    private static class CachedPortfolio {
+        final CustomerPortfolio portfolio;
+        final int recentTransactions;
+
+        CachedPortfolio(CustomerPortfolio portfolio, int recentTransactions) {
+            this.portfolio = portfolio;
+            this.recentTransactions = recentTransactions;
+        }
+    }
+}
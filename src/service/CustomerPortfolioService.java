@@ -0,0 +1,67 @@
+package service;
+
+import dao.AccountDAO;
+import dao.CustomerDAO;
+import dao.LoanDAO;
+import dao.TransactionDAO;
+import db.TransactionRunner;
+import model.Customer;
+import model.CustomerPortfolio;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+/**
+ * Builds a customer's full position (accounts, open loans, latest transactions) from four indexed
+ * queries, whatever the number of accounts: the customer row, their accounts by customer_id, their
+ * open loans by customer_id and one join for the latest transactions. All four run on one connection
+ * inside one transaction, so the balances and the transaction list describe the same moment.
+ */
+public class CustomerPortfolioService {
+    public static final int DEFAULT_RECENT_TRANSACTIONS = 10;
+
+    private final CustomerDAO customerDAO;
+    private final AccountDAO accountDAO;
+    private final LoanDAO loanDAO;
+    private final TransactionDAO transactionDAO;
+
+    public CustomerPortfolioService(CustomerDAO customerDAO, AccountDAO accountDAO, LoanDAO loanDAO,
+                                    TransactionDAO transactionDAO) {
+        this.customerDAO = customerDAO;
+        this.accountDAO = accountDAO;
+        this.loanDAO = loanDAO;
+        this.transactionDAO = transactionDAO;
+    }
+
+    public CustomerPortfolio getPortfolio(int customerId) {
+        return getPortfolio(customerId, DEFAULT_RECENT_TRANSACTIONS);
+    }
+
+    /**
+     * @param recentTransactions how many of the latest transactions to include
+     * @return the portfolio, or null if the customer does not exist or the read failed
+     */
+    public CustomerPortfolio getPortfolio(int customerId, int recentTransactions) {
+        if (recentTransactions < 0) {
+            System.err.println("Number of recent transactions cannot be negative.");
+            return null;
+        }
+        try {
+            return TransactionRunner.inTransaction(conn -> {
+                Customer customer = customerDAO.getCustomerById(conn, customerId);
+                if (customer == null) {
+                    System.err.println("Customer not found: " + customerId);
+                    return null;
+                }
+                return new CustomerPortfolio(customer,
+                        accountDAO.getAccountSummariesByCustomerId(conn, customerId),
+                        loanDAO.getOpenLoanSummariesByCustomerId(conn, customerId),
+                        transactionDAO.getRecentTransactionsByCustomerId(conn, customerId, recentTransactions),
+                        LocalDateTime.now());
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+}
@@ -2,7 +2,9 @@ package service;
 
 import dao.CustomerDAO;
 import model.Customer;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public class CustomerService {
     private final CustomerDAO customerDAO;
@@ -35,6 +37,20 @@ public class CustomerService {
         return customerDAO.getCustomerById(id);
     }
 
+    /**
+     * Retrieves many customers in a few round trips, keyed by ID (missing IDs are left out).
+     */
+    public Map<Integer, Customer> getCustomers(Collection<Integer> ids) {
+        return customerDAO.getCustomersByIds(ids);
+    }
+
+    /**
+     * Checks that a customer ID exists, e.g. before opening an account or loan for it.
+     */
+    public boolean customerExists(int id) {
+        return customerDAO.customerExists(id);
+    }
+
     /**
      * Retrieves all customers.
      */
@@ -50,7 +66,9 @@ public class CustomerService {
             System.err.println("Cannot update customer: ID is missing.");
             return false;
         }
-        return customerDAO.updateCustomer(customer);
+        if (!customerDAO.updateCustomer(customer)) return false;
+        CachingCustomerPortfolioService.customerChanged(customer.getId());
+        return true;
     }
 
     /**
@@ -61,6 +79,8 @@ public class CustomerService {
     public boolean deleteCustomer(int id) {
         // Here you would check if the customer has any active accounts or loans
         // If they do, you might prevent deletion or require account/loan closure first.
-        return customerDAO.deleteCustomer(id);
+        if (!customerDAO.deleteCustomer(id)) return false;
+        CachingCustomerPortfolioService.customerChanged(id);
+        return true;
     }
 }
\ No newline at end of file
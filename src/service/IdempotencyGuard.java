@@ -0,0 +1,133 @@
+package service;
+
+import cache.LruCache;
+import dao.IdempotencyKeyDAO;
+import db.DBConnection;
+import db.TransactionRunner;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.HexFormat;
+
+/**
+ * Runs an operation at most once per idempotency key.
+ *
+ * The key is inserted into idempotency_keys in the same DB transaction as the operation, together with
+ * its outcome, so a retried request (same key) gets the original result back instead of posting again.
+ * Recently seen keys are also kept in memory, which answers most retries without a database round trip.
+ * Failed outcomes (e.g. insufficient funds) are remembered too; only a rolled-back attempt frees the key.
+ *
+ * The key is stored with a SHA-256 of the request (operation plus the caller's description of its
+ * parameters, such as account and amount). A key reused for a different request is a client bug, not a
+ * retry: it is rejected instead of answered with the other request's result.
+ */
+public class IdempotencyGuard {
+    public static final int MAX_KEY_LENGTH = 64;
+    private static final int RECENT_KEYS = 10_000;
+    private static final long RECENT_KEYS_TTL_MILLIS = 15 * 60_000;
+
+    private final IdempotencyKeyDAO idempotencyKeyDAO;
+    private final LruCache<String, Outcome> recent = new LruCache<>(RECENT_KEYS, RECENT_KEYS_TTL_MILLIS);
+
+    public IdempotencyGuard(IdempotencyKeyDAO idempotencyKeyDAO) {
+        this.idempotencyKeyDAO = idempotencyKeyDAO;
+    }
+
+    /**
+     * Runs the work in one DB transaction. With a null key this is just TransactionRunner.inTransaction;
+     * with a key that was used before for the same request, the work is skipped and the original result
+     * returned. A key used before for another operation or request returns false without running the work.
+     * @param request the parameters a retry must repeat, e.g. "accountId:amountMinor"
+     */
+    public boolean execute(String key, String operation, String request, TransactionRunner.Work<Boolean> work) throws SQLException {
+        if (key == null) return TransactionRunner.inTransaction(work);
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency key must be 1-" + MAX_KEY_LENGTH + " characters.");
+        }
+
+        String requestHash = hash(operation, request);
+        String cacheKey = operation + ':' + key;
+        Outcome cached = recent.get(cacheKey);
+        if (cached != null) return cached.requestHash.equals(requestHash) ? replay(key, cached.result) : mismatch(key);
+
+        try {
+            boolean result = TransactionRunner.inTransaction(conn -> {
+                claim(conn, key, operation, requestHash);
+                boolean succeeded = work.execute(conn);
+                idempotencyKeyDAO.setResult(conn, key, succeeded);
+                return succeeded;
+            });
+            recent.put(cacheKey, new Outcome(result, requestHash));
+            return result;
+        } catch (KeyAlreadyUsedException e) {
+            Boolean original;
+            try (Connection conn = DBConnection.getConnection()) {
+                if (conn == null) throw new SQLException("No database connection available.");
+                original = idempotencyKeyDAO.findResult(conn, key, operation, requestHash);
+            }
+            if (original == null) return mismatch(key);
+            recent.put(cacheKey, new Outcome(original, requestHash));
+            return replay(key, original);
+        }
+    }
+
+    /**
+     * True if the exception is a unique/primary key violation (SQLState class 23).
+     */
+    public static boolean isDuplicateKey(SQLException e) {
+        return e instanceof SQLIntegrityConstraintViolationException
+                || (e.getSQLState() != null && e.getSQLState().startsWith("23"));
+    }
+
+    private void claim(Connection conn, String key, String operation, String requestHash) throws SQLException {
+        try {
+            idempotencyKeyDAO.insertKey(conn, key, operation, requestHash);
+        } catch (SQLException e) {
+            if (isDuplicateKey(e)) throw new KeyAlreadyUsedException(e);
+            throw e;
+        }
+    }
+
+    private boolean replay(String key, boolean result) {
+        System.err.println("Duplicate request for idempotency key " + key + "; returning the original result.");
+        return result;
+    }
+
+    private static boolean mismatch(String key) {
+        System.err.println("Idempotency key " + key + " was already used for a different operation or request.");
+        return false;
+    }
+
+    private static String hash(String operation, String request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(operation.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+            digest.update(String.valueOf(request).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available.", e); // every JRE has it
+        }
+    }
+
+    private static class Outcome {
+        final boolean result;
+        final String requestHash;
+
+        Outcome(boolean result, String requestHash) {
+            this.result = result;
+            this.requestHash = requestHash;
+        }
+    }
+
+    // Tells a duplicate key apart from constraint violations raised by the guarded work itself
+    private static class KeyAlreadyUsedException extends SQLException {
+        KeyAlreadyUsedException(SQLException cause) {
+            super(cause.getMessage(), cause.getSQLState(), cause.getErrorCode(), cause);
+        }
+    }
+}
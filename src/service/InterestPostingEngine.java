@@ -0,0 +1,127 @@
+package service;
+
+import cache.OffHeapAccountStore;
+import dao.AccountDAO;
+import dao.InterestRunDAO;
+import dao.TransactionDAO;
+import db.TransactionRunner;
+import journal.MutationJournal;
+import model.InterestRunResult;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+/**
+ * Posts interest to every account with set-based SQL instead of one read/update/insert per account.
+ *
+ * Accounts are walked in ID order, one chunk per DB transaction: lock the chunk, INSERT ... SELECT the
+ * interest DEPOSIT rows, UPDATE the balances, and move the run's checkpoint in interest_runs. Because the
+ * checkpoint commits with the chunk, a run that dies part-way is resumed from the last committed chunk
+ * on the next call and no account is credited twice. Each chunk transaction first locks the run's row
+ * and checks the checkpoint is still where this process left it, so when two processes resume the same
+ * run, only one posts each chunk and the other stops.
+ */
+public class InterestPostingEngine {
+    private static final int DEFAULT_CHUNK_SIZE = 1000;
+    // Returned by a chunk transaction that found the run's checkpoint moved (or the run finished) by someone else
+    private static final int[] TAKEN_OVER = new int[0];
+
+    private final AccountDAO accountDAO;
+    private final TransactionDAO transactionDAO;
+    private final InterestRunDAO interestRunDAO;
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+    private volatile MutationJournal mutationJournal;
+    private volatile OffHeapAccountStore accountBook;
+
+    public InterestPostingEngine(AccountDAO accountDAO, TransactionDAO transactionDAO, InterestRunDAO interestRunDAO) {
+        this.accountDAO = accountDAO;
+        this.transactionDAO = transactionDAO;
+        this.interestRunDAO = interestRunDAO;
+    }
+
+    public int getChunkSize() { return chunkSize; }
+
+    public void setChunkSize(int chunkSize) {
+        if (chunkSize <= 0) throw new IllegalArgumentException("Chunk size must be positive.");
+        this.chunkSize = chunkSize;
+    }
+
+    // Each committed chunk's credits are journalled, one INTEREST record per account (null = not journalled)
+    public void setMutationJournal(MutationJournal mutationJournal) {
+        this.mutationJournal = mutationJournal;
+    }
+
+    // Each committed chunk's interest is added to the book too (null = no book)
+    public void setAccountBook(OffHeapAccountStore accountBook) {
+        this.accountBook = accountBook;
+    }
+
+    /**
+     * Resumes an unfinished run if there is one, otherwise starts a new run over all accounts.
+     */
+    public synchronized InterestRunResult run() throws SQLException {
+        long start = System.currentTimeMillis();
+        LocalDateTime postedAt = LocalDateTime.now();
+
+        int[] checkpoint = TransactionRunner.inTransaction(conn -> {
+            int[] unfinished = interestRunDAO.findUnfinishedRun(conn);
+            return unfinished != null ? unfinished : new int[]{interestRunDAO.startRun(conn), 0, 0};
+        });
+        int runId = checkpoint[0];
+        boolean resumed = checkpoint[1] > 0;
+        int lastId = checkpoint[1];
+        int posted = 0;
+        int chunks = 0;
+
+        int chunkSize = this.chunkSize;
+        int[] creditIds = new int[chunkSize];
+        long[] credits = new long[chunkSize];
+        long[] creditRates = new long[chunkSize];
+        int[] creditCount = new int[1];
+        while (true) {
+            final int fromId = lastId;
+            MutationJournal journal = mutationJournal;
+            OffHeapAccountStore book = accountBook;
+            boolean collect = journal != null || book != null;
+            int[] chunk = TransactionRunner.inTransaction(conn -> {
+                if (interestRunDAO.lockCheckpoint(conn, runId) != fromId) return TAKEN_OVER;
+                int toId = accountDAO.lockNextChunk(conn, fromId, chunkSize);
+                if (toId == 0) {
+                    interestRunDAO.completeRun(conn, runId);
+                    return null;
+                }
+                creditCount[0] = 0;
+                if (collect) {
+                    // The journal and the book take each credit as an amount after the commit, which
+                    // commutes with postings that commit meanwhile but reach them first
+                    accountDAO.streamInterestDue(conn, fromId, toId, (id, due, rate) -> {
+                        creditIds[creditCount[0]] = id;
+                        creditRates[creditCount[0]] = rate;
+                        credits[creditCount[0]++] = due;
+                    });
+                }
+                int credited = transactionDAO.addInterestTransactions(conn, fromId, toId, postedAt);
+                accountDAO.applyInterestToRange(conn, fromId, toId);
+                interestRunDAO.advance(conn, runId, toId, credited);
+                return new int[]{toId, credited};
+            });
+            if (chunk == null) break;
+            if (chunk == TAKEN_OVER) {
+                System.err.println("Interest run " + runId + " moved past account " + fromId
+                        + " in another process; leaving the rest to it.");
+                break;
+            }
+            for (int i = 0; i < creditCount[0]; i++) {
+                if (journal != null) journal.interest(creditIds[i], credits[i], creditRates[i], postedAt);
+                if (book != null) book.addToBalance(creditIds[i], credits[i]);
+            }
+            lastId = chunk[0];
+            posted += chunk[1];
+            chunks++;
+        }
+
+        InterestRunResult result = new InterestRunResult(runId, resumed, posted, chunks, System.currentTimeMillis() - start);
+        System.out.println(result);
+        return result;
+    }
+}
@@ -0,0 +1,200 @@
+package service;
+
+import dao.AccountDAO;
+import dao.LedgerDAO;
+import dao.LoanDAO;
+import dao.LoanPaymentDAO;
+import dao.TransactionDAO;
+import db.TransactionRunner;
+import journal.JournalReader;
+import journal.JournalRecord;
+import journal.MutationJournal;
+import model.Account;
+import model.LedgerBatch;
+import model.Loan;
+import model.LoanPayment;
+import model.Money;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Applies the mutation journal (journal.MutationJournal) to a database: to rebuild one after losing it,
+ * or to bring a copy up to date. Start from an empty schema holding the customers (they are not
+ * journalled) and replay from the first record, or from a restored backup and replay from the sequence
+ * the journal had reached when the backup was taken.
+ *
+ * Records are applied in sequence order, recordsPerTransaction per DB transaction. Deposits,
+ * withdrawals, transfers and interest are collected into a LedgerBatch and written like the in-memory
+ * ledger's (one transactions row per leg, one balance update per account); loan payments and loan
+ * interest are applied to the balance by amount; account and loan rows are restored as recorded.
+ * Interest run ranges, which older journals hold, repeat their set-based statements.
+ * Each transaction also moves a checkpoint (ledger_checkpoint row 2), so a replay that stops part way
+ * carries on from there. Transactions rows get the standard narrations and loan payments no receipt
+ * number; neither is in the journal.
+ */
+public class JournalReplayer implements JournalReader.RecordHandler {
+    public static final int DEFAULT_RECORDS_PER_TRANSACTION = 4096;
+
+    private final Path directory;
+    private final LedgerDAO ledgerDAO;
+    private final AccountDAO accountDAO;
+    private final TransactionDAO transactionDAO;
+    private final LoanDAO loanDAO;
+    private final LoanPaymentDAO loanPaymentDAO;
+    private final int recordsPerTransaction;
+    private final LedgerBatch batch;
+    private Connection conn; // the DB transaction in progress
+
+    public JournalReplayer(Path directory) {
+        this(directory, DEFAULT_RECORDS_PER_TRANSACTION);
+    }
+
+    public JournalReplayer(Path directory, int recordsPerTransaction) {
+        if (recordsPerTransaction <= 0) throw new IllegalArgumentException("Records per transaction must be positive.");
+        this.directory = directory;
+        this.ledgerDAO = new LedgerDAO();
+        this.accountDAO = new AccountDAO();
+        this.transactionDAO = new TransactionDAO();
+        this.loanDAO = new LoanDAO();
+        this.loanPaymentDAO = new LoanPaymentDAO();
+        this.recordsPerTransaction = recordsPerTransaction;
+        this.batch = new LedgerBatch(recordsPerTransaction);
+    }
+
+    /**
+     * Replays every record after the database's checkpoint (or after startAfter, if that is later) up to
+     * the current end of the journal.
+     * @return the number of records applied
+     */
+    public synchronized long replay(long startAfter) throws IOException, SQLException {
+        long start = System.currentTimeMillis();
+        long checkpoint = Math.max(startAfter, ledgerDAO.readCheckpoint(LedgerDAO.REPLAY_CHECKPOINT));
+        long applied = 0;
+        try (JournalReader reader = new JournalReader(directory)) {
+            reader.seek(checkpoint + 1);
+            while (true) {
+                int handled = TransactionRunner.inTransaction(c -> {
+                    conn = c;
+                    batch.clear();
+                    int count;
+                    try {
+                        count = reader.poll(this, recordsPerTransaction);
+                    } catch (IOException e) {
+                        throw new SQLException("Mutation journal could not be read at sequence " + reader.getNextSequence(), e);
+                    }
+                    if (count > 0) {
+                        flushPostings();
+                        ledgerDAO.writeCheckpoint(c, LedgerDAO.REPLAY_CHECKPOINT, reader.getNextSequence() - 1);
+                    }
+                    return count;
+                });
+                if (handled == 0) break;
+                applied += handled;
+            }
+            System.out.println("Journal replay: " + applied + " records up to sequence " + (reader.getNextSequence() - 1)
+                    + " in " + (System.currentTimeMillis() - start) + " ms");
+        } finally {
+            conn = null;
+        }
+        return applied;
+    }
+
+    @Override
+    public void onRecord(JournalRecord record) throws SQLException {
+        byte kind = record.getKind();
+        switch (kind) {
+            case MutationJournal.DEPOSIT -> addPosting(LedgerBatch.DEPOSIT, record);
+            case MutationJournal.WITHDRAWAL -> addPosting(LedgerBatch.WITHDRAWAL, record);
+            case MutationJournal.TRANSFER -> addPosting(LedgerBatch.TRANSFER, record);
+            case MutationJournal.INTEREST -> addPosting(LedgerBatch.INTEREST, record);
+            default -> {
+                // Everything else reads or replaces rows, so the postings before it must be written first
+                flushPostings();
+                applyRowChange(kind, record);
+            }
+        }
+    }
+
+    private void addPosting(byte type, JournalRecord record) {
+        boolean interest = type == LedgerBatch.INTEREST;
+        batch.add(type, record.getId(), interest ? 0 : record.getOtherId(), record.getAmountMinor(),
+                record.getTimeMillis(), interest ? record.getRateHundredths() : 0);
+    }
+
+    private void flushPostings() throws SQLException {
+        ledgerDAO.persistPostings(conn, batch);
+        batch.clear();
+    }
+
+    private void applyRowChange(byte kind, JournalRecord record) throws SQLException {
+        int id = record.getId();
+        switch (kind) {
+            case MutationJournal.ACCOUNT_OPENED, MutationJournal.ACCOUNT_UPDATED ->
+                    accountDAO.restoreAccount(conn, toAccount(record), true);
+            case MutationJournal.ACCOUNT_DETAILS_UPDATED -> accountDAO.restoreAccount(conn, toAccount(record), false);
+            case MutationJournal.ACCOUNT_DELETED -> accountDAO.deleteAccount(conn, id);
+            case MutationJournal.INTEREST_RANGE -> {
+                transactionDAO.addInterestTransactions(conn, id, record.getOtherId(), toDateTime(record.getTimeMillis()));
+                accountDAO.applyInterestToRange(conn, id, record.getOtherId());
+            }
+            case MutationJournal.LOAN_OPENED, MutationJournal.LOAN_UPDATED -> loanDAO.restoreLoan(conn, toLoan(record));
+            case MutationJournal.LOAN_DELETED -> loanDAO.deleteLoan(conn, id);
+            case MutationJournal.LOAN_PAYMENT -> {
+                // By amount: records of a payment and of interest on the same loan can be in either order
+                LocalDateTime paidAt = toDateTime(record.getTimeMillis());
+                long remaining = record.getBalanceMinor();
+                loanDAO.addToBalance(conn, id, -record.getAmountMinor(), remaining == 0 ? paidAt.toLocalDate() : null);
+                LoanPayment payment = new LoanPayment();
+                payment.setLoanId(id);
+                payment.setDisbursementAmountMinor(record.getAmountMinor());
+                payment.setPaymentDate(paidAt);
+                payment.setRemainingBalanceMinor(remaining);
+                loanPaymentDAO.addLoanPayment(conn, payment);
+            }
+            case MutationJournal.LOAN_INTEREST -> loanDAO.addToBalance(conn, id, record.getAmountMinor(), null);
+            case MutationJournal.LOAN_INTEREST_RANGE -> loanDAO.applyMonthlyInterestToRange(conn, id, record.getOtherId());
+            default -> throw new SQLException("Journal record " + record.getSequence() + " has unknown kind " + kind);
+        }
+    }
+
+    private static Account toAccount(JournalRecord record) {
+        Account account = new Account();
+        account.setId(record.getId());
+        account.setCustomerId(record.getOtherId());
+        account.setAccountType(Account.AccountType.values()[record.getTypeOrdinal()]);
+        account.setOpenDate(toDate(record.getOpenDay()));
+        account.setCloseDate(toDate(record.getCloseDay()));
+        account.setBalanceMinor(record.getBalanceMinor());
+        account.setInterestRate(Money.toMajor(record.getRateHundredths()));
+        return account;
+    }
+
+    private static Loan toLoan(JournalRecord record) {
+        Loan loan = new Loan();
+        loan.setId(record.getId());
+        loan.setCustomerId(record.getOtherId());
+        loan.setLoanType(Loan.LoanType.values()[record.getTypeOrdinal()]);
+        loan.setAmountSanctionedMinor(record.getAmountMinor());
+        loan.setBalanceMinor(record.getBalanceMinor());
+        loan.setInterestRate(Money.toMajor(record.getRateHundredths()));
+        loan.setTenureMonths(record.getCount());
+        loan.setOpenDate(toDate(record.getOpenDay()));
+        loan.setCloseDate(toDate(record.getCloseDay()));
+        return loan;
+    }
+
+    private static LocalDate toDate(int epochDay) {
+        return epochDay == MutationJournal.NO_DAY ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    private static LocalDateTime toDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,195 @@
+package service;
+
+import dao.LoanDAO;
+import dao.LoanInterestRunDAO;
+import db.DBConnection;
+import db.TransactionRunner;
+import journal.MutationJournal;
+import model.LoanInterestPartition;
+import model.LoanInterestRunSummary;
+import model.Money;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Monthly interest for all active loans, split into ID-range partitions that run in parallel.
+ *
+ * Each partition is one DB transaction that also marks its progress row DONE, so a failed partition is
+ * retried on its own (up to maxAttempts) without touching the others. If partitions are still failing
+ * at the end, the run stays open and the next call picks up only those partitions.
+ */
+public class LoanInterestBatchJob {
+    private static final long RETRY_BACKOFF_MILLIS = 200;
+
+    private final LoanDAO loanDAO;
+    private final LoanInterestRunDAO runDAO;
+    private int workers = 4;
+    private int partitionsPerWorker = 4;
+    private int maxAttempts = 3;
+    private volatile MutationJournal mutationJournal;
+
+    public LoanInterestBatchJob(LoanDAO loanDAO, LoanInterestRunDAO runDAO) {
+        this.loanDAO = loanDAO;
+        this.runDAO = runDAO;
+    }
+
+    public void setWorkers(int workers) {
+        if (workers <= 0) throw new IllegalArgumentException("Worker count must be positive.");
+        this.workers = workers;
+    }
+
+    public void setPartitionsPerWorker(int partitionsPerWorker) {
+        if (partitionsPerWorker <= 0) throw new IllegalArgumentException("Partitions per worker must be positive.");
+        this.partitionsPerWorker = partitionsPerWorker;
+    }
+
+    public void setMaxAttempts(int maxAttempts) {
+        if (maxAttempts <= 0) throw new IllegalArgumentException("Max attempts must be positive.");
+        this.maxAttempts = maxAttempts;
+    }
+
+    // Each committed partition is journalled, one LOAN_INTEREST record per loan (null = not journalled)
+    public void setMutationJournal(MutationJournal mutationJournal) {
+        this.mutationJournal = mutationJournal;
+    }
+
+    public synchronized LoanInterestRunSummary run() throws SQLException {
+        long start = System.currentTimeMillis();
+
+        int runId = TransactionRunner.inTransaction(conn -> {
+            int unfinished = runDAO.findUnfinishedRunId(conn);
+            if (unfinished > 0) return unfinished;
+            int[] range = loanDAO.getActiveLoanIdRange(conn);
+            return range == null ? 0 : runDAO.startRun(conn, splitRange(range[0], range[1], workers * partitionsPerWorker));
+        });
+        if (runId == 0) {
+            return new LoanInterestRunSummary(0, 0, 0, 0, 0.0, System.currentTimeMillis() - start, new TreeMap<>());
+        }
+
+        List<LoanInterestPartition> pending;
+        try (Connection conn = DBConnection.getConnection()) {
+            if (conn == null) throw new SQLException("No database connection available.");
+            pending = runDAO.getPendingPartitions(conn, runId);
+        }
+
+        Map<String, LongAdder> loansByWorker = new ConcurrentHashMap<>();
+        Map<String, LongAdder> busyNanosByWorker = new ConcurrentHashMap<>();
+        AtomicInteger failed = new AtomicInteger();
+
+        AtomicInteger threadNo = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(workers, Math.max(1, pending.size())), r -> {
+            Thread t = new Thread(r, "loan-interest-" + threadNo.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (LoanInterestPartition partition : pending) {
+                futures.add(executor.submit(() -> {
+                    long t0 = System.nanoTime();
+                    int loans = processWithRetry(partition);
+                    String worker = Thread.currentThread().getName();
+                    busyNanosByWorker.computeIfAbsent(worker, k -> new LongAdder()).add(System.nanoTime() - t0);
+                    if (loans < 0) {
+                        failed.incrementAndGet();
+                    } else {
+                        loansByWorker.computeIfAbsent(worker, k -> new LongAdder()).add(loans);
+                    }
+                }));
+            }
+            for (Future<?> f : futures) {
+                try {
+                    f.get();
+                } catch (Exception e) {
+                    failed.incrementAndGet();
+                    e.printStackTrace();
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        long[] totals = TransactionRunner.inTransaction(conn -> {
+            if (failed.get() == 0) runDAO.completeRun(conn, runId);
+            return runDAO.getRunTotals(conn, runId);
+        });
+
+        Map<String, Double> throughput = new TreeMap<>();
+        for (Map.Entry<String, LongAdder> e : busyNanosByWorker.entrySet()) {
+            long loans = loansByWorker.containsKey(e.getKey()) ? loansByWorker.get(e.getKey()).sum() : 0;
+            double seconds = e.getValue().sum() / 1_000_000_000.0;
+            throughput.put(e.getKey(), seconds > 0 ? loans / seconds : 0.0);
+        }
+
+        LoanInterestRunSummary summary = new LoanInterestRunSummary(runId, pending.size(), failed.get(),
+                (int) totals[0], Money.toMajor(totals[1]), System.currentTimeMillis() - start, throughput);
+        System.out.println(summary);
+        return summary;
+    }
+
+    // Returns loans processed, or -1 if the partition still failed after maxAttempts
+    private int processWithRetry(LoanInterestPartition partition) {
+        for (int attempt = partition.getAttempts() + 1; ; attempt++) {
+            try {
+                MutationJournal journal = mutationJournal;
+                List<long[]> credits = new ArrayList<>(); // {loan id, interest, balance after, rate}
+                // {loans updated, interest}
+                long[] done = TransactionRunner.inTransaction(conn -> {
+                    credits.clear();
+                    long[] due = journal == null
+                            ? loanDAO.lockMonthlyInterestDue(conn, partition.getStartId(), partition.getEndId())
+                            : loanDAO.lockMonthlyInterestDue(conn, partition.getStartId(), partition.getEndId(),
+                                    (id, interest, balance, rate) -> credits.add(new long[]{id, interest, balance, rate}));
+                    int updated = loanDAO.applyMonthlyInterestToRange(conn, partition.getStartId(), partition.getEndId());
+                    runDAO.markDone(conn, partition, updated, due[1]);
+                    return new long[]{updated, due[1]};
+                });
+                for (long[] credit : credits) {
+                    journal.loanInterest((int) credit[0], credit[1], credit[2], credit[3]);
+                }
+                return (int) done[0];
+            } catch (SQLException e) {
+                System.err.println("Loan interest partition " + partition.getPartitionNo() + " (IDs "
+                        + partition.getStartId() + "-" + partition.getEndId() + ") failed on attempt " + attempt + ": " + e.getMessage());
+                recordFailure(partition);
+                if (attempt - partition.getAttempts() >= maxAttempts) return -1;
+                try {
+                    Thread.sleep(RETRY_BACKOFF_MILLIS * (attempt - partition.getAttempts()));
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return -1;
+                }
+            }
+        }
+    }
+
+    private void recordFailure(LoanInterestPartition partition) {
+        try (Connection conn = DBConnection.getConnection()) {
+            if (conn != null) runDAO.markFailed(conn, partition);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Split [minId, maxId] into at most 'count' contiguous, non-overlapping inclusive ranges
+    static List<int[]> splitRange(int minId, int maxId, int count) {
+        List<int[]> ranges = new ArrayList<>();
+        long span = (long) maxId - minId + 1;
+        long step = Math.max(1, (span + count - 1) / count);
+        for (long from = minId; from <= maxId; from += step) {
+            ranges.add(new int[]{(int) from, (int) Math.min(maxId, from + step - 1)});
+        }
+        return ranges;
+    }
+}
@@ -1,9 +1,11 @@
 package service;
 
+import dao.IdempotencyKeyDAO;
 import dao.LoanPaymentDAO;
 import dao.LoanDAO; // Required to update the main loan balance
+import journal.MutationJournal;
 import model.LoanPayment;
-import model.Loan;
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -11,11 +13,19 @@ import java.util.List;
 public class LoanPaymentService {
     private final LoanPaymentDAO loanPaymentDAO;
     private final LoanDAO loanDAO; // Declared as final field
+    private final IdempotencyGuard idempotencyGuard;
+    // null = payments are not journalled; set with -Dbank.journal.dir or setMutationJournal
+    private volatile MutationJournal mutationJournal = MutationJournal.shared();
 
     // CORRECTED Constructor: Accepts both DAOs
     public LoanPaymentService(LoanPaymentDAO loanPaymentDAO, LoanDAO loanDAO) {
         this.loanPaymentDAO = loanPaymentDAO;
         this.loanDAO = loanDAO; // Initialization of the LoanDAO field
+        this.idempotencyGuard = new IdempotencyGuard(new IdempotencyKeyDAO());
+    }
+
+    public void setMutationJournal(MutationJournal mutationJournal) {
+        this.mutationJournal = mutationJournal;
     }
 
     public List<LoanPayment> getPaymentsByLoanId(int loanId) {
@@ -30,42 +40,63 @@ public class LoanPaymentService {
      * Records a loan payment and updates the main Loan balance.
      */
     public boolean recordPayment(LoanPayment payment) {
-        if (payment.getDisbursementAmount() <= 0) return false;
+        return recordPayment(payment, null);
+    }
 
-        Loan loan = loanDAO.getLoanById(payment.getLoanId());
-        if (loan == null) {
-            System.err.println("Loan not found for payment.");
-            return false;
-        }
+    /**
+     * Records a loan payment and updates the loan balance in one DB transaction, at most once per
+     * idempotency key (null = no de-duplication). A retry with the same key returns the original result.
+     * Receipt numbers are unique, so a payment reusing one is rejected.
+     */
+    public boolean recordPayment(LoanPayment payment, String idempotencyKey) {
+        long paymentAmount = payment.getDisbursementAmountMinor();
+        if (paymentAmount <= 0) return false;
 
-        double paymentAmount = payment.getDisbursementAmount();
-        double newBalance = loan.getBalance() - paymentAmount;
+        boolean[] applied = new boolean[1]; // false when the key replays an earlier result
+        String request = payment.getLoanId() + ":" + paymentAmount; // what a retry of the key must repeat
+        try {
+            boolean recorded = idempotencyGuard.execute(idempotencyKey, "LOAN_PAYMENT", request, conn -> {
+                Long balance = loanDAO.lockBalanceForUpdate(conn, payment.getLoanId());
+                if (balance == null) {
+                    System.err.println("Loan not found for payment.");
+                    return false;
+                }
 
-        // Business Logic: Prevent overpayment (negative balance)
-        if (newBalance < -0.001) { // Use a small tolerance for floating point comparison
-            System.err.println("Payment exceeds remaining loan balance.");
-            return false;
-        }
+                long newBalance = balance - paymentAmount;
 
-        // Correct the balance to zero if it's slightly negative due to floating point math
-        if (newBalance < 0) {
-            newBalance = 0;
-        }
+                // Business Logic: Prevent overpayment (negative balance); amounts are exact paise, so no tolerance is needed
+                if (newBalance < 0) {
+                    System.err.println("Payment exceeds remaining loan balance.");
+                    return false;
+                }
 
-        // 1. Update Loan Balance
-        loan.setBalance(newBalance);
-        if (newBalance == 0) {
-            loan.setCloseDate(LocalDate.now());
-        }
+                // 1. Update Loan Balance (closing the loan once it is paid off)
+                loanDAO.updateBalance(conn, payment.getLoanId(), newBalance, newBalance == 0 ? LocalDate.now() : null);
 
-        if (loanDAO.updateLoan(loan)) {
-            // 2. Record Payment Transaction
-            payment.setRemainingBalance(newBalance);
-            if (payment.getPaymentDate() == null) {
-                payment.setPaymentDate(LocalDateTime.now());
+                // 2. Record Payment Transaction
+                payment.setRemainingBalanceMinor(newBalance);
+                if (payment.getPaymentDate() == null) {
+                    payment.setPaymentDate(LocalDateTime.now());
+                }
+                if (!loanPaymentDAO.addLoanPayment(conn, payment)) {
+                    throw new SQLException("Loan payment could not be recorded.");
+                }
+                applied[0] = true;
+                return true;
+            });
+            if (recorded && applied[0]) CachingCustomerPortfolioService.loanChanged(payment.getLoanId());
+            MutationJournal journal = mutationJournal;
+            if (recorded && applied[0] && journal != null) {
+                journal.loanPayment(payment.getLoanId(), paymentAmount, payment.getRemainingBalanceMinor(), payment.getPaymentDate());
+            }
+            return recorded;
+        } catch (SQLException e) {
+            if (IdempotencyGuard.isDuplicateKey(e)) {
+                System.err.println("Receipt number " + payment.getReceiptNo() + " has already been recorded.");
+            } else {
+                e.printStackTrace();
             }
-            return loanPaymentDAO.addLoanPayment(payment);
+            return false;
         }
-        return false;
     }
-}
\ No newline at end of file
+}
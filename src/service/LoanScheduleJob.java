@@ -0,0 +1,128 @@
+package service;
+
+import dao.LoanDAO;
+import dao.LoanScheduleDAO;
+import db.TransactionRunner;
+import model.LoanTerms;
+import model.ScheduleRunSummary;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Regenerates the stored repayment schedules of every open loan with a tenure, in parallel.
+ *
+ * The active loan ID range is split into partitions as in LoanInterestBatchJob. Each worker walks its
+ * partition in chunks of loansPerChunk IDs, one DB transaction per chunk: read the terms into a LoanTerms
+ * batch, delete the old schedules, generate and bulk-insert the new ones. A failed chunk is reported and
+ * skipped; running the job again rebuilds everything, so there is nothing to resume.
+ */
+public class LoanScheduleJob {
+    private final LoanDAO loanDAO;
+    private final LoanScheduleDAO scheduleDAO;
+    private int workers = 4;
+    private int partitionsPerWorker = 4;
+    private int loansPerChunk = 500;
+
+    public LoanScheduleJob(LoanDAO loanDAO, LoanScheduleDAO scheduleDAO) {
+        this.loanDAO = loanDAO;
+        this.scheduleDAO = scheduleDAO;
+    }
+
+    public void setWorkers(int workers) {
+        if (workers <= 0) throw new IllegalArgumentException("Worker count must be positive.");
+        this.workers = workers;
+    }
+
+    public void setPartitionsPerWorker(int partitionsPerWorker) {
+        if (partitionsPerWorker <= 0) throw new IllegalArgumentException("Partitions per worker must be positive.");
+        this.partitionsPerWorker = partitionsPerWorker;
+    }
+
+    public void setLoansPerChunk(int loansPerChunk) {
+        if (loansPerChunk <= 0) throw new IllegalArgumentException("Loans per chunk must be positive.");
+        this.loansPerChunk = loansPerChunk;
+    }
+
+    public synchronized ScheduleRunSummary run() throws SQLException {
+        long start = System.currentTimeMillis();
+        int[] range = TransactionRunner.inTransaction(loanDAO::getActiveLoanIdRange);
+        if (range == null) return new ScheduleRunSummary(0, 0, 0, System.currentTimeMillis() - start);
+
+        List<int[]> partitions = LoanInterestBatchJob.splitRange(range[0], range[1], workers * partitionsPerWorker);
+        AtomicInteger loans = new AtomicInteger();
+        AtomicLong installments = new AtomicLong();
+        AtomicInteger failed = new AtomicInteger();
+
+        AtomicInteger threadNo = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(workers, partitions.size()), r -> {
+            Thread t = new Thread(r, "loan-schedule-" + threadNo.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int[] partition : partitions) {
+                futures.add(executor.submit(() -> {
+                    // One engine and one terms batch per partition, reused for every chunk
+                    AmortizationEngine engine = new AmortizationEngine();
+                    LoanTerms terms = new LoanTerms(loansPerChunk);
+                    for (long from = partition[0]; from <= partition[1]; from += loansPerChunk) {
+                        int chunkStart = (int) from;
+                        int chunkEnd = (int) Math.min(partition[1], from + loansPerChunk - 1);
+                        try {
+                            long rows = regenerate(chunkStart, chunkEnd, engine, terms);
+                            loans.addAndGet(terms.size());
+                            installments.addAndGet(rows);
+                        } catch (SQLException e) {
+                            System.err.println("Loan schedules for IDs " + chunkStart + "-" + chunkEnd + " failed: " + e.getMessage());
+                            failed.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> f : futures) {
+                try {
+                    f.get();
+                } catch (Exception e) {
+                    failed.incrementAndGet();
+                    e.printStackTrace();
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        ScheduleRunSummary summary = new ScheduleRunSummary(loans.get(), installments.get(), failed.get(),
+                System.currentTimeMillis() - start);
+        System.out.println(summary);
+        return summary;
+    }
+
+    /**
+     * Rebuilds the stored schedules of the open loans in an ID range (inclusive) in one transaction.
+     * @return installments written
+     */
+    public long regenerate(int startId, int endId) throws SQLException {
+        return regenerate(startId, endId, new AmortizationEngine(), new LoanTerms(Math.max(1, Math.min(loansPerChunk, endId - startId + 1))));
+    }
+
+    private long regenerate(int startId, int endId, AmortizationEngine engine, LoanTerms terms) throws SQLException {
+        return TransactionRunner.inTransaction(conn -> {
+            terms.clear();
+            scheduleDAO.readTerms(conn, startId, endId, terms);
+            scheduleDAO.deleteSchedules(conn, startId, endId);
+            try (LoanScheduleDAO.ScheduleWriter writer = scheduleDAO.openWriter(conn)) {
+                engine.generate(terms, 0, terms.size(), writer::write);
+                writer.flush();
+                return writer.getRowsWritten();
+            }
+        });
+    }
+}
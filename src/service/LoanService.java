@@ -1,55 +1,122 @@
 package service;
 
 import dao.LoanDAO;
+import dao.LoanInterestRunDAO;
+import dao.LoanScheduleDAO;
+import journal.MutationJournal;
+import model.AmortizationSchedule;
 import model.Loan;
+import model.LoanInterestRunSummary;
+import model.LoanSummary;
+import model.Money;
+import model.ScheduleRunSummary;
+
+import java.sql.SQLException;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public class LoanService {
     private final LoanDAO loanDAO;
+    private final LoanInterestBatchJob interestBatchJob;
+    private final LoanScheduleDAO scheduleDAO;
+    private final LoanScheduleJob scheduleJob;
+    // null = mutations are not journalled; set with -Dbank.journal.dir or setMutationJournal
+    private volatile MutationJournal mutationJournal;
 
     public LoanService(LoanDAO loanDAO) {
         this.loanDAO = loanDAO;
+        this.interestBatchJob = new LoanInterestBatchJob(loanDAO, new LoanInterestRunDAO());
+        this.scheduleDAO = new LoanScheduleDAO();
+        this.scheduleJob = new LoanScheduleJob(loanDAO, scheduleDAO);
+        setMutationJournal(MutationJournal.shared());
+    }
+
+    /**
+     * Records every committed loan mutation in the journal (null to stop). Payments are journalled by
+     * LoanPaymentService.
+     */
+    public void setMutationJournal(MutationJournal mutationJournal) {
+        this.mutationJournal = mutationJournal;
+        interestBatchJob.setMutationJournal(mutationJournal);
     }
 
     public boolean createLoan(Loan loan) {
-        if (loan.getAmountSanctioned() <= 0) {
+        if (loan.getAmountSanctionedMinor() <= 0) {
             System.err.println("Loan amount must be positive.");
             return false;
         }
+        if (loan.getTenureMonths() < 0) {
+            System.err.println("Loan tenure cannot be negative.");
+            return false;
+        }
         if (loan.getOpenDate() == null) {
             loan.setOpenDate(LocalDate.now());
         }
         // Initial balance should be equal to the sanctioned amount upon creation
-        loan.setBalance(loan.getAmountSanctioned());
-        return loanDAO.addLoan(loan);
+        loan.setBalanceMinor(loan.getAmountSanctionedMinor());
+        if (!loanDAO.addLoan(loan)) return false;
+        CachingCustomerPortfolioService.customerChanged(loan.getCustomerId());
+        MutationJournal journal = mutationJournal;
+        if (journal != null) journal.loanOpened(loan);
+        if (loan.getTenureMonths() > 0 && loan.getId() > 0) {
+            // The loan is saved either way; a missing schedule is recomputed on read
+            try {
+                scheduleJob.regenerate(loan.getId(), loan.getId());
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+        return true;
     }
 
     public Loan getLoan(int id) {
         return loanDAO.getLoanById(id);
     }
 
+    /**
+     * Loans for many IDs in a few round trips, keyed by ID (missing IDs are left out).
+     */
+    public Map<Integer, Loan> getLoans(Collection<Integer> ids) {
+        return loanDAO.getLoansByIds(ids);
+    }
+
     public List<Loan> getAllLoans() {
         return loanDAO.getAllLoans();
     }
 
+    public List<LoanSummary> getLoanSummaries() {
+        return loanDAO.getLoanSummaries();
+    }
+
     public boolean updateLoan(Loan loan) {
         if (loan.getId() <= 0) {
             System.err.println("Cannot update loan: ID is missing.");
             return false;
         }
-        return loanDAO.updateLoan(loan);
+        if (!loanDAO.updateLoan(loan)) return false;
+        // The loan may have moved to another customer, so both portfolios go
+        CachingCustomerPortfolioService.loanChanged(loan.getId());
+        CachingCustomerPortfolioService.customerChanged(loan.getCustomerId());
+        MutationJournal journal = mutationJournal;
+        if (journal != null) journal.loanUpdated(loan);
+        return true;
     }
 
     public boolean deleteLoan(int id) {
         // Business logic: Only delete if the balance is fully paid (zero).
         Loan loan = loanDAO.getLoanById(id);
         if (loan == null) return false;
-        if (loan.getBalance() > 0) {
+        if (loan.getBalanceMinor() > 0) {
             System.err.println("Cannot delete loan ID " + id + ". Outstanding balance remains.");
             return false;
         }
-        return loanDAO.deleteLoan(id);
+        if (!loanDAO.deleteLoan(id)) return false;
+        CachingCustomerPortfolioService.loanChanged(id);
+        MutationJournal journal = mutationJournal;
+        if (journal != null) journal.loanDeleted(id);
+        return true;
     }
 
     /**
@@ -70,17 +137,22 @@ public class LoanService {
             return false;
         }
 
-        // Calculate monthly interest
-        double monthlyRate = loan.getInterestRate() / 12.0 / 100.0;
-        double interest = loan.getBalance() * monthlyRate;
-        
-        if (interest <= 0.0) {
+        // Calculate monthly interest (annual rate / 12), rounded to the paisa like the batch job
+        long interest = Money.applyRate(loan.getBalanceMinor(), loan.getInterestRate(), 12);
+
+        if (interest <= 0) {
             System.err.println("Calculated interest is zero for loan ID " + loanId);
             return false;
         }
 
-        loan.setBalance(loan.getBalance() + interest);
-        return loanDAO.updateLoan(loan);
+        loan.setBalanceMinor(loan.getBalanceMinor() + interest);
+        if (!loanDAO.updateLoan(loan)) return false;
+        CachingCustomerPortfolioService.loanChanged(loanId);
+        MutationJournal journal = mutationJournal;
+        if (journal != null) {
+            journal.loanInterest(loanId, interest, loan.getBalanceMinor(), Money.rateHundredths(loan.getInterestRate()));
+        }
+        return true;
     }
 
     /**
@@ -88,26 +160,46 @@ public class LoanService {
      * @return true if interest was successfully applied to all active loans
      */
     public boolean applyMonthlyInterestToAllLoans() {
-        int successCount = 0;
-        int activeCount = 0;
-        List<Loan> loans = loanDAO.getAllLoans();
-        
-        for (Loan loan : loans) {
-            // Skip closed loans
-            if (loan.getCloseDate() != null) continue;
-            activeCount++;
-            
-            try {
-                if (applyMonthlyInterest(loan.getId())) {
-                    successCount++;
-                }
-            } catch (Exception ex) {
-                // Log error and continue with next loan
-                System.err.println("Error applying interest to loan ID " + loan.getId() + ": " + ex.getMessage());
-                return false;
-            }
+        LoanInterestRunSummary summary = runMonthlyInterest();
+        return summary != null && summary.isComplete() && summary.getLoansProcessed() > 0;
+    }
+
+    /**
+     * Run the partitioned, parallel monthly interest job and return its summary
+     * (null if the run could not be started).
+     */
+    public LoanInterestRunSummary runMonthlyInterest() {
+        try {
+            return interestBatchJob.run();
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        } finally {
+            CachingCustomerPortfolioService.allChanged();
+        }
+    }
+
+    /**
+     * The loan's repayment schedule: the stored one if there is one, otherwise computed from its terms.
+     * @return null if the loan does not exist or has no tenure
+     */
+    public AmortizationSchedule getSchedule(int loanId) {
+        AmortizationSchedule stored = scheduleDAO.getSchedule(loanId);
+        if (stored != null) return stored;
+        Loan loan = loanDAO.getLoanById(loanId);
+        return loan == null ? null : AmortizationEngine.schedule(loan);
+    }
+
+    /**
+     * Rebuild the stored schedules of every open loan with a tenure, in parallel
+     * (null if the run could not be started).
+     */
+    public ScheduleRunSummary regenerateSchedules() {
+        try {
+            return scheduleJob.run();
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
         }
-        
-        return successCount == activeCount && activeCount > 0;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,251 @@
+package service;
+
+import db.TransactionRunner;
+
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Group commit for postings (deposits, withdrawals, transfers).
+ *
+ * Callers hand their DB work to a queue and a single writer thread runs it, many postings per DB
+ * transaction: a batch closes when it reaches maxBatch postings or lingerMicros after its first posting
+ * arrived, whichever comes first. Each posting runs under its own savepoint, so one that returns false
+ * or throws is rolled back alone and the rest of the batch still commits. A caller's future completes
+ * only after the commit of its batch has returned, so a posting reported as done is as durable as with
+ * one commit per posting - the database just syncs its log once per batch instead of once per posting.
+ *
+ * If the database rolls back the whole transaction part way (a deadlock or another SQLState 40xxx
+ * error, or a savepoint that can no longer be rolled back to), nothing in the batch was committed and
+ * its postings are run again one per transaction, so only the posting that hit the error fails.
+ */
+public class PostingJournal implements AutoCloseable {
+    public static final int DEFAULT_MAX_BATCH = 256;
+    public static final long DEFAULT_LINGER_MICROS = 200;
+    public static final long DEFAULT_POST_TIMEOUT_MILLIS = 30_000;
+    private static final Pending CLOSE = new Pending(null);
+
+    private static PostingJournal shared;
+
+    private final int maxBatch;
+    private final long lingerNanos;
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private volatile boolean closed;
+    private volatile long postTimeoutMillis = DEFAULT_POST_TIMEOUT_MILLIS;
+
+    // Only the writer thread updates these
+    private volatile long batchesCommitted;
+    private volatile long postingsCommitted;
+
+    public PostingJournal() {
+        this(DEFAULT_MAX_BATCH, DEFAULT_LINGER_MICROS);
+    }
+
+    public PostingJournal(int maxBatch, long lingerMicros) {
+        if (maxBatch <= 0) throw new IllegalArgumentException("Max batch must be positive.");
+        if (lingerMicros < 0) throw new IllegalArgumentException("Linger cannot be negative.");
+        this.maxBatch = maxBatch;
+        this.lingerNanos = TimeUnit.MICROSECONDS.toNanos(lingerMicros);
+        this.writer = new Thread(this::writeLoop, "posting-journal");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * The process-wide journal (one writer per process), set up by the bank.posting.maxBatch,
+     * bank.posting.lingerMicros and bank.posting.timeoutMillis system properties.
+     */
+    public static synchronized PostingJournal shared() {
+        if (shared == null) {
+            shared = new PostingJournal(Integer.getInteger("bank.posting.maxBatch", DEFAULT_MAX_BATCH),
+                    Long.getLong("bank.posting.lingerMicros", DEFAULT_LINGER_MICROS));
+            shared.setPostTimeoutMillis(Long.getLong("bank.posting.timeoutMillis", DEFAULT_POST_TIMEOUT_MILLIS));
+        }
+        return shared;
+    }
+
+    public long getPostTimeoutMillis() { return postTimeoutMillis; }
+
+    // How long post() waits for the writer to start on a posting
+    public void setPostTimeoutMillis(long postTimeoutMillis) {
+        if (postTimeoutMillis <= 0) throw new IllegalArgumentException("Post timeout must be positive.");
+        this.postTimeoutMillis = postTimeoutMillis;
+    }
+
+    /**
+     * Queues a posting. The future completes with the work's result once its batch is committed,
+     * or exceptionally if the work threw or the batch could not be committed.
+     */
+    public CompletableFuture<Boolean> submit(TransactionRunner.Work<Boolean> work) {
+        return enqueue(work).result;
+    }
+
+    /**
+     * Queues a posting and waits until it is committed. If the writer has not started on it within
+     * the post timeout, the posting is withdrawn and this throws; once the writer has started, this
+     * waits for the batch to finish (the database's lock timeouts bound that). If the wait is
+     * interrupted the posting may still be committed later.
+     */
+    public boolean post(TransactionRunner.Work<Boolean> work) throws SQLException {
+        Pending pending = enqueue(work);
+        try {
+            try {
+                return pending.result.get(postTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (pending.started.compareAndSet(false, true)) {
+                    throw new SQLException("Posting was not started within " + postTimeoutMillis + " ms; it was not made.", e);
+                }
+                return pending.result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for the posting to commit.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) throw (SQLException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new SQLException(cause);
+        }
+    }
+
+    private Pending enqueue(TransactionRunner.Work<Boolean> work) {
+        Pending pending = new Pending(work);
+        synchronized (this) {
+            if (closed) throw new IllegalStateException("Posting journal is closed.");
+            queue.add(pending);
+        }
+        return pending;
+    }
+
+    public long getBatchesCommitted() { return batchesCommitted; }
+    public long getPostingsCommitted() { return postingsCommitted; }
+
+    public double getAverageBatchSize() {
+        long batches = batchesCommitted;
+        return batches == 0 ? 0 : (double) postingsCommitted / batches;
+    }
+
+    /**
+     * Stops taking postings, commits everything already queued and stops the writer.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+            queue.add(CLOSE);
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeLoop() {
+        List<Pending> batch = new ArrayList<>(maxBatch);
+        boolean stopping = false;
+        while (!stopping) {
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < maxBatch) {
+                    queue.drainTo(batch, maxBatch - batch.size());
+                    if (batch.size() >= maxBatch) break;
+                    long wait = deadline - System.nanoTime();
+                    if (wait <= 0) break;
+                    Pending next = queue.poll(wait, TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // Only close() stops the writer; finish whatever was collected
+            }
+            // Nothing is queued after CLOSE, so the batch holding it is the last one
+            stopping = batch.remove(CLOSE);
+            // Postings whose callers gave up waiting are dropped
+            batch.removeIf(pending -> !pending.started.compareAndSet(false, true));
+            try {
+                if (!batch.isEmpty()) commit(batch);
+            } catch (Throwable t) {
+                // Keep the writer alive; the callers of this batch must not wait forever
+                t.printStackTrace();
+                for (Pending pending : batch) pending.result.completeExceptionally(t);
+            }
+            batch.clear();
+        }
+    }
+
+    private void commit(List<Pending> batch) {
+        boolean[] executed = new boolean[1]; // every posting ran; only the commit was left
+        try {
+            TransactionRunner.inTransaction(conn -> {
+                for (Pending pending : batch) {
+                    pending.error = null;
+                    Savepoint savepoint = conn.setSavepoint();
+                    try {
+                        pending.outcome = pending.work.execute(conn);
+                        if (pending.outcome) conn.releaseSavepoint(savepoint);
+                        else conn.rollback(savepoint);
+                    } catch (SQLException e) {
+                        // The database has rolled back the whole transaction, not just this statement
+                        if (isTransactionRollback(e)) throw e;
+                        conn.rollback(savepoint);
+                        pending.error = e;
+                    } catch (RuntimeException | Error e) {
+                        // An Error too: TransactionRunner would not roll back for one, and the rest commit
+                        conn.rollback(savepoint);
+                        pending.error = e;
+                    }
+                }
+                executed[0] = true;
+                return null;
+            });
+        } catch (SQLException | RuntimeException e) {
+            // Nothing in the batch was committed. If that was before the commit, the postings can
+            // safely run again, each on its own; a failed commit may have gone through, so not then.
+            if (!executed[0] && batch.size() > 1) {
+                for (Pending pending : batch) commit(List.of(pending));
+            } else {
+                for (Pending pending : batch) pending.result.completeExceptionally(e);
+            }
+            return;
+        }
+        batchesCommitted++;
+        postingsCommitted += batch.size();
+        for (Pending pending : batch) {
+            if (pending.error != null) pending.result.completeExceptionally(pending.error);
+            else pending.result.complete(pending.outcome);
+        }
+    }
+
+    // SQLState class 40 (transaction rollback, e.g. 40001 for a deadlock)
+    private static boolean isTransactionRollback(SQLException e) {
+        String state = e.getSQLState();
+        return state != null && state.startsWith("40");
+    }
+
+    private static class Pending {
+        final TransactionRunner.Work<Boolean> work;
+        final CompletableFuture<Boolean> result = new CompletableFuture<>();
+        // Set by the writer when it takes the posting, or by post() when it gives up before that
+        final AtomicBoolean started = new AtomicBoolean();
+        // Written and read by the writer thread only
+        boolean outcome;
+        Throwable error;
+
+        Pending(TransactionRunner.Work<Boolean> work) {
+            this.work = work;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package service;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Fixed set of locks shared by hashing an integer key (an account ID) onto a stripe.
+ * Work on the same key is serialised; work on different keys only contends when two keys
+ * land on the same stripe, which a few hundred stripes keeps rare.
+ */
+public class StripedLock {
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    /**
+     * @param minStripes rounded up to a power of two
+     */
+    public StripedLock(int minStripes) {
+        int size = Integer.highestOneBit(Math.max(1, minStripes - 1)) << 1;
+        stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        mask = size - 1;
+    }
+
+    public int stripeCount() {
+        return stripes.length;
+    }
+
+    public <T> T withLock(int key, Supplier<T> action) {
+        ReentrantLock lock = stripes[indexFor(key)];
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Holds the stripes of both keys while running the action. Stripes are always taken in index
+     * order, so two callers locking the same pair in opposite directions cannot deadlock.
+     */
+    public <T> T withLocks(int key1, int key2, Supplier<T> action) {
+        int first = indexFor(key1);
+        int second = indexFor(key2);
+        if (first == second) return withLock(key1, action);
+
+        ReentrantLock low = stripes[Math.min(first, second)];
+        ReentrantLock high = stripes[Math.max(first, second)];
+        low.lock();
+        try {
+            high.lock();
+            try {
+                return action.get();
+            } finally {
+                high.unlock();
+            }
+        } finally {
+            low.unlock();
+        }
+    }
+
+    // Spread sequential IDs so neighbouring accounts do not share low bits
+    private int indexFor(int key) {
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
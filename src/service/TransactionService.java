@@ -1,8 +1,13 @@
 package service;
 
 import dao.TransactionDAO;
+import db.QueryCanceller;
 import model.Transaction;
+import model.TransactionSearch;
+import java.sql.SQLException;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
 public class TransactionService {
     private final TransactionDAO transactionDAO;
@@ -25,6 +30,99 @@ public class TransactionService {
         return transactionDAO.getTransactionsByAccountId(accountId);
     }
 
+    /**
+     * Retrieves one page of transactions in id order, starting after the given id (0 for the first page).
+     */
+    public List<Transaction> getTransactionsPage(int afterId, int pageSize) {
+        return transactionDAO.getTransactionsPage(afterId, pageSize);
+    }
+
+    /**
+     * Retrieves one page of an account's transactions in id order, starting after the given id.
+     */
+    public List<Transaction> getTransactionsPageByAccountId(int accountId, int afterId, int pageSize) {
+        return transactionDAO.getTransactionsPageByAccountId(accountId, afterId, pageSize);
+    }
+
+    /**
+     * Counts transactions, for one account or for all accounts when accountId is 0.
+     */
+    public int countTransactions(int accountId) {
+        return transactionDAO.countTransactions(accountId);
+    }
+
+    /**
+     * Retrieves a page by row position (accountId 0 = all accounts). Slower than the keyset pages for deep offsets.
+     */
+    public List<Transaction> getTransactionsAtOffset(int accountId, int offset, int pageSize) {
+        return transactionDAO.getTransactionsAtOffset(accountId, offset, pageSize);
+    }
+
+    /**
+     * One page of the transactions matching the search, filtered, sorted and paged by the database.
+     * Pass a canceller to be able to abort the query from another thread (null if not needed).
+     * Returns an empty list if the search is invalid, and null if the query fails or was cancelled.
+     */
+    public List<Transaction> searchTransactions(TransactionSearch search, int offset, int pageSize,
+                                                QueryCanceller canceller) {
+        if (!isValid(search)) return Collections.emptyList();
+        try {
+            return transactionDAO.searchTransactions(search, offset, pageSize, canceller);
+        } catch (SQLException e) {
+            if (canceller == null || !canceller.isCancelled()) e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * The page of search matches that follows 'after', the last row of the previous page. Faster than
+     * an offset for deep pages. With the DATE sort, use the offset variant if 'after' has no date.
+     * Empty list and null as for searchTransactions.
+     */
+    public List<Transaction> searchTransactionsAfter(TransactionSearch search, Transaction after, int pageSize,
+                                                     QueryCanceller canceller) {
+        if (!isValid(search)) return Collections.emptyList();
+        try {
+            return transactionDAO.searchTransactionsAfter(search, after, pageSize, canceller);
+        } catch (SQLException e) {
+            if (canceller == null || !canceller.isCancelled()) e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Counts the transactions matching the search (0 if it is invalid, fails or was cancelled).
+     */
+    public int countTransactions(TransactionSearch search, QueryCanceller canceller) {
+        if (!isValid(search)) return 0;
+        try {
+            return transactionDAO.countTransactions(search, canceller);
+        } catch (SQLException e) {
+            if (canceller == null || !canceller.isCancelled()) e.printStackTrace();
+            return 0;
+        }
+    }
+
+    private boolean isValid(TransactionSearch search) {
+        if (search.getFromDate() != null && search.getToDate() != null && search.getFromDate().isAfter(search.getToDate())) {
+            System.err.println("Search start date is after its end date.");
+            return false;
+        }
+        if (search.getMinAmountMinor() != null && search.getMaxAmountMinor() != null
+                && search.getMinAmountMinor() > search.getMaxAmountMinor()) {
+            System.err.println("Search minimum amount is above its maximum.");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Streams every transaction to the consumer with constant memory use. Returns the row count.
+     */
+    public long forEachTransaction(Consumer<Transaction> consumer) {
+        return transactionDAO.forEachTransaction(consumer);
+    }
+
     // Note: Add, Update, and Delete for transactions are typically handled internally
     // by the AccountService (deposit/withdraw) and are not exposed directly here.
 }
\ No newline at end of file
@@ -0,0 +1,109 @@
+package test;
+
+import dao.AccountDAO;
+import dao.TransactionDAO;
+import model.Account;
+import model.Money;
+import model.Transaction;
+import service.AccountService;
+
+import java.time.LocalDate;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fires concurrent deposits and withdrawals at a set of accounts and checks that no update was lost:
+ * every account's final balance must equal its opening balance plus the sum of its recorded transactions,
+ * and no balance may go negative. The first account takes half of the traffic so the same-account path
+ * is exercised as hard as the cross-account one. Exits with status 1 if any account fails the check.
+ *
+ * Usage: java test.AccountStressTest [customerId] [threads] [opsPerThread] [accounts]
+ */
+public class AccountStressTest {
+    private static final long OPENING_BALANCE = 1000_00; // minor units
+
+    public static void main(String[] args) throws InterruptedException {
+        int customerId = args.length > 0 ? Integer.parseInt(args[0]) : 1;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        int opsPerThread = args.length > 2 ? Integer.parseInt(args[2]) : 500;
+        int accountCount = args.length > 3 ? Integer.parseInt(args[3]) : 8;
+
+        AccountDAO accountDAO = new AccountDAO();
+        TransactionDAO transactionDAO = new TransactionDAO();
+        AccountService accountService = new AccountService(accountDAO, transactionDAO);
+
+        int[] accountIds = new int[accountCount];
+        for (int i = 0; i < accountCount; i++) {
+            Account account = new Account();
+            account.setCustomerId(customerId);
+            account.setAccountType(Account.AccountType.SAVINGS);
+            account.setOpenDate(LocalDate.now());
+            account.setBalanceMinor(OPENING_BALANCE);
+            if (!accountDAO.addAccount(account)) {
+                System.out.println("Could not create the test accounts for customer " + customerId);
+                return;
+            }
+            accountIds[i] = account.getId();
+        }
+        System.out.println("=== ACCOUNT STRESS TEST: " + threads + " threads x " + opsPerThread
+                + " ops over " + accountCount + " accounts ===");
+
+        AtomicInteger deposits = new AtomicInteger();
+        AtomicInteger withdrawals = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            pool.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < opsPerThread; i++) {
+                    // Half of the operations go to the first account to force same-account contention
+                    int accountId = random.nextBoolean() ? accountIds[0] : accountIds[random.nextInt(accountIds.length)];
+                    if (random.nextBoolean()) {
+                        if (accountService.deposit(accountId, 10.00)) deposits.incrementAndGet();
+                    } else if (accountService.withdraw(accountId, 15.00)) {
+                        withdrawals.incrementAndGet();
+                    } else {
+                        rejected.incrementAndGet();
+                    }
+                }
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(30, TimeUnit.MINUTES);
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        System.out.printf("Deposits: %d, Withdrawals: %d, Rejected (insufficient funds): %d%n",
+                deposits.get(), withdrawals.get(), rejected.get());
+        System.out.printf("Throughput: %.0f ops/sec%n", threads * (double) opsPerThread / seconds);
+
+        int mismatches = 0;
+        int recorded = 0;
+        for (int accountId : accountIds) {
+            long ledger = OPENING_BALANCE;
+            for (Transaction t : transactionDAO.getTransactionsByAccountId(accountId)) {
+                ledger += t.getTransactionType().isCredit() ? t.getAmountMinor() : -t.getAmountMinor();
+                recorded++;
+            }
+            long finalBalance = accountDAO.getAccountById(accountId).getBalanceMinor();
+            boolean ok = finalBalance == ledger && finalBalance >= 0;
+            if (!ok) mismatches++;
+            System.out.printf("Account %d: balance %s, ledger %s %s%n", accountId,
+                    Money.format(finalBalance), Money.format(ledger), ok ? "" : "❌");
+        }
+
+        if (recorded != deposits.get() + withdrawals.get()) {
+            System.out.println("❌ " + recorded + " transactions recorded for " + (deposits.get() + withdrawals.get()) + " successful operations");
+            mismatches++;
+        }
+        if (mismatches > 0) {
+            System.out.println("❌ Balances do not match the ledger");
+            System.exit(1);
+        }
+        System.out.println("✅ No lost updates");
+    }
+}
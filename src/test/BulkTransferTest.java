@@ -0,0 +1,106 @@
+package test;
+
+import dao.AccountDAO;
+import dao.TransactionDAO;
+import model.Account;
+import model.BulkTransferResult;
+import model.Money;
+import model.Transaction;
+import service.AccountService;
+import service.BulkTransferJob;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+/**
+ * Writes a file of random transfers between a few new accounts (in both directions, so opposite
+ * transfers race each other), runs it through BulkTransferJob and checks that money was only moved:
+ * the total across the accounts is unchanged and every balance matches its ledger.
+ *
+ * Usage: java test.BulkTransferTest [customerId] [transfers] [accounts] [workers]
+ */
+public class BulkTransferTest {
+    private static final long OPENING_BALANCE = 10_000_00; // minor units
+
+    public static void main(String[] args) throws IOException {
+        int customerId = args.length > 0 ? Integer.parseInt(args[0]) : 1;
+        int transfers = args.length > 1 ? Integer.parseInt(args[1]) : 5_000;
+        int accountCount = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int workers = args.length > 3 ? Integer.parseInt(args[3]) : 8;
+
+        AccountDAO accountDAO = new AccountDAO();
+        TransactionDAO transactionDAO = new TransactionDAO();
+        AccountService accountService = new AccountService(accountDAO, transactionDAO);
+
+        int[] accountIds = new int[accountCount];
+        for (int i = 0; i < accountCount; i++) {
+            Account account = new Account();
+            account.setCustomerId(customerId);
+            account.setAccountType(Account.AccountType.CURRENT);
+            account.setOpenDate(LocalDate.now());
+            account.setBalanceMinor(OPENING_BALANCE);
+            if (!accountDAO.addAccount(account)) {
+                System.out.println("Could not create the test accounts for customer " + customerId);
+                return;
+            }
+            accountIds[i] = account.getId();
+        }
+
+        Path file = Files.createTempFile("transfers", ".csv");
+        Random random = new Random(42);
+        try (BufferedWriter out = Files.newBufferedWriter(file)) {
+            out.write("from,to,amount,narration\n");
+            for (int i = 0; i < transfers; i++) {
+                int from = accountIds[random.nextInt(accountCount)];
+                int to = accountIds[random.nextInt(accountCount)];
+                if (from == to) to = accountIds[(random.nextInt(accountCount - 1) + 1 + indexOf(accountIds, from)) % accountCount];
+                out.write(from + "," + to + "," + (1 + random.nextInt(500)) + ",Test transfer " + i + "\n");
+            }
+        }
+
+        System.out.println("=== BULK TRANSFER TEST: " + transfers + " transfers over " + accountCount
+                + " accounts, " + workers + " workers ===");
+        BulkTransferJob job = new BulkTransferJob(accountService);
+        job.setWorkers(workers);
+        BulkTransferResult result = job.run(file);
+        Files.delete(file);
+
+        long total = 0;
+        int mismatches = 0;
+        Map<Integer, Account> finalAccounts = accountDAO.getAccountsByIds(
+                Arrays.stream(accountIds).boxed().collect(Collectors.toList()));
+        for (int accountId : accountIds) {
+            long ledger = OPENING_BALANCE;
+            for (Transaction t : transactionDAO.getTransactionsByAccountId(accountId)) {
+                ledger += t.getTransactionType().isCredit() ? t.getAmountMinor() : -t.getAmountMinor();
+            }
+            long balance = finalAccounts.get(accountId).getBalanceMinor();
+            total += balance;
+            if (balance != ledger || balance < 0) {
+                System.out.printf("❌ Account %d: balance %s, ledger %s%n", accountId, Money.format(balance), Money.format(ledger));
+                mismatches++;
+            }
+        }
+        long expected = OPENING_BALANCE * accountCount;
+        System.out.printf("Total across accounts: %s (expected %s)%n", Money.format(total), Money.format(expected));
+        if (mismatches > 0 || total != expected || result.getMalformed() > 0) {
+            System.out.println("❌ Transfers did not balance");
+            System.exit(1);
+        }
+        System.out.println("✅ All transfers balanced");
+    }
+
+    private static int indexOf(int[] ids, int id) {
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == id) return i;
+        }
+        return -1;
+    }
+}
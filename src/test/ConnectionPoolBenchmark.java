@@ -0,0 +1,97 @@
+package test;
+
+import dao.AccountDAO;
+import dao.TransactionDAO;
+import db.DBConnection;
+import model.Account;
+import service.AccountService;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares ops/sec of opening a fresh DriverManager connection per call (the old DBConnection behaviour)
+ * against borrowing from the pool. Needs the bank2 database with at least one account.
+ *
+ * Usage: java test.ConnectionPoolBenchmark [threads] [opsPerThread]
+ */
+public class ConnectionPoolBenchmark {
+    private static final String SQL = "SELECT balance FROM accounts WHERE id = ?";
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int opsPerThread = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+
+        List<Account> accounts = new AccountDAO().getAllAccounts();
+        if (accounts.isEmpty()) {
+            System.out.println("No accounts found - create one before running the benchmark.");
+            return;
+        }
+        int accountId = accounts.get(0).getId();
+
+        System.out.println("=== CONNECTION POOL BENCHMARK (" + threads + " threads x " + opsPerThread + " ops) ===");
+
+        double unpooled = run(threads, opsPerThread, () -> {
+            try (Connection conn = DBConnection.getUnpooledConnection()) {
+                readBalance(conn, accountId);
+            }
+        });
+        System.out.printf("Unpooled point read : %,10.0f ops/sec%n", unpooled);
+
+        double pooled = run(threads, opsPerThread, () -> {
+            try (Connection conn = DBConnection.getConnection()) {
+                readBalance(conn, accountId);
+            }
+        });
+        System.out.printf("Pooled point read   : %,10.0f ops/sec (%.1fx)%n", pooled, pooled / unpooled);
+
+        AccountService accountService = new AccountService(new AccountDAO(), new TransactionDAO());
+        double deposits = run(threads, opsPerThread / 10, () -> accountService.deposit(accountId, 1.0));
+        System.out.printf("Pooled deposit      : %,10.0f ops/sec%n", deposits);
+
+        System.out.println("Pool: " + DBConnection.getPoolStats());
+        DBConnection.shutdown();
+    }
+
+    private static void readBalance(Connection conn, int accountId) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(SQL)) {
+            stmt.setInt(1, accountId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+            }
+        }
+    }
+
+    private static double run(int threads, int opsPerThread, SqlTask task) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        AtomicInteger failures = new AtomicInteger();
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            pool.submit(() -> {
+                for (int i = 0; i < opsPerThread; i++) {
+                    try {
+                        task.run();
+                    } catch (Exception e) {
+                        failures.incrementAndGet();
+                    }
+                }
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.MINUTES);
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        if (failures.get() > 0) System.out.println("  (" + failures.get() + " failed ops)");
+        return threads * (double) opsPerThread / seconds;
+    }
+
+    private interface SqlTask {
+        void run() throws Exception;
+    }
+}
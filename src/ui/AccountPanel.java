@@ -1,7 +1,8 @@
 package ui;
 
 import model.Account;
-import model.Customer;
+import model.AccountSummary;
+import model.InterestRunResult;
 import service.AccountService;
 import service.CustomerService;
 
@@ -14,12 +15,11 @@ import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.time.LocalDate;
-import java.util.List;
 import java.util.function.Consumer;
 
 import static ui.BankingAppUI.BG_SECONDARY;
 
-public class AccountPanel extends JPanel {
+public class AccountPanel extends JPanel implements LazyTab {
     private final AccountService accountService;
     private final CustomerService customerService;
     private final Color BG_DARK, ACCENT_COLOR, TEXT_LIGHT, BORDER_COLOR;
@@ -27,6 +27,10 @@ public class AccountPanel extends JPanel {
     // Components
     private JTable accountTable;
     private DefaultTableModel tableModel;
+    private AsyncTableLoader<AccountSummary> loader;
+    private final AsyncDetailLoader<Account> detailLoader = new AsyncDetailLoader<>();
+    private final AsyncDetailLoader<InterestRunResult> interestRun = new AsyncDetailLoader<>();
+    private boolean loaded;
     // All fields used in the form
     private JTextField txtId, txtCustomerId, txtBalance, txtDepositAmount, txtWithdrawAmount;
     private JTextField txtInterestRate;
@@ -57,8 +61,7 @@ public class AccountPanel extends JPanel {
 
         add(formSidebar, BorderLayout.WEST);
         add(mainContentPanel, BorderLayout.CENTER);
-
-        loadAccountData();
+        // Data is loaded the first time the tab is shown (see onTabSelected)
     }
 
     // --- UI Component Creation - Sidebar Form (Details & Transactions) ---
@@ -337,7 +340,7 @@ public class AccountPanel extends JPanel {
     }
 
     private JPanel createTablePanel() {
-        String[] columnNames = {"ID", "Customer ID", "Type", "Open Date", "Interest %", "Balance"};
+        String[] columnNames = {"ID", "Customer ID", "Type", "Balance"};
         tableModel = new DefaultTableModel(columnNames, 0) {
             @Override
             public boolean isCellEditable(int row, int column) {
@@ -347,6 +350,7 @@ public class AccountPanel extends JPanel {
 
         accountTable = new JTable(tableModel);
         styleTable(accountTable);
+        loader = new AsyncTableLoader<>(tableModel, this::toRow);
 
         accountTable.getSelectionModel().addListSelectionListener(e -> {
             if (!e.getValueIsAdjusting() && accountTable.getSelectedRow() != -1) {
@@ -360,6 +364,7 @@ public class AccountPanel extends JPanel {
 
         JPanel panel = new JPanel(new BorderLayout());
         panel.setBackground(BG_DARK);
+        panel.add(loader.getProgressBar(), BorderLayout.NORTH);
         panel.add(scrollPane, BorderLayout.CENTER);
         return panel;
     }
@@ -388,7 +393,7 @@ public class AccountPanel extends JPanel {
                     c.setBackground(row % 2 == 0 ? BG_DARK.darker() : BG_DARK.darker().darker());
                 }
                 // Right align balance column
-                setHorizontalAlignment(column == 5 ? JLabel.RIGHT : JLabel.LEFT);
+                setHorizontalAlignment(column == 3 ? JLabel.RIGHT : JLabel.LEFT);
                 setBorder(new EmptyBorder(0, 15, 0, 15));
                 return c;
             }
@@ -399,37 +404,49 @@ public class AccountPanel extends JPanel {
 
         // Column widths
         table.getColumnModel().getColumn(0).setPreferredWidth(50);
-        table.getColumnModel().getColumn(5).setPreferredWidth(120);
+        table.getColumnModel().getColumn(3).setPreferredWidth(120);
     }
 
     // --- Data and Action Logic ---
 
-    private void loadAccountData() {
-        tableModel.setRowCount(0);
-        List<Account> accounts = accountService.getAllAccounts();
-        for (Account account : accounts) {
-            tableModel.addRow(new Object[]{
-                    account.getId(),
-                    account.getCustomerId(),
-                    account.getAccountType(),
-                    account.getOpenDate(),
-                    String.format("%.2f%%", account.getInterestRate()),
-                    String.format("rs.%,.2f", account.getBalance()) // Format balance
-            });
+    @Override
+    public void onTabSelected() {
+        if (!loaded) {
+            loaded = true;
+            loadAccountData();
         }
     }
 
+    private void loadAccountData() {
+        // The table only shows list views; the full account is read when a row is selected
+        loader.load(accountService::getAccountSummaries);
+    }
+
+    private Object[] toRow(AccountSummary account) {
+        return new Object[]{
+                account.getId(),
+                account.getCustomerId(),
+                account.getAccountType(),
+                String.format("rs.%,.2f", account.getBalance()) // Format balance
+        };
+    }
+
     private void displaySelectedAccount(int row) {
         txtId.setText(tableModel.getValueAt(row, 0).toString());
         txtCustomerId.setText(tableModel.getValueAt(row, 1).toString());
         cmbAccountType.setSelectedItem(tableModel.getValueAt(row, 2).toString());
-        String interestStr = tableModel.getValueAt(row, 4).toString().replace("%", "");
-        txtInterestRate.setText(interestStr);
 
-        String balanceStr = tableModel.getValueAt(row, 5).toString().replace("rs.", "").replace(",", "");
+        String balanceStr = tableModel.getValueAt(row, 3).toString().replace("rs.", "").replace(",", "");
         txtBalance.setText(balanceStr);
+
         txtDepositAmount.setText("");
         txtWithdrawAmount.setText("");
+
+        // The rate is not in the row; read it in the background
+        int accountId = (Integer) tableModel.getValueAt(row, 0);
+        txtInterestRate.setText("");
+        detailLoader.load(() -> accountService.getAccount(accountId),
+                account -> txtInterestRate.setText(account != null ? String.format("%.2f", account.getInterestRate()) : ""));
     }
 
     private void handleAddAction(ActionEvent e) {
@@ -442,8 +459,7 @@ public class AccountPanel extends JPanel {
                 if (!ir.isEmpty()) interestRate = Double.parseDouble(ir);
             } catch (NumberFormatException ignored) { }
 
-            Customer customer = customerService.getCustomer(customerId);
-            if (customer == null) {
+            if (!customerService.customerExists(customerId)) {
                 JOptionPane.showMessageDialog(this, "Customer ID not found. Cannot open account.", "Error", JOptionPane.ERROR_MESSAGE);
                 return;
             }
@@ -589,6 +605,7 @@ public class AccountPanel extends JPanel {
     }
 
     private void handleClearAction(ActionEvent e) {
+        detailLoader.cancel();
         txtId.setText("");
         txtCustomerId.setText("");
         txtBalance.setText("");
@@ -616,10 +633,19 @@ public class AccountPanel extends JPanel {
         }
     }
 
+    // A full pass over the book, so it runs off the EDT; the button stays disabled until it is done
     private void handleApplyInterestAllAction(ActionEvent e) {
-        int count = accountService.applyInterestToAll();
-        JOptionPane.showMessageDialog(this, String.format("Interest applied to %d accounts.", count), "Interest Applied", JOptionPane.INFORMATION_MESSAGE);
-        loadAccountData();
+        btnApplyInterestAll.setEnabled(false);
+        interestRun.load(accountService::postInterestToAll, result -> {
+            btnApplyInterestAll.setEnabled(true);
+            if (result == null) {
+                JOptionPane.showMessageDialog(this, "Interest run failed. It will resume from its last checkpoint on the next run.", "Error", JOptionPane.ERROR_MESSAGE);
+            } else {
+                JOptionPane.showMessageDialog(this, String.format("Interest applied to %d accounts (%.0f accounts/sec).",
+                        result.getAccountsPosted(), result.getAccountsPerSecond()), "Interest Applied", JOptionPane.INFORMATION_MESSAGE);
+            }
+            loadAccountData();
+        });
     }
 
     private void handleRefreshAction(ActionEvent e) {
@@ -0,0 +1,58 @@
+package ui;
+
+import javax.swing.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Loads the full record behind a selected table row off the Event Dispatch Thread, for the fields the
+ * row itself does not hold, or runs any other single slow call whose result the panel shows. Only the
+ * latest request is delivered: a new load or cancel() drops the result of the one before, so a slow
+ * read cannot fill the form for a row that is no longer selected.
+ */
+class AsyncDetailLoader<T> {
+    private SwingWorker<T, Void> current;
+
+    /**
+     * Must be called on the EDT.
+     * @param onLoaded run on the EDT with the record (null if it was not found or the fetch threw)
+     */
+    void load(Supplier<T> fetch, Consumer<T> onLoaded) {
+        cancel();
+        SwingWorker<T, Void> worker = new SwingWorker<T, Void>() {
+            @Override
+            protected T doInBackground() {
+                return fetch.get();
+            }
+
+            @Override
+            protected void done() {
+                if (current != this) return;
+                current = null;
+                try {
+                    onLoaded.accept(get());
+                } catch (CancellationException ignored) {
+                    // superseded by a newer load
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    e.getCause().printStackTrace();
+                    onLoaded.accept(null);
+                }
+            }
+        };
+        current = worker;
+        worker.execute();
+    }
+
+    // Must be called on the EDT
+    void cancel() {
+        if (current != null) {
+            // Don't interrupt: the JDBC call finishes on its own and its result is ignored
+            current.cancel(false);
+            current = null;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package ui;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Vector;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Loads rows for a panel's DefaultTableModel off the Event Dispatch Thread.
+ *
+ * The fetch runs in a SwingWorker; rows are converted in the background and handed to the EDT in
+ * batches, each batch added with a single table event. Starting a new load cancels the previous one,
+ * and any rows still in flight from a cancelled load are dropped. The progress bar is shown while a
+ * load is running; panels place it wherever suits their layout.
+ */
+class AsyncTableLoader<T> {
+    private static final int PUBLISH_BATCH_SIZE = 500;
+
+    private final DefaultTableModel tableModel;
+    private final Function<T, Object[]> rowMapper;
+    private final JProgressBar progressBar = new JProgressBar();
+    private SwingWorker<Integer, Object[]> current;
+
+    AsyncTableLoader(DefaultTableModel tableModel, Function<T, Object[]> rowMapper) {
+        this.tableModel = tableModel;
+        this.rowMapper = rowMapper;
+        progressBar.setIndeterminate(true);
+        progressBar.setVisible(false);
+        progressBar.setBorderPainted(false);
+        progressBar.setPreferredSize(new java.awt.Dimension(0, 4));
+    }
+
+    JProgressBar getProgressBar() {
+        return progressBar;
+    }
+
+    void load(Supplier<List<T>> fetch) {
+        load(fetch, null);
+    }
+
+    /**
+     * Replace the table contents with the result of fetch. Must be called on the EDT.
+     * @param onLoaded optional callback run on the EDT once all rows are in the table
+     */
+    void load(Supplier<List<T>> fetch, Runnable onLoaded) {
+        if (current != null) {
+            // Don't interrupt: the JDBC call finishes on its own and its rows are ignored
+            current.cancel(false);
+        }
+        tableModel.setRowCount(0);
+        progressBar.setVisible(true);
+
+        SwingWorker<Integer, Object[]> worker = new SwingWorker<Integer, Object[]>() {
+            @Override
+            protected Integer doInBackground() {
+                List<T> items = fetch.get();
+                Object[][] batch = new Object[Math.min(PUBLISH_BATCH_SIZE, items.size())][];
+                int n = 0;
+                for (T item : items) {
+                    if (isCancelled()) break;
+                    batch[n++] = rowMapper.apply(item);
+                    if (n == batch.length) {
+                        publish(batch);
+                        batch = new Object[Math.min(PUBLISH_BATCH_SIZE, items.size())][];
+                        n = 0;
+                    }
+                }
+                if (n > 0) publish(Arrays.copyOf(batch, n));
+                return items.size();
+            }
+
+            @Override
+            protected void process(List<Object[]> rows) {
+                if (isCancelled() || current != this) return;
+                appendRows(rows);
+            }
+
+            @Override
+            protected void done() {
+                if (current != this) return;
+                current = null;
+                progressBar.setVisible(false);
+                try {
+                    get();
+                    if (onLoaded != null) onLoaded.run();
+                } catch (CancellationException ignored) {
+                    // superseded by a newer load
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    e.getCause().printStackTrace();
+                }
+            }
+        };
+        current = worker;
+        worker.execute();
+    }
+
+    // One rowsInserted event per batch instead of one per addRow
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void appendRows(List<Object[]> rows) {
+        if (rows.isEmpty()) return;
+        Vector data = tableModel.getDataVector();
+        int first = data.size();
+        for (Object[] row : rows) {
+            data.add(new Vector<>(Arrays.asList(row)));
+        }
+        tableModel.fireTableRowsInserted(first, data.size() - 1);
+    }
+}
@@ -27,7 +27,7 @@ public class BankingAppUI extends JFrame {
 
         // --- DAO & Service Initialization ---
         CustomerDAO customerDAO = new CustomerDAO();
-        AccountDAO accountDAO = new AccountDAO();
+        AccountDAO accountDAO = CachingAccountDAO.shared();
         TransactionDAO transactionDAO = new TransactionDAO();
         LoanDAO loanDAO = new LoanDAO();
         LoanPaymentDAO loanPaymentDAO = new LoanPaymentDAO();
@@ -93,11 +93,22 @@ public class BankingAppUI extends JFrame {
         tabbedPane.addTab("Loan", new LoanPanel(loanService, customerService, BG_DARK, ACCENT_COLOR, TEXT_LIGHT, BORDER_COLOR));
         tabbedPane.addTab("Loan Payment", new LoanPaymentPanel(loanPaymentService, loanService, BG_DARK, ACCENT_COLOR, TEXT_LIGHT, BORDER_COLOR));
 
+        // Each tab loads its data the first time it is shown, so startup doesn't wait on the database
+        tabbedPane.addChangeListener(e -> notifyTabSelected(tabbedPane));
+        notifyTabSelected(tabbedPane);
+
         getContentPane().add(tabbedPane);
         getContentPane().setBackground(BG_DARK);
         // setVisible(true) is now called conditionally in the main method
     }
 
+    private void notifyTabSelected(JTabbedPane tabbedPane) {
+        Component selected = tabbedPane.getSelectedComponent();
+        if (selected instanceof LazyTab) {
+            ((LazyTab) selected).onTabSelected();
+        }
+    }
+
     private JPanel createPlaceholderPanel(String text, Color bg, Color fg) {
         JPanel panel = new JPanel(new GridBagLayout());
         panel.setBackground(bg);
@@ -13,18 +13,22 @@ import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.time.LocalDateTime;
-import java.util.List;
+import java.time.format.DateTimeFormatter;
 import java.util.function.Consumer;
 
 import static ui.BankingAppUI.BG_SECONDARY;
 
-public class CustomerPanel extends JPanel {
+public class CustomerPanel extends JPanel implements LazyTab {
+    private static final DateTimeFormatter CREATED_AT_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
     private final CustomerService customerService;
     private final Color BG_DARK, ACCENT_COLOR, TEXT_LIGHT, BORDER_COLOR;
 
     // Components
     private JTable customerTable;
     private DefaultTableModel tableModel;
+    private AsyncTableLoader<Customer> loader;
+    private boolean loaded;
     private JTextField txtId, txtFullName, txtAddress, txtContact, txtEmail, txtPan;
 
     // New/Refactored Buttons
@@ -56,7 +60,7 @@ public class CustomerPanel extends JPanel {
         add(formSidebar, BorderLayout.WEST);
         add(mainContentPanel, BorderLayout.CENTER);
 
-        loadCustomerData(); // Load data initially
+        // Data is loaded the first time the tab is shown (see onTabSelected)
     }
 
     // --- UI Component Creation ---
@@ -234,6 +238,7 @@ public class CustomerPanel extends JPanel {
 
         customerTable = new JTable(tableModel);
         styleTable(customerTable);
+        loader = new AsyncTableLoader<>(tableModel, this::toRow);
 
         customerTable.getSelectionModel().addListSelectionListener(e -> {
             if (!e.getValueIsAdjusting() && customerTable.getSelectedRow() != -1) {
@@ -247,6 +252,7 @@ public class CustomerPanel extends JPanel {
 
         JPanel panel = new JPanel(new BorderLayout());
         panel.setBackground(BG_DARK);
+        panel.add(loader.getProgressBar(), BorderLayout.NORTH);
         panel.add(scrollPane, BorderLayout.CENTER);
         return panel;
     }
@@ -290,25 +296,33 @@ public class CustomerPanel extends JPanel {
 
     // --- Data and Action Logic (Simplified for the example) ---
 
-    private void loadCustomerData() {
-        tableModel.setRowCount(0);
-        List<Customer> customers = customerService.getAllCustomers();
-        for (Customer customer : customers) {
-            String formattedDateTime = customer.getCreatedAt() != null ?
-                    customer.getCreatedAt().format(java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")) :
-                    "N/A";
-            tableModel.addRow(new Object[]{
-                    customer.getId(),
-                    customer.getFullName(),
-                    customer.getAddress(),
-                    customer.getContactNo(),
-                    customer.getEmail(),
-                    customer.getPanNumber(),
-                    formattedDateTime
-            });
+    @Override
+    public void onTabSelected() {
+        if (!loaded) {
+            loaded = true;
+            loadCustomerData();
         }
     }
 
+    private void loadCustomerData() {
+        loader.load(customerService::getAllCustomers);
+    }
+
+    private Object[] toRow(Customer customer) {
+        String formattedDateTime = customer.getCreatedAt() != null ?
+                customer.getCreatedAt().format(CREATED_AT_FORMAT) :
+                "N/A";
+        return new Object[]{
+                customer.getId(),
+                customer.getFullName(),
+                customer.getAddress(),
+                customer.getContactNo(),
+                customer.getEmail(),
+                customer.getPanNumber(),
+                formattedDateTime
+        };
+    }
+
     private void displaySelectedCustomer(int row) {
         txtId.setText(tableModel.getValueAt(row, 0).toString());
         txtFullName.setText(tableModel.getValueAt(row, 1).toString());
@@ -0,0 +1,11 @@
+package ui;
+
+/**
+ * A tab whose data is loaded the first time it is shown rather than when it is constructed.
+ */
+interface LazyTab {
+    /**
+     * Called on the EDT each time the tab is selected; implementations load on the first call only.
+     */
+    void onTabSelected();
+}
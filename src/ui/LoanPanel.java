@@ -2,6 +2,9 @@ package ui;
 
 import model.Loan;
 import model.Loan.LoanType;
+import model.LoanInterestRunSummary;
+import model.LoanSummary;
+import model.ScheduleRunSummary;
 import service.LoanService;
 import service.CustomerService; // Needed for Customer validation
 import javax.swing.*;
@@ -12,11 +15,10 @@ import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.time.LocalDate;
-import java.util.List;
 import java.util.function.Consumer;
 
 // Define colors locally for compilation if not using static import
-class LoanPanel extends JPanel {
+class LoanPanel extends JPanel implements LazyTab {
     private final LoanService loanService;
     private final CustomerService customerService;
     private final Color BG_DARK, ACCENT_COLOR, TEXT_LIGHT, BORDER_COLOR;
@@ -25,9 +27,12 @@ class LoanPanel extends JPanel {
 
     private JTable loanTable;
     private DefaultTableModel tableModel;
-    private JTextField txtId, txtCustomerId, txtAmount, txtBalance, txtInterestRate;
+    private AsyncTableLoader<LoanSummary> loader;
+    private final AsyncDetailLoader<Loan> detailLoader = new AsyncDetailLoader<>();
+    private boolean loaded;
+    private JTextField txtId, txtCustomerId, txtAmount, txtBalance, txtInterestRate, txtTenure;
     private JComboBox<String> cmbLoanType;
-    private JButton btnApplyInterestSingle, btnApplyInterestAll;
+    private JButton btnApplyInterestSingle, btnApplyInterestAll, btnSchedulesAll;
     private JButton btnAddMain, btnDeleteMain, btnRefresh;
 
     public LoanPanel(LoanService loanService, CustomerService customerService, Color bgDark, Color accent, Color text, Color border) {
@@ -45,8 +50,7 @@ class LoanPanel extends JPanel {
 
         add(createFormSidebar(), BorderLayout.WEST);
         add(createMainContentPanel(), BorderLayout.CENTER);
-
-        loadLoanData();
+        // Data is loaded the first time the tab is shown (see onTabSelected)
     }
 
     // --- UI Component Creation --- (Using helper methods from AccountPanel structure)
@@ -71,6 +75,7 @@ class LoanPanel extends JPanel {
         txtAmount = createTextField(true); // Sanctioned Amount
         txtBalance = createTextField(false); // Read-only current balance
         txtInterestRate = createTextField(true);
+        txtTenure = createTextField(true);
         cmbLoanType = createComboBox(LoanType.values());
 
         JPanel loanFields = new JPanel(new GridBagLayout());
@@ -88,6 +93,7 @@ class LoanPanel extends JPanel {
         loanFields.add(createInputRow("Loan Type:", cmbLoanType), gbc);
         loanFields.add(createInputRow("Sanctioned Amount:", txtAmount), gbc);
         loanFields.add(createInputRow("Interest Rate (%):", txtInterestRate), gbc);
+        loanFields.add(createInputRow("Tenure (Months):", txtTenure), gbc);
         loanFields.add(createInputRow("Outstanding Balance:", txtBalance), gbc);
 
         // Add Apply Interest button for single loan
@@ -200,7 +206,10 @@ class LoanPanel extends JPanel {
         btnRefresh = createStyledButton(" Refresh", this::handleRefreshAction, BG_SECONDARY);
         btnApplyInterestAll = createStyledButton(" Apply Interest (All)", this::handleApplyInterestAllAction, new Color(34, 139, 34));
 
+        btnSchedulesAll = createStyledButton(" Schedules (All)", this::handleRegenerateSchedulesAction, BG_SECONDARY);
+
         buttonGroup.add(btnRefresh);
+        buttonGroup.add(btnSchedulesAll);
         buttonGroup.add(btnApplyInterestAll);
         buttonGroup.add(btnDeleteMain);
         buttonGroup.add(btnAddMain);
@@ -230,7 +239,7 @@ class LoanPanel extends JPanel {
     }
 
     private JPanel createTablePanel() {
-        String[] columnNames = {"ID", "Customer ID", "Type", "Sanctioned Amt", "Interest %", "Balance", "Open Date", "Close Date"};
+        String[] columnNames = {"ID", "Customer ID", "Type", "Balance"};
         tableModel = new DefaultTableModel(columnNames, 0) {
             @Override
             public boolean isCellEditable(int row, int column) {
@@ -240,6 +249,7 @@ class LoanPanel extends JPanel {
 
         loanTable = new JTable(tableModel);
         styleTable(loanTable);
+        loader = new AsyncTableLoader<>(tableModel, this::toRow);
 
         loanTable.getSelectionModel().addListSelectionListener(e -> {
             if (!e.getValueIsAdjusting() && loanTable.getSelectedRow() != -1) {
@@ -253,6 +263,7 @@ class LoanPanel extends JPanel {
 
         JPanel panel = new JPanel(new BorderLayout());
         panel.setBackground(BG_DARK);
+        panel.add(loader.getProgressBar(), BorderLayout.NORTH);
         panel.add(scrollPane, BorderLayout.CENTER);
         return panel;
     }
@@ -272,37 +283,47 @@ class LoanPanel extends JPanel {
 
     // --- Data and Action Logic ---
 
-    private void loadLoanData() {
-        tableModel.setRowCount(0);
-        List<Loan> loans = loanService.getAllLoans();
-        for (Loan loan : loans) {
-            String closeDate = loan.getCloseDate() != null ? loan.getCloseDate().toString() : "N/A";
-            tableModel.addRow(new Object[]{
-                    loan.getId(),
-                    loan.getCustomerId(),
-                    loan.getLoanType(),
-                    String.format("rs.%,.2f", loan.getAmountSanctioned()),
-                    String.format("%.2f%%", loan.getInterestRate()),
-                    String.format("rs.%,.2f", loan.getBalance()),
-                    loan.getOpenDate(),
-                    closeDate
-            });
+    @Override
+    public void onTabSelected() {
+        if (!loaded) {
+            loaded = true;
+            loadLoanData();
         }
     }
 
+    private void loadLoanData() {
+        // The table only shows list views; the full loan is read when a row is selected
+        loader.load(loanService::getLoanSummaries);
+    }
+
+    private Object[] toRow(LoanSummary loan) {
+        return new Object[]{
+                loan.getId(),
+                loan.getCustomerId(),
+                loan.getLoanType(),
+                String.format("rs.%,.2f", loan.getBalance())
+        };
+    }
+
     private void displaySelectedLoan(int row) {
         txtId.setText(tableModel.getValueAt(row, 0).toString());
         txtCustomerId.setText(tableModel.getValueAt(row, 1).toString());
         cmbLoanType.setSelectedItem(tableModel.getValueAt(row, 2).toString());
 
         // Remove formatting for internal display
-        String amountStr = tableModel.getValueAt(row, 3).toString().replace("rs.", "").replace(",", "");
-        String balanceStr = tableModel.getValueAt(row, 5).toString().replace("rs.", "").replace(",", "");
-        String interestStr = tableModel.getValueAt(row, 4).toString().replace("%", "");
-
-        txtAmount.setText(amountStr);
+        String balanceStr = tableModel.getValueAt(row, 3).toString().replace("rs.", "").replace(",", "");
         txtBalance.setText(balanceStr);
-        txtInterestRate.setText(interestStr);
+
+        // Amount, rate and tenure are not in the row; read them in the background
+        int loanId = (Integer) tableModel.getValueAt(row, 0);
+        txtAmount.setText("");
+        txtInterestRate.setText("");
+        txtTenure.setText("");
+        detailLoader.load(() -> loanService.getLoan(loanId), loan -> {
+            txtAmount.setText(loan != null ? String.format("%.2f", loan.getAmountSanctioned()) : "");
+            txtInterestRate.setText(loan != null ? String.format("%.2f", loan.getInterestRate()) : "");
+            txtTenure.setText(loan != null && loan.getTenureMonths() > 0 ? String.valueOf(loan.getTenureMonths()) : "");
+        });
     }
 
     private void handleAddAction(ActionEvent e) {
@@ -310,7 +331,7 @@ class LoanPanel extends JPanel {
             int customerId = Integer.parseInt(txtCustomerId.getText());
             double amount = Double.parseDouble(txtAmount.getText());
 
-            if (customerService.getCustomer(customerId) == null) {
+            if (!customerService.customerExists(customerId)) {
                 JOptionPane.showMessageDialog(this, "Customer ID not found.", "Error", JOptionPane.ERROR_MESSAGE);
                 return;
             }
@@ -321,6 +342,9 @@ class LoanPanel extends JPanel {
             newLoan.setAmountSanctioned(amount);
             double interestRate = Double.parseDouble(txtInterestRate.getText());
             newLoan.setInterestRate(interestRate);
+            // Tenure is optional; loans without one get no repayment schedule
+            String tenure = txtTenure.getText().trim();
+            newLoan.setTenureMonths(tenure.isEmpty() ? 0 : Integer.parseInt(tenure));
             newLoan.setOpenDate(LocalDate.now());
 
             if (loanService.createLoan(newLoan)) {
@@ -331,7 +355,7 @@ class LoanPanel extends JPanel {
                 JOptionPane.showMessageDialog(this, "Failed to sanction loan.", "Error", JOptionPane.ERROR_MESSAGE);
             }
         } catch (NumberFormatException ex) {
-            JOptionPane.showMessageDialog(this, "Invalid number format for Customer ID or Amount.", "Input Error", JOptionPane.ERROR_MESSAGE);
+            JOptionPane.showMessageDialog(this, "Invalid number format for Customer ID, Amount or Tenure.", "Input Error", JOptionPane.ERROR_MESSAGE);
         }
     }
 
@@ -356,10 +380,12 @@ class LoanPanel extends JPanel {
     }
 
     private void handleClearAction(ActionEvent e) {
+        detailLoader.cancel();
         txtId.setText("");
         txtCustomerId.setText("");
         txtAmount.setText("");
         txtBalance.setText("");
+        txtTenure.setText("");
         loanTable.clearSelection();
     }
 
@@ -402,18 +428,48 @@ class LoanPanel extends JPanel {
                 JOptionPane.YES_NO_OPTION);
 
         if (confirm == JOptionPane.YES_OPTION) {
-            if (loanService.applyMonthlyInterestToAllLoans()) {
+            LoanInterestRunSummary summary = loanService.runMonthlyInterest();
+            if (summary != null && summary.isComplete()) {
                 JOptionPane.showMessageDialog(this,
-                        "Interest applied successfully to all loans!",
+                        String.format("Interest of rs.%,.2f applied to %d loans in %d ms.",
+                                summary.getInterestAccrued(), summary.getLoansProcessed(), summary.getElapsedMillis()),
                         "Success",
                         JOptionPane.INFORMATION_MESSAGE);
                 loadLoanData();
             } else {
                 JOptionPane.showMessageDialog(this,
-                        "Failed to apply interest to all loans. Please try again.",
+                        summary == null
+                                ? "Failed to apply interest to all loans. Please try again."
+                                : summary.getFailedPartitions() + " partition(s) failed. Run again to retry only those loans.",
+                        "Error",
+                        JOptionPane.ERROR_MESSAGE);
+                loadLoanData();
+            }
+        }
+    }
+
+    private void handleRegenerateSchedulesAction(ActionEvent e) {
+        int confirm = JOptionPane.showConfirmDialog(this,
+                "Rebuild the repayment schedules of ALL open loans?",
+                "Confirm Schedule Regeneration",
+                JOptionPane.YES_NO_OPTION);
+
+        if (confirm == JOptionPane.YES_OPTION) {
+            ScheduleRunSummary summary = loanService.regenerateSchedules();
+            if (summary != null && summary.getFailedChunks() == 0) {
+                JOptionPane.showMessageDialog(this,
+                        String.format("%,d installments scheduled for %,d loans in %d ms.",
+                                summary.getInstallments(), summary.getLoans(), summary.getElapsedMillis()),
+                        "Success",
+                        JOptionPane.INFORMATION_MESSAGE);
+            } else {
+                JOptionPane.showMessageDialog(this,
+                        summary == null
+                                ? "Failed to rebuild loan schedules. Please try again."
+                                : summary.getFailedChunks() + " chunk(s) failed. Run again to rebuild them.",
                         "Error",
                         JOptionPane.ERROR_MESSAGE);
             }
         }
     }
-}
\ No newline at end of file
+}
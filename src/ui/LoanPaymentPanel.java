@@ -1,7 +1,9 @@
 package ui;
 
+import model.AmortizationSchedule;
 import model.Loan;
 import model.LoanPayment;
+import model.Money;
 import service.LoanPaymentService;
 import service.LoanService;
 import javax.swing.*;
@@ -11,12 +13,12 @@ import javax.swing.border.LineBorder;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.List;
 import java.util.function.Consumer;
 
 // Define colors locally for compilation if not using static import
-class LoanPaymentPanel extends JPanel {
+class LoanPaymentPanel extends JPanel implements LazyTab {
     private final LoanPaymentService paymentService;
     private final LoanService loanService;
     private final Color BG_DARK, ACCENT_COLOR, TEXT_LIGHT, BORDER_COLOR;
@@ -25,8 +27,10 @@ class LoanPaymentPanel extends JPanel {
 
     private JTable paymentTable;
     private DefaultTableModel tableModel;
+    private AsyncTableLoader<LoanPayment> loader;
+    private boolean loaded;
     private JTextField txtLoanId, txtPaymentAmount, txtReceiptNo;
-    private JLabel lblCurrentLoanBalance;
+    private JLabel lblCurrentLoanBalance, lblNextInstallment;
     private JButton btnRecordPayment, btnRefresh;
 
     public LoanPaymentPanel(LoanPaymentService paymentService, LoanService loanService, Color bgDark, Color accent, Color text, Color border) {
@@ -50,7 +54,7 @@ class LoanPaymentPanel extends JPanel {
         splitPane.setBackground(BG_DARK);
 
         add(splitPane, BorderLayout.CENTER);
-        loadPaymentData(0);
+        // Data is loaded the first time the tab is shown (see onTabSelected)
     }
 
     // --- UI Component Creation ---
@@ -71,6 +75,7 @@ class LoanPaymentPanel extends JPanel {
         txtPaymentAmount = createTextField(true);
         txtReceiptNo = createTextField(true);
         lblCurrentLoanBalance = createInfoLabel("N/A");
+        lblNextInstallment = createInfoLabel("N/A");
 
         // Row 0: Loan ID and Check Button
         gbc.gridx = 0; gbc.gridy = 0; form.add(createInputLabel("Loan ID:"), gbc);
@@ -84,17 +89,24 @@ class LoanPaymentPanel extends JPanel {
         gbc.gridx = 1; gbc.gridwidth = 2; form.add(lblCurrentLoanBalance, gbc);
         gbc.gridwidth = 1; gbc.weightx = 0;
 
-        // Row 2: Payment Amount
-        gbc.gridx = 0; gbc.gridy = 2; gbc.weightx = 1.0; gbc.insets = new Insets(5, 20, 5, 20); form.add(createInputLabel("Payment Amount:"), gbc);
+        // Row 2: Next Installment and Schedule Button
+        gbc.gridx = 0; gbc.gridy = 2; gbc.weightx = 1.0; gbc.insets = new Insets(5, 20, 5, 20); form.add(createInputLabel("Next Installment:"), gbc);
+        gbc.gridx = 1; form.add(lblNextInstallment, gbc);
+        JButton btnSchedule = createStyledButton("Schedule", this::handleScheduleAction, BG_SECONDARY.brighter());
+        btnSchedule.setPreferredSize(new Dimension(120, 35));
+        gbc.gridx = 2; gbc.weightx = 0; gbc.insets = new Insets(5, 10, 5, 20); form.add(btnSchedule, gbc);
+
+        // Row 3: Payment Amount
+        gbc.gridx = 0; gbc.gridy = 3; gbc.weightx = 1.0; gbc.insets = new Insets(5, 20, 5, 20); form.add(createInputLabel("Payment Amount:"), gbc);
         gbc.gridx = 1; gbc.gridwidth = 2; form.add(txtPaymentAmount, gbc);
         gbc.gridwidth = 1;
 
-        // Row 3: Receipt No
-        gbc.gridx = 0; gbc.gridy = 3; gbc.weightx = 1.0; form.add(createInputLabel("Receipt No (Optional):"), gbc);
+        // Row 4: Receipt No
+        gbc.gridx = 0; gbc.gridy = 4; gbc.weightx = 1.0; form.add(createInputLabel("Receipt No (Optional):"), gbc);
         gbc.gridx = 1; gbc.gridwidth = 2; form.add(txtReceiptNo, gbc);
         gbc.gridwidth = 1;
 
-        // Row 4: Button
+        // Row 5: Button
         btnRecordPayment = createStyledButton(" Record Payment", this::handleRecordPaymentAction, ACCENT_COLOR);
         JPanel btnPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
         btnPanel.setBackground(FORM_BG_COLOR);
@@ -115,11 +127,13 @@ class LoanPaymentPanel extends JPanel {
 
         paymentTable = new JTable(tableModel);
         styleTable(paymentTable);
+        loader = new AsyncTableLoader<>(tableModel, this::toRow);
 
         JScrollPane scrollPane = new JScrollPane(paymentTable);
         scrollPane.getViewport().setBackground(BG_DARK.darker());
         scrollPane.setBorder(new LineBorder(BORDER_COLOR, 1, true));
 
+        panel.add(loader.getProgressBar(), BorderLayout.NORTH);
         panel.add(scrollPane, BorderLayout.CENTER);
 
         btnRefresh = createStyledButton("⟳ Refresh All Payments", this::handleRefreshAction, BG_SECONDARY.darker());
@@ -207,26 +221,31 @@ class LoanPaymentPanel extends JPanel {
 
     // --- Data and Action Logic ---
 
-    private void loadPaymentData(int loanId) {
-        tableModel.setRowCount(0);
-        List<LoanPayment> payments;
+    @Override
+    public void onTabSelected() {
+        if (!loaded) {
+            loaded = true;
+            loadPaymentData(0);
+        }
+    }
 
+    private void loadPaymentData(int loanId) {
         if (loanId > 0) {
-            payments = paymentService.getPaymentsByLoanId(loanId);
+            loader.load(() -> paymentService.getPaymentsByLoanId(loanId));
         } else {
-            payments = paymentService.getAllLoanPayments();
+            loader.load(paymentService::getAllLoanPayments);
         }
+    }
 
-        for (LoanPayment payment : payments) {
-            tableModel.addRow(new Object[]{
-                    payment.getId(),
-                    payment.getLoanId(),
-                    String.format("rs.%,.2f", payment.getDisbursementAmount()),
-                    String.format("rs.%,.2f", payment.getRemainingBalance()),
-                    payment.getPaymentDate(),
-                    payment.getReceiptNo()
-            });
-        }
+    private Object[] toRow(LoanPayment payment) {
+        return new Object[]{
+                payment.getId(),
+                payment.getLoanId(),
+                String.format("rs.%,.2f", payment.getDisbursementAmount()),
+                String.format("rs.%,.2f", payment.getRemainingBalance()),
+                payment.getPaymentDate(),
+                payment.getReceiptNo()
+        };
     }
 
     private void handleCheckLoanAction(ActionEvent e) {
@@ -236,9 +255,11 @@ class LoanPaymentPanel extends JPanel {
 
             if (loan != null) {
                 lblCurrentLoanBalance.setText(String.format("rs.%,.2f", loan.getBalance()));
+                lblNextInstallment.setText(describeNextInstallment(loanService.getSchedule(loanId)));
                 loadPaymentData(loanId); // Load payment history for this loan
             } else {
                 lblCurrentLoanBalance.setText("LOAN NOT FOUND");
+                lblNextInstallment.setText("N/A");
                 JOptionPane.showMessageDialog(this, "Loan ID not found.", "Error", JOptionPane.ERROR_MESSAGE);
             }
         } catch (NumberFormatException ex) {
@@ -280,6 +301,55 @@ class LoanPaymentPanel extends JPanel {
     private void handleRefreshAction(ActionEvent e) {
         loadPaymentData(0);
         lblCurrentLoanBalance.setText("N/A");
+        lblNextInstallment.setText("N/A");
         txtLoanId.setText("");
     }
-}
\ No newline at end of file
+
+    private String describeNextInstallment(AmortizationSchedule schedule) {
+        if (schedule == null) return "NO SCHEDULE (tenure not set)";
+        int next = schedule.getNextInstallment(LocalDate.now());
+        if (next < 0) return "SCHEDULE COMPLETE";
+        return String.format("#%d of %d: rs.%,.2f due %s", next + 1, schedule.getInstallments(),
+                Money.toMajor(schedule.getPaymentMinor(next)), schedule.getDueDate(next));
+    }
+
+    private void handleScheduleAction(ActionEvent e) {
+        try {
+            int loanId = Integer.parseInt(txtLoanId.getText());
+            AmortizationSchedule schedule = loanService.getSchedule(loanId);
+            if (schedule == null) {
+                JOptionPane.showMessageDialog(this, "No repayment schedule for this loan. Check the loan ID and its tenure.", "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+
+            String[] columnNames = {"#", "Due Date", "Payment", "Principal", "Interest", "Balance"};
+            DefaultTableModel model = new DefaultTableModel(columnNames, 0) {
+                @Override
+                public boolean isCellEditable(int row, int column) {
+                    return false;
+                }
+            };
+            for (int i = 0; i < schedule.getInstallments(); i++) {
+                model.addRow(new Object[]{
+                        i + 1,
+                        schedule.getDueDate(i),
+                        String.format("rs.%,.2f", Money.toMajor(schedule.getPaymentMinor(i))),
+                        String.format("rs.%,.2f", Money.toMajor(schedule.getPrincipalMinor(i))),
+                        String.format("rs.%,.2f", Money.toMajor(schedule.getInterestMinor(i))),
+                        String.format("rs.%,.2f", Money.toMajor(schedule.getBalanceMinor(i)))
+                });
+            }
+            JTable table = new JTable(model);
+            styleTable(table);
+            JScrollPane scrollPane = new JScrollPane(table);
+            scrollPane.setPreferredSize(new Dimension(700, 400));
+
+            JOptionPane.showMessageDialog(this, scrollPane,
+                    String.format("Loan %d: EMI rs.%,.2f, total interest rs.%,.2f", loanId, schedule.getEmi(),
+                            Money.toMajor(schedule.getTotalInterestMinor())),
+                    JOptionPane.PLAIN_MESSAGE);
+        } catch (NumberFormatException ex) {
+            JOptionPane.showMessageDialog(this, "Invalid Loan ID format.", "Input Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+}
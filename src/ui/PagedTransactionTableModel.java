@@ -0,0 +1,214 @@
+package ui;
+
+import db.QueryCanceller;
+import model.Transaction;
+import model.TransactionSearch;
+import service.TransactionService;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+/**
+ * Virtual table model for the transaction history. It only knows the row count up front and fetches
+ * pages of rows in the background as the table asks for them, keeping a bounded LRU of loaded pages.
+ * Rows that are not loaded yet render as a placeholder and are repainted when their page arrives.
+ * Filtering, sorting and paging all happen in the database (TransactionService.searchTransactions).
+ * A new search cancels the query still running for the previous one.
+ *
+ * At most MAX_QUEUED_LOADS page reads wait for the loader thread. When scrolling outruns it, the
+ * oldest waiting read (for a page that has most likely scrolled out of view) is dropped, and the page
+ * is requested again if the table asks for it later.
+ *
+ * All public methods are called on the EDT.
+ */
+class PagedTransactionTableModel extends AbstractTableModel {
+    static final String LOADING = "…";
+
+    private static final String[] COLUMN_NAMES = {"ID", "Account ID", "Type", "Amount", "Date", "Narration"};
+    private static final int PAGE_SIZE = 200;
+    private static final int PREFETCH_PAGES = 1;
+    private static final int MAX_CACHED_PAGES = 50;
+    private static final int MAX_QUEUED_LOADS = 2 * PREFETCH_PAGES + 5;
+
+    private final TransactionService transactionService;
+    private final ThreadPoolExecutor loader = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(MAX_QUEUED_LOADS), r -> {
+        Thread t = new Thread(r, "transaction-page-loader");
+        t.setDaemon(true);
+        return t;
+    }, this::dropOldestLoad);
+
+    // Least recently used page is evicted first
+    private final LinkedHashMap<Integer, List<Transaction>> pages = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<Transaction>> eldest) {
+            return size() > MAX_CACHED_PAGES;
+        }
+    };
+    // Last row on each page seen so far, so the next page can be read with a keyset query
+    private final Map<Integer, Transaction> lastRowOfPage = new HashMap<>();
+    private final Set<Integer> pending = new HashSet<>();
+
+    private TransactionSearch search = new TransactionSearch();
+    private QueryCanceller canceller = new QueryCanceller();
+    private int rowCount;
+    private volatile int generation; // bumped on every reload so late pages from an old search are dropped
+
+    PagedTransactionTableModel(TransactionService transactionService) {
+        this.transactionService = transactionService;
+    }
+
+    TransactionSearch getSearch() {
+        return search;
+    }
+
+    /**
+     * Switch to another search and reload the row count in the background. The search must not be
+     * changed afterwards; build a new one for the next reload.
+     * @param onCounted optional callback run on the EDT with the number of matches
+     */
+    void reload(TransactionSearch search, IntConsumer onCounted) {
+        this.search = search;
+        final int gen = ++generation;
+        canceller.cancel(); // the old search's query, if one is still running
+        final QueryCanceller current = canceller = new QueryCanceller();
+        pages.clear();
+        lastRowOfPage.clear();
+        pending.clear();
+        rowCount = 0;
+        fireTableDataChanged();
+
+        loader.execute(() -> {
+            if (gen != generation) return; // superseded while queued
+            int count = transactionService.countTransactions(search, current);
+            SwingUtilities.invokeLater(() -> {
+                if (gen != generation) return;
+                rowCount = count;
+                fireTableDataChanged();
+                if (onCounted != null) onCounted.accept(count);
+            });
+        });
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMN_NAMES.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMN_NAMES[column];
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        int page = row / PAGE_SIZE;
+        List<Transaction> rows = pages.get(page);
+        if (rows == null) {
+            requestPage(page);
+            return LOADING;
+        }
+        // Prefetch around the visible page so steady scrolling rarely shows placeholders
+        for (int p = page - PREFETCH_PAGES; p <= page + PREFETCH_PAGES; p++) {
+            if (p != page) requestPage(p);
+        }
+
+        int index = row % PAGE_SIZE;
+        if (index >= rows.size()) return LOADING; // table grew since the page was read
+        Transaction transaction = rows.get(index);
+        switch (column) {
+            case 0: return transaction.getId();
+            case 1: return transaction.getAccountId();
+            case 2: return transaction.getTransactionType().name();
+            case 3: return transaction.getAmount(); // Double for the custom renderer to format
+            case 4: return transaction.getDate();
+            case 5: return transaction.getNarration();
+            default: return null;
+        }
+    }
+
+    private void requestPage(int page) {
+        if (page < 0 || page * PAGE_SIZE >= rowCount) return;
+        if (pages.containsKey(page) || !pending.add(page)) return;
+
+        final int gen = generation;
+        final TransactionSearch current = search;
+        final QueryCanceller cancel = canceller;
+        // Keyset read when the previous page's last row is known (and has a value to seek from),
+        // otherwise fall back to OFFSET
+        Transaction last = lastRowOfPage.get(page - 1);
+        final Transaction after = last != null
+                && (current.getSortField() != TransactionSearch.SortField.DATE || last.getDate() != null) ? last : null;
+
+        loader.execute(new PageLoad(gen, page, () -> {
+            if (gen != generation) return; // stale: search changed while queued
+            List<Transaction> rows = after != null
+                    ? transactionService.searchTransactionsAfter(current, after, PAGE_SIZE, cancel)
+                    : transactionService.searchTransactions(current, page * PAGE_SIZE, PAGE_SIZE, cancel);
+            SwingUtilities.invokeLater(() -> pageLoaded(gen, page, rows));
+        }));
+    }
+
+    // The queue is full (runs on the EDT, which does all the submitting): drop the oldest waiting read
+    private void dropOldestLoad(Runnable newer, ThreadPoolExecutor executor) {
+        if (executor.isShutdown()) return;
+        Runnable oldest = executor.getQueue().poll();
+        if (oldest instanceof PageLoad) {
+            PageLoad dropped = (PageLoad) oldest;
+            if (dropped.gen == generation) pending.remove(dropped.page);
+        }
+        executor.execute(newer);
+    }
+
+    // rows is null if the read failed: nothing is cached, so the page is read again when next shown
+    private void pageLoaded(int gen, int page, List<Transaction> rows) {
+        if (gen != generation) return;
+        pending.remove(page);
+        if (rows == null) return;
+        pages.put(page, rows);
+        if (!rows.isEmpty()) {
+            lastRowOfPage.put(page, rows.get(rows.size() - 1));
+        }
+        int first = page * PAGE_SIZE;
+        int last = Math.min(rowCount, first + PAGE_SIZE) - 1;
+        if (last >= first) fireTableRowsUpdated(first, last);
+    }
+
+    // A queued page read, tagged so a dropped one can be requested again
+    private static class PageLoad implements Runnable {
+        final int gen;
+        final int page;
+        private final Runnable read;
+
+        PageLoad(int gen, int page, Runnable read) {
+            this.gen = gen;
+            this.page = page;
+            this.read = read;
+        }
+
+        @Override
+        public void run() {
+            read.run();
+        }
+    }
+}
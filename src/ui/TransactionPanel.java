@@ -1,27 +1,42 @@
 package ui;
 
+import model.Money;
 import model.Transaction;
+import model.TransactionSearch;
 import service.TransactionService;
 import javax.swing.*;
 import javax.swing.border.Border;
 import javax.swing.border.EmptyBorder;
 import javax.swing.border.LineBorder;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.table.DefaultTableCellRenderer;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
-import java.util.List;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.function.Consumer;
 
 // Define colors locally (or use static imports from BankingAppUI)
-class TransactionPanel extends JPanel {
+class TransactionPanel extends JPanel implements LazyTab {
     private final TransactionService transactionService;
     private final Color BG_DARK, ACCENT_COLOR, TEXT_LIGHT, BORDER_COLOR;
     private final Color BG_SECONDARY = new Color(52, 73, 94);
 
+    // Typing pauses this long before the search runs, so a burst of keystrokes costs one query
+    private static final int SEARCH_DELAY_MS = 300;
+
     private JTable transactionTable;
-    private DefaultTableModel tableModel;
-    private JTextField txtAccountIdFilter;
+    private PagedTransactionTableModel tableModel;
+    private JTextField txtAccountIdFilter, txtFromDate, txtToDate, txtMinAmount, txtMaxAmount, txtNarration;
+    private JComboBox<Object> cmbType;
+    private JLabel lblStatus;
+    private final Timer searchTimer = new Timer(SEARCH_DELAY_MS, e -> runSearch());
+    private TransactionSearch.SortField sortField = TransactionSearch.SortField.ID;
+    private boolean sortDescending;
+    private boolean loaded;
 
     public TransactionPanel(TransactionService transactionService, Color bgDark, Color accent, Color text, Color border) {
         this.transactionService = transactionService;
@@ -30,6 +45,8 @@ class TransactionPanel extends JPanel {
         this.TEXT_LIGHT = text;
         this.BORDER_COLOR = border;
 
+        searchTimer.setRepeats(false);
+
         setLayout(new BorderLayout(0, 0));
         setBackground(BG_DARK);
         setBorder(new EmptyBorder(15, 15, 15, 15));
@@ -38,7 +55,15 @@ class TransactionPanel extends JPanel {
         add(createToolbarPanel(), BorderLayout.NORTH);
         add(createTablePanel(), BorderLayout.CENTER);
 
-        loadTransactionData(0); // Load all transactions initially (0 means no filter)
+        // Data is loaded the first time the tab is shown (see onTabSelected)
+    }
+
+    @Override
+    public void onTabSelected() {
+        if (!loaded) {
+            loaded = true;
+            runSearch(); // No filters set: all transactions
+        }
     }
 
     // --- UI Component Creation ---
@@ -54,29 +79,77 @@ class TransactionPanel extends JPanel {
         titleLabel.setForeground(TEXT_LIGHT);
         panel.add(titleLabel, BorderLayout.WEST);
 
-        // Right Side: Filter and Refresh
+        // Right Side: match count and Clear
         JPanel buttonGroup = new JPanel(new FlowLayout(FlowLayout.RIGHT, 10, 0));
         buttonGroup.setBackground(BG_DARK);
 
-        txtAccountIdFilter = createTextField(true, 10);
-        txtAccountIdFilter.setPreferredSize(new Dimension(100, 35));
-
-        JLabel filterLabel = new JLabel("Filter by Account ID:");
-        filterLabel.setForeground(TEXT_LIGHT);
-        filterLabel.setFont(new Font("Segoe UI", Font.PLAIN, 14));
-
-        JButton btnFilter = createStyledButton(" Filter", this::handleFilterAction, BG_SECONDARY);
+        lblStatus = createLabel("");
         JButton btnRefresh = createStyledButton(" All", this::handleRefreshAction, BG_SECONDARY);
 
-        buttonGroup.add(filterLabel);
-        buttonGroup.add(txtAccountIdFilter);
-        buttonGroup.add(btnFilter);
+        buttonGroup.add(lblStatus);
         buttonGroup.add(btnRefresh);
-
         panel.add(buttonGroup, BorderLayout.EAST);
+
+        // Second row: the filters. Every change re-runs the search after a short pause; Enter runs it now.
+        JPanel filters = new JPanel(new FlowLayout(FlowLayout.LEFT, 8, 0));
+        filters.setBackground(BG_DARK);
+        filters.setBorder(new EmptyBorder(12, 0, 0, 0));
+
+        txtAccountIdFilter = createFilterField(6);
+        txtFromDate = createFilterField(8);
+        txtToDate = createFilterField(8);
+        txtMinAmount = createFilterField(7);
+        txtMaxAmount = createFilterField(7);
+        txtNarration = createFilterField(12);
+        txtFromDate.setToolTipText("yyyy-mm-dd");
+        txtToDate.setToolTipText("yyyy-mm-dd");
+        txtNarration.setToolTipText("Narration starts with");
+
+        cmbType = new JComboBox<>();
+        cmbType.addItem("Any");
+        for (Transaction.TransactionType type : Transaction.TransactionType.values()) cmbType.addItem(type);
+        cmbType.addActionListener(e -> searchTimer.restart());
+
+        filters.add(createLabel("Account ID:"));
+        filters.add(txtAccountIdFilter);
+        filters.add(createLabel("From:"));
+        filters.add(txtFromDate);
+        filters.add(createLabel("To:"));
+        filters.add(txtToDate);
+        filters.add(createLabel("Type:"));
+        filters.add(cmbType);
+        filters.add(createLabel("Amount:"));
+        filters.add(txtMinAmount);
+        filters.add(createLabel("to"));
+        filters.add(txtMaxAmount);
+        filters.add(createLabel("Narration:"));
+        filters.add(txtNarration);
+
+        panel.add(filters, BorderLayout.SOUTH);
         return panel;
     }
 
+    private JLabel createLabel(String text) {
+        JLabel label = new JLabel(text);
+        label.setForeground(TEXT_LIGHT);
+        label.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        return label;
+    }
+
+    private JTextField createFilterField(int columns) {
+        JTextField tf = createTextField(true, columns);
+        tf.getDocument().addDocumentListener(new DocumentListener() {
+            @Override public void insertUpdate(DocumentEvent e) { searchTimer.restart(); }
+            @Override public void removeUpdate(DocumentEvent e) { searchTimer.restart(); }
+            @Override public void changedUpdate(DocumentEvent e) { searchTimer.restart(); }
+        });
+        tf.addActionListener(e -> {
+            searchTimer.stop();
+            runSearch();
+        });
+        return tf;
+    }
+
     private JTextField createTextField(boolean editable, int columns) {
         JTextField tf = new JTextField(columns);
         tf.setEditable(editable);
@@ -111,17 +184,27 @@ class TransactionPanel extends JPanel {
     }
 
     private JPanel createTablePanel() {
-        String[] columnNames = {"ID", "Account ID", "Type", "Amount", "Date", "Narration"};
-        tableModel = new DefaultTableModel(columnNames, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        tableModel = new PagedTransactionTableModel(transactionService);
 
         transactionTable = new JTable(tableModel);
         styleTable(transactionTable);
 
+        // Sorting happens in the database: a header click sorts by ID, Amount or Date, a second click reverses
+        transactionTable.getTableHeader().addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int column = transactionTable.convertColumnIndexToModel(transactionTable.columnAtPoint(e.getPoint()));
+                TransactionSearch.SortField field = column == 0 ? TransactionSearch.SortField.ID
+                        : column == 3 ? TransactionSearch.SortField.AMOUNT
+                        : column == 4 ? TransactionSearch.SortField.DATE : null;
+                if (field == null) return;
+                sortDescending = field == sortField && !sortDescending;
+                sortField = field;
+                searchTimer.stop();
+                runSearch();
+            }
+        });
+
         JScrollPane scrollPane = new JScrollPane(transactionTable);
         scrollPane.getViewport().setBackground(BG_DARK.darker());
         scrollPane.setBorder(new LineBorder(BORDER_COLOR, 1, true));
@@ -140,24 +223,24 @@ class TransactionPanel extends JPanel {
         table.setGridColor(BORDER_COLOR.darker());
         table.setRowHeight(35);
 
-        // Custom Cell Renderer for Amount coloring (Green for DEPOSIT, Red for WITHDRAWAL)
+        // Custom Cell Renderer for Amount coloring (Green for money in, Red for money out)
         DefaultTableCellRenderer renderer = new DefaultTableCellRenderer() {
             @Override
             public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected, boolean hasFocus, int row, int column) {
                 Component c = super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
 
-                String type = table.getValueAt(row, 2).toString();
+                String type = String.valueOf(table.getValueAt(row, 2));
 
-                if (column == 3) { // Amount column
-                    if ("DEPOSIT".equals(type)) {
+                if (column == 3 && value instanceof Double) { // Amount column (placeholder while the page loads)
+                    if ("DEPOSIT".equals(type) || "TRANSFER_IN".equals(type)) {
                         c.setForeground(new Color(46, 204, 113)); // Bright Green
-                    } else if ("WITHDRAWAL".equals(type)) {
+                    } else if ("WITHDRAWAL".equals(type) || "TRANSFER_OUT".equals(type)) {
                         c.setForeground(new Color(231, 76, 60)); // Red
                     } else {
                         c.setForeground(TEXT_LIGHT);
                     }
                     setHorizontalAlignment(JLabel.RIGHT);
-                    // Value is already a Double from loadTransactionData, so formatting is safe.
+                    // Value is a Double from PagedTransactionTableModel, so formatting is safe.
                     setValue(String.format("rs.%,.2f", (Double) value));
                 } else {
                     c.setForeground(TEXT_LIGHT);
@@ -187,44 +270,49 @@ class TransactionPanel extends JPanel {
 
     // --- Data and Action Logic ---
 
-    private void loadTransactionData(int accountId) {
-        tableModel.setRowCount(0);
-        List<Transaction> transactions;
-
-        if (accountId > 0) {
-            transactions = transactionService.getTransactionsByAccountId(accountId);
-        } else {
-            transactions = transactionService.getAllTransactions();
-        }
-
-        for (Transaction transaction : transactions) {
-            tableModel.addRow(new Object[]{
-                    transaction.getId(),
-                    transaction.getAccountId(),
-                    transaction.getTransactionType().name(),
-                    transaction.getAmount(), // Pass as Double for the custom renderer to format
-                    transaction.getDate(),
-                    transaction.getNarration()
-            });
-        }
+    // Rows are fetched page by page in the background as they scroll into view. Starting a search
+    // cancels the query of the previous one if it is still running.
+    private void runSearch() {
+        TransactionSearch search = buildSearch();
+        if (search == null) return; // lblStatus says which field is wrong
+        lblStatus.setText("Searching…");
+        transactionTable.scrollRectToVisible(new Rectangle(0, 0, 1, 1));
+        tableModel.reload(search, count -> lblStatus.setText(String.format("%,d transactions", count)));
     }
 
-    private void handleFilterAction(ActionEvent e) {
+    // The filters as typed, or null (with the reason in lblStatus) while one of them cannot be parsed
+    private TransactionSearch buildSearch() {
+        TransactionSearch search = new TransactionSearch();
+        search.setSortField(sortField);
+        search.setDescending(sortDescending);
+        JTextField field = null;
         try {
-            String filterText = txtAccountIdFilter.getText().trim();
-            if (filterText.isEmpty()) {
-                loadTransactionData(0);
-                return;
-            }
-            int accountId = Integer.parseInt(filterText);
-            loadTransactionData(accountId);
-        } catch (NumberFormatException ex) {
-            JOptionPane.showMessageDialog(this, "Invalid Account ID format. Please enter a number.", "Input Error", JOptionPane.ERROR_MESSAGE);
+            field = txtAccountIdFilter;
+            if (!field.getText().isBlank()) search.setAccountId(Integer.parseInt(field.getText().trim()));
+            field = txtFromDate;
+            if (!field.getText().isBlank()) search.setFromDate(LocalDate.parse(field.getText().trim()));
+            field = txtToDate;
+            if (!field.getText().isBlank()) search.setToDate(LocalDate.parse(field.getText().trim()));
+            field = txtMinAmount;
+            if (!field.getText().isBlank()) search.setMinAmountMinor(Money.parse(field.getText()));
+            field = txtMaxAmount;
+            if (!field.getText().isBlank()) search.setMaxAmountMinor(Money.parse(field.getText()));
+        } catch (NumberFormatException | ArithmeticException | DateTimeParseException ex) {
+            lblStatus.setText(field == txtFromDate || field == txtToDate ? "Dates are yyyy-mm-dd" : "Not a number: " + field.getText().trim());
+            return null;
         }
+        Object type = cmbType.getSelectedItem();
+        if (type instanceof Transaction.TransactionType) search.setType((Transaction.TransactionType) type);
+        search.setNarrationPrefix(txtNarration.getText().trim());
+        return search;
     }
 
     private void handleRefreshAction(ActionEvent e) {
-        txtAccountIdFilter.setText("");
-        loadTransactionData(0);
+        for (JTextField tf : new JTextField[]{txtAccountIdFilter, txtFromDate, txtToDate, txtMinAmount, txtMaxAmount, txtNarration}) {
+            tf.setText("");
+        }
+        cmbType.setSelectedIndex(0);
+        searchTimer.stop();
+        runSearch();
     }
 }
\ No newline at end of file